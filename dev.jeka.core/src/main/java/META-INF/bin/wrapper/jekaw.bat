@@ -10,6 +10,27 @@ if not "%JEKA_JDK%" == "" set "JAVA_HOME=%JEKA_JDK%"
 if "%JAVA_HOME%" == "" set "JAVA_CMD=java"
 if not "%JAVA_HOME%" == "" set "JAVA_CMD=%JAVA_HOME%\bin\java"
 
+@rem Class data sharing : set JEKA_CDS to any value to start faster (JDK 19+ only).
+@rem The archive is regenerated automatically by the JVM when jars change.
+if "%JEKA_CDS%" == "" goto endCds
+if not exist "%JAVA_HOME%\release" goto endCds
+set "CDS_JAVA_VERSION="
+set "CDS_JAVA_MAJOR="
+for /f "tokens=2 delims==" %%v in ('findstr /b /c:"JAVA_VERSION=" "%JAVA_HOME%\release"') do set "CDS_JAVA_VERSION=%%~v"
+for /f "tokens=1 delims=." %%m in ("%CDS_JAVA_VERSION%") do set "CDS_JAVA_MAJOR=%%m"
+if "%CDS_JAVA_MAJOR%" == "" goto endCds
+if %CDS_JAVA_MAJOR% LSS 19 goto endCds
+if "%JEKA_USER_HOME%" == "" (set "CDS_DIR=%USERPROFILE%\.jeka\cache\cds") else (set "CDS_DIR=%JEKA_USER_HOME%\cache\cds")
+if not exist "%CDS_DIR%" mkdir "%CDS_DIR%"
+@rem Archive is named after a hash of the JDK and class path, as in the shell script
+set "CDS_KEY_FILE=%CDS_DIR%\key-%RANDOM%%RANDOM%.tmp"
+echo %JAVA_CMD%^|%~dp0> "%CDS_KEY_FILE%"
+set "CDS_KEY="
+for /f "skip=1 delims=" %%h in ('certutil -hashfile "%CDS_KEY_FILE%" MD5') do if not defined CDS_KEY set "CDS_KEY=%%h"
+del "%CDS_KEY_FILE%"
+set "CDS_KEY=%CDS_KEY: =%"
+set "JEKA_OPTS=%JEKA_OPTS% -XX:SharedArchiveFile=%CDS_DIR%\jeka-%CDS_KEY%.jsa -XX:+AutoCreateSharedArchive -Xlog:cds*=off"
+:endCds
 set "COMMAND="%JAVA_CMD%" %JEKA_OPTS% -cp "%~dp0jeka\wrapper\*" dev.jeka.core.wrapper.Booter "%~dp0." %*"
 if not "%JEKA_ECHO_CMD%" == "" (
 	@echo on
@@ -313,6 +313,9 @@ class ComparableVersion implements Comparable<ComparableVersion> {
 
         private final String value;
 
+        // comparableQualifier(value), computed once as items are compared many times
+        private final String comparable;
+
         StringItem(String value, boolean followedByDigit) {
             if (followedByDigit && value.length() == 1) {
                 // a1 = alpha-1, b1 = beta-1, m1 = milestone-1
@@ -330,6 +333,7 @@ class ComparableVersion implements Comparable<ComparableVersion> {
                 }
             }
             this.value = ALIASES.getProperty(value, value);
+            this.comparable = comparableQualifier(this.value);
         }
 
         @Override
@@ -339,7 +343,7 @@ class ComparableVersion implements Comparable<ComparableVersion> {
 
         @Override
         public boolean isNull() {
-            return (comparableQualifier(value).compareTo(RELEASE_VERSION_INDEX) == 0);
+            return (comparable.compareTo(RELEASE_VERSION_INDEX) == 0);
         }
 
         /**
@@ -365,7 +369,7 @@ class ComparableVersion implements Comparable<ComparableVersion> {
         public int compareTo(Item item) {
             if (item == null) {
                 // 1-rc < 1, 1-ga > 1
-                return comparableQualifier(value).compareTo(RELEASE_VERSION_INDEX);
+                return comparable.compareTo(RELEASE_VERSION_INDEX);
             }
             switch (item.getType()) {
                 case INT_ITEM:
@@ -374,7 +378,7 @@ class ComparableVersion implements Comparable<ComparableVersion> {
                     return -1; // 1.any < 1.1 ?
 
                 case STRING_ITEM:
-                    return comparableQualifier(value).compareTo(comparableQualifier(((StringItem) item).value));
+                    return comparable.compareTo(((StringItem) item).comparable);
 
                 case LIST_ITEM:
                     return -1; // 1.any < 1-1
@@ -0,0 +1,63 @@
+package dev.jeka.core.api.depmanagement;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/*
+ * Canonical map of immutable instances. Instances are held weakly so the ones not referenced anymore are
+ * garbage collected, their entry being removed on a later registration. Lookups of registered instances
+ * do not lock.
+ */
+final class Interner<K, T> {
+
+    private final Map<K, InstanceReference<K, T>> instances = new ConcurrentHashMap<>();
+
+    private final ReferenceQueue<T> collectedInstances = new ReferenceQueue<>();
+
+    /**
+     * Returns the instance registered for the specified key, creating it if none exists yet.
+     */
+    T intern(K key, Function<K, T> factory) {
+        InstanceReference<K, T> reference = instances.get(key);
+        T existing = reference == null ? null : reference.get();
+        if (existing != null) {
+            return existing;
+        }
+        removeCollectedInstances();
+        T candidate = factory.apply(key);
+        while (true) {
+            reference = instances.putIfAbsent(key, new InstanceReference<>(key, candidate, collectedInstances));
+            if (reference == null) {
+                return candidate;
+            }
+            existing = reference.get();
+            if (existing != null) {
+                return existing;
+            }
+            instances.remove(key, reference);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void removeCollectedInstances() {
+        InstanceReference<K, T> reference;
+        while ((reference = (InstanceReference<K, T>) collectedInstances.poll()) != null) {
+            instances.remove(reference.key, reference);
+        }
+    }
+
+    private static final class InstanceReference<K, T> extends WeakReference<T> {
+
+        private final K key;
+
+        InstanceReference(K key, T instance, ReferenceQueue<T> queue) {
+            super(instance, queue);
+            this.key = key;
+        }
+
+    }
+
+}
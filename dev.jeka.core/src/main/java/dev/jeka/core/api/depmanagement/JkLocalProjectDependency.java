@@ -7,7 +7,7 @@ import java.util.stream.Collectors;
 
 
 /*
- * A dependency on a jar produced locally along its dependencies for consumers.
+ * A dependency on a jar or a class directory produced locally along its dependencies for consumers.
  */
 public class JkLocalProjectDependency extends JkComputedDependency
         implements JkFileDependency.JkTransitivityDependency {
@@ -37,8 +37,8 @@ public class JkLocalProjectDependency extends JkComputedDependency
     /**
      * Constructs a {@link JkLocalProjectDependency} from an artifact producer and the artifact file id
      * one is interested on.
-     * @param producer The runnable producing the jar file.
-     * @param file The jar file
+     * @param producer The runnable producing the jar file or the class directory.
+     * @param file The jar file or the class directory
      * @param basedir The base directory of the project producing the jar file. Optional (IDE support)
      * @param dependencies The dependencies that will be consumed by the depender. It's not the
      *                     the dependencies needed to compile the jar but the ones that would be
@@ -18,13 +18,15 @@ public final class JkModuleId {
      */
     public final static Comparator<JkModuleId> GROUP_NAME_COMPARATOR = new GroupAndNameComparator();
 
+    private static final Interner<JkModuleId, JkModuleId> INTERNER = new Interner<>();
+
     /**
      * Creates a project id according the specified group and name.
      */
     public static JkModuleId of(String group, String name) {
         JkUtilsAssert.argument(!JkUtilsString.isBlank(group), "Module group can't be empty");
         JkUtilsAssert.argument(!JkUtilsString.isBlank(name), "Module name can't be empty");
-        return new JkModuleId(group, name);
+        return INTERNER.intern(new JkModuleId(group, name), moduleId -> moduleId);
     }
 
     /**
@@ -53,10 +55,13 @@ public final class JkModuleId {
 
     private final String name;
 
+    private final int hash;
+
     private JkModuleId(String group, String name) {
         super();
         this.group = group;
         this.name = name;
+        this.hash = 31 * group.hashCode() + name.hashCode();
     }
 
     /**
@@ -112,11 +117,7 @@ public final class JkModuleId {
 
     @Override
     public int hashCode() {
-        final int prime = 31;
-        int result = 1;
-        result = prime * result + ((group == null) ? 0 : group.hashCode());
-        result = prime * result + ((name == null) ? 0 : name.hashCode());
-        return result;
+        return hash;
     }
 
     @Override
@@ -131,16 +132,7 @@ public final class JkModuleId {
             return false;
         }
         final JkModuleId other = (JkModuleId) obj;
-        if (group == null) {
-            if (other.group != null) {
-                return false;
-            }
-        } else if (!group.equals(other.group)) {
-            return false;
-        }
-        if (name == null) {
-            return other.name == null;
-        } else return name.equals(other.name);
+        return hash == other.hash && group.equals(other.group) && name.equals(other.name);
     }
 
     @Override
@@ -9,6 +9,7 @@ import java.io.File;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.*;
 import java.util.function.Predicate;
 import java.util.function.UnaryOperator;
@@ -55,6 +56,8 @@ public final class JkRepo {
 
     private JkPublishConfig publishConfig = new JkPublishConfig(this);
 
+    private Duration metadataTtl = Duration.ZERO;
+
     public final boolean ivyRepo; // true if this reposotory is an Ivy one, false if it is a Maven one.
 
     private JkRepo(URL url, boolean ivyRepo) {
@@ -191,6 +194,27 @@ public final class JkRepo {
         return this.setCredentials(username, password, null);
     }
 
+    /**
+     * Returns the delay during which metadata of snapshot and dynamic versions fetched from this repository
+     * are considered up to date.
+     */
+    public Duration getMetadataTtl() {
+        return metadataTtl;
+    }
+
+    /**
+     * Sets the delay during which metadata of snapshot and dynamic versions fetched from this repository are
+     * considered up to date, so resolutions within this delay do not ask the repository again. For example
+     * <code>Duration.ofMinutes(10)</code> means that snapshots are checked at most every 10 minutes.
+     * {@link Duration#ZERO} (default) means that metadata are checked at each resolution.
+     */
+    public JkRepo setMetadataTtl(Duration metadataTtl) {
+        JkUtilsAssert.argument(metadataTtl != null && !metadataTtl.isNegative(),
+                "Metadata ttl must be positive or zero.");
+        this.metadataTtl = metadataTtl;
+        return this;
+    }
+
     public JkRepoSet toSet() {
         return JkRepoSet.of(this);
     }
@@ -210,6 +234,7 @@ public final class JkRepo {
     public JkRepo copy() {
         JkRepo result = new JkRepo(url, ivyRepo);
         result.credentials = credentials;
+        result.metadataTtl = metadataTtl;
         result.ivyConfig = ivyConfig.copy(result);
         result.publishConfig = publishConfig.copy(result);
         return result;
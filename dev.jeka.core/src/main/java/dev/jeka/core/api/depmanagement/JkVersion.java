@@ -6,16 +6,23 @@ import dev.jeka.core.api.utils.JkUtilsString;
 import java.util.Comparator;
 
 /**
- * Used to specify a module version. Versions are comparable.
+ * Used to specify a module version. Versions are comparable. Instances are interned so equal versions share
+ * a same instance and parse their value only once for comparisons.
  *
  * @author Jerome Angibaud
  */
 public final class JkVersion implements Comparable<JkVersion> {
 
+    private static final Interner<String, JkVersion> INTERNER = new Interner<>();
+
     /** Mention that the version is unspecified */
-    public static final JkVersion UNSPECIFIED = new JkVersion("UNSPECIFIED-SNAPSHOT");
+    public static final JkVersion UNSPECIFIED = INTERNER.intern("UNSPECIFIED-SNAPSHOT", JkVersion::new);
 
-    public static final Comparator<String> VERSION_COMPARATOR = ComparableVersion.versionComparator();
+    /**
+     * Comparator for version strings. Parsed versions are cached so sorting many times the same versions is cheap.
+     */
+    public static final Comparator<String> VERSION_COMPARATOR =
+            (version1, version2) -> comparableVersion(version1).compareTo(comparableVersion(version2));
 
     /**
      * Creates a {@link JkVersion} with the specified value. If specified name is null, then it creates
@@ -25,16 +32,25 @@ public final class JkVersion implements Comparable<JkVersion> {
         if (name == null) {
             return UNSPECIFIED;
         }
-        return new JkVersion(name);
+        return INTERNER.intern(name, JkVersion::new);
     }
 
     private final String value;
 
+    private final boolean snapshot;
+
+    private final boolean dynamicAndResolvable;
+
+    // Parsed lazily as most versions are never compared
+    private volatile ComparableVersion comparableVersion;
+
     private JkVersion(String value) {
         super();
         JkUtilsAssert.argument(value != null, "value can't be null");
         JkUtilsAssert.argument(!JkUtilsString.isBlank(value), "value can't ne blank");
         this.value = value;
+        this.snapshot = value.toLowerCase().endsWith("-snapshot");
+        this.dynamicAndResolvable = isDynamicAndResolvable(value);
     }
 
     /**
@@ -48,7 +64,7 @@ public final class JkVersion implements Comparable<JkVersion> {
      * Returns <code>true</code> if this version stands for a snapshot one.
      */
     public boolean isSnapshot() {
-        return this.value.toLowerCase().endsWith("-snapshot");
+        return snapshot;
     }
 
     @Override
@@ -61,7 +77,7 @@ public final class JkVersion implements Comparable<JkVersion> {
         } else if (other.isUnspecified()) {
             return 1;
         }
-        return VERSION_COMPARATOR.compare(value, other.value);
+        return comparableVersion().compareTo(other.comparableVersion());
     }
 
     /**
@@ -87,7 +103,7 @@ public final class JkVersion implements Comparable<JkVersion> {
      * Returns <code>true</code> if this version range is unspecified.
      */
     public boolean isUnspecified() {
-        return this.equals(UNSPECIFIED);
+        return this == UNSPECIFIED;
     }
 
     /**
@@ -97,6 +113,10 @@ public final class JkVersion implements Comparable<JkVersion> {
      * 1.4.0, 3.1-SNAPSHOT) A snapshot is not considered as 'resolvable'.
      */
     public boolean isDynamicAndResovable() {
+        return dynamicAndResolvable;
+    }
+
+    private static boolean isDynamicAndResolvable(String value) {
         if ("+".equals(value)) {
             return true;
         }
@@ -130,12 +150,25 @@ public final class JkVersion implements Comparable<JkVersion> {
         return index < items.length;
     }
 
+    private ComparableVersion comparableVersion() {
+        ComparableVersion result = comparableVersion;
+        if (result == null) {
+            result = new ComparableVersion(value);
+            comparableVersion = result;
+        }
+        return result;
+    }
+
+    private static ComparableVersion comparableVersion(String version) {
+        if (JkUtilsString.isBlank(version)) {
+            return new ComparableVersion(version);
+        }
+        return of(version).comparableVersion();
+    }
+
     @Override
     public int hashCode() {
-        final int prime = 31;
-        int result = 1;
-        result = prime * result + ((value == null) ? 0 : value.hashCode());
-        return result;
+        return value.hashCode();
     }
 
     @Override
@@ -150,9 +183,7 @@ public final class JkVersion implements Comparable<JkVersion> {
             return false;
         }
         final JkVersion other = (JkVersion) obj;
-        if (value == null) {
-            return other.value == null;
-        } else return value.equals(other.value);
+        return value.equals(other.value);
     }
 
     @Override
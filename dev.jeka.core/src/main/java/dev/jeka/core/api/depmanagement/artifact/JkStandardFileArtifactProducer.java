@@ -5,6 +5,10 @@ import dev.jeka.core.api.utils.JkUtilsAssert;
 
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Consumer;
 import java.util.function.Function;
 
@@ -12,7 +16,10 @@ import java.util.function.Function;
  * This {@link JkArtifactProducer} produces artifacts files at a standardized path
  * determined by a provided function (outputPath, artifactId) -> path. <p/>
  * This function is supposed to be supplied by the caller. To add artifacts to produce, caller has
- * to provide a {@link Consumer<Path>} generating the artifact file at the given path.
+ * to provide a {@link Consumer<Path>} generating the artifact file at the given path. <p/>
+ * Artifacts can declare prerequisites (as compilation) to be run before the artifact is produced. When
+ * several artifacts are produced at once, all prerequisites are run first, then artifacts are produced
+ * concurrently if max concurrency is greater than 1.
  */
 public class JkStandardFileArtifactProducer<T> implements JkArtifactProducer {
 
@@ -23,6 +30,10 @@ public class JkStandardFileArtifactProducer<T> implements JkArtifactProducer {
 
     private final Map<JkArtifactId, Consumer<Path>> consumers = new LinkedHashMap<>();
 
+    private final Map<JkArtifactId, List<Runnable>> prerequisites = new HashMap<>();
+
+    private int maxConcurrency = 1;
+
     private Function<JkArtifactId, Path> artifactFileFunction;
 
     private String mainArtifactExt = "jar";
@@ -46,6 +57,66 @@ public class JkStandardFileArtifactProducer<T> implements JkArtifactProducer {
             throw new IllegalArgumentException("No artifact " + artifactId + " defined on this producer. " +
                     "Artifact defined are : " + consumers.entrySet());
         }
+        getPrerequisites(artifactId).forEach(Runnable::run);
+        produce(artifactId, consumer);
+    }
+
+    /**
+     * Produces the specified artifacts. Prerequisites of all artifacts are run first, in declaration order and
+     * on the current thread, then artifact files are produced using up to {@link #getMaxConcurrency()} threads.
+     */
+    @Override
+    public void makeArtifacts(Iterable<JkArtifactId> artifactIds) {
+        Map<JkArtifactId, Consumer<Path>> artifactConsumers = new LinkedHashMap<>();
+        for (JkArtifactId artifactId : artifactIds) {
+            Consumer<Path> consumer = consumers.get(artifactId);
+            if (consumer == null) {
+                throw new IllegalArgumentException("No artifact " + artifactId + " defined on this producer. " +
+                        "Artifact defined are : " + consumers.entrySet());
+            }
+            artifactConsumers.put(artifactId, consumer);
+        }
+        Set<Runnable> ranPrerequisites = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (JkArtifactId artifactId : artifactConsumers.keySet()) {
+            for (Runnable prerequisite : getPrerequisites(artifactId)) {
+                if (ranPrerequisites.add(prerequisite)) {
+                    prerequisite.run();
+                }
+            }
+        }
+        int threadCount = Math.min(maxConcurrency, artifactConsumers.size());
+        if (threadCount <= 1) {
+            artifactConsumers.forEach(this::produce);
+            return;
+        }
+        ExecutorService executorService = Executors.newFixedThreadPool(threadCount);
+        try {
+            List<Future<?>> futures = new LinkedList<>();
+            artifactConsumers.forEach((artifactId, consumer) -> futures.add(executorService.submit(
+                    () -> JkLog.executeBuffered(() -> produce(artifactId, consumer)))));
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while making artifacts", e);
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    }
+                    if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    throw new IllegalStateException(cause);
+                }
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private void produce(JkArtifactId artifactId, Consumer<Path> consumer) {
         Path path = getArtifactPath(artifactId);
         JkLog.startTask("Make artifact " + path.getFileName());
         consumer.accept(path);
@@ -87,6 +158,35 @@ public class JkStandardFileArtifactProducer<T> implements JkArtifactProducer {
 
     public JkStandardFileArtifactProducer<T> removeArtifact(JkArtifactId artifactId) {
         consumers.remove(artifactId);
+        prerequisites.remove(artifactId);
+        return this;
+    }
+
+    /**
+     * Adds a task to run prior producing the specified artifact. A same runnable instance declared for several
+     * artifacts is run only once when these artifacts are produced together.
+     */
+    public JkStandardFileArtifactProducer<T> addPrerequisite(JkArtifactId artifactId, Runnable prerequisite) {
+        JkUtilsAssert.argument(prerequisite != null, "prerequisite cannot be null.");
+        prerequisites.computeIfAbsent(artifactId, key -> new LinkedList<>()).add(prerequisite);
+        return this;
+    }
+
+    public List<Runnable> getPrerequisites(JkArtifactId artifactId) {
+        return Collections.unmodifiableList(prerequisites.getOrDefault(artifactId, Collections.emptyList()));
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * Sets the max number of artifacts to produce concurrently. Default is 1, meaning that artifacts are
+     * produced sequentially. Artifact makers must be thread-safe when this value is greater than 1.
+     */
+    public JkStandardFileArtifactProducer<T> setMaxConcurrency(int maxConcurrency) {
+        JkUtilsAssert.argument(maxConcurrency > 0, "maxConcurrency must be greater than 0.");
+        this.maxConcurrency = maxConcurrency;
         return this;
     }
 
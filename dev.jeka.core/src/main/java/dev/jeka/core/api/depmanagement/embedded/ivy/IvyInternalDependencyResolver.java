@@ -53,7 +53,7 @@ final class IvyInternalDependencyResolver implements JkInternalDependencyResolve
 
     @Override
     public JkResolveResult resolve(JkVersionedModule moduleArg, JkQualifiedDependencySet deps,
-                                   JkResolutionParameters parameters) {
+                                   JkResolutionParameters<?> parameters) {
         final JkVersionedModule module;
         if (moduleArg == null) {
             module = anonymousVersionedModule();
@@ -68,9 +68,17 @@ final class IvyInternalDependencyResolver implements JkInternalDependencyResolve
         resolveOptions.setTransitive(true);
         resolveOptions.setOutputReport(JkLog.verbosity().isVerbose());
         resolveOptions.setLog(logLevel());
-        resolveOptions.setRefresh(parameters.isRefreshed());
+
+        // Within metadata TTL, Ivy reuses cached dynamic and changing revisions unless refresh is forced
+        resolveOptions.setRefresh(parameters.isRefreshForced()
+                || (parameters.isRefreshed() && IvyTranslatorToIvy.metadataTtl(repoSet) == 0));
         resolveOptions.setCheckIfChanged(true);
         resolveOptions.setOutputReport(true);
+        final List<JkRepo> changingCheckedRepos = repoSet.getRepos().stream()
+                .filter(repo -> !repo.getMetadataTtl().isZero())
+                .filter(repo -> IvyTranslatorToResolver.isChangingRevisionCheckDue(repo,
+                        parameters.isRefreshForced()))
+                .collect(Collectors.toList());
         final ResolveReport resolveReport;
         Ivy ivy = IvyTranslatorToIvy.toIvy(repoSet, parameters);
         try {
@@ -83,6 +91,7 @@ final class IvyInternalDependencyResolver implements JkInternalDependencyResolve
             errorReport = JkResolveResult.JkErrorReport.failure(problems(resolveReport));
         } else {
             errorReport = JkResolveResult.JkErrorReport.allFine();
+            changingCheckedRepos.forEach(IvyTranslatorToResolver::recordChangingRevisionCheck);
         }
         final ArtifactDownloadReport[] artifactDownloadReports = resolveReport.getAllArtifactsReports();
         final IvyArtifactContainer artifactContainer = IvyArtifactContainer.of(artifactDownloadReports);
@@ -40,7 +40,9 @@ class IvyTranslatorToDependency {
         ModuleRevisionId moduleRevisionId = ModuleRevisionId.newInstance(
                 moduleDependency.getModuleId().getGroup(), moduleDependency.getModuleId().getName(),
                 version.getValue());
-        boolean changing = version.isDynamic() || version.isSnapshot();
+
+        // Snapshots are recognized as changing by resolvers, according to repository metadata TTL
+        boolean changing = version.isDynamicAndResovable();
         boolean isTransitive = moduleDependency.getTransitivity() != JkTransitivity.NONE;
         final boolean force = !version.isDynamic();
         DefaultDependencyDescriptor result = new DefaultDependencyDescriptor(null, moduleRevisionId, force, changing,
@@ -6,6 +6,7 @@ import dev.jeka.core.api.system.JkLocator;
 import dev.jeka.core.api.system.JkLog;
 import org.apache.ivy.Ivy;
 import org.apache.ivy.core.IvyContext;
+import org.apache.ivy.core.cache.DefaultRepositoryCacheManager;
 import org.apache.ivy.core.settings.IvySettings;
 import org.apache.ivy.plugins.conflict.AbstractConflictManager;
 import org.apache.ivy.plugins.resolver.AbstractResolver;
@@ -38,7 +39,8 @@ class IvyTranslatorToIvy {
      */
     private static IvySettings ivySettingsOf(JkRepoSet repos, JkResolutionParameters parameters) {
         final IvySettings ivySettings = new IvySettings();
-        final AbstractResolver resolver = IvyTranslatorToResolver.toChainResolver(repos);
+        final AbstractResolver resolver = IvyTranslatorToResolver.toChainResolver(repos,
+                parameters.isRefreshForced());
         resolver.setName(MAIN_RESOLVER_NAME);
         ivySettings.addResolver(resolver);
         ivySettings.setDefaultResolver(MAIN_RESOLVER_NAME);
@@ -49,7 +51,23 @@ class IvyTranslatorToIvy {
             ivySettings.setDefaultConflictManager(conflictManager);
         }
         ivySettings.setDefaultCache(JkLocator.getJekaRepositoryCache().toFile());
+        long metadataTtl = metadataTtl(repos);
+        if (metadataTtl > 0) {
+            ((DefaultRepositoryCacheManager) ivySettings.getDefaultRepositoryCacheManager())
+                    .setDefaultTTL(metadataTtl);
+        }
         return ivySettings;
     }
 
+    /**
+     * Returns the delay in millis during which resolved dynamic versions can be reused for all the specified
+     * repositories, 0 if at least one of them must be checked at each resolution.
+     */
+    static long metadataTtl(JkRepoSet repos) {
+        return repos.getRepos().stream()
+                .mapToLong(repo -> repo.getMetadataTtl().toMillis())
+                .min()
+                .orElse(0);
+    }
+
 }
@@ -2,6 +2,8 @@ package dev.jeka.core.api.depmanagement.embedded.ivy;
 
 import dev.jeka.core.api.depmanagement.JkRepo;
 import dev.jeka.core.api.depmanagement.JkRepoSet;
+import dev.jeka.core.api.depmanagement.resolution.JkInternalDependencyResolver;
+import dev.jeka.core.api.system.JkLocator;
 import org.apache.ivy.core.settings.IvySettings;
 import org.apache.ivy.plugins.repository.file.FileRepository;
 import org.apache.ivy.plugins.resolver.*;
@@ -9,34 +11,50 @@ import org.apache.ivy.util.url.CredentialsStore;
 
 import java.io.File;
 import java.net.URL;
+import java.nio.file.Path;
+import java.time.Duration;
 
 class IvyTranslatorToResolver {
 
     private static final String MAVEN_ARTIFACT_PATTERN =
             "/[organisation]/[module]/[revision]/[artifact]-[revision](-[classifier]).[ext]";
 
-    static AbstractResolver toChainResolver(JkRepoSet repos) {
+    private static final String CHANGING_PATTERN = ".*-SNAPSHOT";
+
+    // Relative path under which the last check of changing revisions of a repository is recorded
+    private static final String CHANGING_REVISIONS_KEY = "*-SNAPSHOT";
+
+    /*
+     * Changing revisions are checked again on repositories whose metadata TTL has elapsed since the last check.
+     * On other repositories, they are taken from the cache as any other revision. The chain looks up the cache
+     * before delegating, so it must not trust cached changing revisions if any of its repositories has to be checked.
+     */
+    static AbstractResolver toChainResolver(JkRepoSet repos, boolean refreshForced) {
         final ChainResolver chainResolver = new ChainResolver();
+        boolean checkChanging = false;
         for (final JkRepo jkRepo : repos.getRepos()) {
-            final DependencyResolver resolver = toResolver(jkRepo, true);
+            boolean checkRepoChanging = isChangingRevisionCheckDue(jkRepo, refreshForced);
+            final DependencyResolver resolver = toResolver(jkRepo, true, checkRepoChanging);
             resolver.setName(jkRepo.toString());
             chainResolver.add(resolver);
+            checkChanging = checkChanging || checkRepoChanging;
         }
+        chainResolver.setChangingPattern(checkChanging ? CHANGING_PATTERN : null);
         return chainResolver;
     }
 
     static RepositoryResolver convertToPublishAndBind(JkRepo repo, IvySettings ivySettings) {
-        RepositoryResolver resolver = toResolver(repo, false);
+        RepositoryResolver resolver = toResolver(repo, false, true);
         ivySettings.addResolver(resolver);
         return resolver;
     }
 
     // see
     // http://www.draconianoverlord.com/2010/07/18/publishing-to-maven-repos-with-ivy.html
-    private static RepositoryResolver toResolver(JkRepo repo, boolean download) {
+    private static RepositoryResolver toResolver(JkRepo repo, boolean download, boolean checkChanging) {
         if (!repo.isIvyRepo()) {
             if (!isFileSystem(repo.getUrl()) || download) {
-                return ibiblioResolver(repo);
+                return ibiblioResolver(repo, checkChanging);
             }
             return mavenFileSystemResolver(repo);
         }
@@ -68,8 +86,7 @@ class IvyTranslatorToResolver {
 
                 }
             }
-            result.setChangingPattern("\\*-SNAPSHOT");
-            result.setCheckmodified(true);
+            configureChanging(result, repo, checkChanging);
             return result;
         }
         throw new IllegalStateException(repo.getUrl() .getProtocol()+ " not handled for translating repo "+ repo);
@@ -83,7 +100,7 @@ class IvyTranslatorToResolver {
         return url.getProtocol().equals("http") || url.getProtocol().equals("https");
     }
 
-    private static IBiblioResolver ibiblioResolver(JkRepo repo) {
+    private static IBiblioResolver ibiblioResolver(JkRepo repo, boolean checkChanging) {
         final IBiblioResolver result = new IBiblioResolver();
         result.setM2compatible(true);
         result.setUseMavenMetadata(true);
@@ -97,11 +114,38 @@ class IvyTranslatorToResolver {
 
             }
         }
-        result.setChangingPattern("\\*-SNAPSHOT");
-        result.setCheckmodified(true);
+        configureChanging(result, repo, checkChanging);
         return result;
     }
 
+    private static void configureChanging(AbstractResolver resolver, JkRepo repo, boolean checkChanging) {
+        resolver.setChangingPattern(checkChanging ? CHANGING_PATTERN : null);
+        resolver.setCheckmodified(repo.getMetadataTtl().isZero());
+    }
+
+    /**
+     * Returns <code>true</code> if changing revisions of the specified repository have to be checked again, as
+     * they have not been within its metadata TTL.
+     */
+    static boolean isChangingRevisionCheckDue(JkRepo repo, boolean refreshForced) {
+        Duration ttl = repo.getMetadataTtl();
+        if (refreshForced || ttl.isZero()) {
+            return true;
+        }
+        long checkTime = JkInternalDependencyResolver.getMetadataFetchTime(metadataIndexFile(),
+                repo.getUrl().toExternalForm(), CHANGING_REVISIONS_KEY);
+        return checkTime < 0 || checkTime + ttl.toMillis() <= System.currentTimeMillis();
+    }
+
+    static void recordChangingRevisionCheck(JkRepo repo) {
+        JkInternalDependencyResolver.recordMetadataFetch(metadataIndexFile(), repo.getUrl().toExternalForm(),
+                CHANGING_REVISIONS_KEY);
+    }
+
+    private static Path metadataIndexFile() {
+        return JkLocator.getJekaRepositoryCache().resolve("metadata-index.txt");
+    }
+
     private static FileSystemResolver mavenFileSystemResolver(JkRepo repo) {
         final FileRepository fileRepo = new FileRepository(new File(repo.getUrl().getPath()));
         final FileSystemResolver result = new FileSystemResolver();
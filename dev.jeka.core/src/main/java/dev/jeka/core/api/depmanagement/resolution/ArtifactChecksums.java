@@ -0,0 +1,93 @@
+package dev.jeka.core.api.depmanagement.resolution;
+
+import dev.jeka.core.api.file.JkPathFile;
+import dev.jeka.core.api.system.JkLocator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Persistent record of the SHA-1 checksums of artifacts verified against dependency lock files, so an unchanged
+ * artifact is not hashed again by each build. A record only stands as long as the artifact size and last
+ * modification time are unchanged. Each line of the file is formatted as
+ * '[size] [last modified time in millis] [sha1] [directory] [file name]'.
+ */
+final class ArtifactChecksums extends RepoRecordFile<ArtifactChecksums.Stamp> {
+
+    private static final Map<Path, ArtifactChecksums> INSTANCES = new ConcurrentHashMap<>();
+
+    private ArtifactChecksums(Path file) {
+        super(file, 3);
+    }
+
+    /**
+     * Returns the record stored in the specified file. A same instance is returned for a same file.
+     */
+    static ArtifactChecksums of(Path file) {
+        return INSTANCES.computeIfAbsent(file.toAbsolutePath().normalize(), ArtifactChecksums::new);
+    }
+
+    /**
+     * Returns the record shared by all builds of the current user.
+     */
+    static ArtifactChecksums ofRepositoryCache() {
+        return of(JkLocator.getJekaRepositoryCache().resolve("artifact-checksums.txt"));
+    }
+
+    /**
+     * Returns the SHA-1 checksum of the specified artifact. It is computed only if the artifact size or last
+     * modification time changed since the last computation.
+     */
+    String sha1(Path artifact) {
+        Path normalized = artifact.toAbsolutePath().normalize();
+        String dir = normalized.getParent().toString();
+        String name = normalized.getFileName().toString();
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(normalized, BasicFileAttributes.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        long size = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        Stamp stamp = get(dir, name);
+        if (stamp != null && stamp.size == size && stamp.lastModified == lastModified) {
+            return stamp.sha1;
+        }
+        String sha1 = JkPathFile.of(normalized).getChecksum("SHA-1");
+        put(dir, name, new Stamp(size, lastModified, sha1));
+        return sha1;
+    }
+
+    @Override
+    Stamp parse(String[] fields) {
+        return new Stamp(Long.parseLong(fields[0]), Long.parseLong(fields[1]), fields[2]);
+    }
+
+    @Override
+    String format(Stamp stamp) {
+        return stamp.size + " " + stamp.lastModified + " " + stamp.sha1;
+    }
+
+    static final class Stamp {
+
+        private final long size;
+
+        private final long lastModified;
+
+        private final String sha1;
+
+        Stamp(long size, long lastModified, String sha1) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.sha1 = sha1;
+        }
+
+    }
+
+}
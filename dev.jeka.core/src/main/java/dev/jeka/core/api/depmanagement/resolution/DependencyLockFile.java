@@ -0,0 +1,295 @@
+package dev.jeka.core.api.depmanagement.resolution;
+
+import dev.jeka.core.api.depmanagement.*;
+import dev.jeka.core.api.system.JkLocator;
+import dev.jeka.core.api.system.JkLog;
+import dev.jeka.core.api.utils.JkUtilsPath;
+import dev.jeka.core.api.utils.JkUtilsString;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Reads and writes dependency lock files. A lock file holds one section per resolved qualified dependency set,
+ * keyed by a hash of the declared dependencies. A section is the resolved module tree in pre-order, each level being
+ * indented by 2 spaces :
+ *
+ * [3f2a...]
+ * org.lib:lib:2.0 declared=2.0 configurations=compile roots=compile
+ *   @ sha1=0a1b... ${cache}/maven/org/lib/lib/2.0/lib-2.0.jar
+ *   org.common:common:1.0 declared=1.0 configurations=default roots=compile
+ *
+ * When a section is written, sections neither read nor written by the current build are dropped. Checksums of
+ * artifacts are recorded in the repository cache, so unchanged artifacts are not hashed again by each build.
+ */
+final class DependencyLockFile {
+
+    private static final String CACHE_TOKEN = "${cache}";
+
+    private static final String INDENT = "  ";
+
+    private static final String ARTIFACT_PREFIX = "@ ";
+
+    private static final String NO_VERSION = "-";
+
+    private static final Object WRITE_LOCK = new Object();
+
+    // Keys of the sections read or written in this JVM, per lock file
+    private static final Map<Path, Set<String>> USED_KEYS = new ConcurrentHashMap<>();
+
+    private final Path file;
+
+    private final ArtifactChecksums checksums;
+
+    private DependencyLockFile(Path file, ArtifactChecksums checksums) {
+        this.file = file;
+        this.checksums = checksums;
+    }
+
+    static DependencyLockFile of(Path file) {
+        return new DependencyLockFile(file, ArtifactChecksums.ofRepositoryCache());
+    }
+
+    /**
+     * Returns the key identifying the specified declared dependencies within a lock file.
+     */
+    static String key(JkQualifiedDependencySet dependencies, JkResolutionParameters<?> parameters) {
+        StringBuilder sb = new StringBuilder();
+        for (JkQualifiedDependency qualifiedDependency : dependencies.getEntries()) {
+            JkModuleDependency dependency = qualifiedDependency.getModuleDependency();
+            sb.append(qualifiedDependency.getQualifier()).append(' ')
+                    .append(dependency.getModuleId()).append(':').append(dependency.getVersion().getValue())
+                    .append(' ').append(dependency.getTransitivity());
+            for (JkModuleDependency.JkArtifactSpecification spec : dependency.getArtifactSpecifications()) {
+                sb.append(" artifact=").append(spec.getClassifier()).append(':').append(spec.getType());
+            }
+            dependency.getExclusions().forEach(exclusion -> sb.append(" exclude=").append(toString(exclusion)));
+            sb.append('\n');
+        }
+        dependencies.getGlobalExclusions().stream()
+                .map(DependencyLockFile::toString)
+                .sorted()
+                .forEach(exclusion -> sb.append("exclude=").append(exclusion).append('\n'));
+        sb.append("conflict=").append(parameters.getConflictResolver());
+        return JkUtilsString.toHexString(sha1().digest(sb.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    /**
+     * Returns the module nodes recorded under the specified key, with artifacts fetched again if they are
+     * missing from the local file system. Returns <code>null</code> if the lock file has no usable section
+     * for this key.
+     */
+    List<JkResolvedDependencyNode> read(String key, JkInternalDependencyResolver resolver) {
+        List<String> lines = readSections().get(key);
+        if (lines == null) {
+            return null;
+        }
+        List<JkResolvedDependencyNode> result = new LinkedList<>();
+        int[] index = {0};
+        try {
+            while (index[0] < lines.size()) {
+                JkResolvedDependencyNode node = readNode(lines, index, 0, resolver);
+                if (node == null) {
+                    return null;
+                }
+                result.add(node);
+            }
+        } finally {
+            checksums.save();
+        }
+        usedKeys().add(key);
+        return result;
+    }
+
+    /**
+     * Records the module nodes under the specified key, replacing the previous section if any. Sections not used
+     * by the current build are dropped.
+     */
+    void write(String key, List<JkResolvedDependencyNode> nodes) {
+        List<String> lines = new LinkedList<>();
+        nodes.stream().filter(JkResolvedDependencyNode::isModuleNode).forEach(node -> writeNode(lines, node, 0));
+        checksums.save();
+        Set<String> usedKeys = usedKeys();
+        usedKeys.add(key);
+        synchronized (WRITE_LOCK) {
+            Map<String, List<String>> sections = readSections();
+            if (lines.equals(sections.get(key)) && usedKeys.containsAll(sections.keySet())) {
+                return;
+            }
+            sections.keySet().retainAll(usedKeys);
+            sections.put(key, lines);
+            StringBuilder sb = new StringBuilder();
+            sb.append("# Resolved dependencies. Delete this file to resolve dependencies again.\n");
+            sections.forEach((sectionKey, sectionLines) -> {
+                sb.append('[').append(sectionKey).append("]\n");
+                sectionLines.forEach(line -> sb.append(line).append('\n'));
+            });
+            JkUtilsPath.writeAtomically(file, sb.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        JkLog.trace("Dependency lock " + key + " written in " + file);
+    }
+
+    private Set<String> usedKeys() {
+        return USED_KEYS.computeIfAbsent(file.toAbsolutePath().normalize(),
+                path -> Collections.newSetFromMap(new ConcurrentHashMap<>()));
+    }
+
+    private Map<String, List<String>> readSections() {
+        Map<String, List<String>> result = new LinkedHashMap<>();
+        if (!Files.isRegularFile(file)) {
+            return result;
+        }
+        List<String> current = null;
+        for (String line : JkUtilsPath.readAllLines(file)) {
+            if (line.trim().isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            if (line.startsWith("[") && line.endsWith("]")) {
+                current = new LinkedList<>();
+                result.put(line.substring(1, line.length() - 1), current);
+            } else if (current != null) {
+                current.add(line);
+            }
+        }
+        return result;
+    }
+
+    private void writeNode(List<String> lines, JkResolvedDependencyNode node, int depth) {
+        JkResolvedDependencyNode.JkModuleNodeInfo info = node.getModuleInfo();
+        String indent = JkUtilsString.repeat(INDENT, depth);
+        lines.add(indent + info.getModuleId() + ":" + version(info.getResolvedVersion())
+                + " declared=" + version(info.getDeclaredVersion())
+                + " configurations=" + String.join(",", info.getDeclaredConfigurations())
+                + " roots=" + String.join(",", info.getRootConfigurations()));
+        for (Path artifact : info.getFiles()) {
+            lines.add(indent + INDENT + ARTIFACT_PREFIX + "sha1=" + checksums.sha1(artifact) + " "
+                    + toLockPath(artifact));
+        }
+        node.getChildren().stream()
+                .filter(JkResolvedDependencyNode::isModuleNode)
+                .forEach(child -> writeNode(lines, child, depth + 1));
+    }
+
+    // Returns null if an artifact can not be found anymore
+    private JkResolvedDependencyNode readNode(List<String> lines, int[] index, int depth,
+                                              JkInternalDependencyResolver resolver) {
+        String[] items = lines.get(index[0]++).trim().split(" ");
+        String[] coordinates = items[0].split(":");
+        Map<String, String> attributes = new HashMap<>();
+        for (int i = 1; i < items.length; i++) {
+            attributes.put(JkUtilsString.substringBeforeFirst(items[i], "="),
+                    JkUtilsString.substringAfterFirst(items[i], "="));
+        }
+        JkModuleId moduleId = JkModuleId.of(coordinates[0], coordinates[1]);
+        JkVersion resolvedVersion = version(coordinates[2]);
+        String prefix = JkUtilsString.repeat(INDENT, depth + 1);
+        List<Path> artifacts = new LinkedList<>();
+        while (index[0] < lines.size() && lines.get(index[0]).startsWith(prefix + ARTIFACT_PREFIX)) {
+            String artifactLine = lines.get(index[0]++).substring(prefix.length() + ARTIFACT_PREFIX.length());
+            String checksum = JkUtilsString.substringAfterFirst(
+                    JkUtilsString.substringBeforeFirst(artifactLine, " "), "=");
+            Path artifact = artifact(moduleId, resolvedVersion, checksum,
+                    fromLockPath(JkUtilsString.substringAfterFirst(artifactLine, " ")), resolver);
+            if (artifact == null) {
+                return null;
+            }
+            artifacts.add(artifact);
+        }
+        List<JkResolvedDependencyNode> children = new LinkedList<>();
+        while (index[0] < lines.size() && lines.get(index[0]).startsWith(prefix)) {
+            JkResolvedDependencyNode child = readNode(lines, index, depth + 1, resolver);
+            if (child == null) {
+                return null;
+            }
+            children.add(child);
+        }
+        JkResolvedDependencyNode.JkModuleNodeInfo info = JkResolvedDependencyNode.JkModuleNodeInfo.of(moduleId,
+                version(attributes.get("declared")), configurations(attributes.get("configurations")),
+                configurations(attributes.get("roots")), resolvedVersion, artifacts);
+        return JkResolvedDependencyNode.ofModuleDep(info, children);
+    }
+
+    private Path artifact(JkModuleId moduleId, JkVersion version, String checksum, Path recordedPath,
+                          JkInternalDependencyResolver resolver) {
+        Path result = recordedPath;
+        if (!Files.isRegularFile(result)) {
+            String fileName = recordedPath.getFileName().toString();
+            String extension = JkUtilsString.substringAfterLast(fileName, ".");
+            String baseName = JkUtilsString.substringBeforeLast(fileName, ".");
+            String prefix = moduleId.getName() + "-" + version.getValue();
+            if (!baseName.startsWith(prefix)) {
+                JkLog.trace("Can not guess classifier of locked artifact " + recordedPath);
+                return null;
+            }
+            String classifier = baseName.length() > prefix.length() ? baseName.substring(prefix.length() + 1) : null;
+            File file = resolver.get(JkModuleDependency.of(moduleId, version)
+                    .withClassifiersAndType(classifier, extension));
+            if (file == null) {
+                return null;
+            }
+            result = file.toPath();
+        }
+        if (!version.isSnapshot()) {
+            String actualChecksum = checksums.sha1(result);
+            if (!actualChecksum.equals(checksum)) {
+                throw new IllegalStateException("Checksum of " + result + " (" + actualChecksum
+                        + ") does not match the one recorded for " + moduleId + ":" + version + " (" + checksum
+                        + ").");
+            }
+        }
+        return result;
+    }
+
+    private static String toString(JkDependencyExclusion exclusion) {
+        return exclusion.getModuleId() + ":" + exclusion.getClassifier() + ":" + exclusion.getType();
+    }
+
+    private static String version(JkVersion version) {
+        return version == null ? NO_VERSION : version.getValue();
+    }
+
+    private static JkVersion version(String value) {
+        return value == null || NO_VERSION.equals(value) ? null : JkVersion.of(value);
+    }
+
+    private static Set<String> configurations(String value) {
+        if (value == null || value.isEmpty()) {
+            return new HashSet<>();
+        }
+        return new LinkedHashSet<>(Arrays.asList(value.split(",")));
+    }
+
+    // Paths are stored relative to the repository cache, so lock files can be shared across machines
+    private static String toLockPath(Path artifact) {
+        Path cache = JkLocator.getJekaRepositoryCache().toAbsolutePath().normalize();
+        Path path = artifact.toAbsolutePath().normalize();
+        if (!Objects.equals(cache.getRoot(), path.getRoot())) {
+            return path.toString();
+        }
+        return CACHE_TOKEN + "/" + cache.relativize(path).toString().replace(File.separatorChar, '/');
+    }
+
+    private static Path fromLockPath(String lockPath) {
+        if (lockPath.startsWith(CACHE_TOKEN + "/")) {
+            return JkLocator.getJekaRepositoryCache().resolve(lockPath.substring(CACHE_TOKEN.length() + 1))
+                    .normalize();
+        }
+        return Paths.get(lockPath);
+    }
+
+    private static MessageDigest sha1() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -5,6 +5,7 @@ import dev.jeka.core.api.depmanagement.JkQualifiedDependencySet;
 import dev.jeka.core.api.system.JkLog;
 import dev.jeka.core.api.utils.JkUtilsAssert;
 
+import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -25,6 +26,10 @@ public final class JkDependencyResolver<T> {
 
     private JkRepoSet repos = JkRepoSet.of();
 
+    private boolean nativeMaven;
+
+    private Path lockFile;
+
     /**
      * For parent chaining
      */
@@ -77,6 +82,42 @@ public final class JkDependencyResolver<T> {
         return this.parameters;
     }
 
+    /**
+     * Returns <code>true</code> if module dependencies are resolved directly on Maven repositories, without Ivy.
+     */
+    public boolean isNativeMaven() {
+        return nativeMaven;
+    }
+
+    /**
+     * If <code>true</code>, module dependencies are resolved by walking poms directly on Maven repositories,
+     * fetching poms of a same dependency level concurrently, instead of delegating to Ivy. This has no effect
+     * if some repositories are Ivy ones. <code>false</code> by default.
+     */
+    public JkDependencyResolver<T> setNativeMaven(boolean nativeMaven) {
+        this.nativeMaven = nativeMaven;
+        return this;
+    }
+
+    /**
+     * Returns the file where resolved dependencies are locked. <code>null</code> if dependencies are not locked.
+     */
+    public Path getLockFile() {
+        return lockFile;
+    }
+
+    /**
+     * Sets the file where resolved module dependencies are locked. The first resolution of a given set of
+     * dependencies records the resolved tree, with artifact checksums, in this file. Further resolutions of
+     * the same declared dependencies only fetch the recorded artifacts without traversing repository metadata.
+     * Changing the declared dependencies leads to a new resolution. Delete the file to resolve again
+     * unchanged dependencies. <code>null</code> (default) means that dependencies are not locked.
+     */
+    public JkDependencyResolver<T> setLockFile(Path lockFile) {
+        this.lockFile = lockFile;
+        return this;
+    }
+
     /**
      * The underlying dependency manager can cache the resolution on file system
      * for faster result. To make this caching possible, you must set the
@@ -113,14 +154,16 @@ public final class JkDependencyResolver<T> {
         if (repos.getRepos().isEmpty() && hasModule) {
             JkLog.warn("You are trying to resolve dependencies on zero repository. Won't be possible to resolve modules.");
         }
-        JkInternalDependencyResolver internalDepResolver = JkInternalDependencyResolver.of(this.repos);
+        JkInternalDependencyResolver internalDepResolver = internalDependencyResolver();
         JkLog.trace("Preparing to resolve dependencies");
         JkLog.startTask("Resolve dependencies");
         JkResolveResult resolveResult;
         if (hasModule) {
             JkUtilsAssert.state(!repos.getRepos().isEmpty(), "Cannot resolve module dependency cause no " +
                     "repos has defined on resolver " + this);
-            resolveResult = internalDepResolver.resolve(moduleHolder, moduleQualifiedDependencies, parameters);
+            resolveResult = lockFile == null
+                    ? internalDepResolver.resolve(moduleHolder, moduleQualifiedDependencies, parameters)
+                    : resolveLocked(internalDepResolver, moduleQualifiedDependencies);
         } else {
             resolveResult = JkResolveResult.ofRoot(moduleHolder);
         }
@@ -146,28 +189,51 @@ public final class JkDependencyResolver<T> {
         return resolveResult;
     }
 
+    private JkResolveResult resolveLocked(JkInternalDependencyResolver internalDepResolver,
+                                          JkQualifiedDependencySet moduleQualifiedDependencies) {
+        DependencyLockFile dependencyLockFile = DependencyLockFile.of(lockFile);
+        String key = DependencyLockFile.key(moduleQualifiedDependencies, parameters);
+        List<JkResolvedDependencyNode> lockedNodes = dependencyLockFile.read(key, internalDepResolver);
+        if (lockedNodes != null) {
+            JkLog.trace("Dependencies read from lock " + key + " of " + lockFile);
+            JkResolvedDependencyNode root = JkResolveResult.ofRoot(moduleHolder).getDependencyTree();
+            return JkResolveResult.of(JkResolvedDependencyNode.ofModuleDep(root.getModuleInfo(), lockedNodes),
+                    JkResolveResult.JkErrorReport.allFine());
+        }
+        JkResolveResult result = internalDepResolver.resolve(moduleHolder, moduleQualifiedDependencies, parameters);
+        if (!result.getErrorReport().hasErrors()) {
+            dependencyLockFile.write(key, result.getDependencyTree().getChildren());
+        }
+        return result;
+    }
+
     /**
      * Returns an alphabetical sorted list of groupId present in these repositories
      */
     public List<String> searchGroups() {
-        return JkInternalDependencyResolver.of(this.repos).searchGroups();
+        return internalDependencyResolver().searchGroups();
     }
 
     /**
      * Returns an alphabetical sorted list of module ids present in these repositories for the specified groupId.
      */
     public List<String> searchModules(String groupId) {
-        return JkInternalDependencyResolver.of(this.repos).searchModules(groupId);
+        return internalDependencyResolver().searchModules(groupId);
     }
 
     /**
      * Returns an alphabetical sorted list of version present in these repositories for the specified moduleId.
      */
     public List<String> searchVersions(JkModuleId moduleId) {
-        return JkInternalDependencyResolver.of(this.repos).searchVersions(moduleId).stream()
+        return internalDependencyResolver().searchVersions(moduleId).stream()
                 .sorted(JkVersion.VERSION_COMPARATOR).collect(Collectors.toList());
     }
 
+    private JkInternalDependencyResolver internalDependencyResolver() {
+        return nativeMaven ? JkInternalDependencyResolver.ofNativeMaven(this.repos)
+                : JkInternalDependencyResolver.of(this.repos);
+    }
+
     @Override
     public String toString() {
         if (repos == null) {
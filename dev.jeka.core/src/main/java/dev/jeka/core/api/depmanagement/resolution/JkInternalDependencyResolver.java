@@ -4,9 +4,11 @@ import dev.jeka.core.api.depmanagement.*;
 import dev.jeka.core.api.depmanagement.JkQualifiedDependencySet;
 import dev.jeka.core.api.java.JkClassLoader;
 import dev.jeka.core.api.java.JkInternalClassloader;
+import dev.jeka.core.api.system.JkLog;
 import dev.jeka.core.api.utils.JkUtilsReflect;
 
 import java.io.File;
+import java.nio.file.Path;
 import java.util.List;
 
 
@@ -20,14 +22,14 @@ public interface JkInternalDependencyResolver {
      * @param parameters can be null.
      */
     default JkResolveResult resolve(JkVersionedModule module, JkDependencySet deps,
-                                    JkResolutionParameters parameters) {
+                                    JkResolutionParameters<?> parameters) {
         List<JkDependency> depList = deps.normalised(JkVersionedModule.ConflictStrategy.FAIL)
                 .getVersionedDependencies();
         return resolve(module, JkQualifiedDependencySet.ofDependencies(depList)
                         .withGlobalExclusions(deps.getGlobalExclusions()), parameters);
     }
 
-    JkResolveResult resolve(JkVersionedModule module, JkQualifiedDependencySet deps, JkResolutionParameters parameters);
+    JkResolveResult resolve(JkVersionedModule module, JkQualifiedDependencySet deps, JkResolutionParameters<?> parameters);
 
     File get(JkModuleDependency dependency);
 
@@ -47,4 +49,34 @@ public interface JkInternalDependencyResolver {
                 JkInternalDependencyResolver.class, factoryClassName, "of", repos);
     }
 
+    /**
+     * Returns a resolver working directly on Maven repositories, without Ivy. Falls back to the Ivy based
+     * resolver if some of the specified repositories are Ivy ones.
+     */
+    static JkInternalDependencyResolver ofNativeMaven(JkRepoSet repos) {
+        if (repos.getRepos().stream().anyMatch(repo -> repo.ivyRepo)) {
+            JkLog.trace("Ivy repositories involved in " + repos + ". Use Ivy based dependency resolver.");
+            return of(repos);
+        }
+        return MavenInternalDependencyResolver.of(repos);
+    }
+
+    /**
+     * Returns the last time the specified changing file has been fetched from the specified repository,
+     * according to the metadata index stored in the specified file, or -1 if it has never been.
+     */
+    static long getMetadataFetchTime(Path indexFile, String repoUrl, String relativePath) {
+        return MetadataIndex.of(indexFile).getFetchTime(repoUrl, relativePath);
+    }
+
+    /**
+     * Records in the metadata index stored in the specified file that the specified changing file has just
+     * been fetched from the specified repository.
+     */
+    static void recordMetadataFetch(Path indexFile, String repoUrl, String relativePath) {
+        MetadataIndex metadataIndex = MetadataIndex.of(indexFile);
+        metadataIndex.recordFetch(repoUrl, relativePath, true);
+        metadataIndex.save();
+    }
+
 }
\ No newline at end of file
@@ -38,6 +38,8 @@ public final class JkResolutionParameters<T> {
 
     private boolean refreshed = true;
 
+    private boolean refreshForced;
+
     private JkConflictResolver conflictResolver = JkConflictResolver.DEFAULT;
 
     private boolean failOnDependencyResolutionError = true;
@@ -92,6 +94,23 @@ public final class JkResolutionParameters<T> {
     }
 
 
+    /**
+     * Returns <code>true</code> if metadata of dynamic and snapshot versions are fetched again, even if they are
+     * still in the metadata time to live of their repository.
+     */
+    public boolean isRefreshForced() {
+        return refreshForced;
+    }
+
+    /**
+     * @see JkResolutionParameters#isRefreshForced()
+     * @see dev.jeka.core.api.depmanagement.JkRepo#setMetadataTtl(java.time.Duration)
+     */
+    public JkResolutionParameters<T> setRefreshForced(boolean refreshForced) {
+        this.refreshForced = refreshForced;
+        return this;
+    }
+
     public boolean isFailOnDependencyResolutionError() {
         return failOnDependencyResolutionError;
     }
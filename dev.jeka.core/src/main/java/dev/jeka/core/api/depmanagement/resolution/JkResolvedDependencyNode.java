@@ -1,7 +1,6 @@
 package dev.jeka.core.api.depmanagement.resolution;
 
 import dev.jeka.core.api.depmanagement.*;
-import dev.jeka.core.api.utils.JkUtilsIterable;
 import dev.jeka.core.api.utils.JkUtilsPath;
 import dev.jeka.core.api.utils.JkUtilsString;
 import org.w3c.dom.Document;
@@ -13,7 +12,10 @@ import java.nio.file.Path;
 import java.util.*;
 
 /**
- * A representation of a node in a dependency tree.
+ * A representation of a node in a dependency tree.<p>
+ *
+ * Nodes are immutable. Lookups on descendants (files, versions, modules) are backed by an index flattening
+ * the subtree into an array. This index is computed at first need then memoized.
  *
  * @author Jerome Angibaud
  */
@@ -25,12 +27,14 @@ public class JkResolvedDependencyNode {
 
     private final List<JkResolvedDependencyNode> children;
 
-    private final JkVersionProvider resolvedVersions;
+    private volatile Map<JkModuleId, List<JkResolvedDependencyNode>> childrenByModuleId;
+
+    private volatile Index index;
 
     private JkResolvedDependencyNode(JkNodeInfo nodeInfo, List<JkResolvedDependencyNode> children) {
         this.nodeInfo = nodeInfo;
-        this.children = children;
-        this.resolvedVersions = compute(nodeInfo, children);
+        this.children = Collections.unmodifiableList(Arrays.asList(
+                children.toArray(new JkResolvedDependencyNode[0])));
     }
 
     /**
@@ -45,12 +49,12 @@ public class JkResolvedDependencyNode {
      * direct flatten.
      */
     public static JkResolvedDependencyNode ofModuleDep(JkModuleNodeInfo moduleNodeInfo, List<JkResolvedDependencyNode> children) {
-        return new JkResolvedDependencyNode(moduleNodeInfo, Collections.unmodifiableList(children));
+        return new JkResolvedDependencyNode(moduleNodeInfo, children);
     }
 
     public static JkResolvedDependencyNode ofFileDep(JkFileDependency dependency, Set<String> configurations) {
         final JkNodeInfo moduleInfo = JkFileNodeInfo.of(configurations, dependency);
-        return new JkResolvedDependencyNode(moduleInfo, Collections.unmodifiableList(new LinkedList<>()));
+        return new JkResolvedDependencyNode(moduleInfo, Collections.emptyList());
     }
 
     JkResolvedDependencyNode mergeNonModules(List<? extends JkDependency> dependencies) {
@@ -70,12 +74,7 @@ public class JkResolvedDependencyNode {
      * Returns all files resulting of this dependency node (this node itself plus all descendants).
      */
     public List<Path> getResolvedFiles() {
-        final List<Path> list = new LinkedList<>();
-        JkUtilsIterable.addAllWithoutDuplicate(list, this.nodeInfo.getFiles());
-        for (final JkResolvedDependencyNode child : children) {
-            JkUtilsIterable.addAllWithoutDuplicate(list, child.getResolvedFiles());
-        }
-        return list;
+        return index().getResolvedFiles();
     }
 
     /**
@@ -119,63 +118,36 @@ public class JkResolvedDependencyNode {
         if (this.isModuleNode() && moduleId.equals(this.getModuleInfo().getModuleId()) && !this.getModuleInfo().isEvicted()) {
             return true;
         }
-        for (final JkResolvedDependencyNode child : this.children) {
-            final boolean contains = child.contains(moduleId);
-            if (contains) {
-                return true;
-            }
-        }
-        return false;
+        return index().nonEvictedModuleIds.contains(moduleId);
     }
 
     /**
      * Returns the resolved version for this node and all its children.
      */
     public JkVersionProvider getResolvedVersions() {
-        return this.resolvedVersions;
+        return index().getResolvedVersions(this);
     }
 
     /**
      * Returns the versioned modules which with this result has been created.
      */
     public Set<JkVersionedModule> getChildModules() {
-        return resolvedModules(true);
-    }
-
-    private Set<JkVersionedModule> resolvedModules(boolean root) {
-        final Set<JkVersionedModule> result = new HashSet<>();
-        if (!root && this.isModuleNode() && !this.getModuleInfo().isEvicted()) {
-            result.add(this.getModuleInfo().moduleId.withVersion(this.getModuleInfo().resolvedVersion.getValue()));
-        }
-        for (final JkResolvedDependencyNode child : this.children) {
-            result.addAll(child.resolvedModules(false));
-        }
-        return result;
+        return index().getChildModules();
     }
 
     /**
      * Returns the children nodes for this node having the specified getModuleId.
      */
     public List<JkResolvedDependencyNode> getChildren(JkModuleId moduleId) {
-        final List<JkResolvedDependencyNode> result = new LinkedList<>();
-        for (final JkResolvedDependencyNode child : getChildren()) {
-            if (child.getModuleInfo().getModuleId().equals(moduleId)) {
-                result.add(child);
-            }
-        }
-        return result;
+        return Collections.unmodifiableList(childrenByModuleId().getOrDefault(moduleId, Collections.emptyList()));
     }
 
     /**
      * Returns the getChild node having the specified getModuleId.
      */
     public JkResolvedDependencyNode getChild(JkModuleId moduleId) {
-        for (final JkResolvedDependencyNode node : children) {
-            if (node.moduleId().equals(moduleId)) {
-                return node;
-            }
-        }
-        return null;
+        final List<JkResolvedDependencyNode> result = childrenByModuleId().get(moduleId);
+        return result == null ? null : result.get(0);
     }
 
     /**
@@ -208,12 +180,7 @@ public class JkResolvedDependencyNode {
      * Returns all nodes descendant of this one, deep first.
      */
     public List<JkResolvedDependencyNode> toFlattenList() {
-        final List<JkResolvedDependencyNode> result = new LinkedList<>();
-        for (final JkResolvedDependencyNode child : this.getChildren()) {
-            result.add(child);
-            result.addAll(child.toFlattenList());
-        }
-        return result;
+        return Collections.unmodifiableList(Arrays.asList(index().descendants));
     }
 
     /**
@@ -223,21 +190,36 @@ public class JkResolvedDependencyNode {
         if (this.isModuleNode() && moduleId.equals(this.moduleId())) {
             return this;
         }
-        for (final JkResolvedDependencyNode child : this.toFlattenList()) {
-            if (child.isModuleNode() && moduleId.equals(child.moduleId())) {
-                return child;
-            }
-        }
-        return null;
+        final Index index = index();
+        final Integer position = index.firstPositions.get(moduleId);
+        return position == null ? null : index.descendants[position];
     }
 
     private boolean directChildrenContains(JkModuleId moduleId) {
-        for (final JkResolvedDependencyNode dependencyNode : this.children) {
-            if (dependencyNode.isModuleNode() && dependencyNode.moduleId().equals(moduleId)) {
-                return true;
+        return childrenByModuleId().containsKey(moduleId);
+    }
+
+    private Map<JkModuleId, List<JkResolvedDependencyNode>> childrenByModuleId() {
+        Map<JkModuleId, List<JkResolvedDependencyNode>> result = this.childrenByModuleId;
+        if (result == null) {
+            result = new HashMap<>();
+            for (final JkResolvedDependencyNode child : children) {
+                if (child.isModuleNode()) {
+                    result.computeIfAbsent(child.moduleId(), key -> new ArrayList<>(1)).add(child);
+                }
             }
+            this.childrenByModuleId = result;
         }
-        return false;
+        return result;
+    }
+
+    private Index index() {
+        Index result = this.index;
+        if (result == null) {
+            result = new Index(this);
+            this.index = result;
+        }
+        return result;
     }
 
     /**
@@ -444,20 +426,6 @@ public class JkResolvedDependencyNode {
         return result;
     }
 
-    private static JkVersionProvider compute(JkNodeInfo nodeInfo, List<JkResolvedDependencyNode> children) {
-        JkVersionProvider result = JkVersionProvider.of();
-        if (nodeInfo instanceof JkModuleNodeInfo) {
-            final JkModuleNodeInfo moduleNodeInfo = (JkModuleNodeInfo) nodeInfo;
-            if (!moduleNodeInfo.treeRoot && !moduleNodeInfo.isEvicted()) {
-                result = result.and(moduleNodeInfo.moduleId, moduleNodeInfo.resolvedVersion);
-            }
-        }
-        for (final JkResolvedDependencyNode child : children) {
-            result = result.and(compute(child.getNodeInfo(), child.getChildren()));
-        }
-        return result;
-    }
-
     public static final class JkFileNodeInfo implements Serializable, JkNodeInfo {
 
         private static final long serialVersionUID = 1L;
@@ -513,4 +481,104 @@ public class JkResolvedDependencyNode {
         }
     }
 
+    /*
+     * Subtree of a node flattened in an array, deep first, with lookup structures. File list, version provider
+     * and module set are computed only if requested.
+     */
+    private static final class Index {
+
+        private final JkResolvedDependencyNode[] descendants;
+
+        private final Map<JkModuleId, Integer> firstPositions = new HashMap<>();
+
+        private final Set<JkModuleId> nonEvictedModuleIds = new HashSet<>();
+
+        private final JkNodeInfo rootInfo;
+
+        private volatile List<Path> resolvedFiles;
+
+        private volatile JkVersionProvider resolvedVersions;
+
+        private volatile Set<JkVersionedModule> childModules;
+
+        Index(JkResolvedDependencyNode root) {
+            this.rootInfo = root.nodeInfo;
+            final List<JkResolvedDependencyNode> result = new ArrayList<>();
+            final Deque<Iterator<JkResolvedDependencyNode>> stack = new ArrayDeque<>();
+            stack.push(root.children.iterator());
+            while (!stack.isEmpty()) {
+                final Iterator<JkResolvedDependencyNode> iterator = stack.peek();
+                if (!iterator.hasNext()) {
+                    stack.pop();
+                    continue;
+                }
+                final JkResolvedDependencyNode node = iterator.next();
+                if (node.isModuleNode()) {
+                    firstPositions.putIfAbsent(node.moduleId(), result.size());
+                    if (!node.getModuleInfo().isEvicted()) {
+                        nonEvictedModuleIds.add(node.moduleId());
+                    }
+                }
+                result.add(node);
+                if (!node.children.isEmpty()) {
+                    stack.push(node.children.iterator());
+                }
+            }
+            this.descendants = result.toArray(new JkResolvedDependencyNode[0]);
+        }
+
+        List<Path> getResolvedFiles() {
+            List<Path> result = this.resolvedFiles;
+            if (result == null) {
+                final Set<Path> files = new LinkedHashSet<>(rootInfo.getFiles());
+                for (final JkResolvedDependencyNode node : descendants) {
+                    files.addAll(node.nodeInfo.getFiles());
+                }
+                result = Collections.unmodifiableList(new ArrayList<>(files));
+                this.resolvedFiles = result;
+            }
+            return result;
+        }
+
+        // Versions met last in the tree win, as for JkVersionProvider#and
+        JkVersionProvider getResolvedVersions(JkResolvedDependencyNode root) {
+            JkVersionProvider result = this.resolvedVersions;
+            if (result == null) {
+                final List<JkVersionedModule> modules = new ArrayList<>(descendants.length + 1);
+                addResolvedModule(modules, root, false);
+                for (final JkResolvedDependencyNode node : descendants) {
+                    addResolvedModule(modules, node, false);
+                }
+                result = JkVersionProvider.of(modules);
+                this.resolvedVersions = result;
+            }
+            return result;
+        }
+
+        Set<JkVersionedModule> getChildModules() {
+            Set<JkVersionedModule> result = this.childModules;
+            if (result == null) {
+                final List<JkVersionedModule> modules = new ArrayList<>(descendants.length);
+                for (final JkResolvedDependencyNode node : descendants) {
+                    addResolvedModule(modules, node, true);
+                }
+                result = Collections.unmodifiableSet(new HashSet<>(modules));
+                this.childModules = result;
+            }
+            return result;
+        }
+
+        private static void addResolvedModule(List<JkVersionedModule> modules, JkResolvedDependencyNode node,
+                                              boolean includeTreeRoot) {
+            if (!node.isModuleNode()) {
+                return;
+            }
+            final JkModuleNodeInfo moduleNodeInfo = node.getModuleInfo();
+            if ((includeTreeRoot || !moduleNodeInfo.treeRoot) && !moduleNodeInfo.isEvicted()) {
+                modules.add(moduleNodeInfo.moduleId.withVersion(moduleNodeInfo.resolvedVersion));
+            }
+        }
+
+    }
+
 }
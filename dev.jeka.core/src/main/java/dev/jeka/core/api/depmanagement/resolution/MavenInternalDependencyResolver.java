@@ -0,0 +1,622 @@
+package dev.jeka.core.api.depmanagement.resolution;
+
+import dev.jeka.core.api.depmanagement.*;
+import dev.jeka.core.api.depmanagement.JkModuleDependency.JkArtifactSpecification;
+import dev.jeka.core.api.depmanagement.resolution.JkResolvedDependencyNode.JkModuleNodeInfo;
+import dev.jeka.core.api.system.JkLocator;
+import dev.jeka.core.api.system.JkLog;
+import dev.jeka.core.api.utils.JkUtilsObject;
+import dev.jeka.core.api.utils.JkUtilsString;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+/*
+ * Dependency resolver working directly on Maven-layout repositories, without Ivy.<p>
+ *
+ * The dependency graph is walked level by level, poms of a same level being fetched concurrently. Poms are read
+ * along their parents and imported boms to compute managed versions, scopes and exclusions. A module met with
+ * several versions is first resolved to the nearest one (as Maven does), then the graph is walked again pinning
+ * the version elected by the conflict strategy, until elected versions are stable.<p>
+ *
+ * Searches are delegated to the Ivy resolver.
+ */
+final class MavenInternalDependencyResolver implements JkInternalDependencyResolver {
+
+    private static final int MAX_CONCURRENCY = 8;
+
+    private static final int MAX_PASSES = 10;
+
+    private static final String DEFAULT_CONFIGURATION = "default";
+
+    // Poms of released versions, inherited and interpolated, shared across resolutions on same repositories
+    private static final Map<List<String>, Map<String, CompletableFuture<MavenPom>>> RELEASE_POMS =
+            new ConcurrentHashMap<>();
+
+    private final JkRepoSet repoSet;
+
+    // Where files from remote repositories are downloaded
+    private final Path cacheDir;
+
+    private final RepoMissCache missCache;
+
+    private MavenInternalDependencyResolver(JkRepoSet repoSet, Path cacheDir, RepoMissCache missCache) {
+        this.repoSet = repoSet;
+        this.cacheDir = cacheDir;
+        this.missCache = missCache;
+    }
+
+    static MavenInternalDependencyResolver of(JkRepoSet repoSet) {
+        return of(repoSet, JkLocator.getJekaRepositoryCache().resolve("maven"), RepoMissCache.ofUserHome());
+    }
+
+    static MavenInternalDependencyResolver of(JkRepoSet repoSet, Path cacheDir, RepoMissCache missCache) {
+        return new MavenInternalDependencyResolver(repoSet, cacheDir, missCache);
+    }
+
+    @Override
+    public JkResolveResult resolve(JkVersionedModule module, JkQualifiedDependencySet deps,
+                                   JkResolutionParameters<?> parameters) {
+        JkResolutionParameters<?> effectiveParameters = parameters == null ? JkResolutionParameters.of() : parameters;
+        ExecutorService executorService = Executors.newFixedThreadPool(MAX_CONCURRENCY);
+
+        // Distinct from the walking executor as walking tasks wait for racing ones
+        ExecutorService racingExecutorService = Executors.newCachedThreadPool();
+        MavenRepoAccess repoAccess = MavenRepoAccess.of(repoSet, cacheDir, effectiveParameters.isRefreshed(),
+                effectiveParameters.isRefreshForced(), missCache).withRacing(racingExecutorService);
+        try {
+            return new Resolution(repoAccess, executorService, effectiveParameters.getConflictResolver())
+                    .resolve(module, deps);
+        } finally {
+            executorService.shutdownNow();
+            racingExecutorService.shutdownNow();
+            repoAccess.save();
+        }
+    }
+
+    @Override
+    public File get(JkModuleDependency dependency) {
+        JkArtifactSpecification artifactSpecification = dependency.getArtifactSpecifications().isEmpty() ?
+                JkArtifactSpecification.MAIN : dependency.getArtifactSpecifications().iterator().next();
+        JkModuleId moduleId = dependency.getModuleId();
+        Path result = MavenRepoAccess.of(repoSet, cacheDir, true, false, missCache).get(moduleId.getGroup(), moduleId.getName(),
+                dependency.getVersion().getValue(), artifactSpecification.getClassifier(),
+                JkUtilsObject.firstNonNull(artifactSpecification.getType(), "jar"));
+        return result == null ? null : result.toFile();
+    }
+
+    @Override
+    public List<String> searchGroups() {
+        return JkInternalDependencyResolver.of(repoSet).searchGroups();
+    }
+
+    @Override
+    public List<String> searchModules(String groupId) {
+        return JkInternalDependencyResolver.of(repoSet).searchModules(groupId);
+    }
+
+    @Override
+    public List<String> searchVersions(JkModuleId moduleId) {
+        return MavenRepoAccess.of(repoSet, cacheDir, true, false, missCache).getVersions(moduleId.getGroup(), moduleId.getName()).stream()
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    /*
+     * State of a single resolution.
+     */
+    private static final class Resolution {
+
+        private final MavenRepoAccess repoAccess;
+
+        private final ExecutorService executorService;
+
+        private final JkVersionedModule.ConflictStrategy conflictStrategy;
+
+        // Whether versions declared in direct dependencies win over transitive ones
+        private final boolean directVersionsForced;
+
+        private final Map<String, CompletableFuture<MavenPom>> releasePoms;
+
+        private final Map<String, CompletableFuture<MavenPom>> snapshotPoms = new ConcurrentHashMap<>();
+
+        private final Map<String, List<String>> availableVersions = new ConcurrentHashMap<>();
+
+        // Problems keyed by their description, as graph walks may meet a same problem several times
+        private final Map<String, JkModuleDepProblem> problems = new ConcurrentHashMap<>();
+
+        Resolution(MavenRepoAccess repoAccess, ExecutorService executorService,
+                   JkResolutionParameters.JkConflictResolver conflictResolver) {
+            this.repoAccess = repoAccess;
+            this.releasePoms = RELEASE_POMS.computeIfAbsent(repoAccess.getRepoUrls(),
+                    key -> new ConcurrentHashMap<>());
+            this.executorService = executorService;
+            this.conflictStrategy = conflictResolver == JkResolutionParameters.JkConflictResolver.STRICT ?
+                    JkVersionedModule.ConflictStrategy.FAIL : JkVersionedModule.ConflictStrategy.TAKE_HIGHEST;
+            this.directVersionsForced = conflictResolver != JkResolutionParameters.JkConflictResolver.LATEST_VERSION;
+        }
+
+        JkResolveResult resolve(JkVersionedModule module, JkQualifiedDependencySet deps) {
+            Set<String> globalExclusions = deps.getGlobalExclusions().stream()
+                    .map(exclusion -> exclusion.getModuleId().toString())
+                    .collect(Collectors.toSet());
+            List<Edge> directEdges = new LinkedList<>();
+            for (JkQualifiedDependency qualifiedDependency : deps.getEntries()) {
+                directEdges.add(directEdge(qualifiedDependency, globalExclusions));
+            }
+            Map<JkModuleId, JkVersion> pinnedVersions = new HashMap<>();
+            if (directVersionsForced) {
+                directEdges.forEach(edge -> pinnedVersions.putIfAbsent(edge.moduleId, edge.version));
+            }
+            Graph graph = null;
+            for (int i = 0; i < MAX_PASSES; i++) {
+                graph = walk(directEdges, pinnedVersions);
+                if (!graph.electVersions(pinnedVersions, conflictStrategy, directVersionsForced)) {
+                    break;
+                }
+                JkLog.trace("Versions elected by conflict strategy differ from nearest ones. Walk graph again.");
+            }
+            graph.conflictProblems.forEach(this::addProblem);
+            Map<JkModuleId, List<Path>> artifacts = fetchArtifacts(graph);
+            JkModuleNodeInfo rootInfo = module == null ? JkModuleNodeInfo.ofAnonymousRoot()
+                    : JkModuleNodeInfo.ofRoot(module);
+            Map<JkModuleId, Set<String>> rootConfigurations = graph.rootConfigurations();
+            List<JkResolvedDependencyNode> children = new LinkedList<>();
+            for (Edge edge : graph.rootEdges) {
+                children.add(node(edge, graph, artifacts, rootConfigurations, new HashSet<>()));
+            }
+            JkResolvedDependencyNode tree = JkResolvedDependencyNode.ofModuleDep(rootInfo, children);
+            JkResolveResult.JkErrorReport errorReport = problems.isEmpty() ? JkResolveResult.JkErrorReport.allFine()
+                    : JkResolveResult.JkErrorReport.failure(new ArrayList<>(problems.values()));
+            return JkResolveResult.of(tree, errorReport);
+        }
+
+        private Edge directEdge(JkQualifiedDependency qualifiedDependency, Set<String> globalExclusions) {
+            JkModuleDependency dependency = qualifiedDependency.getModuleDependency();
+            Set<String> exclusions = new HashSet<>(globalExclusions);
+            dependency.getExclusions().forEach(exclusion -> exclusions.add(exclusion.getModuleId().toString()));
+            return new Edge(dependency.getModuleId(), dependency.getVersion(),
+                    concreteVersion(dependency.getModuleId(), dependency.getVersion()),
+                    masterConfigurations(qualifiedDependency.getQualifier()),
+                    JkUtilsObject.firstNonNull(dependency.getTransitivity(), JkTransitivity.RUNTIME),
+                    exclusions, dependency.getArtifactSpecifications());
+        }
+
+        private Graph walk(List<Edge> directEdges, Map<JkModuleId, JkVersion> pinnedVersions) {
+            Graph graph = new Graph(directEdges);
+            List<Edge> level = directEdges;
+            while (!level.isEmpty()) {
+                Map<JkModuleId, Edge> toExpand = new LinkedHashMap<>();
+                for (Edge edge : level) {
+                    graph.candidates.computeIfAbsent(edge.moduleId, key -> new LinkedHashSet<>()).add(edge.version);
+                    graph.selectedVersions.putIfAbsent(edge.moduleId,
+                            pinnedVersions.getOrDefault(edge.moduleId, edge.version));
+                    graph.edges.computeIfAbsent(edge.moduleId, key -> new LinkedList<>()).add(edge);
+                    JkTransitivity expandedTransitivity = graph.expandedTransitivities.get(edge.moduleId);
+                    if (expandedTransitivity == null || (expandedTransitivity != edge.transitivity &&
+                            JkTransitivity.ofDeepest(expandedTransitivity, edge.transitivity) == edge.transitivity)) {
+                        graph.expandedTransitivities.put(edge.moduleId, edge.transitivity);
+                        toExpand.put(edge.moduleId, edge);
+                    }
+                }
+
+                // Poms of a same level are fetched concurrently
+                Map<JkModuleId, Future<List<Edge>>> futures = new LinkedHashMap<>();
+                toExpand.forEach((moduleId, edge) -> futures.put(moduleId, executorService.submit(() ->
+                        childEdges(edge, graph.selectedVersions.get(moduleId)))));
+                List<Edge> nextLevel = new LinkedList<>();
+                for (Map.Entry<JkModuleId, Future<List<Edge>>> entry : futures.entrySet()) {
+                    List<Edge> childEdges = get(entry.getValue());
+                    graph.children.put(entry.getKey(), childEdges);
+                    nextLevel.addAll(childEdges);
+                }
+                level = nextLevel;
+            }
+            return graph;
+        }
+
+        private List<Edge> childEdges(Edge edge, JkVersion version) {
+            if (edge.transitivity == JkTransitivity.NONE) {
+                return Collections.emptyList();
+            }
+            MavenPom pom = effectivePom(edge.moduleId.getGroup(), edge.moduleId.getName(), version.getValue(),
+                    new LinkedList<>());
+            if (pom == null) {
+                return Collections.emptyList();
+            }
+            List<Edge> result = new LinkedList<>();
+            Set<String> seen = new HashSet<>();
+            for (MavenPom.Dependency rawDependency : pom.dependencies) {
+                MavenPom.Dependency dependency = rawDependency.managedBy(pom.managed(rawDependency));
+                String scope = dependency.getScope();
+                boolean included = "compile".equals(scope)
+                        || ("runtime".equals(scope) && edge.transitivity == JkTransitivity.RUNTIME);
+                if (!included || dependency.optional || !seen.add(dependency.managementKey())
+                        || isExcluded(edge.exclusions, dependency.groupId, dependency.artifactId)) {
+                    continue;
+                }
+                JkModuleId moduleId = JkModuleId.of(dependency.groupId, dependency.artifactId);
+                if (dependency.version == null) {
+                    addProblem(JkModuleDepProblem.of(edge.moduleId, version.getValue(),
+                            "No version declared nor managed for dependency " + moduleId));
+                    continue;
+                }
+                Set<String> exclusions = new HashSet<>(edge.exclusions);
+                dependency.exclusions.forEach(exclusion -> exclusions.add(exclusion[0] + ":" + exclusion[1]));
+                JkTransitivity transitivity = "runtime".equals(scope) ? JkTransitivity.RUNTIME : edge.transitivity;
+                JkVersion declaredVersion = JkVersion.of(dependency.version);
+                result.add(new Edge(moduleId, declaredVersion, concreteVersion(moduleId, declaredVersion),
+                        Collections.singleton(scope), transitivity, exclusions, artifactSpecifications(dependency)));
+            }
+            return result;
+        }
+
+        private Map<JkModuleId, List<Path>> fetchArtifacts(Graph graph) {
+            Map<JkModuleId, Future<List<Path>>> futures = new LinkedHashMap<>();
+            graph.selectedVersions.forEach((moduleId, version) -> futures.put(moduleId, executorService.submit(() ->
+                    artifacts(moduleId, version, graph.edges.get(moduleId)))));
+            Map<JkModuleId, List<Path>> result = new HashMap<>();
+            futures.forEach((moduleId, future) -> result.put(moduleId, get(future)));
+            return result;
+        }
+
+        private List<Path> artifacts(JkModuleId moduleId, JkVersion version, List<Edge> edges) {
+            Set<JkArtifactSpecification> artifactSpecifications = new LinkedHashSet<>();
+            for (Edge edge : edges) {
+                if (edge.artifactSpecifications.isEmpty()) {
+                    artifactSpecifications.add(JkArtifactSpecification.MAIN);
+                }
+                artifactSpecifications.addAll(edge.artifactSpecifications);
+            }
+            MavenPom pom = effectivePom(moduleId.getGroup(), moduleId.getName(), version.getValue(),
+                    new LinkedList<>());
+            List<Path> result = new LinkedList<>();
+            for (JkArtifactSpecification artifactSpecification : artifactSpecifications) {
+                String classifier = artifactSpecification.getClassifier();
+                String type = artifactSpecification.getType();
+                if (artifactSpecification.equals(JkArtifactSpecification.MAIN) && pom != null
+                        && "pom".equals(pom.packaging)) {
+                    continue;
+                }
+                if ("pom".equals(type)) {
+                    continue;
+                }
+                String extension = type == null || "bundle".equals(type) ? "jar" : type;
+                Path file = repoAccess.get(moduleId.getGroup(), moduleId.getName(), version.getValue(), classifier,
+                        extension);
+                if (file != null) {
+                    result.add(file);
+                } else if (pom == null) {
+                    addProblem(JkModuleDepProblem.of(moduleId, version.getValue(), "Module not found."));
+                } else {
+                    addProblem(JkModuleDepProblem.of(moduleId, version.getValue(), "Artifact "
+                            + (classifier == null ? "" : classifier + " ") + extension + " not found."));
+                }
+            }
+            return result;
+        }
+
+        private JkResolvedDependencyNode node(Edge edge, Graph graph, Map<JkModuleId, List<Path>> artifacts,
+                                              Map<JkModuleId, Set<String>> rootConfigurations,
+                                              Set<JkModuleId> ancestors) {
+            JkModuleNodeInfo nodeInfo = JkModuleNodeInfo.of(edge.moduleId, edge.declaredVersion,
+                    edge.declaredConfigurations, rootConfigurations.get(edge.moduleId),
+                    graph.selectedVersions.get(edge.moduleId), artifacts.get(edge.moduleId));
+            List<JkResolvedDependencyNode> children = new LinkedList<>();
+            if (ancestors.add(edge.moduleId)) {
+                for (Edge childEdge : graph.children.getOrDefault(edge.moduleId, Collections.emptyList())) {
+                    children.add(node(childEdge, graph, artifacts, rootConfigurations, ancestors));
+                }
+                ancestors.remove(edge.moduleId);
+            }
+            return JkResolvedDependencyNode.ofModuleDep(nodeInfo, children);
+        }
+
+        /*
+         * Returns the pom of the specified module, inherited from its parents, interpolated and completed with
+         * imported boms. Returns null if no repository holds it.
+         */
+        private MavenPom effectivePom(String group, String name, String version, Deque<String> chain) {
+            return cached("effective", group, name, version, chain, () -> {
+                MavenPom pom = inheritedPom(group, name, version, chain);
+                if (pom == null) {
+                    return null;
+                }
+                MavenPom result = pom.interpolated();
+                List<MavenPom.Dependency> importedManagement = new LinkedList<>();
+                for (MavenPom.Dependency managed : result.dependencyManagement) {
+                    if ("import".equals(managed.scope) && "pom".equals(managed.type) && managed.version != null) {
+                        MavenPom bom = effectivePom(managed.groupId, managed.artifactId, managed.version, chain);
+                        if (bom == null) {
+                            addProblem(JkModuleDepProblem.of(JkModuleId.of(managed.groupId, managed.artifactId),
+                                    managed.version, "Bom imported from " + group + ":" + name + ":" + version
+                                            + " not found."));
+                        } else {
+                            importedManagement.addAll(bom.dependencyManagement);
+                        }
+                    }
+                }
+                return result.withImportedManagement(importedManagement);
+            });
+        }
+
+        // Returns the pom merged with its parents, not interpolated
+        private MavenPom inheritedPom(String group, String name, String version, Deque<String> chain) {
+            return cached("inherited", group, name, version, chain, () -> {
+                Path pomFile = repoAccess.get(group, name, version, null, "pom");
+                if (pomFile == null) {
+                    return null;
+                }
+                MavenPom pom = MavenPom.read(pomFile);
+                if (pom.parent == null) {
+                    return pom;
+                }
+                MavenPom parentPom = inheritedPom(pom.parent[0], pom.parent[1], pom.parent[2], chain);
+                if (parentPom == null) {
+                    addProblem(JkModuleDepProblem.of(JkModuleId.of(pom.parent[0], pom.parent[1]), pom.parent[2],
+                            "Parent pom of " + group + ":" + name + ":" + version + " not found."));
+                    return pom;
+                }
+                return pom.withParent(parentPom);
+            });
+        }
+
+        /*
+         * Poms are computed once, the first thread asking for one computes it while the others wait for it.
+         */
+        private MavenPom cached(String kind, String group, String name, String version, Deque<String> chain,
+                                Callable<MavenPom> computation) {
+            String key = kind + ":" + group + ":" + name + ":" + version;
+            if (chain.contains(key)) {
+                throw new IllegalStateException("Cycle detected in pom hierarchy : " + chain + " -> " + key);
+            }
+            boolean release = !version.endsWith("-SNAPSHOT");
+            Map<String, CompletableFuture<MavenPom>> cache = release ? releasePoms : snapshotPoms;
+            CompletableFuture<MavenPom> future = new CompletableFuture<>();
+            CompletableFuture<MavenPom> existing = cache.putIfAbsent(key, future);
+            if (existing != null) {
+                return existing.join();
+            }
+            chain.push(key);
+            try {
+                MavenPom result = computation.call();
+                future.complete(result);
+
+                // A missing pom may be published later
+                if (result == null) {
+                    cache.remove(key);
+                }
+                return result;
+            } catch (Exception e) {
+                cache.remove(key);
+                future.completeExceptionally(e);
+                throw e instanceof RuntimeException ? (RuntimeException) e : new IllegalStateException(e);
+            } finally {
+                chain.pop();
+            }
+        }
+
+        private JkVersion concreteVersion(JkModuleId moduleId, JkVersion version) {
+            if (!version.isDynamicAndResovable()) {
+                return version;
+            }
+            List<String> versions = availableVersions.computeIfAbsent(moduleId.toString(),
+                    key -> repoAccess.getVersions(moduleId.getGroup(), moduleId.getName()));
+            Optional<String> result = versions.stream()
+                    .filter(candidate -> matches(version.getValue(), candidate))
+                    .max(JkVersion.VERSION_COMPARATOR);
+            if (!result.isPresent()) {
+                addProblem(JkModuleDepProblem.of(moduleId, version.getValue(), "No version matching among "
+                        + versions));
+                return version;
+            }
+            return JkVersion.of(result.get());
+        }
+
+        private void addProblem(JkModuleDepProblem problem) {
+            problems.putIfAbsent(problem.toString(), problem);
+        }
+
+        private static <T> T get(Future<T> future) {
+            try {
+                return future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while resolving dependencies", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new IllegalStateException(cause);
+            }
+        }
+
+    }
+
+    /*
+     * A module dependency as declared in the dependency set to resolve or in a pom.
+     */
+    private static final class Edge {
+
+        final JkModuleId moduleId;
+
+        final JkVersion declaredVersion;
+
+        // Declared version where dynamic versions are resolved to a concrete one
+        final JkVersion version;
+
+        final Set<String> declaredConfigurations;
+
+        final JkTransitivity transitivity;
+
+        // 'group:name' of excluded modules, possibly containing '*'
+        final Set<String> exclusions;
+
+        final Set<JkArtifactSpecification> artifactSpecifications;
+
+        Edge(JkModuleId moduleId, JkVersion declaredVersion, JkVersion version, Set<String> declaredConfigurations,
+             JkTransitivity transitivity, Set<String> exclusions,
+             Set<JkArtifactSpecification> artifactSpecifications) {
+            this.moduleId = moduleId;
+            this.declaredVersion = declaredVersion;
+            this.version = version;
+            this.declaredConfigurations = declaredConfigurations;
+            this.transitivity = transitivity;
+            this.exclusions = exclusions;
+            this.artifactSpecifications = artifactSpecifications;
+        }
+    }
+
+    /*
+     * Result of a walk through the dependency graph.
+     */
+    private static final class Graph {
+
+        final List<Edge> rootEdges;
+
+        // Version each module has been resolved to
+        final Map<JkModuleId, JkVersion> selectedVersions = new LinkedHashMap<>();
+
+        // Versions each module has been met with
+        final Map<JkModuleId, Set<JkVersion>> candidates = new LinkedHashMap<>();
+
+        final Map<JkModuleId, List<Edge>> edges = new HashMap<>();
+
+        final Map<JkModuleId, List<Edge>> children = new HashMap<>();
+
+        final Map<JkModuleId, JkTransitivity> expandedTransitivities = new HashMap<>();
+
+        final List<JkModuleDepProblem> conflictProblems = new LinkedList<>();
+
+        Graph(List<Edge> rootEdges) {
+            this.rootEdges = rootEdges;
+        }
+
+        /*
+         * Pins the versions elected by the specified strategy among the ones each module has been met with.
+         * Returns true if an elected version differs from the one modules have been resolved to in this walk.
+         */
+        boolean electVersions(Map<JkModuleId, JkVersion> pinnedVersions,
+                              JkVersionedModule.ConflictStrategy conflictStrategy, boolean directVersionsForced) {
+            Set<JkModuleId> directModuleIds = rootEdges.stream().map(edge -> edge.moduleId).collect(Collectors.toSet());
+            boolean changed = false;
+            for (Map.Entry<JkModuleId, Set<JkVersion>> entry : candidates.entrySet()) {
+                JkModuleId moduleId = entry.getKey();
+                if (directVersionsForced && directModuleIds.contains(moduleId)) {
+                    continue;
+                }
+                Iterator<JkVersion> it = entry.getValue().iterator();
+                JkVersionedModule elected = JkVersionedModule.of(moduleId, it.next());
+                while (it.hasNext()) {
+                    try {
+                        elected = elected.resolveConflict(it.next(), conflictStrategy);
+                    } catch (IllegalStateException e) {
+                        conflictProblems.add(JkModuleDepProblem.of(moduleId, selectedVersions.get(moduleId)
+                                .getValue(), e.getMessage()));
+                        break;
+                    }
+                }
+                if (!elected.getVersion().equals(selectedVersions.get(moduleId))) {
+                    pinnedVersions.put(moduleId, elected.getVersion());
+                    changed = true;
+                }
+            }
+            return changed;
+        }
+
+        // Configurations of the resolved dependencies each module is reached from
+        Map<JkModuleId, Set<String>> rootConfigurations() {
+            Map<JkModuleId, Set<String>> result = new HashMap<>();
+            Deque<JkModuleId> toVisit = new ArrayDeque<>();
+            for (Edge edge : rootEdges) {
+                result.computeIfAbsent(edge.moduleId, key -> new HashSet<>()).addAll(edge.declaredConfigurations);
+                toVisit.add(edge.moduleId);
+            }
+            while (!toVisit.isEmpty()) {
+                JkModuleId moduleId = toVisit.pop();
+                Set<String> configurations = result.get(moduleId);
+                for (Edge childEdge : children.getOrDefault(moduleId, Collections.emptyList())) {
+                    if (result.computeIfAbsent(childEdge.moduleId, key -> new HashSet<>()).addAll(configurations)) {
+                        toVisit.add(childEdge.moduleId);
+                    }
+                }
+            }
+            return result;
+        }
+    }
+
+    private static Set<String> masterConfigurations(String qualifier) {
+        Set<String> result = new LinkedHashSet<>();
+        if (qualifier != null) {
+            for (String mapping : qualifier.split(";")) {
+                for (String configuration : JkUtilsString.substringBeforeFirst(mapping + "->", "->").split(",")) {
+                    if (!configuration.trim().isEmpty()) {
+                        result.add(configuration.trim());
+                    }
+                }
+            }
+        }
+        return result.isEmpty() ? Collections.singleton(DEFAULT_CONFIGURATION) : result;
+    }
+
+    private static boolean isExcluded(Set<String> exclusions, String group, String name) {
+        for (String exclusion : exclusions) {
+            String excludedGroup = JkUtilsString.substringBeforeFirst(exclusion, ":");
+            String excludedName = JkUtilsString.substringAfterFirst(exclusion, ":");
+            if (("*".equals(excludedGroup) || excludedGroup.equals(group))
+                    && ("*".equals(excludedName) || excludedName.equals(name))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Set<JkArtifactSpecification> artifactSpecifications(MavenPom.Dependency dependency) {
+        String type = dependency.getType();
+        if ("jar".equals(type) && dependency.classifier == null) {
+            return Collections.emptySet();
+        }
+        if ("test-jar".equals(type)) {
+            return Collections.singleton(JkArtifactSpecification.of(
+                    JkUtilsObject.firstNonNull(dependency.classifier, "tests"), "jar"));
+        }
+        return Collections.singleton(JkArtifactSpecification.of(dependency.classifier, type));
+    }
+
+    // Handles 'x.y.+', 'latest.xxx' and Maven or Ivy ranges as '[1.0,2.0)' or '[1.0,2.0['
+    static boolean matches(String versionRange, String candidate) {
+        if ("+".equals(versionRange) || versionRange.startsWith("latest.")) {
+            return !"latest.release".equals(versionRange) || !candidate.endsWith("-SNAPSHOT");
+        }
+        if (versionRange.endsWith(".+")) {
+            return candidate.startsWith(versionRange.substring(0, versionRange.length() - 1));
+        }
+        boolean lowerInclusive = versionRange.startsWith("[");
+        boolean upperInclusive = versionRange.endsWith("]");
+        String[] bounds = versionRange.substring(1, versionRange.length() - 1).split(",", -1);
+        if (bounds.length == 1) {
+            return bounds[0].trim().equals(candidate);
+        }
+        String lower = bounds[0].trim();
+        String upper = bounds[1].trim();
+        if (!lower.isEmpty()) {
+            int comparison = JkVersion.VERSION_COMPARATOR.compare(candidate, lower);
+            if (comparison < 0 || (comparison == 0 && !lowerInclusive)) {
+                return false;
+            }
+        }
+        if (!upper.isEmpty()) {
+            int comparison = JkVersion.VERSION_COMPARATOR.compare(candidate, upper);
+            return comparison < 0 || (comparison == 0 && upperInclusive);
+        }
+        return true;
+    }
+
+}
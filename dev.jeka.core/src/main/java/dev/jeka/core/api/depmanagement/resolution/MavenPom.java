@@ -0,0 +1,418 @@
+package dev.jeka.core.api.depmanagement.resolution;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.function.UnaryOperator;
+
+/*
+ * The part of a pom.xml file relevant for dependency resolution. Poms are read with a streaming parser, skipping
+ * everything but coordinates, parent, properties, dependency management and dependencies.<p>
+ *
+ * Instances are immutable : inheritance and interpolation return new instances.
+ */
+final class MavenPom {
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = xmlInputFactory();
+
+    final String groupId;
+
+    final String artifactId;
+
+    final String version;
+
+    final String packaging;
+
+    // groupId, artifactId and version of the parent, or null
+    final String[] parent;
+
+    final Map<String, String> properties;
+
+    final List<Dependency> dependencyManagement;
+
+    final List<Dependency> dependencies;
+
+    private MavenPom(String groupId, String artifactId, String version, String packaging, String[] parent,
+                     Map<String, String> properties, List<Dependency> dependencyManagement,
+                     List<Dependency> dependencies) {
+        this.groupId = groupId;
+        this.artifactId = artifactId;
+        this.version = version;
+        this.packaging = packaging;
+        this.parent = parent;
+        this.properties = Collections.unmodifiableMap(properties);
+        this.dependencyManagement = Collections.unmodifiableList(dependencyManagement);
+        this.dependencies = Collections.unmodifiableList(dependencies);
+    }
+
+    static MavenPom read(Path pomFile) {
+        try (InputStream inputStream = Files.newInputStream(pomFile)) {
+            return read(inputStream);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("Can not read pom file " + pomFile, e);
+        }
+    }
+
+    static MavenPom read(InputStream inputStream) {
+        String groupId = null;
+        String artifactId = null;
+        String version = null;
+        String packaging = "jar";
+        String[] parent = null;
+        Map<String, String> properties = new HashMap<>();
+        List<Dependency> dependencyManagement = new LinkedList<>();
+        List<Dependency> dependencies = new LinkedList<>();
+        Deque<String> path = new ArrayDeque<>();
+        Dependency dependency = null;
+        boolean managed = false;
+        String[] exclusion = null;
+        try {
+            XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(inputStream);
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.END_ELEMENT) {
+                    String element = path.removeLast();
+                    if ("dependency".equals(element) && dependency != null) {
+                        (managed ? dependencyManagement : dependencies).add(dependency);
+                        dependency = null;
+                    } else if ("exclusion".equals(element) && dependency != null && exclusion != null) {
+                        dependency.exclusions.add(exclusion);
+                        exclusion = null;
+                    }
+                    continue;
+                }
+                if (event != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
+                String element = reader.getLocalName();
+                String parentElement = path.peekLast();
+                int depth = path.size();
+                path.addLast(element);
+                if (depth == 2 && "properties".equals(parentElement)) {
+                    properties.put(element, text(reader));
+                    path.removeLast();
+                } else if (depth == 1 && isCoordinate(element)) {
+                    String value = text(reader);
+                    path.removeLast();
+                    switch (element) {
+                        case "groupId": groupId = value; break;
+                        case "artifactId": artifactId = value; break;
+                        case "version": version = value; break;
+                        default: packaging = value;
+                    }
+                } else if (depth == 2 && "parent".equals(parentElement) && isCoordinate(element)) {
+                    parent = parent == null ? new String[3] : parent;
+                    String value = text(reader);
+                    path.removeLast();
+                    switch (element) {
+                        case "groupId": parent[0] = value; break;
+                        case "artifactId": parent[1] = value; break;
+                        case "version": parent[2] = value; break;
+                        default:
+                    }
+                } else if ("dependency".equals(element) && isDependencyPath(path)) {
+                    dependency = new Dependency();
+                    managed = depth == 3;
+                } else if (dependency != null && "exclusion".equals(element)) {
+                    exclusion = new String[2];
+                } else if (exclusion != null && "exclusion".equals(parentElement)) {
+                    String value = text(reader);
+                    path.removeLast();
+                    if ("groupId".equals(element)) {
+                        exclusion[0] = value;
+                    } else if ("artifactId".equals(element)) {
+                        exclusion[1] = value;
+                    }
+                } else if (dependency != null && "dependency".equals(parentElement)
+                        && !"exclusions".equals(element)) {
+                    String value = text(reader);
+                    path.removeLast();
+                    dependency.set(element, value);
+                }
+            }
+            reader.close();
+        } catch (XMLStreamException e) {
+            throw new IllegalStateException("Can not parse pom", e);
+        }
+        if (parent != null) {
+            groupId = groupId == null ? parent[0] : groupId;
+            version = version == null ? parent[2] : version;
+        }
+        return new MavenPom(groupId, artifactId, version, packaging, parent, properties, dependencyManagement,
+                dependencies);
+    }
+
+    /**
+     * Returns the versions listed in the specified maven-metadata.xml content.
+     */
+    static List<String> readMetadataVersions(InputStream inputStream) {
+        List<String> result = new LinkedList<>();
+        try {
+            XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(inputStream);
+            String parentElement = null;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    if ("version".equals(reader.getLocalName()) && "versions".equals(parentElement)) {
+                        result.add(text(reader));
+                    } else {
+                        parentElement = reader.getLocalName();
+                    }
+                }
+            }
+            reader.close();
+        } catch (XMLStreamException e) {
+            throw new IllegalStateException("Can not parse maven metadata", e);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the timestamped version ('1.0-20210320.101010-3') of the last snapshot listed in the specified
+     * maven-metadata.xml content, or <code>null</code> if it mentions none.
+     */
+    static String readMetadataSnapshotVersion(InputStream inputStream, String snapshotVersion) {
+        String timestamp = null;
+        String buildNumber = null;
+        try {
+            XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(inputStream);
+            String parentElement = null;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event != XMLStreamConstants.START_ELEMENT) {
+                    continue;
+                }
+                String element = reader.getLocalName();
+                if ("snapshot".equals(parentElement) && "timestamp".equals(element)) {
+                    timestamp = text(reader);
+                } else if ("snapshot".equals(parentElement) && "buildNumber".equals(element)) {
+                    buildNumber = text(reader);
+                } else {
+                    parentElement = element;
+                }
+            }
+            reader.close();
+        } catch (XMLStreamException e) {
+            throw new IllegalStateException("Can not parse maven metadata", e);
+        }
+        if (timestamp == null || buildNumber == null) {
+            return null;
+        }
+        return snapshotVersion.substring(0, snapshotVersion.length() - "SNAPSHOT".length())
+                + timestamp + "-" + buildNumber;
+    }
+
+    /**
+     * Returns a pom resulting from the inheritance of the specified parent pom. Parent's properties,
+     * managed dependencies and dependencies are added, this pom ones taking precedence.
+     */
+    MavenPom withParent(MavenPom parentPom) {
+        Map<String, String> mergedProperties = new HashMap<>(parentPom.properties);
+        mergedProperties.putAll(properties);
+        mergedProperties.put("project.parent.groupId", parentPom.groupId);
+        mergedProperties.put("project.parent.version", parentPom.version);
+        List<Dependency> mergedManagement = new LinkedList<>(dependencyManagement);
+        mergedManagement.addAll(parentPom.dependencyManagement);
+        List<Dependency> mergedDependencies = new LinkedList<>(dependencies);
+        mergedDependencies.addAll(parentPom.dependencies);
+        return new MavenPom(groupId, artifactId, version, packaging, parent, mergedProperties, mergedManagement,
+                mergedDependencies);
+    }
+
+    /**
+     * Returns a pom where <code>${...}</code> expressions are replaced by property values. Unknown properties
+     * are left as is.
+     */
+    MavenPom interpolated() {
+        Map<String, String> values = new HashMap<>(properties);
+        values.put("project.groupId", groupId);
+        values.put("project.artifactId", artifactId);
+        values.put("project.version", version);
+        values.put("pom.groupId", groupId);
+        values.put("pom.version", version);
+        values.put("groupId", groupId);
+        values.put("version", version);
+        UnaryOperator<String> interpolator = value -> interpolate(value, values);
+        Map<String, String> interpolatedProperties = new HashMap<>();
+        properties.forEach((key, value) -> interpolatedProperties.put(key, interpolator.apply(value)));
+        List<Dependency> interpolatedManagement = new LinkedList<>();
+        dependencyManagement.forEach(dep -> interpolatedManagement.add(dep.interpolated(interpolator)));
+        List<Dependency> interpolatedDependencies = new LinkedList<>();
+        dependencies.forEach(dep -> interpolatedDependencies.add(dep.interpolated(interpolator)));
+        return new MavenPom(groupId, artifactId, interpolator.apply(version), packaging, parent,
+                interpolatedProperties, interpolatedManagement, interpolatedDependencies);
+    }
+
+    /**
+     * Returns a pom having the specified managed dependencies appended, so with lower precedence than
+     * this pom ones.
+     */
+    MavenPom withImportedManagement(List<Dependency> importedManagement) {
+        List<Dependency> mergedManagement = new LinkedList<>(dependencyManagement);
+        mergedManagement.addAll(importedManagement);
+        return new MavenPom(groupId, artifactId, version, packaging, parent, properties, mergedManagement,
+                dependencies);
+    }
+
+    /**
+     * Returns the dependency management entry matching the specified dependency, or <code>null</code>.
+     * First declared entries take precedence.
+     */
+    Dependency managed(Dependency dependency) {
+        for (Dependency candidate : dependencyManagement) {
+            if (candidate.managementKey().equals(dependency.managementKey())) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private static String interpolate(String value, Map<String, String> values) {
+        if (value == null || !value.contains("${")) {
+            return value;
+        }
+        String result = value;
+
+        // Property values may refer to other properties
+        for (int i = 0; i < 10 && result.contains("${"); i++) {
+            StringBuilder sb = new StringBuilder();
+            int index = 0;
+            while (index < result.length()) {
+                int start = result.indexOf("${", index);
+                int end = start < 0 ? -1 : result.indexOf('}', start);
+                if (end < 0) {
+                    sb.append(result, index, result.length());
+                    break;
+                }
+                sb.append(result, index, start);
+                String name = result.substring(start + 2, end);
+                String replacement = values.get(name);
+                sb.append(replacement == null ? result.substring(start, end + 1) : replacement);
+                index = end + 1;
+            }
+            if (sb.toString().equals(result)) {
+                break;
+            }
+            result = sb.toString();
+        }
+        return result;
+    }
+
+    private static boolean isCoordinate(String element) {
+        return "groupId".equals(element) || "artifactId".equals(element) || "version".equals(element)
+                || "packaging".equals(element);
+    }
+
+    // project/dependencies/dependency or project/dependencyManagement/dependencies/dependency
+    private static boolean isDependencyPath(Deque<String> path) {
+        List<String> elements = new ArrayList<>(path);
+        if (elements.size() == 3) {
+            return "dependencies".equals(elements.get(1));
+        }
+        return elements.size() == 4 && "dependencyManagement".equals(elements.get(1))
+                && "dependencies".equals(elements.get(2));
+    }
+
+    private static String text(XMLStreamReader reader) throws XMLStreamException {
+        return reader.getElementText().trim();
+    }
+
+    private static XMLInputFactory xmlInputFactory() {
+        XMLInputFactory result = XMLInputFactory.newInstance();
+        result.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        result.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return result;
+    }
+
+    static final class Dependency {
+
+        String groupId;
+
+        String artifactId;
+
+        String version;
+
+        String type;
+
+        String classifier;
+
+        String scope;
+
+        boolean optional;
+
+        // groupId and artifactId of excluded modules, possibly '*'
+        final List<String[]> exclusions = new LinkedList<>();
+
+        String getType() {
+            return type == null ? "jar" : type;
+        }
+
+        String getScope() {
+            return scope == null ? "compile" : scope;
+        }
+
+        String managementKey() {
+            return groupId + ":" + artifactId + ":" + getType() + ":" + classifier;
+        }
+
+        private void set(String element, String value) {
+            switch (element) {
+                case "groupId": groupId = value; break;
+                case "artifactId": artifactId = value; break;
+                case "version": version = value; break;
+                case "type": type = value; break;
+                case "classifier": classifier = value; break;
+                case "scope": scope = value; break;
+                case "optional": optional = "true".equals(value); break;
+                default:
+            }
+        }
+
+        private Dependency interpolated(UnaryOperator<String> interpolator) {
+            Dependency result = new Dependency();
+            result.groupId = interpolator.apply(groupId);
+            result.artifactId = interpolator.apply(artifactId);
+            result.version = interpolator.apply(version);
+            result.type = interpolator.apply(type);
+            result.classifier = interpolator.apply(classifier);
+            result.scope = interpolator.apply(scope);
+            result.optional = optional;
+            result.exclusions.addAll(exclusions);
+            return result;
+        }
+
+        /**
+         * Returns this dependency with version, scope and exclusions completed from the specified management
+         * entry.
+         */
+        Dependency managedBy(Dependency management) {
+            Dependency result = interpolated(UnaryOperator.identity());
+            if (management == null) {
+                return result;
+            }
+            if (result.version == null) {
+                result.version = management.version;
+            }
+            if (result.scope == null) {
+                result.scope = management.scope;
+            }
+            result.exclusions.addAll(management.exclusions);
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return groupId + ":" + artifactId + ":" + version;
+        }
+    }
+
+}
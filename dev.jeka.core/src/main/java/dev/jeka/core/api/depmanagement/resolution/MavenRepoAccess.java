@@ -0,0 +1,465 @@
+package dev.jeka.core.api.depmanagement.resolution;
+
+import dev.jeka.core.api.depmanagement.JkRepo;
+import dev.jeka.core.api.depmanagement.JkRepoSet;
+import dev.jeka.core.api.file.JkPathFile;
+import dev.jeka.core.api.system.JkLog;
+import dev.jeka.core.api.utils.JkUtilsIO;
+import dev.jeka.core.api.utils.JkUtilsPath;
+import dev.jeka.core.api.utils.JkUtilsTime;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/*
+ * Fetches files from Maven-layout repositories. Files from file system repositories are used in place, files from
+ * remote ones are downloaded once into the Jeka repository cache. Changing files, as maven-metadata.xml or non unique
+ * snapshots, are downloaded again when resolution is refreshed and they are older than the metadata TTL of their
+ * repository. Fetch times are kept in an index next to downloaded files. Access is thread safe.
+ *
+ * Files found absent from a remote repository are recorded in a miss cache so they are not asked again to this
+ * repository until the record expires. When an executor is provided, poms are asked concurrently to consecutive
+ * remote repositories, the first repository in declaration order holding the pom winning. Artifacts are first
+ * asked to the repository which has provided the pom.
+ *
+ * Downloaded files are checked against the checksum published by the repository, if any. Repositories not responding
+ * in time, or providing files not matching their checksum, are skipped in favor of the next ones.
+ */
+final class MavenRepoAccess {
+
+    private static final int MAX_REDIRECTS = 5;
+
+    private static final int FAILED = -1;
+
+    private static final int CONNECT_TIMEOUT = 10000;
+
+    private static final int READ_TIMEOUT = 30000;
+
+    // Checksum file extensions, in order of preference, with their digest algorithm
+    private static final String[][] CHECKSUMS = {{"sha1", "SHA-1"}, {"md5", "MD5"}};
+
+    private final List<JkRepo> repos;
+
+    private final Path cacheDir;
+
+    private final boolean refreshed;
+
+    private final boolean refreshForced;
+
+    private final RepoMissCache missCache;
+
+    private final MetadataIndex metadataIndex;
+
+    private final ExecutorService executorService;
+
+    // Forced refreshes do not fetch again files already fetched since this time
+    private final long creationTime;
+
+    // Repository which has provided the pom of a given module version directory
+    private final Map<String, JkRepo> hostRepos = new ConcurrentHashMap<>();
+
+    private MavenRepoAccess(List<JkRepo> repos, Path cacheDir, boolean refreshed, boolean refreshForced,
+                            RepoMissCache missCache, ExecutorService executorService, long creationTime) {
+        this.repos = repos;
+        this.cacheDir = cacheDir;
+        this.refreshed = refreshed;
+        this.refreshForced = refreshForced;
+        this.missCache = missCache;
+        this.metadataIndex = MetadataIndex.of(cacheDir.resolve("metadata-index.txt"));
+        this.executorService = executorService;
+        this.creationTime = creationTime;
+    }
+
+    static MavenRepoAccess of(JkRepoSet repoSet, Path cacheDir, boolean refreshed, boolean refreshForced,
+                              RepoMissCache missCache) {
+        return new MavenRepoAccess(repoSet.getRepos(), cacheDir, refreshed, refreshForced, missCache, null,
+                System.currentTimeMillis());
+    }
+
+    /**
+     * Returns an access identical to this one but racing pom requests on the specified executor. The executor must
+     * not run tasks waiting for this access.
+     */
+    MavenRepoAccess withRacing(ExecutorService executorService) {
+        return new MavenRepoAccess(repos, cacheDir, refreshed, refreshForced, missCache, executorService,
+                creationTime);
+    }
+
+    /**
+     * Returns the urls of the repositories, in the order they are looked up.
+     */
+    List<String> getRepoUrls() {
+        return repos.stream().map(repo -> repo.getUrl().toExternalForm()).collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the local file standing for the specified artifact, looking in repositories in order. Returns
+     * <code>null</code> if no repository holds it.
+     */
+    Path get(String group, String name, String version, String classifier, String extension) {
+        String versionDir = group.replace('.', '/') + "/" + name + "/" + version;
+        boolean racing = executorService != null && "pom".equals(extension) && !version.endsWith("-SNAPSHOT");
+        List<JkRepo> orderedRepos = orderedRepos(versionDir);
+        for (int i = 0; i < orderedRepos.size(); i++) {
+            List<JkRepo> remoteRun = racing ? remoteRun(orderedRepos, i) : Collections.emptyList();
+            Path result;
+            if (remoteRun.size() > 1) {
+                result = race(remoteRun, versionDir, name, version, classifier, extension);
+                i += remoteRun.size() - 1;
+            } else {
+                result = get(orderedRepos.get(i), versionDir, name, version, classifier, extension);
+            }
+            if (result != null) {
+                return result;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the versions of the specified module available in all repositories.
+     */
+    List<String> getVersions(String group, String name) {
+        String modulePath = group.replace('.', '/') + "/" + name;
+        Set<String> result = new LinkedHashSet<>();
+        for (JkRepo repo : repos) {
+            byte[] metadata = read(repo, modulePath + "/maven-metadata.xml");
+            if (metadata != null) {
+                result.addAll(MavenPom.readMetadataVersions(new ByteArrayInputStream(metadata)));
+            } else if (isFileSystem(repo)) {
+                Path moduleDir = JkUtilsPath.get(repo.getUrl()).resolve(modulePath);
+                if (Files.isDirectory(moduleDir)) {
+                    try (Stream<Path> stream = Files.list(moduleDir)) {
+                        result.addAll(stream.filter(Files::isDirectory)
+                                .map(path -> path.getFileName().toString())
+                                .collect(Collectors.toList()));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(result);
+    }
+
+    /**
+     * Persists files found absent from repositories and fetch times of changing files.
+     */
+    void save() {
+        missCache.save();
+        metadataIndex.save();
+    }
+
+    // Repository which has provided the pom first, then the others in declaration order
+    private List<JkRepo> orderedRepos(String versionDir) {
+        JkRepo hostRepo = hostRepos.get(versionDir);
+        if (hostRepo == null) {
+            return repos;
+        }
+        List<JkRepo> result = new ArrayList<>(repos.size());
+        result.add(hostRepo);
+        repos.stream().filter(repo -> repo != hostRepo).forEach(result::add);
+        return result;
+    }
+
+    // Consecutive remote repositories starting at the specified index
+    private static List<JkRepo> remoteRun(List<JkRepo> repos, int index) {
+        List<JkRepo> result = new LinkedList<>();
+        for (int i = index; i < repos.size() && !isFileSystem(repos.get(i)); i++) {
+            result.add(repos.get(i));
+        }
+        return result;
+    }
+
+    private Path race(List<JkRepo> candidates, String versionDir, String name, String version, String classifier,
+                      String extension) {
+        String relativePath = relativePath(versionDir, name, version, classifier, extension);
+        Path cachedFile = cacheDir.resolve(relativePath);
+        if (Files.isRegularFile(cachedFile)) {
+            return cachedFile;
+        }
+        List<JkRepo> repos = candidates.stream()
+                .filter(repo -> refreshForced || !missCache.isMissing(repo.getUrl().toExternalForm(), relativePath))
+                .collect(Collectors.toList());
+        List<CompletableFuture<Path>> futures = repos.stream()
+                .map(repo -> CompletableFuture.supplyAsync(() -> fetch(repo, relativePath, cachedFile),
+                        executorService))
+                .collect(Collectors.toList());
+        Path result = null;
+        for (int i = 0; i < futures.size(); i++) {
+            if (result != null) {
+
+                // Files downloaded from repositories having lost the race are dropped
+                futures.get(i).thenAccept(tempFile -> {
+                    if (tempFile != null) {
+                        JkUtilsPath.deleteIfExists(tempFile);
+                    }
+                });
+                continue;
+            }
+            Path tempFile = futures.get(i).join();
+            if (tempFile != null) {
+                result = commit(tempFile, cachedFile);
+                hostRepos.put(versionDir, repos.get(i));
+            }
+        }
+        return result;
+    }
+
+    private Path get(JkRepo repo, String versionDir, String name, String version, String classifier,
+                     String extension) {
+        String fileVersion = version;
+        if (version.endsWith("-SNAPSHOT")) {
+            byte[] metadata = read(repo, versionDir + "/maven-metadata.xml");
+            if (metadata != null) {
+                String uniqueVersion = MavenPom.readMetadataSnapshotVersion(new ByteArrayInputStream(metadata),
+                        version);
+                fileVersion = uniqueVersion == null ? version : uniqueVersion;
+            }
+        }
+        String relativePath = relativePath(versionDir, name, fileVersion, classifier, extension);
+        if (isFileSystem(repo)) {
+            Path file = JkUtilsPath.get(repo.getUrl()).resolve(relativePath);
+            if (!Files.isRegularFile(file)) {
+                return null;
+            }
+            if ("pom".equals(extension)) {
+                hostRepos.putIfAbsent(versionDir, repo);
+            }
+            return file;
+        }
+        Path cachedFile = cacheDir.resolve(relativePath);
+        boolean changing = fileVersion.endsWith("-SNAPSHOT");
+        if (Files.isRegularFile(cachedFile) && (!changing || isUpToDate(repo, relativePath))) {
+            return cachedFile;
+        }
+        if (isKnownMissing(repo, relativePath, relativePath(versionDir, name, version, null, "pom"))) {
+            return null;
+        }
+        Path tempFile = fetch(repo, relativePath, cachedFile);
+        if (changing) {
+            metadataIndex.recordFetch(repo.getUrl().toExternalForm(), relativePath, tempFile != null);
+        }
+        if (tempFile == null) {
+            return null;
+        }
+        if ("pom".equals(extension)) {
+            hostRepos.putIfAbsent(versionDir, repo);
+        }
+        return commit(tempFile, cachedFile);
+    }
+
+    // Downloads the specified file next to the target and returns the downloaded file, or null if not found
+    private Path fetch(JkRepo repo, String relativePath, Path target) {
+        long start = System.nanoTime();
+        JkUtilsPath.createDirectories(target.getParent());
+        Path tempFile = target.resolveSibling(target.getFileName() + "." + UUID.randomUUID() + ".part");
+        boolean found = false;
+        try {
+            int code;
+            try (OutputStream outputStream = Files.newOutputStream(tempFile)) {
+                code = transfer(repo, relativePath, outputStream);
+            }
+            recordOutcome(repo, relativePath, code);
+            found = code == HttpURLConnection.HTTP_OK && isChecksumValid(repo, relativePath, tempFile);
+            if (!found) {
+                return null;
+            }
+            JkLog.info("Downloaded " + url(repo, relativePath) + " in " + JkUtilsTime.durationInMillis(start)
+                    + " ms.");
+            return tempFile;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            if (!found) {
+                JkUtilsPath.deleteIfExists(tempFile);
+            }
+        }
+    }
+
+    private static Path commit(Path tempFile, Path target) {
+        try {
+            Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            return target;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            JkUtilsPath.deleteIfExists(tempFile);
+        }
+    }
+
+    // Reads a metadata file. Returns null if the file does not exist
+    private byte[] read(JkRepo repo, String relativePath) {
+        if (isFileSystem(repo)) {
+            Path file = JkUtilsPath.get(repo.getUrl()).resolve(relativePath);
+            return Files.isRegularFile(file) ? JkUtilsPath.readAllBytes(file) : null;
+        }
+        String repoUrl = repo.getUrl().toExternalForm();
+        Path cachedFile = cacheDir.resolve("metadata").resolve(repoUrl.replaceAll("[^a-zA-Z0-9.-]", "_"))
+                .resolve(relativePath);
+        if (isUpToDate(repo, relativePath)) {
+            if (!metadataIndex.wasFound(repoUrl, relativePath)) {
+                return null;
+            }
+            if (Files.isRegularFile(cachedFile)) {
+                return JkUtilsPath.readAllBytes(cachedFile);
+            }
+        }
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        int code = transfer(repo, relativePath, outputStream);
+        if (code == HttpURLConnection.HTTP_OK) {
+            JkUtilsPath.createDirectories(cachedFile.getParent());
+            JkUtilsPath.write(cachedFile, outputStream.toByteArray());
+            metadataIndex.recordFetch(repoUrl, relativePath, true);
+            return outputStream.toByteArray();
+        }
+        if (code == HttpURLConnection.HTTP_NOT_FOUND) {
+            metadataIndex.recordFetch(repoUrl, relativePath, false);
+            JkUtilsPath.deleteIfExists(cachedFile);
+            return null;
+        }
+
+        // Repository not reachable : the last fetched metadata are better than nothing
+        return Files.isRegularFile(cachedFile) ? JkUtilsPath.readAllBytes(cachedFile) : null;
+    }
+
+    /*
+     * Returns true if the specified changing file does not need to be fetched again from the specified repository.
+     * A non refreshed resolution reuses any fetched file.
+     */
+    private boolean isUpToDate(JkRepo repo, String relativePath) {
+        long fetchTime = metadataIndex.getFetchTime(repo.getUrl().toExternalForm(), relativePath);
+        if (fetchTime < 0) {
+            return false;
+        }
+        if (refreshForced) {
+            return fetchTime >= creationTime;
+        }
+        return !refreshed || System.currentTimeMillis() - fetchTime < repo.getMetadataTtl().toMillis();
+    }
+
+    // Returns false if the repository publishes a checksum of the specified file which does not match it
+    private static boolean isChecksumValid(JkRepo repo, String relativePath, Path file) {
+        for (String[] checksum : CHECKSUMS) {
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            if (transfer(repo, relativePath + "." + checksum[0], outputStream) != HttpURLConnection.HTTP_OK) {
+                continue;
+            }
+
+            // Some checksum files mention the file name after the checksum
+            String expected = new String(outputStream.toByteArray(), StandardCharsets.UTF_8).trim().split("\\s+")[0];
+            String actual = JkPathFile.of(file).getChecksum(checksum[1]);
+            if (!actual.equalsIgnoreCase(expected)) {
+                JkLog.warn("Checksum of " + url(repo, relativePath) + " (" + actual + ") does not match the one "
+                        + "published by the repository (" + expected + ").");
+                return false;
+            }
+            return true;
+        }
+        return true;
+    }
+
+    // Returns the HTTP status code, or FAILED if the remote file can not be accessed
+    private static int transfer(JkRepo repo, String relativePath, OutputStream outputStream) {
+        final URL repoUrl = url(repo, relativePath);
+        URL url = repoUrl;
+        try {
+            HttpURLConnection connection = null;
+
+            // HttpURLConnection does not follow redirects changing protocol
+            for (int i = 0; i <= MAX_REDIRECTS; i++) {
+                connection = (HttpURLConnection) url.openConnection();
+                connection.setConnectTimeout(CONNECT_TIMEOUT);
+                connection.setReadTimeout(READ_TIMEOUT);
+                connection.setInstanceFollowRedirects(false);
+
+                // Credentials must not leak to other hosts, as CDNs the repository redirects to
+                JkRepo.JkRepoCredentials credentials = repo.getCredentials();
+                if (credentials != null && credentials.getUserName() != null && isSameOrigin(repoUrl, url)) {
+                    String userPassword = credentials.getUserName() + ":" + credentials.getPassword();
+                    connection.setRequestProperty("Authorization", "Basic " + Base64.getEncoder()
+                            .encodeToString(userPassword.getBytes(StandardCharsets.UTF_8)));
+                }
+                int redirectCode = connection.getResponseCode();
+                if (redirectCode < 300 || redirectCode >= 400 || connection.getHeaderField("Location") == null) {
+                    break;
+                }
+                url = new URL(url, connection.getHeaderField("Location"));
+                connection.disconnect();
+            }
+            int code = connection.getResponseCode();
+            if (code == HttpURLConnection.HTTP_NOT_FOUND) {
+                return code;
+            }
+            if (code != HttpURLConnection.HTTP_OK) {
+                JkLog.warn("Can not get " + url + " : HTTP " + code + " " + connection.getResponseMessage());
+                return code;
+            }
+            try (InputStream inputStream = connection.getInputStream()) {
+                JkUtilsIO.copy(inputStream, outputStream);
+            }
+            return code;
+        } catch (IOException | UncheckedIOException e) {
+            JkLog.warn("Can not get " + url + " : " + e.getMessage());
+            return FAILED;
+        }
+    }
+
+    static boolean isSameOrigin(URL url1, URL url2) {
+        return url1.getProtocol().equalsIgnoreCase(url2.getProtocol())
+                && url1.getHost().equalsIgnoreCase(url2.getHost())
+                && (url1.getPort() < 0 ? url1.getDefaultPort() : url1.getPort())
+                    == (url2.getPort() < 0 ? url2.getDefaultPort() : url2.getPort());
+    }
+
+    // A module version whose pom is absent from a repository is considered absent as a whole. Forced refreshes
+    // ask repositories again.
+    private boolean isKnownMissing(JkRepo repo, String relativePath, String pomPath) {
+        if (refreshForced) {
+            return false;
+        }
+        String repoUrl = repo.getUrl().toExternalForm();
+        return missCache.isMissing(repoUrl, relativePath) || missCache.isMissing(repoUrl, pomPath);
+    }
+
+    private void recordOutcome(JkRepo repo, String relativePath, int code) {
+        String repoUrl = repo.getUrl().toExternalForm();
+        if (code == HttpURLConnection.HTTP_NOT_FOUND && !relativePath.contains("-SNAPSHOT")) {
+            missCache.recordMiss(repoUrl, relativePath);
+        } else if (code == HttpURLConnection.HTTP_OK) {
+            missCache.recordHit(repoUrl, relativePath);
+        }
+    }
+
+    private static String relativePath(String versionDir, String name, String fileVersion, String classifier,
+                                       String extension) {
+        return versionDir + "/" + name + "-" + fileVersion + (classifier == null ? "" : "-" + classifier)
+                + "." + extension;
+    }
+
+    private static URL url(JkRepo repo, String relativePath) {
+        String base = repo.getUrl().toExternalForm();
+        return JkUtilsIO.toUrl(base.endsWith("/") ? base + relativePath : base + "/" + relativePath);
+    }
+
+    private static boolean isFileSystem(JkRepo repo) {
+        return "file".equals(repo.getUrl().getProtocol());
+    }
+
+}
@@ -0,0 +1,71 @@
+package dev.jeka.core.api.depmanagement.resolution;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Persistent record of the last time changing files, as maven-metadata.xml or non unique snapshots, have been
+ * fetched from remote repositories, and whether they were present. Each line of the file is formatted as
+ * '[fetch time in millis] [true|false] [repo url] [relative path]'.
+ */
+final class MetadataIndex extends RepoRecordFile<MetadataIndex.Fetch> {
+
+    private static final Map<Path, MetadataIndex> INSTANCES = new ConcurrentHashMap<>();
+
+    private MetadataIndex(Path file) {
+        super(file, 2);
+    }
+
+    /**
+     * Returns the index stored in the specified file. A same instance is returned for a same file.
+     */
+    static MetadataIndex of(Path file) {
+        return INSTANCES.computeIfAbsent(file.toAbsolutePath().normalize(), MetadataIndex::new);
+    }
+
+    /**
+     * Returns the last time the specified file has been fetched from the specified repository, or -1 if it
+     * has never been.
+     */
+    long getFetchTime(String repoUrl, String relativePath) {
+        Fetch fetch = get(repoUrl, relativePath);
+        return fetch == null ? -1 : fetch.time;
+    }
+
+    /**
+     * Returns <code>true</code> if the specified file was present in the repository at last fetch.
+     */
+    boolean wasFound(String repoUrl, String relativePath) {
+        Fetch fetch = get(repoUrl, relativePath);
+        return fetch != null && fetch.found;
+    }
+
+    void recordFetch(String repoUrl, String relativePath, boolean found) {
+        put(repoUrl, relativePath, new Fetch(System.currentTimeMillis(), found));
+    }
+
+    @Override
+    Fetch parse(String[] fields) {
+        return new Fetch(Long.parseLong(fields[0]), Boolean.parseBoolean(fields[1]));
+    }
+
+    @Override
+    String format(Fetch fetch) {
+        return fetch.time + " " + fetch.found;
+    }
+
+    static final class Fetch {
+
+        private final long time;
+
+        private final boolean found;
+
+        Fetch(long time, boolean found) {
+            this.time = time;
+            this.found = found;
+        }
+
+    }
+
+}
@@ -0,0 +1,66 @@
+package dev.jeka.core.api.depmanagement.resolution;
+
+import dev.jeka.core.api.system.JkLocator;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Persistent record of files known to be absent from remote repositories, so builds stop probing repositories
+ * known not to host a module. Each record expires after a given delay, as files may be published later.
+ * Each line of the file is formatted as '[expiration time in millis] [repo url] [relative path]'.
+ */
+final class RepoMissCache extends RepoRecordFile<Long> {
+
+    private static final long DEFAULT_TTL = TimeUnit.HOURS.toMillis(24);
+
+    private static final RepoMissCache USER_HOME = new RepoMissCache(
+            JkLocator.getJekaUserHomeDir().resolve("cache/repo-misses.txt"), DEFAULT_TTL);
+
+    private final long ttl;
+
+    private RepoMissCache(Path file, long ttl) {
+        super(file, 1);
+        this.ttl = ttl;
+    }
+
+    /**
+     * Returns the cache shared by all builds of the current user.
+     */
+    static RepoMissCache ofUserHome() {
+        return USER_HOME;
+    }
+
+    static RepoMissCache of(Path file, long ttl) {
+        return new RepoMissCache(file, ttl);
+    }
+
+    /**
+     * Returns <code>true</code> if the specified file has been recently found absent from the specified repository.
+     */
+    boolean isMissing(String repoUrl, String relativePath) {
+        Long expiration = get(repoUrl, relativePath);
+        return expiration != null && expiration > System.currentTimeMillis();
+    }
+
+    void recordMiss(String repoUrl, String relativePath) {
+        put(repoUrl, relativePath, System.currentTimeMillis() + ttl);
+    }
+
+    void recordHit(String repoUrl, String relativePath) {
+        remove(repoUrl, relativePath);
+    }
+
+    // Expired records are dropped both at load and save time
+    @Override
+    Long parse(String[] fields) {
+        long expiration = Long.parseLong(fields[0]);
+        return expiration > System.currentTimeMillis() ? expiration : null;
+    }
+
+    @Override
+    String format(Long expiration) {
+        return expiration > System.currentTimeMillis() ? expiration.toString() : null;
+    }
+
+}
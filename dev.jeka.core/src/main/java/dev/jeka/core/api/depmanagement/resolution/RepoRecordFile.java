@@ -0,0 +1,118 @@
+package dev.jeka.core.api.depmanagement.resolution;
+
+import dev.jeka.core.api.system.JkLog;
+import dev.jeka.core.api.utils.JkUtilsPath;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Persistent records about files of remote repositories, keyed by repository url and relative path. The file is
+ * loaded lazily at first access and written back atomically on save. Each line of the file is formatted as
+ * '[value fields] [repo url] [relative path]', the number of value fields being fixed by the subclass.
+ */
+abstract class RepoRecordFile<V> {
+
+    private final Path file;
+
+    private final int valueFieldCount;
+
+    private volatile Map<String, V> records;
+
+    private volatile boolean dirty;
+
+    RepoRecordFile(Path file, int valueFieldCount) {
+        this.file = file;
+        this.valueFieldCount = valueFieldCount;
+    }
+
+    /**
+     * Returns the value parsed from the specified fields, or <code>null</code> if the record should be dropped.
+     * Throws a {@link NumberFormatException} if the fields are malformed.
+     */
+    abstract V parse(String[] fields);
+
+    /**
+     * Returns the fields representing the specified value, space separated, or <code>null</code> if the record
+     * should not be written.
+     */
+    abstract String format(V value);
+
+    final V get(String repoUrl, String relativePath) {
+        return records().get(key(repoUrl, relativePath));
+    }
+
+    final void put(String repoUrl, String relativePath, V value) {
+        records().put(key(repoUrl, relativePath), value);
+        dirty = true;
+    }
+
+    final void remove(String repoUrl, String relativePath) {
+        if (records().remove(key(repoUrl, relativePath)) != null) {
+            dirty = true;
+        }
+    }
+
+    /**
+     * Writes the records, if some changed since the last save.
+     */
+    final synchronized void save() {
+        if (!dirty) {
+            return;
+        }
+        dirty = false;
+        StringBuilder sb = new StringBuilder();
+        records().forEach((key, value) -> {
+            String fields = format(value);
+            if (fields != null) {
+                sb.append(fields).append(' ').append(key).append('\n');
+            }
+        });
+        JkUtilsPath.writeAtomically(file, sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Map<String, V> records() {
+        Map<String, V> result = records;
+        if (result == null) {
+            synchronized (this) {
+                result = records;
+                if (result == null) {
+                    result = load();
+                    records = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private Map<String, V> load() {
+        Map<String, V> result = new ConcurrentHashMap<>();
+        if (!Files.isRegularFile(file)) {
+            return result;
+        }
+        for (String line : JkUtilsPath.readAllLines(file)) {
+            String[] items = line.split(" ", valueFieldCount + 1);
+            if (items.length <= valueFieldCount) {
+                continue;
+            }
+            try {
+                V value = parse(Arrays.copyOf(items, valueFieldCount));
+                if (value != null) {
+                    result.put(items[valueFieldCount], value);
+                }
+            } catch (NumberFormatException e) {
+                JkLog.trace("Ignore malformed line '" + line + "' in " + file);
+            }
+        }
+        return result;
+    }
+
+    private static String key(String repoUrl, String relativePath) {
+        return repoUrl + " " + relativePath;
+    }
+
+}
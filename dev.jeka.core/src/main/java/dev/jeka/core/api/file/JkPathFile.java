@@ -7,18 +7,17 @@ import dev.jeka.core.api.utils.JkUtilsThrowable;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Reader;
 import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.net.URISyntaxException;
 import java.net.URL;
 import java.nio.charset.Charset;
 import java.nio.file.*;
 import java.nio.file.attribute.PosixFilePermission;
 import java.security.MessageDigest;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 /**
  * A path standing for a file (not a directory). This class provides path methods relevant for files only.
@@ -76,15 +75,22 @@ public final class JkPathFile {
      * Keys may value '${my.key.1}', '[myKey]' or whatever.
      */
     public JkPathFile copyReplacingTokens(Path to, Map<String, String> tokens, Charset charset) {
+        return copyReplacingTokens(to, TokenReplacer.of(tokens), charset);
+    }
+
+    /*
+     * Same as #copyReplacingTokens(Path, Map, Charset) but with tokens already compiled, so that many files
+     * can be processed with the same tokens. The file is streamed line by line.
+     */
+    JkPathFile copyReplacingTokens(Path to, TokenReplacer tokenReplacer, Charset charset) {
         JkPathFile.of(to).createIfNotExist();
-        if (tokens.isEmpty()) {
+        if (tokenReplacer.isEmpty()) {
             JkUtilsPath.copy(path, to, StandardCopyOption.REPLACE_EXISTING);
             return this;
         }
-        try (Stream<String> stream = Files.lines(path, charset)) {
-            List<String> result = stream.map(line -> interpolated(line, tokens))
-                .collect(Collectors.toList());
-            Files.write(to, result, charset, StandardOpenOption.CREATE);
+        try (Reader reader = Files.newBufferedReader(path, charset);
+             Writer writer = Files.newBufferedWriter(to, charset)) {
+            tokenReplacer.replaceLines(reader, writer);
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
@@ -200,22 +206,6 @@ public final class JkPathFile {
         return this;
     }
 
-    private static String interpolated(String original, Map<String, String> tokenValues) {
-        boolean changed = false;
-        String result = original;
-        for(Map.Entry<String, String> entry : tokenValues.entrySet()) {
-            String newResult = result.replace(entry.getKey(), entry.getValue());
-            if (!newResult.equals(result)) {
-                changed = true;
-                result = newResult;
-            }
-        }
-        if (changed) {
-            return interpolated(result, tokenValues);
-        }
-        return result;
-    }
-
     public void assertExist() {
         if (!this.exists()) {
             throw new IllegalStateException("File " + this.path.toAbsolutePath().normalize() + " does not exist.");
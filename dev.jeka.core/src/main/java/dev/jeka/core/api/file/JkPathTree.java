@@ -321,6 +321,19 @@ public final class JkPathTree implements Closeable {
             JkUtilsPath.createDirectories(destination.getParent());
         }
         final Path zipRootEntry = JkUtilsPath.zipRoot(destination);
+        try {
+            copyToZipRoot(zipRootEntry);
+            zipRootEntry.getFileSystem().close();
+        } catch (IOException e) {
+           throw new UncheckedIOException(e);
+        }
+        return this;
+    }
+
+    /*
+     * Copies the content of this tree in the zip file system having the specified root, without closing it.
+     */
+    void copyToZipRoot(Path zipRootEntry) {
         try (Stream<Path> stream = this.stream()) {
             stream.filter(excludeRootFilter()).forEach(path -> {
                 Path zipEntry = zipRootEntry.resolve(getRoot().relativize(path).toString());
@@ -329,11 +342,7 @@ public final class JkPathTree implements Closeable {
                     JkUtilsPath.copy(path, zipEntry, StandardCopyOption.REPLACE_EXISTING);
                 }
             });
-            zipRootEntry.getFileSystem().close();
-        } catch (IOException e) {
-           throw new UncheckedIOException(e);
         }
-        return this;
     }
 
     /**
@@ -441,13 +450,14 @@ public final class JkPathTree implements Closeable {
     @Override
     public void close()  {
         if (this.rootHolder.isZip()) {
-            JkUtilsIO.closeQuietly(rootHolder.get().getFileSystem());
+            rootHolder.close();
         }
     }
 
     private static class RootHolder {
         final Path zipFile;
         Path dir;
+        boolean acquired;
 
         static RootHolder ofZip(Path zipFile) {
             JkUtilsAssert.argument(zipFile != null, "zip archive file can't be null.");
@@ -469,8 +479,9 @@ public final class JkPathTree implements Closeable {
         }
 
         Path get() {
-            if (isZip() && dir == null) {
-                dir = JkUtilsPath.zipRoot(zipFile);
+            if (isZip() && (dir == null || !dir.getFileSystem().isOpen())) {
+                Path zipRoot = acquireZipRoot();
+                dir = dir == null ? zipRoot : zipRoot.getFileSystem().getPath(dir.toString());
             }
             return dir;
         }
@@ -483,13 +494,13 @@ public final class JkPathTree implements Closeable {
             } else {
                 if (!Files.exists(zipFile)) {
                     JkUtilsPath.createDirectories(zipFile.getParent());
-                    dir = JkUtilsPath.zipRoot(zipFile);
+                    dir = acquireZipRoot();
                 } else if (dir == null) {
-                    dir = JkUtilsPath.zipRoot(zipFile);
+                    dir = acquireZipRoot();
                 } else if (dir.getFileSystem().isOpen()) {
                     JkUtilsPath.createDirectories(dir);
                 } else {
-                    Path zipRoot = JkUtilsPath.zipRoot(zipFile);
+                    Path zipRoot = acquireZipRoot();
                     dir = zipRoot.getFileSystem().getPath(dir.toString());
                 }
             }
@@ -505,28 +516,39 @@ public final class JkPathTree implements Closeable {
             if (dir == null) {
                 return true; // zip rootHolder always exists
             }
-            if (dir.getFileSystem().isOpen()) {
-                return Files.exists(dir);
-            }
-            Path zipRoot = JkUtilsPath.zipRoot(zipFile);
-            dir = zipRoot.getFileSystem().getPath(dir.toString());
-            return Files.exists(dir);
+            return Files.exists(get());
         }
 
         boolean isZip() {
             return zipFile != null;
         }
 
+        /*
+         * Releases the zip file system acquired by this holder. The file system is actually closed only
+         * if no other tree is using it.
+         */
         void closeIfNeeded() {
-            if (isZip() && dir != null) {
-                try {
-                    dir.getFileSystem().close();
-                } catch (IOException e) {
-                    throw new UncheckedIOException(e);
-                }
+            if (acquired) {
+                acquired = false;
+                ZipFileSystemPool.release(zipFile);
             }
         }
 
+        void close() {
+            acquired = false;
+            if (dir != null && dir.getFileSystem().isOpen()) {
+                ZipFileSystemPool.forceClose(zipFile);
+                JkUtilsIO.closeQuietly(dir.getFileSystem());
+            }
+        }
+
+        private Path acquireZipRoot() {
+            closeIfNeeded();
+            Path result = ZipFileSystemPool.acquire(zipFile);
+            acquired = true;
+            return result;
+        }
+
         RootHolder resolve(Path path) {
             if (isZip()) {
                 return this;
@@ -1,5 +1,6 @@
 package dev.jeka.core.api.file;
 
+import dev.jeka.core.api.utils.JkUtilsIO;
 import dev.jeka.core.api.utils.JkUtilsIterable;
 import dev.jeka.core.api.utils.JkUtilsPath;
 
@@ -186,10 +187,19 @@ public final class JkPathTreeSet {
     // ----------------------- write out ---------------------------------------------
 
     /**
-     * Zips the content of all trees involved in this set.
+     * Zips the content of all trees involved in this set. The destination archive is opened and written
+     * only once, whatever the number of trees.
      */
-    public JkPathTreeSet zipTo(Path dir) {
-        this.pathTrees.forEach(tree -> tree.zipTo(dir));
+    public JkPathTreeSet zipTo(Path destination) {
+        if (destination.getParent() != null) {
+            JkUtilsPath.createDirectories(destination.getParent());
+        }
+        final Path zipRootEntry = JkUtilsPath.zipRoot(destination);
+        try {
+            this.pathTrees.forEach(tree -> tree.copyToZipRoot(zipRootEntry));
+        } finally {
+            JkUtilsIO.closeOrFail(zipRootEntry.getFileSystem());
+        }
         return this;
     }
 
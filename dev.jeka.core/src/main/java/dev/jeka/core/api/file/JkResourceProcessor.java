@@ -121,6 +121,7 @@ public final class JkResourceProcessor<T> {
      */
     public void generate(JkPathTreeSet resourceTrees, Path outputDir) {
         JkLog.startTask("Copy resource files to %s", outputDir);
+        final Map<Map<String, String>, TokenReplacer> tokenReplacers = new HashMap<>();
         for (final JkPathTree resourceTree : resourceTrees.toList()) {
             final AtomicInteger count = new AtomicInteger(0);
             if (!resourceTree.exists()) {
@@ -134,7 +135,8 @@ public final class JkResourceProcessor<T> {
                 if (Files.isDirectory(path)) {
                     JkUtilsPath.createDirectories(out);
                 } else {
-                    JkPathFile.of(path).copyReplacingTokens(out, data, interpolationCharset);
+                    final TokenReplacer tokenReplacer = tokenReplacers.computeIfAbsent(data, TokenReplacer::of);
+                    JkPathFile.of(path).copyReplacingTokens(out, tokenReplacer, interpolationCharset);
                     count.incrementAndGet();
                 }
             });
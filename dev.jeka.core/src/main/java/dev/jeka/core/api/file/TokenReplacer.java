@@ -0,0 +1,297 @@
+package dev.jeka.core.api.file;
+
+import dev.jeka.core.api.utils.JkUtilsAssert;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.*;
+import java.util.function.Function;
+
+/*
+ * Replaces occurrences of a set of tokens by their values in character streams. Tokens are compiled once in an
+ * Aho-Corasick automaton, so text is scanned in a single pass whatever the number of tokens and only the chars
+ * that may belong to a token are buffered.
+ * When several tokens match at a same place, the leftmost then the longest one is replaced. Tokens present in values
+ * are replaced as well.
+ */
+final class TokenReplacer {
+
+    private static final String LINE_SEPARATOR = System.lineSeparator();
+
+    private final Node root = new Node(0);
+
+    // Values with their own tokens replaced
+    private final Map<String, String> values = new HashMap<>();
+
+    private TokenReplacer(Map<String, String> tokens) {
+        tokens.keySet().forEach(this::add);
+        link();
+        tokens.keySet().forEach(token -> expand(token, tokens, new LinkedHashSet<>()));
+    }
+
+    static TokenReplacer of(Map<String, String> tokens) {
+        return new TokenReplacer(tokens);
+    }
+
+    boolean isEmpty() {
+        return values.isEmpty();
+    }
+
+    /**
+     * Returns the specified text with tokens replaced.
+     */
+    String replace(String text) {
+        return replace(text, values::get);
+    }
+
+    /**
+     * Copies the content of the specified reader to the specified writer, replacing tokens. Tokens does not span
+     * over lines and each line, including the last one, is terminated by the platform line separator.
+     */
+    void replaceLines(Reader reader, Writer writer) throws IOException {
+        Scan scan = new Scan(writer, values::get);
+        char[] buffer = new char[8192];
+        boolean inLine = false;
+        boolean afterCarriageReturn = false;
+        int count;
+        while ((count = reader.read(buffer)) >= 0) {
+            for (int i = 0; i < count; i++) {
+                char c = buffer[i];
+                if (c == '\n' && afterCarriageReturn) {
+                    afterCarriageReturn = false;
+                    continue;
+                }
+                afterCarriageReturn = c == '\r';
+                if (c == '\n' || c == '\r') {
+                    scan.finish();
+                    writer.write(LINE_SEPARATOR);
+                    inLine = false;
+                } else {
+                    scan.accept(c);
+                    inLine = true;
+                }
+            }
+        }
+        if (inLine) {
+            scan.finish();
+            writer.write(LINE_SEPARATOR);
+        }
+    }
+
+    private void add(String token) {
+        JkUtilsAssert.argument(!token.isEmpty(), "Token to replace cannot be empty.");
+        Node node = root;
+        for (int i = 0; i < token.length(); i++) {
+            node = node.getOrAddChild(token.charAt(i));
+        }
+        node.token = token;
+    }
+
+    // Computes failure links breadth first, so links of shorter nodes are known when computing the ones of longer nodes
+    private void link() {
+        Deque<Node> queue = new ArrayDeque<>();
+        root.fail = root;
+        queue.add(root);
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            for (int i = 0; i < node.chars.length; i++) {
+                Node child = node.children[i];
+                child.fail = node == root ? root : next(node.fail, node.chars[i]);
+                child.output = child.token != null ? child : child.fail.output;
+                queue.add(child);
+            }
+        }
+    }
+
+    private Node next(Node state, char c) {
+        Node current = state;
+        while (true) {
+            Node child = current.child(c);
+            if (child != null) {
+                return child;
+            }
+            if (current == root) {
+                return root;
+            }
+            current = current.fail;
+        }
+    }
+
+    private String expand(String token, Map<String, String> tokens, Set<String> expanding) {
+        String result = values.get(token);
+        if (result != null) {
+            return result;
+        }
+        if (!expanding.add(token)) {
+            throw new IllegalStateException("Token " + token + " is replaced by a value containing itself : "
+                    + expanding);
+        }
+        result = replace(tokens.get(token), nested -> expand(nested, tokens, expanding));
+        expanding.remove(token);
+        values.put(token, result);
+        return result;
+    }
+
+    private String replace(String text, Function<String, String> valueProvider) {
+        StringWriter writer = new StringWriter();
+        Scan scan = new Scan(writer, valueProvider);
+        try {
+            for (int i = 0; i < text.length(); i++) {
+                scan.accept(text.charAt(i));
+            }
+            scan.finish();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return writer.toString();
+    }
+
+    private static final class Node {
+
+        private final int depth;
+
+        // Sorted chars leading to children
+        private char[] chars = new char[0];
+
+        private Node[] children = new Node[0];
+
+        private Node fail;
+
+        // Token ending at this node, if any
+        private String token;
+
+        // Node of the longest token ending at this node, if any
+        private Node output;
+
+        Node(int depth) {
+            this.depth = depth;
+        }
+
+        Node child(char c) {
+            int index = Arrays.binarySearch(chars, c);
+            return index < 0 ? null : children[index];
+        }
+
+        Node getOrAddChild(char c) {
+            int index = Arrays.binarySearch(chars, c);
+            if (index >= 0) {
+                return children[index];
+            }
+            int insertion = -index - 1;
+            char[] newChars = new char[chars.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(chars, 0, newChars, 0, insertion);
+            System.arraycopy(children, 0, newChildren, 0, insertion);
+            System.arraycopy(chars, insertion, newChars, insertion + 1, chars.length - insertion);
+            System.arraycopy(children, insertion, newChildren, insertion + 1, children.length - insertion);
+            Node result = new Node(depth + 1);
+            newChars[insertion] = c;
+            newChildren[insertion] = result;
+            chars = newChars;
+            children = newChildren;
+            return result;
+        }
+
+    }
+
+    /*
+     * Replacement of tokens within a stream of chars. Chars are written as soon as they cannot belong to a token
+     * anymore. A found token is replaced once no longer token starting at the same place can be found.
+     */
+    private final class Scan {
+
+        private final Writer writer;
+
+        private final Function<String, String> valueProvider;
+
+        // Chars accepted but not written yet
+        private final StringBuilder pending = new StringBuilder();
+
+        private Node state = root;
+
+        // Leftmost longest token found in pending chars, not replaced yet
+        private Node match;
+
+        private int matchStart;
+
+        Scan(Writer writer, Function<String, String> valueProvider) {
+            this.writer = writer;
+            this.valueProvider = valueProvider;
+        }
+
+        void accept(char c) throws IOException {
+            String rest = feed(c);
+            if (rest != null) {
+                accept(rest);
+            }
+        }
+
+        /*
+         * Writes pending chars, replacing tokens found in. Tokens cannot span over chars accepted before and after
+         * this call.
+         */
+        void finish() throws IOException {
+            while (match != null) {
+                accept(replaceMatch());
+            }
+            writer.append(pending);
+            pending.setLength(0);
+            state = root;
+        }
+
+        private void accept(String chars) throws IOException {
+            String remaining = chars;
+            while (remaining != null) {
+                String next = null;
+                for (int i = 0; i < remaining.length(); i++) {
+                    String rest = feed(remaining.charAt(i));
+                    if (rest != null) {
+                        next = rest + remaining.substring(i + 1);
+                        break;
+                    }
+                }
+                remaining = next;
+            }
+        }
+
+        // Returns the chars accepted after a replaced token, which have to be scanned again, or null if none
+        private String feed(char c) throws IOException {
+            pending.append(c);
+            state = next(state, c);
+            int end = pending.length();
+            Node found = state.output;
+            if (found != null) {
+                int start = end - found.depth;
+                if (match == null || start < matchStart || (start == matchStart && found.depth > match.depth)) {
+                    match = found;
+                    matchStart = start;
+                }
+            }
+            int partialStart = end - state.depth;
+            if (match != null && partialStart > matchStart) {
+                return replaceMatch();
+            }
+            if (partialStart > 0) {
+                writer.append(pending, 0, partialStart);
+                pending.delete(0, partialStart);
+                matchStart -= partialStart;
+            }
+            return null;
+        }
+
+        private String replaceMatch() throws IOException {
+            writer.append(pending, 0, matchStart);
+            writer.write(valueProvider.apply(match.token));
+            String rest = pending.substring(matchStart + match.depth);
+            pending.setLength(0);
+            state = root;
+            match = null;
+            return rest;
+        }
+
+    }
+
+}
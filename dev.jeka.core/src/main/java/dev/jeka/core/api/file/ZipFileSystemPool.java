@@ -0,0 +1,82 @@
+package dev.jeka.core.api.file;
+
+import dev.jeka.core.api.utils.JkUtilsIO;
+import dev.jeka.core.api.utils.JkUtilsPath;
+
+import java.nio.file.FileSystem;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reference counted zip file systems shared among {@link JkPathTree} instances. A zip file system is opened
+ * once for all trees pointing on the same archive and closed only when the last tree using it releases it, so
+ * trees on a same archive do not close the file system under each other's feet, nor re-parse its central
+ * directory each time one of them is read.<p>
+ *
+ * File systems acquired implicitly, to stream tree content, are released as soon as the stream is closed.
+ * An explicit {@link JkPathTree#close()} still closes the file system, so pending writes are flushed to disk.
+ */
+final class ZipFileSystemPool {
+
+    private static final Map<Path, Entry> ENTRIES = new HashMap<>();
+
+    private ZipFileSystemPool() {
+    }
+
+    /**
+     * Returns the root of the zip file system for the specified archive, opening it if needed.
+     * Each call must be balanced with a {@link #release(Path)} call.
+     */
+    static synchronized Path acquire(Path zipFile) {
+        Path key = zipFile.toAbsolutePath().normalize();
+        Entry entry = ENTRIES.get(key);
+        if (entry == null || !entry.root.getFileSystem().isOpen()) {
+            entry = new Entry(JkUtilsPath.zipRoot(key));
+            ENTRIES.put(key, entry);
+        }
+        entry.count++;
+        return entry.root;
+    }
+
+    /**
+     * Decrements usage count of the specified archive file system and closes it when not used anymore.
+     */
+    static synchronized void release(Path zipFile) {
+        Path key = zipFile.toAbsolutePath().normalize();
+        Entry entry = ENTRIES.get(key);
+        if (entry == null) {
+            return;
+        }
+        entry.count--;
+        if (entry.count <= 0) {
+            ENTRIES.remove(key);
+            FileSystem fileSystem = entry.root.getFileSystem();
+            if (fileSystem.isOpen()) {
+                JkUtilsIO.closeQuietly(fileSystem);
+            }
+        }
+    }
+
+    /**
+     * Closes the file system of the specified archive whatever its usage count.
+     */
+    static synchronized void forceClose(Path zipFile) {
+        Entry entry = ENTRIES.remove(zipFile.toAbsolutePath().normalize());
+        if (entry != null && entry.root.getFileSystem().isOpen()) {
+            JkUtilsIO.closeQuietly(entry.root.getFileSystem());
+        }
+    }
+
+    private static final class Entry {
+
+        final Path root;
+
+        int count;
+
+        Entry(Path root) {
+            this.root = root;
+        }
+    }
+
+}
@@ -0,0 +1,153 @@
+package dev.jeka.core.api.java;
+
+import dev.jeka.core.api.utils.JkUtilsPath;
+import dev.jeka.core.api.utils.JkUtilsString;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.jar.Attributes;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Writes argument files (<code>@file</code>) and manifest-only pathing jars used to pass long command lines
+ * to forked <i>java</i> and <i>javac</i> processes.<p>
+ *
+ * Files are named after a prefix and a hash of their content, so a file written for a previous process with the
+ * same arguments or classpath is reused as is. Only the few most recently used files of each prefix are kept.
+ */
+final class ArgFiles {
+
+    /**
+     * Minimal version of the <i>java</i> launcher supporting argument files. <i>javac</i> has always supported them.
+     */
+    static final int JAVA_MIN_VERSION = 9;
+
+    private static final int MAX_FILES_PER_PREFIX = 4;
+
+    private ArgFiles() {
+    }
+
+    /**
+     * Returns an argument file, located in the specified directory, containing the specified arguments.
+     */
+    static Path argFile(Path dir, String prefix, List<String> args) {
+        StringBuilder content = new StringBuilder();
+        for (String arg : args) {
+            content.append(quote(arg)).append('\n');
+        }
+        byte[] bytes = content.toString().getBytes(StandardCharsets.UTF_8);
+        return writeIfAbsent(dir, prefix, hash(bytes) + ".args", bytes);
+    }
+
+    /**
+     * Returns a jar, located in the specified directory, containing only a manifest whose <i>Class-Path</i>
+     * attribute references the specified classpath entries.
+     */
+    static Path pathingJar(Path dir, List<Path> classpath) {
+        StringBuilder classPathValue = new StringBuilder();
+        for (Path entry : classpath) {
+            if (classPathValue.length() > 0) {
+                classPathValue.append(' ');
+            }
+            String uri = entry.toAbsolutePath().normalize().toUri().toString();
+            if (isDirectory(entry) && !uri.endsWith("/")) {
+                uri = uri + "/";
+            }
+            classPathValue.append(uri);
+        }
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().put(Attributes.Name.CLASS_PATH, classPathValue.toString());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (JarOutputStream jarOutputStream = new JarOutputStream(bytes, manifest)) {
+            jarOutputStream.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        String name = hash(classPathValue.toString().getBytes(StandardCharsets.UTF_8)) + ".jar";
+        return writeIfAbsent(dir, "classpath", name, bytes.toByteArray());
+    }
+
+    /*
+     * Directories that do not exist yet must still be declared with a trailing '/' to be considered as such.
+     */
+    private static boolean isDirectory(Path entry) {
+        if (Files.exists(entry)) {
+            return Files.isDirectory(entry);
+        }
+        String name = entry.getFileName() == null ? "" : entry.getFileName().toString().toLowerCase();
+        return !name.endsWith(".jar") && !name.endsWith(".zip");
+    }
+
+    /*
+     * Both java launcher and javac unescape backslashes and double quotes within quoted arguments.
+     */
+    private static String quote(String arg) {
+        return '"' + arg.replace("\\", "\\\\").replace("\"", "\\\"") + '"';
+    }
+
+    private static Path writeIfAbsent(Path dir, String prefix, String suffix, byte[] content) {
+        Path file = dir.resolve(prefix + "-" + suffix);
+        try {
+            if (Files.exists(file)) {
+
+                // Marks the file as recently used so it is not pruned
+                Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+                return file;
+            }
+            JkUtilsPath.createDirectories(dir);
+            Path temp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+            Files.write(temp, content);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        deleteLeastRecentlyUsed(dir, prefix, suffix.substring(suffix.lastIndexOf('.')));
+        return file;
+    }
+
+    private static void deleteLeastRecentlyUsed(Path dir, String prefix, String extension) {
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(dir)) {
+            files = stream
+                    .filter(path -> path.getFileName().toString().startsWith(prefix + "-"))
+                    .filter(path -> path.getFileName().toString().endsWith(extension))
+                    .sorted(Comparator.comparingLong(ArgFiles::lastModified).reversed())
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        files.stream().skip(MAX_FILES_PER_PREFIX).forEach(JkUtilsPath::deleteIfExists);
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;  // Deleted meanwhile
+        }
+    }
+
+    private static String hash(byte[] content) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-1");
+            return JkUtilsString.toHexString(messageDigest.digest(content)).substring(0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
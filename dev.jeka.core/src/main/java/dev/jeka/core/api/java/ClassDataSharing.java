@@ -0,0 +1,167 @@
+package dev.jeka.core.api.java;
+
+import dev.jeka.core.api.system.JkLocator;
+import dev.jeka.core.api.system.JkLog;
+import dev.jeka.core.api.utils.JkUtilsJdk;
+import dev.jeka.core.api.utils.JkUtilsPath;
+import dev.jeka.core.api.utils.JkUtilsString;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Computes JVM options for using an application class data sharing (AppCDS) archive in forked Java processes.<p>
+ *
+ * Archives are stored in <i>[JEKA USER HOME]/cache/cds</i> and named after a hash of the JVM location, the
+ * main class/jar and the classpath directories, followed by a hash of the classpath entries (path, size and
+ * last modification time), so a classpath change naturally leads to a new archive. Obsolete archives with the
+ * same first hash are deleted : classpath directories, as the class dirs of each module, keep the archives of
+ * distinct modules launching the same main class apart.<p>
+ *
+ * Dynamic archives require JDK 13 or above. For older JVMs, no option is added.
+ */
+final class ClassDataSharing {
+
+    static final int MIN_JAVA_VERSION = 13;
+
+    private static final int AUTO_CREATE_JAVA_VERSION = 19;
+
+    private static final String EXTENSION = ".jsa";
+
+    private final List<String> options;
+
+    private final boolean archiveExists;
+
+    private final Path archive;
+
+    private ClassDataSharing(List<String> options, boolean archiveExists, Path archive) {
+        this.options = options;
+        this.archiveExists = archiveExists;
+        this.archive = archive;
+    }
+
+    static ClassDataSharing of(Path javaDir, List<Path> classpath, String mainClassOrJar) {
+        return of(JkLocator.getJekaUserHomeDir().resolve("cache/cds"), javaDir, classpath, mainClassOrJar);
+    }
+
+    static ClassDataSharing of(Path dir, Path javaDir, List<Path> classpath, String mainClassOrJar) {
+        int javaVersion = JkUtilsJdk.majorVersion(javaDir);
+        if (javaVersion < MIN_JAVA_VERSION) {
+            JkLog.trace("Class data sharing not used : it requires JDK " + MIN_JAVA_VERSION + "+ but "
+                    + javaDir + " is version " + javaVersion);
+            return new ClassDataSharing(Collections.emptyList(), false, null);
+        }
+        if (!isDirectoryOnlyAtEnd(classpath)) {
+            JkLog.warn("Class data sharing not used : directories must be placed after jar files in classpath.");
+            return new ClassDataSharing(Collections.emptyList(), false, null);
+        }
+        List<String> identityItems = new ArrayList<>();
+        identityItems.add(javaDir.toAbsolutePath().normalize().toString());
+        identityItems.add(mainClassOrJar);
+        classpath.stream().filter(Files::isDirectory)
+                .forEach(entry -> identityItems.add(entry.toAbsolutePath().normalize().toString()));
+        String identity = hash(identityItems.toArray(new String[0]));
+        String content = hash(stamps(classpath));
+        JkUtilsPath.createDirectories(dir);
+        Path archive = dir.resolve(identity + "-" + content + EXTENSION);
+        boolean exists = Files.exists(archive);
+        if (!exists) {
+            deleteObsoleteArchives(dir, identity);
+        }
+        List<String> options = new ArrayList<>();
+        options.add("-Xlog:cds*=off");
+        if (javaVersion >= AUTO_CREATE_JAVA_VERSION) {
+            options.add("-XX:SharedArchiveFile=" + archive);
+            options.add("-XX:+AutoCreateSharedArchive");
+        } else if (exists) {
+            options.add("-XX:SharedArchiveFile=" + archive);
+        } else {
+            options.add("-XX:ArchiveClassesAtExit=" + archive);
+        }
+        return new ClassDataSharing(options, exists, archive);
+    }
+
+    List<String> getOptions() {
+        return options;
+    }
+
+    boolean isActive() {
+        return archive != null;
+    }
+
+    /**
+     * Returns a short description to be displayed in process timing report.
+     */
+    String getStatus() {
+        if (archive == null) {
+            return "no class data sharing";
+        }
+        return archiveExists ? "class data sharing archive reused" : "class data sharing archive created";
+    }
+
+    /*
+     * CDS fails to dump archive if classes are loaded from a jar placed after a non-empty directory.
+     */
+    private static boolean isDirectoryOnlyAtEnd(List<Path> classpath) {
+        boolean dirMet = false;
+        for (Path entry : classpath) {
+            if (Files.isDirectory(entry)) {
+                dirMet = true;
+            } else if (dirMet && Files.exists(entry)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void deleteObsoleteArchives(Path dir, String identity) {
+        try (Stream<Path> stream = Files.list(dir)) {
+            stream.filter(path -> path.getFileName().toString().startsWith(identity + "-"))
+                    .forEach(JkUtilsPath::deleteIfExists);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String[] stamps(List<Path> classpath) {
+        List<String> result = new ArrayList<>();
+        for (Path entry : classpath) {
+            StringBuilder stamp = new StringBuilder(entry.toAbsolutePath().normalize().toString());
+            if (Files.isRegularFile(entry)) {
+                try {
+                    BasicFileAttributes attributes = Files.readAttributes(entry, BasicFileAttributes.class);
+                    stamp.append('|').append(attributes.size())
+                            .append('|').append(attributes.lastModifiedTime().toMillis());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+            result.add(stamp.toString());
+        }
+        return result.toArray(new String[0]);
+    }
+
+    private static String hash(String... items) {
+        try {
+            MessageDigest messageDigest = MessageDigest.getInstance("SHA-1");
+            for (String item : items) {
+                messageDigest.update(item.getBytes(StandardCharsets.UTF_8));
+                messageDigest.update((byte) 0);
+            }
+            return JkUtilsString.toHexString(messageDigest.digest()).substring(0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -0,0 +1,223 @@
+package dev.jeka.core.api.java;
+
+import dev.jeka.core.api.system.JkLog;
+import dev.jeka.core.api.utils.JkUtilsSystem;
+import dev.jeka.core.api.utils.JkUtilsTime;
+
+import javax.tools.*;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/*
+ * Runs compilations on javac tools, keeping their file manager alive across compilations in the same JVM. This way
+ * javac does not re-open and re-index platform classes and classpath jars for each compilation (prod, test, each
+ * module of a multi-project build, def classes). Javadoc generations run the same way.<p>
+ *
+ * File managers retain settings from the options of previous compilations, so a file manager is only reused for
+ * compilations having the same options, except for classpath and output dirs which are always specified. A file
+ * manager is discarded as soon as one of the jars it has seen has changed in size or modification time.
+ * On Windows, open jars can not be overwritten, so file managers are not kept.
+ */
+final class JavacCompileService {
+
+    private static final int MAX_FILE_MANAGERS = 4;
+
+    private static final Set<String> VARIABLE_VALUE_OPTIONS = new HashSet<>(Arrays.asList(
+            "-cp", "-classpath", "--class-path", "-sourcepath", "--source-path", "-d", "-s", "-h"));
+
+    private static final Set<String> CLASSPATH_OPTIONS = new HashSet<>(Arrays.asList(
+            "-cp", "-classpath", "--class-path", "-processorpath", "--processor-path"));
+
+    // Idle file managers, least recently used first
+    private static final Map<Key, WarmFileManager> IDLE_FILE_MANAGERS = new LinkedHashMap<>(16, 0.75f, true);
+
+    private JavacCompileService() {
+    }
+
+    static boolean compile(JavaCompiler compiler, Writer out, DiagnosticListener<? super JavaFileObject> listener,
+                           List<String> options, List<File> sourceFiles) {
+        return run(compiler, () -> compiler.getStandardFileManager(null, null, null), options, sourceFiles,
+                (fileManager, files) -> compiler.getTask(out, fileManager, listener, options, null, files).call());
+    }
+
+    static boolean document(DocumentationTool tool, Writer out, List<String> options, List<File> sourceFiles) {
+        return run(tool, () -> tool.getStandardFileManager(null, null, StandardCharsets.UTF_8), options,
+                sourceFiles, (fileManager, files) -> tool.getTask(out, fileManager, null, null, options, files).call());
+    }
+
+    private static boolean run(Tool tool, Supplier<StandardJavaFileManager> fileManagerFactory, List<String> options,
+                               List<File> sourceFiles, Task task) {
+        if (JkUtilsSystem.IS_WINDOWS) {
+            StandardJavaFileManager fileManager = fileManagerFactory.get();
+            return task.call(fileManager, fileManager.getJavaFileObjectsFromFiles(sourceFiles));
+        }
+        Key key = new Key(tool, options);
+        Map<Path, String> jarStamps = jarStamps(options);
+        WarmFileManager warmFileManager = acquire(key);
+        if (warmFileManager != null && !warmFileManager.isUpToDate(jarStamps)) {
+            JkLog.trace("Classpath jars have changed since last compilation. Discard warm compiler file manager.");
+            warmFileManager.close();
+            warmFileManager = null;
+        }
+        boolean warm = warmFileManager != null;
+        if (!warm) {
+            warmFileManager = new WarmFileManager(fileManagerFactory.get());
+        }
+        warmFileManager.jarStamps.putAll(jarStamps);
+        final long start = System.nanoTime();
+        final boolean result;
+        try {
+            StandardJavaFileManager fileManager = warmFileManager.fileManager;
+            result = task.call(fileManager, fileManager.getJavaFileObjectsFromFiles(sourceFiles));
+        } catch (RuntimeException e) {
+            warmFileManager.close();
+            throw e;
+        }
+        long duration = JkUtilsTime.durationInMillis(start);
+        if (warm) {
+            JkLog.trace("Compiled in " + duration + " ms with a warm file manager (" + warmFileManager.compilationCount
+                    + " previous compilations, first one took " + warmFileManager.firstDuration + " ms).");
+        } else {
+            warmFileManager.firstDuration = duration;
+        }
+        warmFileManager.compilationCount++;
+        release(key, warmFileManager);
+        return result;
+    }
+
+    private static synchronized WarmFileManager acquire(Key key) {
+        return IDLE_FILE_MANAGERS.remove(key);
+    }
+
+    private static synchronized void release(Key key, WarmFileManager warmFileManager) {
+        WarmFileManager previous = IDLE_FILE_MANAGERS.put(key, warmFileManager);
+
+        // Another compilation with the same options has run concurrently
+        if (previous != null) {
+            previous.close();
+        }
+        if (IDLE_FILE_MANAGERS.size() > MAX_FILE_MANAGERS) {
+            Iterator<WarmFileManager> it = IDLE_FILE_MANAGERS.values().iterator();
+            it.next().close();
+            it.remove();
+        }
+    }
+
+    private static Map<Path, String> jarStamps(List<String> options) {
+        Map<Path, String> result = new HashMap<>();
+        for (int i = 0; i < options.size() - 1; i++) {
+            if (CLASSPATH_OPTIONS.contains(options.get(i))) {
+                result.putAll(jarStamps(Arrays.stream(options.get(i + 1).split(File.pathSeparator))
+                        .map(Paths::get)
+                        .collect(Collectors.toList())));
+            }
+        }
+        return result;
+    }
+
+    /*
+     * Returns the size and modification time of the jars among the specified classpath entries.
+     */
+    private static Map<Path, String> jarStamps(Iterable<Path> classpath) {
+        Map<Path, String> result = new HashMap<>();
+        for (Path path : classpath) {
+            if (!Files.isRegularFile(path)) {
+                continue;
+            }
+            try {
+                result.put(path.toAbsolutePath().normalize(),
+                        Files.size(path) + "|" + Files.getLastModifiedTime(path).toMillis());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return result;
+    }
+
+    /*
+     * Returns true if none of the specified jars has changed since it has been stamped in the specified seen stamps.
+     */
+    private static boolean isUpToDate(Map<Path, String> seenJarStamps, Map<Path, String> currentJarStamps) {
+        return currentJarStamps.entrySet().stream().allMatch(entry ->
+                entry.getValue().equals(seenJarStamps.getOrDefault(entry.getKey(), entry.getValue())));
+    }
+
+    private interface Task {
+
+        boolean call(StandardJavaFileManager fileManager, Iterable<? extends JavaFileObject> sourceFiles);
+
+    }
+
+    private static final class WarmFileManager {
+
+        private final StandardJavaFileManager fileManager;
+
+        // Size and modification time of jars seen by the file manager
+        private final Map<Path, String> jarStamps = new HashMap<>();
+
+        private int compilationCount;
+
+        private long firstDuration;
+
+        WarmFileManager(StandardJavaFileManager fileManager) {
+            this.fileManager = fileManager;
+        }
+
+        boolean isUpToDate(Map<Path, String> currentJarStamps) {
+            return JavacCompileService.isUpToDate(jarStamps, currentJarStamps);
+        }
+
+        void close() {
+            try {
+                fileManager.close();
+            } catch (IOException e) {
+                JkLog.trace("Can not close compiler file manager : " + e.getMessage());
+            }
+        }
+
+    }
+
+    private static final class Key {
+
+        // Tool instances are stateless, a new one may be returned on each request to the platform
+        private final Class<?> toolClass;
+
+        // Options with values varying from a compilation to another replaced by a placeholder
+        private final List<String> optionShape = new ArrayList<>();
+
+        Key(Tool tool, List<String> options) {
+            this.toolClass = tool.getClass();
+            for (int i = 0; i < options.size(); i++) {
+                String option = options.get(i);
+                optionShape.add(option);
+                if (VARIABLE_VALUE_OPTIONS.contains(option) && i < options.size() - 1) {
+                    optionShape.add("*");
+                    i++;
+                }
+            }
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return toolClass == key.toolClass && optionShape.equals(key.optionShape);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * toolClass.hashCode() + optionShape.hashCode();
+        }
+    }
+
+}
@@ -1,15 +1,16 @@
 package dev.jeka.core.api.java;
 
+import dev.jeka.core.api.file.JkPathMatcher;
 import dev.jeka.core.api.file.JkPathTree;
 import dev.jeka.core.api.system.JkLog;
 import dev.jeka.core.api.utils.*;
 
 import java.io.File;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
-import java.util.zip.ZipFile;
 
 
 /**
@@ -94,17 +95,8 @@ public final class JkClasspath implements Iterable<Path> {
                 if (Files.exists(file.resolve(path))) {
                     return file;
                 }
-            } else {
-                final ZipFile zipFile = JkUtilsZip.getZipFile(file.toFile());
-                if (zipFile.getEntry(path) != null) {
-                    JkUtilsIO.closeQuietly(zipFile);
-                    return file;
-                }
-                JkUtilsIO.closeQuietly(zipFile);
-
-                /* if (Files.exists(JkPathTree.ofZip(file).get(path))) {
-                    return file;
-                }*/
+            } else if (Files.isRegularFile(file) && JkUtilsZip.hasEntry(file, path)) {
+                return file;
             }
         }
         return null;
@@ -113,9 +105,16 @@ public final class JkClasspath implements Iterable<Path> {
     Set<Path> getAllPathMatching(Iterable<String> globPatterns) {
         final Set<Path> result = new LinkedHashSet<>();
         for (final Path classpathEntry : this.entries) {
-            final JkPathTree tree = Files.isDirectory(classpathEntry) ?
-                    JkPathTree.of(classpathEntry) : JkPathTree.ofZip(classpathEntry);
-                    result.addAll(tree.andMatching(true, globPatterns).getRelativeFiles());
+            if (Files.isDirectory(classpathEntry)) {
+                result.addAll(JkPathTree.of(classpathEntry).andMatching(true, globPatterns).getRelativeFiles());
+            } else if (Files.isRegularFile(classpathEntry)) {
+                final JkPathMatcher matcher = JkPathMatcher.of(true, FileSystems.getDefault(), globPatterns);
+                JkUtilsZip.getEntryNames(classpathEntry).stream()
+                        .filter(name -> !name.endsWith("/"))
+                        .map(Paths::get)
+                        .filter(matcher::matches)
+                        .forEach(result::add);
+            }
         }
         return result;
     }
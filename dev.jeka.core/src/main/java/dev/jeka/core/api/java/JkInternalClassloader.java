@@ -10,9 +10,7 @@ import java.net.URL;
 import java.net.URLClassLoader;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Collections;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.*;
 import java.util.stream.Collectors;
 
 /**
@@ -20,6 +18,16 @@ import java.util.stream.Collectors;
  */
 public class JkInternalClassloader {
 
+    private static final int MAX_ISOLATED = 4;
+
+    // Least recently used first
+    private static final Map<List<Path>, URLClassLoader> ISOLATED_CACHE = new LinkedHashMap<>(16, 0.75f, true);
+
+    private static final int MAX_SHARED_JAR_LAYERS = 4;
+
+    // Least recently used first
+    private static final Map<String, URLClassLoader> SHARED_JAR_LAYERS = new LinkedHashMap<>(16, 0.75f, true);
+
     private final ClassLoader classLoader;
 
     private JkInternalClassloader(ClassLoader classLoader) {
@@ -42,6 +50,47 @@ public class JkInternalClassloader {
 
     public static JkInternalClassloader ofMainEmbeddedLibs(List<Path> extraEntries) {
         JkUtilsSystem.disableUnsafeWarning();  // Avoiding unsafe warning due to Ivy.
+        List<Path> pathList = embeddedLibs();
+        pathList.addAll(extraEntries);
+        return of(urlClassLoader(pathList, JkClassLoader.ofCurrent().get()));
+    }
+
+    /**
+     * Same as {@link #ofMainEmbeddedLibs(List)} but the embedded libs and the jar files of the specified entries
+     * are loaded in a parent classloader shared across invocations, as long as these jars are unchanged. Only
+     * directory entries, which are expected to change between invocations, are loaded in a new classloader.<p>
+     *
+     * As the parent classloader is searched first, classes in jars take precedence over classes with the same
+     * name in directories, and static state held by jar classes survives between invocations. Only a few parent
+     * classloaders are kept : the least recently used one is closed when evicted.
+     */
+    public static JkInternalClassloader ofMainEmbeddedLibsSharingJars(List<Path> extraEntries) {
+        JkUtilsSystem.disableUnsafeWarning();  // Avoiding unsafe warning due to Ivy.
+        List<Path> jars = embeddedLibs();
+        List<Path> dirs = new LinkedList<>();
+        for (Path entry : extraEntries) {
+            if (Files.isRegularFile(entry)) {
+                jars.add(entry);
+            } else {
+                dirs.add(entry);
+            }
+        }
+        String key = JkUtilsPath.fingerprint(jars, jars.toString());
+        ClassLoader jarLayer;
+        synchronized (SHARED_JAR_LAYERS) {
+            jarLayer = SHARED_JAR_LAYERS.computeIfAbsent(key,
+                    fingerprint -> urlClassLoader(jars, JkClassLoader.ofCurrent().get()));
+            if (SHARED_JAR_LAYERS.size() > MAX_SHARED_JAR_LAYERS) {
+                Iterator<URLClassLoader> it = SHARED_JAR_LAYERS.values().iterator();
+                URLClassLoader evicted = it.next();
+                it.remove();
+                JkUtilsIO.closeQuietly(evicted);
+            }
+        }
+        return of(urlClassLoader(dirs, jarLayer));
+    }
+
+    private static List<Path> embeddedLibs() {
         List<Path> pathList = new LinkedList<>();
         URL embeddedNameUrl = JkClassLoader.ofCurrent().get().getResource("META-INF/jeka-embedded-name");
         if (embeddedNameUrl != null) {
@@ -49,13 +98,37 @@ public class JkInternalClassloader {
             Path file = getEmbeddedLibAsPath("META-INF/" + jarName);
             pathList.add(file);
         }
-        pathList.addAll(extraEntries);
-        List<URL> urlList = pathList.stream()
+        return pathList;
+    }
+
+    private static URLClassLoader urlClassLoader(List<Path> entries, ClassLoader parent) {
+        URL[] urls = entries.stream()
                 .map(JkUtilsPath::toUrl)
+                .toArray(URL[]::new);
+        return new URLClassLoader(urls, parent);
+    }
+
+    /**
+     * Returns a classloader on the specified entries, isolated from Jeka classes : only JDK classes are visible from
+     * its parent. The classloader is cached, so subsequent calls with the same entries return the same instance,
+     * keeping loaded classes warm across invocations. Only a few classloaders are kept : the least recently used
+     * one is closed when evicted.
+     */
+    public static JkInternalClassloader ofIsolated(List<Path> entries) {
+        List<Path> key = entries.stream()
+                .map(path -> path.toAbsolutePath().normalize())
                 .collect(Collectors.toList());
-        URL[] urls = urlList.toArray(new URL[0]);
-        ClassLoader classLoader = new URLClassLoader(urls, JkClassLoader.ofCurrent().get());
-        return of(classLoader);
+        synchronized (ISOLATED_CACHE) {
+            URLClassLoader result = ISOLATED_CACHE.computeIfAbsent(key,
+                    paths -> urlClassLoader(paths, ClassLoader.getSystemClassLoader().getParent()));
+            if (ISOLATED_CACHE.size() > MAX_ISOLATED) {
+                Iterator<URLClassLoader> it = ISOLATED_CACHE.values().iterator();
+                URLClassLoader evicted = it.next();
+                it.remove();
+                JkUtilsIO.closeQuietly(evicted);
+            }
+            return of(result);
+        }
     }
 
     public static Path getEmbeddedLibAsPath(String resourcePath) {
@@ -0,0 +1,165 @@
+package dev.jeka.core.api.java;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Not part of the public API.<p>
+ *
+ * Constant pool of a class file. Utf8 and numeric constants are stored as is, class and string constants as
+ * the index of their utf8 entry. Other constants are skipped.
+ */
+public final class JkInternalConstantPool {
+
+    private static final int CLASS_TAG = 7;
+
+    private final Object[] entries;
+
+    private JkInternalConstantPool(Object[] entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * Returns <code>true</code> if the specified bytes start as a class file.
+     */
+    public static boolean isClassFile(byte[] bytes) {
+        return bytes.length >= 10 && (bytes[0] & 0xFF) == 0xCA && (bytes[1] & 0xFF) == 0xFE
+                && (bytes[2] & 0xFF) == 0xBA && (bytes[3] & 0xFF) == 0xBE;
+    }
+
+    /**
+     * Reads the constant pool of the specified class file.
+     *
+     * @throws IllegalArgumentException if the bytes do not stand for a class file or if the constant pool
+     * contains a constant unknown from this reader, as may happen with class files of newer JDKs.
+     */
+    public static JkInternalConstantPool of(byte[] classBytes) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(classBytes))) {
+            if (!isClassFile(classBytes)) {
+                throw new IllegalArgumentException("Not a class file");
+            }
+            in.readInt();  // magic
+            in.readUnsignedShort();  // minor version
+            in.readUnsignedShort();  // major version
+            return read(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Reads the constant pool from the specified stream, positioned right after the class file version.
+     *
+     * @throws IllegalArgumentException if the constant pool contains a constant unknown from this reader.
+     */
+    public static JkInternalConstantPool read(DataInputStream in) throws IOException {
+        int count = in.readUnsignedShort();
+        Object[] entries = new Object[count];
+        for (int i = 1; i < count; i++) {
+            int tag = in.readUnsignedByte();
+            switch (tag) {
+                case 1:
+                    entries[i] = in.readUTF();
+                    break;
+                case 3:
+                    entries[i] = in.readInt();
+                    break;
+                case 4:
+                    entries[i] = in.readFloat();
+                    break;
+                case 5:
+                    entries[i] = in.readLong();
+                    i++;
+                    break;
+                case 6:
+                    entries[i] = in.readDouble();
+                    i++;
+                    break;
+                case CLASS_TAG:
+                    entries[i] = new ClassIndex(in.readUnsignedShort());
+                    break;
+                case 8:
+                    entries[i] = new int[] {in.readUnsignedShort()};
+                    break;
+                case 16: case 19: case 20:
+                    in.readUnsignedShort();
+                    break;
+                case 15:
+                    in.readUnsignedByte();
+                    in.readUnsignedShort();
+                    break;
+                case 9: case 10: case 11: case 12: case 17: case 18:
+                    in.readInt();
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown constant pool tag " + tag);
+            }
+        }
+        return new JkInternalConstantPool(entries);
+    }
+
+    /**
+     * Returns the constant at the specified index as a string. Class and string constants are resolved to
+     * their utf8 value.
+     */
+    public String get(int index) {
+        Object value = entries[index];
+        if (value instanceof ClassIndex) {
+            return String.valueOf(entries[((ClassIndex) value).utf8Index]);
+        }
+        if (value instanceof int[]) {
+            return String.valueOf(entries[((int[]) value)[0]]);
+        }
+        return String.valueOf(value);
+    }
+
+    /**
+     * Same as {@link #get(int)} but returns an empty string for index 0, as used for the super class of
+     * <code>java.lang.Object</code>.
+     */
+    public String getClassName(int index) {
+        return index == 0 ? "" : get(index);
+    }
+
+    /**
+     * Returns the internal names (as <i>java/lang/String</i>) of the classes mentioned in class constants.
+     */
+    public List<String> getClassNames() {
+        List<String> result = new ArrayList<>();
+        for (Object entry : entries) {
+            if (entry instanceof ClassIndex) {
+                result.add((String) entries[((ClassIndex) entry).utf8Index]);
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Returns all utf8 constants.
+     */
+    public List<String> getUtf8s() {
+        List<String> result = new ArrayList<>();
+        for (Object entry : entries) {
+            if (entry instanceof String) {
+                result.add((String) entry);
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    private static final class ClassIndex {
+
+        private final int utf8Index;
+
+        ClassIndex(int utf8Index) {
+            this.utf8Index = utf8Index;
+        }
+
+    }
+
+}
@@ -1,11 +1,16 @@
 package dev.jeka.core.api.java;
 
 import dev.jeka.core.api.file.JkPathMatcher;
+import dev.jeka.core.api.file.JkPathTree;
 import dev.jeka.core.api.file.JkPathTreeSet;
 import dev.jeka.core.api.utils.JkUtilsAssert;
+import dev.jeka.core.api.utils.JkUtilsPath;
 
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.PathMatcher;
+import java.util.LinkedList;
+import java.util.List;
 
 /**
  * Utilities class to produce Jar files.
@@ -64,7 +69,7 @@ public final class JkJarPacker {
      * The result jar does not contains other jars as zip entry but content of the other jars is merged with the content
      * of original jar.
      * @param resultFile Result file
-     * @param otherJars content of other jar to merge with the original jar
+     * @param otherJars content of other jar to merge with the original jar. Class directories are accepted as well.
      * @param filter Only files matching this filter will be included in the resulting fat jar, either it comes from
      *               dependencies or not.
      */
@@ -72,7 +77,17 @@ public final class JkJarPacker {
         if (manifest != null && !manifest.isEmpty()) {
             manifest.writeToStandardLocation(classtrees.toList().get(0).getRoot());
         }
-        JkPathTreeSet.ofEmpty().andZips(otherJars).and(classtrees).andMatcher(EXCLUDE_SIGNATURE_MATCHER)
+        List<Path> jars = new LinkedList<>();
+        List<JkPathTree> classDirs = new LinkedList<>();
+        JkUtilsPath.disambiguate(otherJars).forEach(path -> {
+            if (Files.isDirectory(path)) {
+                classDirs.add(JkPathTree.of(path));
+            } else {
+                jars.add(path);
+            }
+        });
+        JkPathTreeSet.ofEmpty().andZips(jars).and(JkPathTreeSet.of(classDirs)).and(classtrees)
+                .andMatcher(EXCLUDE_SIGNATURE_MATCHER)
                 .andMatcher(filter)
                 .zipTo(resultFile);  // main jar files must take precedence over files coming form dependencies
     }
@@ -9,7 +9,6 @@ import dev.jeka.core.api.utils.JkUtilsPath;
 import dev.jeka.core.api.utils.JkUtilsString;
 
 import javax.tools.*;
-import javax.tools.JavaCompiler.CompilationTask;
 import java.io.File;
 import java.io.PrintWriter;
 import java.nio.file.Files;
@@ -210,19 +209,16 @@ public final class JkJavaCompiler<T> {
         return result;
     }
 
-    private static boolean runOnTool(JkJavaCompileSpec compileSpec, JavaCompiler compiler, String[] toolOptions) {
-        StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null);
+    private static boolean runOnTool(JkJavaCompileSpec<?> compileSpec, JavaCompiler compiler, String[] toolOptions) {
         List<File> files = toFiles(compileSpec.getSourceFiles());
-        Iterable<? extends JavaFileObject> javaFileObjects = fileManager.getJavaFileObjectsFromFiles(files);
         List<String> options = new LinkedList<>();
         options.addAll(Arrays.asList(toolOptions));
         options.addAll(compileSpec.getOptions());
-        CompilationTask task = compiler.getTask(new PrintWriter(JkLog.getOutputStream()),
-                null, new JkDiagnosticListener(), options, null, javaFileObjects);
-        return task.call();
+        return JavacCompileService.compile(compiler, new PrintWriter(JkLog.getOutputStream()),
+                new JkDiagnosticListener(), options, files);
     }
 
-    private static boolean runOnProcess(JkJavaCompileSpec compileSpec, JkProcess process) {
+    private static boolean runOnProcess(JkJavaCompileSpec<?> compileSpec, JkProcess process) {
         final List<String> sourcePaths = new LinkedList<>();
         List<Path> paths = compileSpec.getSourceFiles();
         for (final Path file : paths) {
@@ -233,12 +229,23 @@ public final class JkJavaCompiler<T> {
                 sourcePaths.add(file.toAbsolutePath().toString());
             }
         }
-        final JkProcess jkProcess = process.andParams(compileSpec.getOptions()).andParams(sourcePaths);
+        final List<String> args = new LinkedList<>(compileSpec.getOptions());
+        args.addAll(sourcePaths);
+        final Path argFile = ArgFiles.argFile(argFileDir(compileSpec.getOutputDir()), "javac", args);
+        final JkProcess jkProcess = process.andParams("@" + argFile);
         JkLog.info("" + sourcePaths.size() + " files to compile.");
         final int result = jkProcess.runSync();
         return (result == 0);
     }
 
+    /*
+     * Argument files are written next to the class output dir (e.g. jeka/output/argfiles for jeka/output/classes).
+     */
+    private static Path argFileDir(Path outputDir) {
+        Path parent = outputDir.toAbsolutePath().normalize().getParent();
+        return parent == null ? outputDir.resolve(".argfiles") : parent.resolve("argfiles");
+    }
+
     private static JavaCompiler getDefaultOrFail() {
         final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
         JkUtilsAssert.state(compiler != null, "This platform does not provide compileRunner. " +
@@ -277,7 +284,7 @@ public final class JkJavaCompiler<T> {
             }
         }
         if (compileProcess != null) {
-            runOnProcess(compileSpec, compileProcess);
+            return runOnProcess(compileSpec, compileProcess);
         }
 
         // Try to use running JDK compiler
@@ -339,11 +346,10 @@ public final class JkJavaCompiler<T> {
         return JkProcess.of(cmd);
     }
 
-    @SuppressWarnings("rawtypes")
-    private static class JkDiagnosticListener implements DiagnosticListener {
+    private static class JkDiagnosticListener implements DiagnosticListener<JavaFileObject> {
 
         @Override
-        public void report(Diagnostic diagnostic) {
+        public void report(Diagnostic<? extends JavaFileObject> diagnostic) {
             if (!diagnostic.getKind().equals(Diagnostic.Kind.ERROR)) {
                 JkLog.info(diagnostic.toString());
             } else {
@@ -36,9 +36,16 @@ public final class JkJavaProcess {
 
     private final Map<String, String> environment;
 
+    private final boolean classDataSharing;
+
+    private final Path argFileDir;
+
+    private final boolean pathingJar;
+
     private JkJavaProcess(Path javaDir, Map<String, String> systemProperties, JkPathSequence classpath,
             List<AgentLibAndOption> agents, Collection<String> options, Path workingDir,
-            Map<String, String> environment, boolean printCommand) {
+            Map<String, String> environment, boolean printCommand, boolean classDataSharing,
+            Path argFileDir, boolean pathingJar) {
         super();
         this.javaDir = javaDir;
         this.systemProperties = systemProperties;
@@ -48,6 +55,9 @@ public final class JkJavaProcess {
         this.workingDir = workingDir;
         this.environment = environment;
         this.printCommand = printCommand;
+        this.classDataSharing = classDataSharing;
+        this.argFileDir = argFileDir;
+        this.pathingJar = pathingJar;
     }
 
     /**
@@ -65,7 +75,8 @@ public final class JkJavaProcess {
     @SuppressWarnings("unchecked")
     public static JkJavaProcess ofJavaHome(Path javaDir) {
         return new JkJavaProcess(javaDir, Collections.EMPTY_MAP, JkPathSequence.of(),
-                Collections.EMPTY_LIST, Collections.EMPTY_LIST, null, Collections.EMPTY_MAP, true);
+                Collections.EMPTY_LIST, Collections.EMPTY_LIST, null, Collections.EMPTY_MAP, true, false, null,
+                false);
     }
 
     /**
@@ -86,7 +97,8 @@ public final class JkJavaProcess {
                 this.agents);
         list.add(new AgentLibAndOption(agentLib.toAbsolutePath().toString(), agentOption));
         return new JkJavaProcess(this.javaDir, this.systemProperties, this.classpath, list,
-                this.options, this.workingDir, this.environment, this.printCommand);
+                this.options, this.workingDir, this.environment, this.printCommand,
+                this.classDataSharing, this.argFileDir, this.pathingJar);
     }
 
     /**
@@ -105,7 +117,8 @@ public final class JkJavaProcess {
         final List<String> list = new ArrayList<>(this.options);
         list.addAll(options);
         return new JkJavaProcess(this.javaDir, this.systemProperties, this.classpath, this.agents,
-                list, this.workingDir, this.environment, this.printCommand);
+                list, this.workingDir, this.environment, this.printCommand,
+                this.classDataSharing, this.argFileDir, this.pathingJar);
     }
 
     /**
@@ -143,7 +156,8 @@ public final class JkJavaProcess {
      */
     public JkJavaProcess withWorkingDir(Path workingDir) {
         return new JkJavaProcess(this.javaDir, this.systemProperties, this.classpath, this.agents,
-                this.options, workingDir, this.environment, this.printCommand);
+                this.options, workingDir, this.environment, this.printCommand,
+                this.classDataSharing, this.argFileDir, this.pathingJar);
     }
 
     /**
@@ -159,7 +173,8 @@ public final class JkJavaProcess {
         }
         final JkPathSequence jkClasspath = JkPathSequence.of(JkUtilsPath.disambiguate(paths));
         return new JkJavaProcess(this.javaDir, this.systemProperties, jkClasspath, this.agents,
-                this.options, this.workingDir, this.environment, this.printCommand);
+                this.options, this.workingDir, this.environment, this.printCommand,
+                this.classDataSharing, this.argFileDir, this.pathingJar);
     }
 
     /**
@@ -168,7 +183,60 @@ public final class JkJavaProcess {
      */
     public JkJavaProcess withPrintCommand(boolean printCommand) {
         return new JkJavaProcess(this.javaDir, this.systemProperties, this.classpath, this.agents,
-                this.options, this.workingDir, this.environment, printCommand);
+                this.options, this.workingDir, this.environment, printCommand, this.classDataSharing, this.argFileDir, this.pathingJar);
+    }
+
+    /**
+     * Returns a {@link JkJavaProcess} identical to this one but using, or not, an application class data sharing
+     * archive to speed up JVM startup. The archive is created at first run then reused as long as
+     * the classpath does not change. This requires the launched JVM to be JDK 13 or above and directories
+     * to be placed after jar files in the classpath, otherwise this setting has no effect.
+     */
+    public JkJavaProcess withClassDataSharing(boolean classDataSharing) {
+        return new JkJavaProcess(this.javaDir, this.systemProperties, this.classpath, this.agents,
+                this.options, this.workingDir, this.environment, this.printCommand, classDataSharing,
+                this.argFileDir, this.pathingJar);
+    }
+
+    /**
+     * Returns <code>true</code> if this process is configured to use class data sharing.
+     * @see #withClassDataSharing(boolean)
+     */
+    public boolean isClassDataSharing() {
+        return classDataSharing;
+    }
+
+    /**
+     * Returns a {@link JkJavaProcess} identical to this one but passing its options and classpath to the
+     * <i>java</i> launcher through an argument file written in the specified directory, instead of on the command
+     * line. Argument files are named after a hash of their content, so they are reused across processes launched
+     * with the same options. This applies only if the launched JVM is JDK 9 or above. Specify <code>null</code> to
+     * pass options on the command line.
+     */
+    public JkJavaProcess withArgFileDir(Path argFileDir) {
+        return new JkJavaProcess(this.javaDir, this.systemProperties, this.classpath, this.agents,
+                this.options, this.workingDir, this.environment, this.printCommand, this.classDataSharing,
+                argFileDir, this.pathingJar);
+    }
+
+    /**
+     * Returns the directory where argument files and pathing jars are written.
+     * @see #withArgFileDir(Path)
+     */
+    public Path getArgFileDir() {
+        return argFileDir;
+    }
+
+    /**
+     * Returns a {@link JkJavaProcess} identical to this one but passing, or not, its classpath through a
+     * manifest-only jar whose <i>Class-Path</i> attribute references the classpath entries. This works on any JVM
+     * version but the launched program sees only the pathing jar in the <i>java.class.path</i> system property.
+     * Pathing jars are written in the directory specified with {@link #withArgFileDir(Path)}.
+     */
+    public JkJavaProcess withPathingJar(boolean pathingJar) {
+        return new JkJavaProcess(this.javaDir, this.systemProperties, this.classpath, this.agents,
+                this.options, this.workingDir, this.environment, this.printCommand, this.classDataSharing,
+                this.argFileDir, pathingJar);
     }
 
     /**
@@ -220,7 +288,7 @@ public final class JkJavaProcess {
                 "main class name and jar can't be both null while launching a Java process, " +
                         "please set at least one of them.");
         final List<String> args = new LinkedList<>();
-        final OptionAndEnv optionAndEnv = optionsAndEnv();
+        final OptionAndEnv optionAndEnv = optionsAndEnv(mainClassName, jar);
         args.add(getRunningJavaCommand());
         args.addAll(optionAndEnv.options);
         if (jar != null) {
@@ -243,7 +311,7 @@ public final class JkJavaProcess {
                 "main class name and jar can't be both null while launching a Java process, " +
                 "please set at least one of them.");
         final List<String> command = new LinkedList<>();
-        final OptionAndEnv optionAndEnv = optionsAndEnv();
+        final OptionAndEnv optionAndEnv = optionsAndEnv(mainClassName, jar);
         command.add(getRunningJavaCommand());
         command.addAll(optionAndEnv.options);
         String execPart = "";
@@ -265,6 +333,7 @@ public final class JkJavaProcess {
             JkLog.info(String.join("\n", command));
         }
         final int result;
+        final long start = System.nanoTime();
         try {
             final Process process = processBuilder(command, optionAndEnv.env).start();
             final JkStreamGobbler outputStreamGobbler = JkUtilsIO.newStreamGobbler(
@@ -278,6 +347,10 @@ public final class JkJavaProcess {
         } catch (final Exception e) {
             throw new RuntimeException(e);
         }
+        if (optionAndEnv.classDataSharing != null && optionAndEnv.classDataSharing.isActive()) {
+            JkLog.info("Java process ran in " + (System.nanoTime() - start) / 1000000 + " ms ("
+                    + optionAndEnv.classDataSharing.getStatus() + ").");
+        }
         if (result != 0) {
             throw new IllegalStateException("Process terminated in error : exit value = " + result + ".");
         }
@@ -288,12 +361,29 @@ public final class JkJavaProcess {
 
 
 
-    private OptionAndEnv optionsAndEnv() {
+    private OptionAndEnv optionsAndEnv(String mainClassName, Path jar) {
         final List<String> options = new LinkedList<>();
         final Map<String, String> env = new HashMap<>();
+        ClassDataSharing classDataSharing = null;
+        final boolean useArgFile = argFileDir != null
+                && JkUtilsJdk.majorVersion(javaDir) >= ArgFiles.JAVA_MIN_VERSION;
+        if (this.classDataSharing) {
+            final List<Path> sharedClasspath = new LinkedList<>();
+            if (jar != null) {
+                sharedClasspath.add(jar);
+            }
+            sharedClasspath.addAll(classpath.getEntries());
+            classDataSharing = ClassDataSharing.of(javaDir, sharedClasspath,
+                    mainClassName != null ? mainClassName : jar.toString());
+            options.addAll(classDataSharing.getOptions());
+        }
         if (classpath != null && !classpath.getEntries().isEmpty()) {
             final String classpathString = classpath.toString();
-            if (JkUtilsSystem.IS_WINDOWS && classpathString.length() > 7500) {
+            if (pathingJar) {
+                JkUtilsAssert.state(argFileDir != null, "Pathing jar requires an argument file directory to be set.");
+                options.add("-cp");
+                options.add(ArgFiles.pathingJar(argFileDir, classpath.getEntries()).toString());
+            } else if (JkUtilsSystem.IS_WINDOWS && !useArgFile && classpathString.length() > 7500) {
                 JkLog.warn("Classpath too long, classpath will be passed using CLASSPATH env variable.");
                 env.put("CLASSPATH", classpathString);
             } else {
@@ -314,18 +404,25 @@ public final class JkJavaProcess {
             options.add("-D" + key + "=" + value);
         }
         options.addAll(this.options);
-        return new OptionAndEnv(options, env);
+        if (useArgFile) {
+            final Path argFile = ArgFiles.argFile(argFileDir, "java", options);
+            options.clear();
+            options.add("@" + argFile);
+        }
+        return new OptionAndEnv(options, env, classDataSharing);
     }
 
     private static final class OptionAndEnv {
 
         public final List<String> options;
         public final Map<String, String> env;
+        public final ClassDataSharing classDataSharing;
 
-        private OptionAndEnv(List<String> options, Map<String, String> env) {
+        private OptionAndEnv(List<String> options, Map<String, String> env, ClassDataSharing classDataSharing) {
             super();
             this.options = options;
             this.env = env;
+            this.classDataSharing = classDataSharing;
         }
 
     }
@@ -343,6 +440,34 @@ public final class JkJavaProcess {
         }
     }
 
+    /**
+     * Returns the directory containing the java executable used by this {@link JkJavaProcess}.
+     */
+    public Path getJavaDir() {
+        return javaDir;
+    }
+
+    /**
+     * Returns the JVM options, system properties excepted, passed to this {@link JkJavaProcess}.
+     */
+    public List<String> getOptions() {
+        return Collections.unmodifiableList(new ArrayList<>(options));
+    }
+
+    /**
+     * Returns the system properties passed to this {@link JkJavaProcess}.
+     */
+    public Map<String, String> getSystemProperties() {
+        return Collections.unmodifiableMap(systemProperties);
+    }
+
+    /**
+     * Returns <code>true</code> if java agents are attached to this {@link JkJavaProcess}.
+     */
+    public boolean hasAgents() {
+        return !agents.isEmpty();
+    }
+
     /**
      * Returns the classpath of this {@link JkJavaProcess}.
      * @return
@@ -7,16 +7,17 @@ import dev.jeka.core.api.system.JkProcess;
 import dev.jeka.core.api.utils.JkUtilsIterable;
 import dev.jeka.core.api.utils.JkUtilsJdk;
 import dev.jeka.core.api.utils.JkUtilsObject;
+import dev.jeka.core.api.utils.JkUtilsPath;
 import dev.jeka.core.api.utils.JkUtilsSystem;
 
 import javax.tools.DocumentationTool;
-import javax.tools.StandardJavaFileManager;
 import javax.tools.ToolProvider;
 import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.stream.Collectors;
 
 /**
  * Provides fluent interface for producing Javadoc.
@@ -35,6 +36,8 @@ public final class JkJavadocProcessor<T> {
 
     private Boolean displayOutput;
 
+    private Boolean inProcess;
+
     /**
      * For parent chaining
      */
@@ -90,41 +93,97 @@ public final class JkJavadocProcessor<T> {
         return this;
     }
 
+    public Boolean getInProcess() {
+        return inProcess;
+    }
+
+    /**
+     * Specifies if Javadoc should run within the current JVM, using {@link DocumentationTool}, instead of forking
+     * the <i>javadoc</i> executable. If <code>null</code>, Javadoc runs in-process when a documentation tool
+     * is available from the running JDK.
+     */
+    public JkJavadocProcessor<T> setInProcess(Boolean inProcess) {
+        this.inProcess = inProcess;
+        return this;
+    }
+
     /**
-     * Actually processes and creates the javadoc files.
+     * Actually processes and creates the javadoc files. Generation is skipped if sources, classpath and options
+     * have not changed since the last generation in the specified output dir.
      */
     public void make(Iterable<Path> classpath, JkPathTreeSet srcDirs, Path outputDir) {
         JkLog.startTask("Generate javadoc");
         if (srcDirs.hasNoExistingRoot()) {
             JkLog.warn("No sources found in " + srcDirs);
+            JkLog.endTask();
             return;
         }
-        //executeTool(outputDir);
-        if (srcDirs.count(1, false) > 0) {
-            executeCommandLine(classpath, srcDirs, outputDir);
-        } else {
+        if (srcDirs.count(1, false) == 0) {
             JkLog.warn("No source file detected. Skip Javadoc.");
+            JkLog.endTask();
+            return;
+        }
+        List<Path> sourceFiles = srcDirs.getFiles();
+        LinkedHashSet<String> packages = computePackages(srcDirs);
+        if (packages.isEmpty()) {
+            JkLog.warn("No package detected. Skip Javadoc.");
+            JkLog.endTask();
+            return;
+        }
+        List<String> options = computeOptions(classpath, srcDirs, outputDir);
+        List<Path> inputs = new LinkedList<>(sourceFiles);
+        if (classpath != null) {
+            classpath.forEach(inputs::add);
+        }
+        String fingerprint = JkUtilsPath.fingerprint(inputs, options.toArray(new String[0]));
+        boolean generated = JkUtilsPath.runIfChanged(outputDir, fingerprint, () -> {
+            DocumentationTool tool = ToolProvider.getSystemDocumentationTool();
+            boolean success;
+            if (tool != null && JkUtilsObject.firstNonNull(inProcess, true)) {
+                success = executeTool(tool, options, sourceFiles);
+            } else {
+                success = executeCommandLine(options, packages);
+            }
+            if (!success) {
+                JkLog.warn("An error occurred when generating Javadoc. Maybe there is no public class to document." +
+                        " Please relaunch the process with -LV option to see details");
+            }
+            return success;
+        });
+        if (!generated) {
+            JkLog.info("Sources and classpath unchanged since last generation. Keep javadoc in " + outputDir);
         }
         JkLog.endTask();
     }
 
-    // https://www.programcreek.com/java-api-examples/index.php?api=javax.tools.DocumentationTool
-    private void executeTool(Iterable<Path> classpath, JkPathTreeSet srcDirs, Path outputDir) {
-        DocumentationTool tool = ToolProvider.getSystemDocumentationTool();
-        try (StandardJavaFileManager fm = tool.getStandardFileManager(null, null, null)) {
-            Files.createDirectories(outputDir);
-            fm.setLocation(DocumentationTool.Location.DOCUMENTATION_OUTPUT, JkUtilsIterable.listOf(outputDir.toFile()));
-            Writer writer = new PrintWriter(new OutputStreamWriter(JkLog.getOutputStream(), StandardCharsets.UTF_8));
-            List<String> options = computeOptions(classpath, srcDirs, outputDir);
-            DocumentationTool.DocumentationTask task = tool.getTask(writer, fm, null, null,
-                    options, null);
-            task.call();
+    private boolean executeTool(DocumentationTool tool, List<String> options, List<Path> sourceFiles) {
+        boolean verbose = JkUtilsObject.firstNonNull(displayOutput, JkLog.isVerbose());
+        StringWriter stringWriter = new StringWriter();
+        Writer writer = verbose ? new PrintWriter(new OutputStreamWriter(JkLog.getOutputStream(),
+                StandardCharsets.UTF_8)) : stringWriter;
+        List<File> javaFiles = sourceFiles.stream()
+                .filter(path -> path.getFileName().toString().endsWith(".java"))
+                .map(Path::toFile)
+                .collect(Collectors.toList());
+        boolean result;
+        try {
+            result = JavacCompileService.document(tool, writer, options, javaFiles);
+        } catch (RuntimeException e) {
+            JkLog.trace(e.toString());
+            result = false;
+        }
+        try {
+            writer.flush();
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
+        if (!result) {
+            JkLog.trace(stringWriter.toString());
+        }
+        return result;
     }
 
-    private void executeCommandLine(Iterable<Path> classpath, JkPathTreeSet srcDirs, Path outputDir) {
+    private boolean executeCommandLine(List<String> options, LinkedHashSet<String> packages) {
         String exeName = JkUtilsSystem.IS_WINDOWS ? "javadoc.exe" : "javadoc";
         Path javadocExe = JkUtilsJdk.javaHome().resolve("bin/" + exeName);
         if (!Files.exists(javadocExe)) {
@@ -132,22 +191,17 @@ public final class JkJavadocProcessor<T> {
         }
         boolean verbose = JkUtilsObject.firstNonNull(displayOutput, JkLog.isVerbose());
         JkLog.trace(javadocExe.toString());
-        LinkedHashSet packages = computePackages(srcDirs);
-        if (packages.isEmpty()) {
-            JkLog.warn("No package detected. Skip Javadoc.");
-            return;
-        }
         JkProcess process = JkProcess.of(javadocExe.toString())
-                .andParams(computeOptions(classpath, srcDirs, outputDir))
-                .andParams(computePackages(srcDirs))
+                .andParams(options)
+                .andParams(packages)
                 .withLogOutput(verbose)
                 .withLogCommand(verbose)
                 .withFailOnError(true);
         try {
             process.runSync();
+            return true;
         } catch (IllegalStateException e) {
-            JkLog.warn("An error occurred when generating Javadoc. Maybe there is no public class to document." +
-                    " Please relaunch the process with -LV option to see details");
+            return false;
         }
     }
 
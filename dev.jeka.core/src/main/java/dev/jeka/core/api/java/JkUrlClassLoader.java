@@ -16,8 +16,6 @@ import java.nio.file.PathMatcher;
 import java.nio.file.Paths;
 import java.util.*;
 import java.util.stream.Collectors;
-import java.util.zip.ZipEntry;
-import java.util.zip.ZipFile;
 
 /**
  * Wrapper around {@link URLClassLoader} offering convenient methods and fluent
@@ -198,11 +196,10 @@ public final class JkUrlClassLoader {
         if (Files.isDirectory(dirOrJar)) {
             paths = JkPathTree.of(dirOrJar).andMatching(true, "**.class").getRelativeFiles();
         } else {
-            final List<ZipEntry> entries = JkUtilsZip.getZipEntries(JkUtilsZip.getZipFile(dirOrJar.toFile()));
             paths = new LinkedList<>();
-            for (final ZipEntry entry : entries) {
-                if (entry.getName().endsWith(".class")) {
-                    paths.add(Paths.get(entry.getName()));
+            for (final String entryName : JkUtilsZip.getEntryNames(dirOrJar)) {
+                if (entryName.endsWith(".class")) {
+                    paths.add(Paths.get(entryName));
                 }
             }
         }
@@ -284,16 +281,9 @@ public final class JkUrlClassLoader {
         for (final Path file : this.getFullClasspath()) {
             if (Files.isRegularFile(file)) {
                 JkLog.trace("Scanning " + file + " for META-INF/services.");
-                final ZipFile zipFile = JkUtilsZip.getZipFile(file.toFile());
-                final ZipEntry serviceEntry = zipFile.getEntry("META-INF/services");
-                if (serviceEntry == null) {
-                    JkUtilsIO.closeOrFail(zipFile);
-                    continue;
-                }
-                for (final ZipEntry entry : JkUtilsZip.getZipEntries(zipFile)) {
-                    if (entry.getName().startsWith("META-INF/services/")) {
-                        final String serviceName = JkUtilsString.substringAfterLast(
-                                entry.getName(), "/");
+                for (final String entryName : JkUtilsZip.getEntryNames(file)) {
+                    if (entryName.startsWith("META-INF/services/") && !entryName.endsWith("/")) {
+                        final String serviceName = JkUtilsString.substringAfterLast(entryName, "/");
                         final Class<?> serviceClass = this.toJkClassLoader().loadIfExist(serviceName);
                         if (serviceClass != null) {
                             JkLog.trace("Found service providers for : " + serviceName);
@@ -301,7 +291,6 @@ public final class JkUrlClassLoader {
                         }
                     }
                 }
-                JkUtilsIO.closeOrFail(zipFile);
             } else {
                 final Path serviceDir = file.resolve("META-INF/services");
                 if (!Files.exists(serviceDir) || !Files.isDirectory(serviceDir)) {
@@ -0,0 +1,287 @@
+package dev.jeka.core.api.java.project;
+
+import dev.jeka.core.api.java.JkInternalConstantPool;
+import dev.jeka.core.api.utils.JkUtilsIO;
+import dev.jeka.core.api.utils.JkUtilsPath;
+import dev.jeka.core.api.utils.JkUtilsString;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/*
+ * Computes a hash of the application binary interface exposed by compiled classes : signatures of classes and of
+ * their non-private members, constant values and annotations. Method bodies, private and synthetic members do not
+ * contribute, so implementation-only changes leave the hash unchanged. Package-private classes and members do, as
+ * public classes may expose inherited members of package-private ones, and as classes of the same package may
+ * lie in another project.
+ */
+final class ClassAbi {
+
+    private static final int ACC_PRIVATE = 0x0002;
+
+    private static final int ACC_SYNTHETIC = 0x1000;
+
+    // public, final, interface, abstract, annotation, enum
+    private static final int CLASS_ACCESS_MASK = 0x0001 | 0x0010 | 0x0200 | 0x0400 | 0x2000 | 0x4000;
+
+    // public, protected, static, final
+    private static final int FIELD_ACCESS_MASK = 0x0001 | 0x0004 | 0x0008 | 0x0010;
+
+    // public, protected, static, final, varargs, abstract
+    private static final int METHOD_ACCESS_MASK = 0x0001 | 0x0004 | 0x0008 | 0x0010 | 0x0080 | 0x0400;
+
+    private static final Set<String> ABI_ATTRIBUTES = new HashSet<>(Arrays.asList("Signature", "ConstantValue",
+            "Exceptions", "AnnotationDefault", "RuntimeVisibleAnnotations", "RuntimeInvisibleAnnotations",
+            "RuntimeVisibleParameterAnnotations", "RuntimeInvisibleParameterAnnotations"));
+
+    private static final String PROCESSOR_SERVICE = "META-INF/services/javax.annotation.processing.Processor";
+
+    // Jar hashes keyed by jar path, along the size and modification time they have been computed for
+    private static final Map<Path, String[]> JAR_HASHES = new ConcurrentHashMap<>();
+
+    private ClassAbi() {
+    }
+
+    /**
+     * Returns the ABI hash of the classes contained in the specified directory or jar file. As annotation
+     * processors act through their implementation, entries declaring some are hashed on their file attributes.
+     */
+    static String hash(Path classpathEntry) {
+        if (Files.isDirectory(classpathEntry)) {
+            if (Files.exists(classpathEntry.resolve(PROCESSOR_SERVICE))) {
+                return JkUtilsPath.fingerprint(Collections.singleton(classpathEntry));
+            }
+            MessageDigest digest = messageDigest();
+            try (Stream<Path> stream = JkUtilsPath.walk(classpathEntry)) {
+                for (Path file : stream.filter(path -> path.toString().endsWith(".class")).sorted()
+                        .collect(Collectors.toList())) {
+                    update(digest, describe(JkUtilsPath.readAllBytes(file)));
+                }
+            }
+            return JkUtilsString.toHexString(digest.digest());
+        }
+        if (!Files.isRegularFile(classpathEntry)) {
+            return "";
+        }
+        Path key = classpathEntry.toAbsolutePath().normalize();
+        String stamp = stamp(key);
+        String[] cached = JAR_HASHES.get(key);
+        if (cached != null && cached[0].equals(stamp)) {
+            return cached[1];
+        }
+        String result = jarHash(key);
+        JAR_HASHES.put(key, new String[] {stamp, result});
+        return result;
+    }
+
+    /**
+     * Returns a canonical description of the ABI of the specified class, or an empty string if the class is
+     * synthetic. Classes that can not be parsed are described by their whole content.
+     */
+    static String describe(byte[] classBytes) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(classBytes))) {
+            in.readInt();  // magic
+            in.readUnsignedShort();  // minor version
+            in.readUnsignedShort();  // major version
+            JkInternalConstantPool pool;
+            try {
+                pool = JkInternalConstantPool.read(in);
+            } catch (IllegalArgumentException e) {
+                return JkUtilsString.toHexString(messageDigest().digest(classBytes));
+            }
+            int access = in.readUnsignedShort();
+            if ((access & ACC_SYNTHETIC) != 0) {
+                return "";
+            }
+            StringBuilder result = new StringBuilder();
+            result.append("class ").append(access & CLASS_ACCESS_MASK).append(' ')
+                    .append(pool.getClassName(in.readUnsignedShort()));
+            result.append(" extends ").append(pool.getClassName(in.readUnsignedShort()));
+            int interfaceCount = in.readUnsignedShort();
+            for (int i = 0; i < interfaceCount; i++) {
+                result.append(" implements ").append(pool.getClassName(in.readUnsignedShort()));
+            }
+            result.append('\n');
+            appendMembers(result, in, pool, "field", FIELD_ACCESS_MASK);
+            appendMembers(result, in, pool, "method", METHOD_ACCESS_MASK);
+            appendAttributes(result, in, pool);
+            return result.toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String jarHash(Path jar) {
+        MessageDigest digest = messageDigest();
+        try (ZipFile zipFile = new ZipFile(jar.toFile())) {
+            if (zipFile.getEntry(PROCESSOR_SERVICE) != null) {
+                return JkUtilsPath.fingerprint(Collections.singleton(jar));
+            }
+            List<ZipEntry> entries = zipFile.stream()
+                    .filter(entry -> entry.getName().endsWith(".class"))
+                    .sorted(Comparator.comparing(ZipEntry::getName))
+                    .collect(Collectors.toList());
+            for (ZipEntry entry : entries) {
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                try (InputStream inputStream = zipFile.getInputStream(entry)) {
+                    JkUtilsIO.copy(inputStream, out);
+                }
+                update(digest, describe(out.toByteArray()));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return JkUtilsString.toHexString(digest.digest());
+    }
+
+    private static void appendMembers(StringBuilder result, DataInputStream in, JkInternalConstantPool pool,
+                                      String kind, int accessMask) throws IOException {
+        int count = in.readUnsignedShort();
+        List<String> members = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int access = in.readUnsignedShort();
+            String name = pool.get(in.readUnsignedShort());
+            String descriptor = pool.get(in.readUnsignedShort());
+            StringBuilder member = new StringBuilder();
+            member.append(kind).append(' ').append(access & accessMask).append(' ').append(name).append(' ')
+                    .append(descriptor).append('\n');
+            appendAttributes(member, in, pool);
+            boolean visible = (access & (ACC_PRIVATE | ACC_SYNTHETIC)) == 0;
+            if (visible) {
+                members.add(member.toString());
+            }
+        }
+
+        // Member order may change without altering the ABI
+        Collections.sort(members);
+        members.forEach(result::append);
+    }
+
+    private static void appendAttributes(StringBuilder result, DataInputStream in, JkInternalConstantPool pool)
+            throws IOException {
+        int count = in.readUnsignedShort();
+        for (int i = 0; i < count; i++) {
+            String name = pool.get(in.readUnsignedShort());
+            int length = in.readInt();
+            byte[] bytes = new byte[length];
+            in.readFully(bytes);
+            if (!ABI_ATTRIBUTES.contains(name)) {
+                continue;
+            }
+            DataInputStream attributeIn = new DataInputStream(new ByteArrayInputStream(bytes));
+            result.append("  ").append(name).append(' ');
+            switch (name) {
+                case "Signature":
+                case "ConstantValue":
+                    result.append(pool.get(attributeIn.readUnsignedShort()));
+                    break;
+                case "Exceptions":
+                    int exceptionCount = attributeIn.readUnsignedShort();
+                    for (int j = 0; j < exceptionCount; j++) {
+                        result.append(pool.getClassName(attributeIn.readUnsignedShort())).append(' ');
+                    }
+                    break;
+                case "AnnotationDefault":
+                    appendElementValue(result, attributeIn, pool);
+                    break;
+                case "RuntimeVisibleParameterAnnotations":
+                case "RuntimeInvisibleParameterAnnotations":
+                    int parameterCount = attributeIn.readUnsignedByte();
+                    for (int j = 0; j < parameterCount; j++) {
+                        result.append('(');
+                        appendAnnotations(result, attributeIn, pool);
+                        result.append(')');
+                    }
+                    break;
+                default:
+                    appendAnnotations(result, attributeIn, pool);
+            }
+            result.append('\n');
+        }
+    }
+
+    private static void appendAnnotations(StringBuilder result, DataInputStream in, JkInternalConstantPool pool)
+            throws IOException {
+        int count = in.readUnsignedShort();
+        for (int i = 0; i < count; i++) {
+            appendAnnotation(result, in, pool);
+        }
+    }
+
+    private static void appendAnnotation(StringBuilder result, DataInputStream in, JkInternalConstantPool pool)
+            throws IOException {
+        result.append('@').append(pool.get(in.readUnsignedShort())).append('(');
+        int pairCount = in.readUnsignedShort();
+        for (int i = 0; i < pairCount; i++) {
+            result.append(pool.get(in.readUnsignedShort())).append('=');
+            appendElementValue(result, in, pool);
+            result.append(',');
+        }
+        result.append(')');
+    }
+
+    private static void appendElementValue(StringBuilder result, DataInputStream in, JkInternalConstantPool pool)
+            throws IOException {
+        char tag = (char) in.readUnsignedByte();
+        result.append(tag);
+        switch (tag) {
+            case 'e':
+                result.append(pool.get(in.readUnsignedShort())).append('.')
+                        .append(pool.get(in.readUnsignedShort()));
+                break;
+            case 'c':
+                result.append(pool.get(in.readUnsignedShort()));
+                break;
+            case '@':
+                appendAnnotation(result, in, pool);
+                break;
+            case '[':
+                int count = in.readUnsignedShort();
+                result.append('{');
+                for (int i = 0; i < count; i++) {
+                    appendElementValue(result, in, pool);
+                    result.append(',');
+                }
+                result.append('}');
+                break;
+            default:
+                result.append(pool.get(in.readUnsignedShort()));
+        }
+    }
+
+    private static String stamp(Path file) {
+        try {
+            return Files.size(file) + "|" + Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static MessageDigest messageDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -31,6 +31,8 @@ public class JkJavaProject implements JkJavaIdeSupport.JkSupplier {
 
     private JkVersionedModule.ConflictStrategy duplicateConflictStrategy = JkVersionedModule.ConflictStrategy.FAIL;
 
+    private boolean dependingOnClassDir;
+
     private final JkJavaProjectDocumentation documentation;
 
     private final JkJavaProjectConstruction construction;
@@ -91,6 +93,21 @@ public class JkJavaProject implements JkJavaIdeSupport.JkSupplier {
         return this;
     }
 
+    public boolean isDependingOnClassDir() {
+        return dependingOnClassDir;
+    }
+
+    /**
+     * If <code>true</code>, dependencies on the main artifact of this project, as created by {@link #toDependency()},
+     * stand for the class directory instead of the main jar. Depender projects then compile and test against
+     * compiled classes and processed resources, without waiting for the jar to be packaged.
+     * Jars are still produced when packaging or publishing.
+     */
+    public JkJavaProject setDependingOnClassDir(boolean dependingOnClassDir) {
+        this.dependingOnClassDir = dependingOnClassDir;
+        return this;
+    }
+
     public JkJavaProjectConstruction getConstruction() {
         return construction;
     }
@@ -184,10 +201,16 @@ public class JkJavaProject implements JkJavaIdeSupport.JkSupplier {
     }
 
     public JkLocalProjectDependency toDependency(JkArtifactId artifactId, JkTransitivity transitivity) {
-       Runnable maker = () -> publication.getArtifactProducer().makeArtifact(artifactId);
-       Path artifactPath = publication.getArtifactProducer().getArtifactPath(artifactId);
-       JkDependencySet exportedDependencies = construction.getCompilation().getDependencies()
-               .merge(construction.getRuntimeDependencies()).getResult();
+        JkDependencySet exportedDependencies = construction.getCompilation().getDependencies()
+                .merge(construction.getRuntimeDependencies()).getResult();
+        if (dependingOnClassDir && artifactId.equals(publication.getArtifactProducer().getMainArtifactId())) {
+            Runnable compiler = () -> construction.getCompilation().runIfNecessary();
+            Path classDir = construction.getCompilation().getLayout().resolveClassDir();
+            return JkLocalProjectDependency.of(compiler, classDir, this.baseDir, exportedDependencies)
+                    .withTransitivity(transitivity);
+        }
+        Runnable maker = () -> publication.getArtifactProducer().makeArtifact(artifactId);
+        Path artifactPath = publication.getArtifactProducer().getArtifactPath(artifactId);
         return JkLocalProjectDependency.of(maker, artifactPath, this.baseDir, exportedDependencies)
                 .withTransitivity(transitivity);
     }
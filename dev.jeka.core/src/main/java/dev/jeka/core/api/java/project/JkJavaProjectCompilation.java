@@ -1,19 +1,20 @@
 package dev.jeka.core.api.java.project;
 
 import dev.jeka.core.api.depmanagement.JkDependencySet;
+import dev.jeka.core.api.depmanagement.JkLocalProjectDependency;
 import dev.jeka.core.api.depmanagement.resolution.JkResolveResult;
+import dev.jeka.core.api.file.JkPathSequence;
 import dev.jeka.core.api.file.JkResourceProcessor;
 import dev.jeka.core.api.function.JkConsumers;
 import dev.jeka.core.api.function.JkRunnables;
 import dev.jeka.core.api.java.JkJavaCompileSpec;
 import dev.jeka.core.api.java.JkJavaCompiler;
 import dev.jeka.core.api.system.JkLog;
+import dev.jeka.core.api.utils.JkUtilsPath;
 
 import java.nio.file.Path;
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.LinkedList;
-import java.util.List;
+import java.nio.file.Paths;
+import java.util.*;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Supplier;
@@ -213,7 +214,7 @@ public class JkJavaProjectCompilation<T> {
     }
 
     public JkResolveResult resolveDependencies() {
-        return construction.getDependencyResolver().resolve(getDependencies());
+        return construction.resolveDependencies(getDependencies());
     }
 
     public JkDependencySet getDependencies() {
@@ -224,11 +225,50 @@ public class JkJavaProjectCompilation<T> {
         this.getResourceProcessor().generate(layout.resolveResources(), layout.resolveClassDir());
     }
 
+    /*
+     * Compilation is skipped if sources, options and classpath are unchanged since the last successful compilation.
+     * Class dirs and jars produced by upstream local projects are compared on their ABI only, so changes limited to
+     * implementation in those projects do not trigger recompilation. Other class dirs (e.g. the production classes
+     * on the test classpath) are compared on their content as a whole.
+     */
     private void runCompile() {
-        boolean success = construction.getCompiler().compile(compileSpecSupplier.get());
-        if (!success) {
-            throw new IllegalStateException("Compilation of Java sources failed.");
+        JkJavaCompileSpec<?> compileSpec = compileSpecSupplier.get();
+        boolean compiled = JkUtilsPath.runIfChanged(layout.resolveClassDir(), compileFingerprint(compileSpec), () -> {
+            if (!construction.getCompiler().compile(compileSpec)) {
+                throw new IllegalStateException("Compilation of Java sources failed.");
+            }
+            return true;
+        });
+        if (!compiled) {
+            JkLog.info("Sources, options and dependency ABIs unchanged since last compilation. Skip compilation.");
+        }
+    }
+
+    private String compileFingerprint(JkJavaCompileSpec<?> compileSpec) {
+        List<String> tokens = new LinkedList<>(compileSpec.getOptions());
+        String classpath = compileSpec.getNextValue("-cp");
+        Set<Path> localProjectFiles = new HashSet<>();
+        collectLocalProjectFiles(getDependencies(), localProjectFiles);
+        for (Path entry : classpath == null ? Collections.<Path>emptyList() : JkPathSequence.of(Paths.get(""), classpath)) {
+            Path normalizedEntry = entry.toAbsolutePath().normalize();
+            if (localProjectFiles.contains(normalizedEntry)) {
+                tokens.add("abi:" + normalizedEntry + "=" + ClassAbi.hash(entry));
+            } else {
+                tokens.add(JkUtilsPath.fingerprint(Collections.singleton(entry)));
+            }
         }
+        tokens.remove(classpath);
+        return JkUtilsPath.fingerprint(compileSpec.getSourceFiles(), tokens.toArray(new String[0]));
+    }
+
+    private static void collectLocalProjectFiles(JkDependencySet dependencies, Set<Path> result) {
+        dependencies.getEntries().stream()
+                .filter(JkLocalProjectDependency.class::isInstance)
+                .map(JkLocalProjectDependency.class::cast)
+                .forEach(dependency -> {
+                    dependency.getFiles().forEach(file -> result.add(file.toAbsolutePath().normalize()));
+                    collectLocalProjectFiles(dependency.getExportedDependencies(), result);
+                });
     }
 
     private JkJavaCompileSpec computeProdCompileSpec() {
@@ -246,7 +286,7 @@ public class JkJavaProjectCompilation<T> {
         return JkJavaCompileSpec.of()
                 .setSourceAndTargetVersion(construction.getJavaVersion())
                 .setEncoding(construction.getSourceEncoding())
-                .setClasspath(construction.getDependencyResolver().resolve(dependencies).getFiles()
+                .setClasspath(construction.resolveDependencies(dependencies).getFiles()
                             .andPrepend(prodStep.layout.resolveClassDir()))
                 .addSources(layout.resolveSources().and(layout.resolveGeneratedSourceDir()))
                 .addOptions(compileOptions)
@@ -5,6 +5,8 @@ import dev.jeka.core.api.depmanagement.JkModuleId;
 import dev.jeka.core.api.depmanagement.JkRepo;
 import dev.jeka.core.api.depmanagement.artifact.JkArtifactId;
 import dev.jeka.core.api.depmanagement.resolution.JkDependencyResolver;
+import dev.jeka.core.api.depmanagement.resolution.JkResolutionParameters;
+import dev.jeka.core.api.depmanagement.resolution.JkResolveResult;
 import dev.jeka.core.api.file.JkPathMatcher;
 import dev.jeka.core.api.file.JkPathSequence;
 import dev.jeka.core.api.file.JkPathTreeSet;
@@ -15,8 +17,13 @@ import dev.jeka.core.api.java.JkManifest;
 
 import java.nio.file.Path;
 import java.nio.file.PathMatcher;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.function.Consumer;
 import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
 
 /**
  * Responsible to produce jar files. It involves compilation and unit testing.
@@ -60,6 +67,8 @@ public class JkJavaProjectConstruction {
     private JkPathTreeSet extraFilesToIncludeInFatJar = JkPathTreeSet.ofEmpty();
 
     private UnaryOperator<JkDependencySet> dependencySetModifier = x -> x;
+
+    private final Map<List<Object>, JkResolveResult> resolveResults = new HashMap<>();
     
     /**
      * For Parent chaining
@@ -139,7 +148,7 @@ public class JkJavaProjectConstruction {
         return project;
     }
 
-    private void addManifestDefaults() {
+    private synchronized void addManifestDefaults() {
         JkModuleId moduleId = project.getPublication().getModuleId();
         String version = project.getPublication().getVersion();
         if (manifest.getMainAttribute(JkManifest.IMPLEMENTATION_TITLE) == null && moduleId != null) {
@@ -209,9 +218,37 @@ public class JkJavaProjectConstruction {
     }
 
     public JkPathSequence fetchRuntimeDependencies() {
-        return dependencyResolver.resolve(getRuntimeDependencies()
+        return resolveDependencies(getRuntimeDependencies()
                 .normalised(project.getDuplicateConflictStrategy())).getFiles();
     }
 
+    /**
+     * Resolves the specified dependencies using the dependency resolver of this project. Results are memoized
+     * for the lifetime of this project : compilation, testing, packaging or documentation asking for the same
+     * dependencies get the same result, without triggering a new resolution. Changing the dependencies, the
+     * resolver repositories, the resolver settings or the resolution parameters leads to a new resolution.
+     */
+    public JkResolveResult resolveDependencies(JkDependencySet dependencies) {
+        final JkResolutionParameters<?> params = dependencyResolver.getParams();
+        final List<Object> key = Arrays.asList(dependencies.getEntries(), dependencies.getGlobalExclusions(),
+                dependencies.getVersionProvider().toMap(), repoKeys(dependencyResolver.getRepos().getRepos()),
+                params.getConflictResolver(), params.isRefreshed(), params.isRefreshForced(),
+                params.isFailOnDependencyResolutionError(), dependencyResolver.isNativeMaven(),
+                dependencyResolver.getLockFile());
+        synchronized (resolveResults) {
+            return resolveResults.computeIfAbsent(key, k -> dependencyResolver.resolve(dependencies));
+        }
+    }
+
+    // Repositories are equal when their urls are, so settings affecting resolution are added explicitly
+    private static List<List<Object>> repoKeys(List<JkRepo> repos) {
+        return repos.stream().map(repo -> {
+            JkRepo.JkRepoCredentials credentials = repo.getCredentials();
+            return Arrays.<Object>asList(repo.getUrl().toExternalForm(), repo.isIvyRepo(), repo.getMetadataTtl(),
+                    credentials == null ? null : Arrays.asList(credentials.getRealm(), credentials.getUserName(),
+                            credentials.getPassword()));
+        }).collect(Collectors.toList());
+    }
+
 
 }
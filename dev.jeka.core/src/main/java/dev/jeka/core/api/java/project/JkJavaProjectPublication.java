@@ -99,8 +99,13 @@ public class JkJavaProjectPublication {
     }
 
     private void registerArtifacts() {
+        Runnable compile = () -> project.getConstruction().getCompilation().runIfNecessary();
+        Runnable test = () -> project.getConstruction().getTesting().runIfNecessary();
         artifactProducer.putMainArtifact(project.getConstruction()::createBinJar);
+        artifactProducer.addPrerequisite(artifactProducer.getMainArtifactId(), compile);
+        artifactProducer.addPrerequisite(artifactProducer.getMainArtifactId(), test);
         artifactProducer.putArtifact(SOURCES_ARTIFACT_ID, project.getDocumentation()::createSourceJar);
+        artifactProducer.addPrerequisite(SOURCES_ARTIFACT_ID, compile);  // may generate sources
         artifactProducer.putArtifact(JAVADOC_ARTIFACT_ID, project.getDocumentation()::createJavadocJar);
     }
 
@@ -1,6 +1,5 @@
 package dev.jeka.core.api.java.project;
 
-import dev.jeka.core.api.depmanagement.resolution.JkDependencyResolver;
 import dev.jeka.core.api.depmanagement.JkDependencySet;
 import dev.jeka.core.api.file.JkPathSequence;
 import dev.jeka.core.api.function.JkRunnables;
@@ -24,6 +23,8 @@ import java.util.function.UnaryOperator;
  */
 public class JkJavaProjectTesting {
 
+    private static final String TEST_TIMINGS_FILE = "test-timings.ser";
+
     private final JkJavaProjectConstruction construction;
 
     private final JkJavaProjectCompilation<JkJavaProjectTesting> compilation;
@@ -90,7 +91,6 @@ public class JkJavaProjectTesting {
      * dependencies involved in TEST scope.
      */
     public JkPathSequence getTestClasspath() {
-        JkDependencyResolver resolver = construction.getDependencyResolver();
         JkJavaProjectCompilation prodCompilation = construction.getCompilation();
         JkDependencySet dependencies = prodCompilation.getDependencies()
                 .and(compilation.getDependencies())
@@ -98,7 +98,7 @@ public class JkJavaProjectTesting {
                 .normalised(construction.getProject().getDuplicateConflictStrategy());
         return JkPathSequence.of(compilation.getLayout().resolveClassDir())
                 .and(prodCompilation.getLayout().resolveClassDir())
-                .and(resolver.resolve(dependencies.normalised(construction.getProject().getDuplicateConflictStrategy())).getFiles());
+                .and(construction.resolveDependencies(dependencies).getFiles());
     }
 
     /**
@@ -187,6 +187,8 @@ public class JkJavaProjectTesting {
         result.getEngineBehavior()
                 .setLegacyReportDir(reportDir)
                 .setProgressDisplayer(JkTestProcessor.JkProgressOutputStyle.ONE_LINE);
+        result.setTimingsFile(compilation.getLayout().getOutputDir().resolve(TEST_TIMINGS_FILE));
+        result.setSlowTestReportSize(10);
         return result;
     }
 
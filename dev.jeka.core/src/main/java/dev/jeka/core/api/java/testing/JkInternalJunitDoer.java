@@ -10,12 +10,16 @@ import java.util.List;
  */
 public interface JkInternalJunitDoer {
 
+    /**
+     * Jars of the specified paths are loaded in a classloader shared among invocations, so only classes of
+     * directories are reloaded from one test run to the other.
+     */
     static JkInternalJunitDoer instance(List<Path> extraPaths) {
         String IMPL_CLASS = "dev.jeka.core.api.java.testing.embedded.junitplatform.JunitPlatformDoer";
-        return JkInternalClassloader.ofMainEmbeddedLibs(extraPaths)
+        return JkInternalClassloader.ofMainEmbeddedLibsSharingJars(extraPaths)
                 .createCrossClassloaderProxy(JkInternalJunitDoer.class, IMPL_CLASS, "of");
     }
 
-    JkTestResult launch(JkTestProcessor.JkEngineBehavior engineBehavior, JkTestSelection testSelection);
+    JkTestResult launch(JkTestProcessor.JkEngineBehavior<?> engineBehavior, JkTestSelection<?> testSelection);
 
 }
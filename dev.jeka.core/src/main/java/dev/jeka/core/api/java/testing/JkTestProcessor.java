@@ -5,16 +5,18 @@ import dev.jeka.core.api.function.JkRunnables;
 import dev.jeka.core.api.function.JkUnaryOperator;
 import dev.jeka.core.api.java.*;
 import dev.jeka.core.api.system.JkLog;
+import dev.jeka.core.api.utils.JkUtilsAssert;
 import dev.jeka.core.api.utils.JkUtilsIO;
+import dev.jeka.core.api.utils.JkUtilsObject;
 import dev.jeka.core.api.utils.JkUtilsPath;
 import org.junit.platform.launcher.core.LauncherConfig;
 
 import java.io.Serializable;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.Collections;
-import java.util.List;
-import java.util.ServiceLoader;
+import java.util.*;
+import java.util.stream.Stream;
 
 /**
  * Processor executing a given bunch of tests existing in compiled Java classes. <p/>
@@ -36,6 +38,36 @@ public final class JkTestProcessor<T> {
         FULL, TREE, ONE_LINE, SILENT
     }
 
+    /**
+     * Granularity at which tests run concurrently within the test JVM.
+     */
+    public enum JkParallelMode implements Serializable {
+
+        /** All tests run sequentially. */
+        NONE,
+
+        /** Test classes run concurrently, methods of a same class run sequentially. */
+        CLASSES,
+
+        /** Test classes run sequentially, methods of a same class run concurrently. */
+        METHODS,
+
+        /** Test classes and methods run concurrently. */
+        ALL
+    }
+
+    /**
+     * Way the number of threads running tests concurrently is determined.
+     */
+    public enum JkParallelStrategy implements Serializable {
+
+        /** Parallelism is the number of available processors multiplied by a factor. */
+        DYNAMIC,
+
+        /** Parallelism is a fixed number of threads. */
+        FIXED
+    }
+
     private static final String JAR_LOCATION = "META-INF/junitplatform/";
 
     private static final String ENGINE_SERVICE = "org.junit.platform.engine.TestEngine";
@@ -73,6 +105,12 @@ public final class JkTestProcessor<T> {
 
     private final JkRunnables postActions = JkRunnables.of();
 
+    private Path resultCacheFile;
+
+    private Path timingsFile;
+
+    private int slowTestReportSize;
+
     /**
      * For parent chaining
      */
@@ -104,6 +142,50 @@ public final class JkTestProcessor<T> {
         return postActions;
     }
 
+    public Path getResultCacheFile() {
+        return resultCacheFile;
+    }
+
+    /**
+     * Sets the file where test outcomes are persisted along a hash of their inputs (classpath content, selection
+     * and forking process settings). Tests whose inputs are unchanged since a previous launch are not executed
+     * again : their recorded outcome, failures included, is replayed instead. If {@code null}, tests are always
+     * executed.<p>
+     * Caching does not apply when a launcher or discovery configurer is set, when java agents are attached
+     * to the forking process, or when the selection is restricted to affected tests.
+     */
+    public JkTestProcessor<T> setResultCacheFile(Path resultCacheFile) {
+        this.resultCacheFile = resultCacheFile;
+        return this;
+    }
+
+    public Path getTimingsFile() {
+        return timingsFile;
+    }
+
+    /**
+     * Sets the file where test timings are persisted after each launch. Timings of tests not executed in a
+     * launch are kept from previous ones, as long as their test class still exists. If {@code null}, timings are
+     * not persisted.
+     */
+    public JkTestProcessor<T> setTimingsFile(Path timingsFile) {
+        this.timingsFile = timingsFile;
+        return this;
+    }
+
+    public int getSlowTestReportSize() {
+        return slowTestReportSize;
+    }
+
+    /**
+     * Sets the number of slowest tests to display after tests have been executed, along their previous duration
+     * if timings are persisted. 0 means no report is displayed.
+     */
+    public JkTestProcessor<T> setSlowTestReportSize(int slowTestReportSize) {
+        this.slowTestReportSize = slowTestReportSize;
+        return this;
+    }
+
     public JkTestProcessor<T> setForkingProcess(JkJavaProcess process) {
         this.forkingProcess = process;
         return this;
@@ -159,20 +241,166 @@ public final class JkTestProcessor<T> {
      * the classpath of the current classloader plus the specified one.
      */
     public JkTestResult launch(JkPathSequence extraTestClasspath, JkTestSelection testSelection) {
-        final JkTestResult result;
-        if (forkingProcess == null) {
-            JkLog.startTask("Executing tests");
-            result = launchInClassloader(extraTestClasspath, testSelection);
+        TestResultCache cache = testSelection.getAffectedTestsStateFile() == null ?
+                resultCache(extraTestClasspath, testSelection) : null;
+        Set<String> staleKeys = cache == null ? Collections.emptySet() : cache.getStaleKeys();
+        JkTestResult result;
+
+        // Timings of replayed results are not measured in this launch, so they are not reported
+        JkTestResult.JkTimings executedTimings;
+        if (testSelection.getAffectedTestsStateFile() != null) {
+            result = launchAffected(extraTestClasspath, testSelection);
+            executedTimings = result.getTimings();
+        } else if (cache != null && staleKeys.isEmpty()) {
+            JkLog.startTask("Replay test results");
+            JkLog.info("Test inputs unchanged since last execution. Tests won't be executed again.");
+            result = cache.getCachedResult();
+            executedTimings = JkTestResult.JkTimings.ofEmpty();
         } else {
-            JkLog.startTask("Execute tests in forked process");
-            result = launchInForkedProcess(extraTestClasspath, testSelection);
+            JkLog.startTask(forkingProcess == null ? "Executing tests" : "Execute tests in forked process");
+            JkTestSelection<?> selection = testSelection;
+            JkTestResult cachedResult = cache == null ? null : cache.getCachedResult();
+            if (cachedResult != null) {
+                JkLog.info(cache.getCachedCount() + " test classes unchanged since last execution. " +
+                        "Only " + staleKeys.size() + " will be executed.");
+                selection = withSelectedClassNames(testSelection, staleKeys);
+            }
+            if (forkingProcess == null) {
+                result = launchInClassloader(extraTestClasspath, selection);
+            } else {
+                result = launchInForkedProcess(extraTestClasspath, selection);
+            }
+            executedTimings = result.getTimings();
+            if (cache != null) {
+                cache.store(result);
+                result = cachedResult == null ? result : result.and(cachedResult);
+            }
         }
         postActions.run();
         JkLog.info("Result : " + result.getTestCount());
+        reportTimings(executedTimings, result.getTimings(), testSelection.getTestClassRoots());
         JkLog.endTask();
         return result;
     }
 
+    private void reportTimings(JkTestResult.JkTimings executedTimings, JkTestResult.JkTimings timings,
+                               JkPathSequence testClassRoots) {
+        JkTestResult.JkTimings previousTimings = JkTestResult.JkTimings.ofEmpty();
+        if (timingsFile != null && Files.exists(timingsFile)) {
+            try {
+                previousTimings = JkUtilsIO.deserialize(timingsFile);
+            } catch (RuntimeException e) {
+                JkLog.trace("Can not read test timings " + timingsFile + " : " + e.getMessage());
+            }
+        }
+        List<Integer> slowest = executedTimings.getSlowestTests(slowTestReportSize);
+        if (!slowest.isEmpty()) {
+            JkLog.info("Slowest tests :");
+            for (int index : slowest) {
+                int previousIndex = previousTimings.indexOf(executedTimings.getId(index));
+                String previous = previousIndex < 0 ? "" :
+                        " (previously " + previousTimings.getDurationMicros(previousIndex) / 1000 + " ms)";
+                JkLog.info("  " + millis(executedTimings.getDurationMicros(index)) + " "
+                        + JkUtilsObject.firstNonNull(executedTimings.getClassName(index), "") + " "
+                        + executedTimings.getDisplayName(index) + previous);
+            }
+        }
+        if (timingsFile != null) {
+            JkUtilsPath.createDirectories(timingsFile.getParent());
+
+            // Timings of classes that have been removed are dropped
+            JkTestResult.JkTimings keptTimings = previousTimings.forClasses(topLevelClassNames(testClassRoots));
+            JkUtilsIO.serialize(timings.withFallback(keptTimings), timingsFile);
+        }
+    }
+
+    private static JkTestSelection<?> withSelectedClassNames(JkTestSelection<?> testSelection,
+                                                             Set<String> classNames) {
+        JkTestSelection<?> result = testSelection.clone();
+        return result.addSelectedClassNames(classNames);
+    }
+
+    private static String millis(long micros) {
+        return String.format("%6d ms", micros / 1000);
+    }
+
+    /*
+     * Result cache does not apply here : classes not affected by changes are just not run.
+     * The impact state is stored only on success, so failed tests are run again on next launch.
+     */
+    private JkTestResult launchAffected(JkPathSequence extraTestClasspath, JkTestSelection<?> testSelection) {
+        TestImpactAnalysis impactAnalysis = TestImpactAnalysis.of(testSelection.getAffectedTestsStateFile(),
+                extraTestClasspath);
+        JkTestSelection<?> selection = testSelection;
+        JkLog.startTask(forkingProcess == null ? "Executing tests" : "Execute tests in forked process");
+        final JkTestResult result;
+        if (impactAnalysis.isFullRunNeeded()) {
+            JkLog.info("Changes can not be traced down to test classes. All tests will be executed.");
+        } else {
+            Set<String> affectedClasses = impactAnalysis.getAffectedClasses(
+                    topLevelClassNames(testSelection.getTestClassRoots()));
+            if (!testSelection.getSelectedClassNames().isEmpty()) {
+                affectedClasses.retainAll(testSelection.getSelectedClassNames());
+            }
+            JkLog.info(affectedClasses.size() + " test classes affected by changes since last successful run.");
+            selection = affectedClasses.isEmpty() ? null : withSelectedClassNames(testSelection, affectedClasses);
+        }
+        if (selection == null) {
+            JkTestResult.JkCount zero = JkTestResult.JkCount.ofZero();
+            result = JkTestResult.of(System.currentTimeMillis(), System.currentTimeMillis(), zero, zero,
+                    Collections.emptyList());
+        } else if (forkingProcess == null) {
+            result = launchInClassloader(extraTestClasspath, selection);
+        } else {
+            result = launchInForkedProcess(extraTestClasspath, selection);
+        }
+        if (result.getFailures().isEmpty()) {
+            impactAnalysis.store();
+        }
+        return result;
+    }
+
+    private static Set<String> topLevelClassNames(JkPathSequence classRoots) {
+        Set<String> result = new HashSet<>();
+        for (Path root : classRoots) {
+            if (!Files.isDirectory(root)) {
+                continue;
+            }
+            try (Stream<Path> stream = JkUtilsPath.walk(root)) {
+                stream.filter(Files::isRegularFile)
+                        .map(file -> TestResultCache.className(root, file))
+                        .filter(className -> className != null && !className.contains("$"))
+                        .forEach(result::add);
+            }
+        }
+        return result;
+    }
+
+    private TestResultCache resultCache(JkPathSequence testClasspath, JkTestSelection<?> testSelection) {
+        if (resultCacheFile == null) {
+            return null;
+        }
+        if (engineBehavior.getLauncherConfigurer() != null || testSelection.getDiscoveryConfigurer() != null
+                || !testSelection.getSelectedClassNames().isEmpty()
+                || (forkingProcess != null && forkingProcess.hasAgents())) {
+            JkLog.trace("Test result cache does not apply to launches using configurers, agents or class selection.");
+            return null;
+        }
+        List<String> settings = new LinkedList<>();
+        if (forkingProcess == null) {
+            settings.add("in-process");
+        } else {
+            settings.add(forkingProcess.getJavaDir().toAbsolutePath().normalize().toString());
+            settings.add(forkingProcess.getOptions().toString());
+            settings.add(new TreeMap<>(forkingProcess.getSystemProperties()).toString());
+        }
+        settings.add(new TreeMap<>(engineBehavior.getConfigurationParameters()).toString());
+
+        // Tests run along the classpath of the current classloader, in process or forked
+        JkPathSequence classpath = JkClassLoader.ofCurrent().getClasspath().and(testClasspath).withoutDuplicates();
+        return TestResultCache.of(resultCacheFile, classpath, testSelection, settings);
+    }
+
     private JkTestResult launchInClassloader(JkPathSequence testClasspath, JkTestSelection testSelection) {
         List<Path> classpath = computeClasspath(testClasspath);
         return JkInternalJunitDoer.instance(classpath).launch(engineBehavior, testSelection);
@@ -187,10 +415,11 @@ public final class JkTestProcessor<T> {
         Path serializedArgPath = JkUtilsPath.createTempFile("testArgs-", ".ser");
         JkUtilsIO.serialize(args, serializedArgPath);
         String arg = serializedArgPath.toAbsolutePath().toString();
+        List<Path> classpath = JkClassLoader.ofCurrent().getClasspath().
+                and(computeClasspath(testClasspath)).withoutDuplicates().getEntries();
         JkJavaProcess process = forkingProcess
             .withPrintCommand(false)
-            .andClasspath(JkClassLoader.ofCurrent().getClasspath().
-                    and(computeClasspath(testClasspath)).withoutDuplicates().getEntries());
+            .andClasspath(classpath);
         process.runClassSync(JkTestProcessor.class.getName(), new String[] {arg});
         JkUtilsPath.deleteFile(serializedArgPath);
         JkTestResult result = JkUtilsIO.deserialize(serializedResultPath);
@@ -237,6 +466,14 @@ public final class JkTestProcessor<T> {
 
         private JkUnaryOperator<LauncherConfig.Builder> launcherConfigurer;
 
+        private final Map<String, String> configurationParameters = new HashMap<>();
+
+        private JkParallelMode parallelMode = JkParallelMode.NONE;
+
+        private JkParallelStrategy parallelStrategy = JkParallelStrategy.DYNAMIC;
+
+        private int parallelism = 1;
+
         private JkEngineBehavior(JkTestProcessor<T> __) {
             this.__ = __;
         }
@@ -253,6 +490,48 @@ public final class JkTestProcessor<T> {
             return launcherConfigurer;
         }
 
+        public JkParallelMode getParallelMode() {
+            return parallelMode;
+        }
+
+        public JkParallelStrategy getParallelStrategy() {
+            return parallelStrategy;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        /**
+         * Returns the configuration parameters passed to the Junit-platform discovery request, including the
+         * ones derived from parallel execution settings.
+         */
+        public Map<String, String> getConfigurationParameters() {
+            Map<String, String> result = new HashMap<>();
+            if (parallelMode != JkParallelMode.NONE) {
+                boolean concurrentClasses = parallelMode == JkParallelMode.CLASSES
+                        || parallelMode == JkParallelMode.ALL;
+                boolean concurrentMethods = parallelMode == JkParallelMode.METHODS
+                        || parallelMode == JkParallelMode.ALL;
+                result.put("junit.jupiter.execution.parallel.enabled", "true");
+                result.put("junit.jupiter.execution.parallel.mode.classes.default",
+                        concurrentClasses ? "concurrent" : "same_thread");
+                result.put("junit.jupiter.execution.parallel.mode.default",
+                        concurrentMethods ? "concurrent" : "same_thread");
+                result.put("junit.jupiter.execution.parallel.config.strategy",
+                        parallelStrategy.name().toLowerCase());
+                if (parallelStrategy == JkParallelStrategy.DYNAMIC) {
+                    result.put("junit.jupiter.execution.parallel.config.dynamic.factor",
+                            Integer.toString(parallelism));
+                } else {
+                    result.put("junit.jupiter.execution.parallel.config.fixed.parallelism",
+                            Integer.toString(parallelism));
+                }
+            }
+            result.putAll(configurationParameters);
+            return result;
+        }
+
         /**
          * Sets the directory where will be generated the legacy standard XML report.
          * If {@code null}, no legacy standard XML report will be generated.
@@ -282,6 +561,38 @@ public final class JkTestProcessor<T> {
             return this;
         }
 
+        /**
+         * Adds a configuration parameter to pass to test engines (e.g. <code>junit.jupiter.testinstance.lifecycle.default</code>).
+         * Parameters added this way take precedence over the ones derived from parallel execution settings.
+         */
+        public JkEngineBehavior<T> addConfigurationParameter(String key, String value) {
+            this.configurationParameters.put(key, value);
+            return this;
+        }
+
+        /**
+         * Sets at which granularity tests run concurrently. This relies on test engines supporting parallel
+         * execution, as Jupiter does. Note that output of tests running concurrently may be interleaved.
+         */
+        public JkEngineBehavior<T> setParallelMode(JkParallelMode parallelMode) {
+            JkUtilsAssert.argument(parallelMode != null, "Parallel mode can not be null.");
+            this.parallelMode = parallelMode;
+            return this;
+        }
+
+        /**
+         * Sets the strategy and parallelism used when tests run concurrently. For {@link JkParallelStrategy#DYNAMIC},
+         * <code>parallelism</code> is the factor applied to the number of available processors, for
+         * {@link JkParallelStrategy#FIXED} it is the number of threads.
+         */
+        public JkEngineBehavior<T> setParallelism(JkParallelStrategy parallelStrategy, int parallelism) {
+            JkUtilsAssert.argument(parallelStrategy != null, "Parallel strategy can not be null.");
+            JkUtilsAssert.argument(parallelism > 0, "Parallelism must be positive, was " + parallelism);
+            this.parallelStrategy = parallelStrategy;
+            this.parallelism = parallelism;
+            return this;
+        }
+
     }
 
 }
@@ -1,9 +1,7 @@
 package dev.jeka.core.api.java.testing;
 
 import java.io.*;
-import java.util.Arrays;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 
 public final class JkTestResult implements Serializable {
 
@@ -19,16 +17,42 @@ public final class JkTestResult implements Serializable {
 
     private final List<JkFailure> failures;
 
-    private JkTestResult(long timeStarted, long timeFinished, JkCount containerCount, JkCount testCount, List<JkFailure> failures) {
+    private final List<JkClassResult> classResults;
+
+    private final JkTimings timings;
+
+    private JkTestResult(long timeStarted, long timeFinished, JkCount containerCount, JkCount testCount,
+                         List<JkFailure> failures, List<JkClassResult> classResults, JkTimings timings) {
         this.timeStarted = timeStarted;
         this.timeFinished = timeFinished;
         this.containerCount = containerCount;
         this.testCount = testCount;
         this.failures = failures;
+        this.classResults = classResults;
+        this.timings = timings;
     }
 
     public static JkTestResult of(long timeStarted, long timeFinished, JkCount containerCount, JkCount testCount, List<JkFailure> failures) {
-        return new JkTestResult(timeStarted, timeFinished, containerCount, testCount, failures);
+        return of(timeStarted, timeFinished, containerCount, testCount, failures, Collections.emptyList());
+    }
+
+    public static JkTestResult of(long timeStarted, long timeFinished, JkCount containerCount, JkCount testCount,
+                                  List<JkFailure> failures, List<JkClassResult> classResults) {
+        return of(timeStarted, timeFinished, containerCount, testCount, failures, classResults, JkTimings.ofEmpty());
+    }
+
+    public static JkTestResult of(long timeStarted, long timeFinished, JkCount containerCount, JkCount testCount,
+                                  List<JkFailure> failures, List<JkClassResult> classResults, JkTimings timings) {
+        return new JkTestResult(timeStarted, timeFinished, containerCount, testCount, failures, classResults,
+                timings);
+    }
+
+    /**
+     * Returns a result holding only the specified class result and timings.
+     */
+    public static JkTestResult of(JkClassResult classResult, JkTimings timings) {
+        return of(0, 0, classResult.containerCount, classResult.testCount, classResult.failures,
+                Collections.singletonList(classResult), timings);
     }
 
     public long getTimeStarted() {
@@ -51,6 +75,36 @@ public final class JkTestResult implements Serializable {
         return failures;
     }
 
+    /**
+     * Returns results broken down by top level test class. Tests not attached to a class are not part of
+     * the returned list.
+     */
+    public List<JkClassResult> getClassResults() {
+        return classResults == null ? Collections.emptyList() : classResults;
+    }
+
+    /**
+     * Returns start time and duration of each executed test and container.
+     */
+    public JkTimings getTimings() {
+        return timings == null ? JkTimings.ofEmpty() : timings;
+    }
+
+    /**
+     * Returns a result merging this result with the specified one.
+     */
+    public JkTestResult and(JkTestResult other) {
+        List<JkFailure> allFailures = new ArrayList<>(failures);
+        allFailures.addAll(other.failures);
+        List<JkClassResult> allClassResults = new ArrayList<>(getClassResults());
+        allClassResults.addAll(other.getClassResults());
+        long started = timeStarted == 0 ? other.timeStarted :
+                other.timeStarted == 0 ? timeStarted : Math.min(timeStarted, other.timeStarted);
+        return of(started, Math.max(timeFinished, other.timeFinished),
+                containerCount.and(other.containerCount), testCount.and(other.testCount),
+                allFailures, allClassResults, getTimings().and(other.getTimings()));
+    }
+
     @Override
     public String toString() {
         return "{" +
@@ -91,6 +145,18 @@ public final class JkTestResult implements Serializable {
             return new JkCount(found, started, skipped, aborted, succeded, failed);
         }
 
+        public static JkCount ofZero() {
+            return of(0, 0, 0, 0, 0, 0);
+        }
+
+        /**
+         * Returns a count summing this count and the specified one.
+         */
+        public JkCount and(JkCount other) {
+            return of(found + other.found, started + other.started, skipped + other.skipped,
+                    aborted + other.aborted, succeded + other.succeded, failed + other.failed);
+        }
+
         public long getFound() {
             return found;
         }
@@ -128,6 +194,251 @@ public final class JkTestResult implements Serializable {
         }
     }
 
+    /**
+     * Outcome of the tests and containers belonging to a top level test class, nested classes included.
+     */
+    public static final class JkClassResult implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String className;
+
+        private final JkCount containerCount;
+
+        private final JkCount testCount;
+
+        private final List<JkFailure> failures;
+
+        private JkClassResult(String className, JkCount containerCount, JkCount testCount, List<JkFailure> failures) {
+            this.className = className;
+            this.containerCount = containerCount;
+            this.testCount = testCount;
+            this.failures = failures;
+        }
+
+        public static JkClassResult of(String className, JkCount containerCount, JkCount testCount,
+                                       List<JkFailure> failures) {
+            return new JkClassResult(className, containerCount, testCount, failures);
+        }
+
+        public String getClassName() {
+            return className;
+        }
+
+        public JkCount getContainerCount() {
+            return containerCount;
+        }
+
+        public JkCount getTestCount() {
+            return testCount;
+        }
+
+        public List<JkFailure> getFailures() {
+            return failures;
+        }
+
+        @Override
+        public String toString() {
+            return "{" +
+                    "className=" + className +
+                    ", containerCount=" + containerCount +
+                    ", testCount=" + testCount +
+                    ", failures=" + failures +
+                    '}';
+        }
+    }
+
+    /**
+     * Start time and duration of executed tests and containers, stored column-wise so large suites
+     * remain cheap to serialize and persist.
+     */
+    public static final class JkTimings implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String[] ids;
+
+        private final String[] displayNames;
+
+        // top level class names, null if the test or container does not belong to a class.
+        private final String[] classNames;
+
+        private final boolean[] containers;
+
+        // epoch millis
+        private final long[] starts;
+
+        private final long[] durationMicros;
+
+        private JkTimings(String[] ids, String[] displayNames, String[] classNames, boolean[] containers,
+                          long[] starts, long[] durationMicros) {
+            this.ids = ids;
+            this.displayNames = displayNames;
+            this.classNames = classNames;
+            this.containers = containers;
+            this.starts = starts;
+            this.durationMicros = durationMicros;
+        }
+
+        public static JkTimings of(String[] ids, String[] displayNames, String[] classNames, boolean[] containers,
+                                   long[] starts, long[] durationMicros) {
+            int size = ids.length;
+            if (displayNames.length != size || classNames.length != size || containers.length != size
+                    || starts.length != size || durationMicros.length != size) {
+                throw new IllegalArgumentException("All columns must have the same size.");
+            }
+            return new JkTimings(ids, displayNames, classNames, containers, starts, durationMicros);
+        }
+
+        public static JkTimings ofEmpty() {
+            return of(new String[0], new String[0], new String[0], new boolean[0], new long[0], new long[0]);
+        }
+
+        public int size() {
+            return ids.length;
+        }
+
+        public String getId(int index) {
+            return ids[index];
+        }
+
+        public String getDisplayName(int index) {
+            return displayNames[index];
+        }
+
+        public String getClassName(int index) {
+            return classNames[index];
+        }
+
+        public boolean isContainer(int index) {
+            return containers[index];
+        }
+
+        public long getStart(int index) {
+            return starts[index];
+        }
+
+        public long getDurationMicros(int index) {
+            return durationMicros[index];
+        }
+
+        /**
+         * Returns the index of the specified test or container id, or -1 if absent.
+         */
+        public int indexOf(String id) {
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i].equals(id)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Returns indexes of the <code>count</code> slowest tests, containers excluded, slowest first.
+         */
+        public List<Integer> getSlowestTests(int count) {
+            List<Integer> indexes = new ArrayList<>();
+            for (int i = 0; i < ids.length; i++) {
+                if (!containers[i]) {
+                    indexes.add(i);
+                }
+            }
+            indexes.sort((index1, index2) -> Long.compare(durationMicros[index2], durationMicros[index1]));
+            return indexes.subList(0, Math.min(count, indexes.size()));
+        }
+
+        /**
+         * Returns the total duration in microseconds of each top level class container. This can be used to
+         * balance test classes among several executors.
+         */
+        public Map<String, Long> getClassDurations() {
+            Map<String, Long> result = new LinkedHashMap<>();
+
+            // The top level class container encloses the other containers of the class
+            for (int i = 0; i < ids.length; i++) {
+                if (containers[i] && classNames[i] != null) {
+                    result.merge(classNames[i], durationMicros[i], Math::max);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Returns the timings belonging to the specified top level class.
+         */
+        public JkTimings forClass(String className) {
+            return forClasses(Collections.singleton(className));
+        }
+
+        /**
+         * Returns the timings belonging to any of the specified top level classes.
+         */
+        public JkTimings forClasses(Set<String> classNames) {
+            List<Integer> indexes = new ArrayList<>();
+            for (int i = 0; i < ids.length; i++) {
+                if (this.classNames[i] != null && classNames.contains(this.classNames[i])) {
+                    indexes.add(i);
+                }
+            }
+            return select(indexes);
+        }
+
+        public JkTimings and(JkTimings other) {
+            int size = size() + other.size();
+            String[] allIds = Arrays.copyOf(ids, size);
+            String[] allDisplayNames = Arrays.copyOf(displayNames, size);
+            String[] allClassNames = Arrays.copyOf(classNames, size);
+            boolean[] allContainers = Arrays.copyOf(containers, size);
+            long[] allStarts = Arrays.copyOf(starts, size);
+            long[] allDurations = Arrays.copyOf(durationMicros, size);
+            System.arraycopy(other.ids, 0, allIds, size(), other.size());
+            System.arraycopy(other.displayNames, 0, allDisplayNames, size(), other.size());
+            System.arraycopy(other.classNames, 0, allClassNames, size(), other.size());
+            System.arraycopy(other.containers, 0, allContainers, size(), other.size());
+            System.arraycopy(other.starts, 0, allStarts, size(), other.size());
+            System.arraycopy(other.durationMicros, 0, allDurations, size(), other.size());
+            return new JkTimings(allIds, allDisplayNames, allClassNames, allContainers, allStarts, allDurations);
+        }
+
+        /**
+         * Returns these timings completed with the ones of <code>previous</code> for tests and containers
+         * not present here, so timings of tests skipped in a run are kept.
+         */
+        public JkTimings withFallback(JkTimings previous) {
+            Set<String> presentIds = new HashSet<>(Arrays.asList(ids));
+            List<Integer> missingIndexes = new ArrayList<>();
+            for (int i = 0; i < previous.size(); i++) {
+                if (!presentIds.contains(previous.ids[i])) {
+                    missingIndexes.add(i);
+                }
+            }
+            return and(previous.select(missingIndexes));
+        }
+
+        private JkTimings select(List<Integer> indexes) {
+            int size = indexes.size();
+            String[] selectedIds = new String[size];
+            String[] selectedDisplayNames = new String[size];
+            String[] selectedClassNames = new String[size];
+            boolean[] selectedContainers = new boolean[size];
+            long[] selectedStarts = new long[size];
+            long[] selectedDurations = new long[size];
+            for (int i = 0; i < size; i++) {
+                int index = indexes.get(i);
+                selectedIds[i] = ids[index];
+                selectedDisplayNames[i] = displayNames[index];
+                selectedClassNames[i] = classNames[index];
+                selectedContainers[i] = containers[index];
+                selectedStarts[i] = starts[index];
+                selectedDurations[i] = durationMicros[index];
+            }
+            return new JkTimings(selectedIds, selectedDisplayNames, selectedClassNames, selectedContainers,
+                    selectedStarts, selectedDurations);
+        }
+
+    }
+
     public void printFailures(PrintStream printStream) {
         for (JkFailure failure : failures) {
             failure.print(printStream);
@@ -8,6 +8,7 @@ import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
 
 import java.io.Serializable;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
 import java.util.function.UnaryOperator;
 
@@ -35,6 +36,10 @@ public final class JkTestSelection<T> implements Cloneable, Serializable {
 
     private Set<String> excludeTags = new LinkedHashSet<>();
 
+    private Set<String> selectedClassNames = new LinkedHashSet<>();
+
+    private String affectedTestsStateFile; // Use String instead of Path for serialisation
+
     private JkUnaryOperator<LauncherDiscoveryRequestBuilder> discoveryConfigurer;
 
     /**
@@ -148,6 +153,38 @@ public final class JkTestSelection<T> implements Cloneable, Serializable {
         return addExcludeTags(Arrays.asList(patterns));
     }
 
+    /**
+     * Returns an unmodifiable set of fully qualified names of the classes to discover tests from. When empty,
+     * tests are discovered by scanning the whole test class roots.
+     */
+    public Set<String> getSelectedClassNames() {
+        return Collections.unmodifiableSet(selectedClassNames);
+    }
+
+    /**
+     * Restricts test discovery to the specified classes. Include/exclude patterns and tags still apply.
+     */
+    public JkTestSelection<T> addSelectedClassNames(Iterable<String> classNames) {
+        JkUtilsIterable.addAllWithoutDuplicate(this.selectedClassNames, classNames);
+        return this;
+    }
+
+    public Path getAffectedTestsStateFile() {
+        return affectedTestsStateFile == null ? null : Paths.get(affectedTestsStateFile);
+    }
+
+    /**
+     * Restricts tests to run to the test classes affected by changes made since the last successful run.
+     * A test class is affected if its bytecode, or the bytecode of a class it transitively references,
+     * has changed. If jars or resources of the test classpath have changed, all tests are run.<p>
+     * The state of the last successful run is stored in the specified file. If {@code null} (default), all
+     * selected tests are run.
+     */
+    public JkTestSelection<T> setAffectedTestsStateFile(Path stateFile) {
+        this.affectedTestsStateFile = stateFile == null ? null : stateFile.toString();
+        return this;
+    }
+
     public JkUnaryOperator<LauncherDiscoveryRequestBuilder> getDiscoveryConfigurer() {
         return discoveryConfigurer;
     }
@@ -186,6 +223,7 @@ public final class JkTestSelection<T> implements Cloneable, Serializable {
             result.excludeTags = new HashSet<>(excludeTags);
             result.includePatterns = new HashSet<>(includePatterns);
             result.includeTags = new HashSet<>(includeTags);
+            result.selectedClassNames = new LinkedHashSet<>(selectedClassNames);
             return result;
         } catch (CloneNotSupportedException e) {
             throw new RuntimeException(e);
@@ -194,7 +232,8 @@ public final class JkTestSelection<T> implements Cloneable, Serializable {
 
     @Override
     public String toString() {
-        return "testClassRoots=" + testClassRoots.relativizeFromWorkingDir() +
+        String classes = selectedClassNames.isEmpty() ? "" : ", selectedClasses=" + selectedClassNames.size();
+        return "testClassRoots=" + testClassRoots.relativizeFromWorkingDir() + classes +
                 ", includePatterns=" + includePatterns +
                 ", excludePatterns=" + excludePatterns +
                 ", includeTags=" + includeTags +
@@ -0,0 +1,191 @@
+package dev.jeka.core.api.java.testing;
+
+import dev.jeka.core.api.java.JkInternalConstantPool;
+import dev.jeka.core.api.system.JkLog;
+import dev.jeka.core.api.utils.JkUtilsIO;
+import dev.jeka.core.api.utils.JkUtilsPath;
+import dev.jeka.core.api.utils.JkUtilsString;
+
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/*
+ * Finds test classes affected by changes made since the last successful test run.<p>
+ *
+ * Class files found in the class directories of the test classpath are hashed and their constant pools are read
+ * to find the classes they reference. A test class is affected if it, or any class it transitively references,
+ * has been added or modified since the last recorded state. A change in jars or in non-class files of the
+ * class directories can not be traced, so in this case all tests are considered as affected. This is also the
+ * case when a class file can not be read, as may happen with class files of newer JDKs.
+ */
+final class TestImpactAnalysis {
+
+    private static final Pattern DESCRIPTOR_CLASS = Pattern.compile("L([^;<>\\[]+)[;<]");
+
+    private final Path stateFile;
+
+    private final State currentState;
+
+    private final Map<String, Set<String>> references;
+
+    private final State previousState;
+
+    private final boolean untraceable;
+
+    private TestImpactAnalysis(Path stateFile, State currentState, Map<String, Set<String>> references,
+                               State previousState, boolean untraceable) {
+        this.stateFile = stateFile;
+        this.currentState = currentState;
+        this.references = references;
+        this.previousState = previousState;
+        this.untraceable = untraceable;
+    }
+
+    static TestImpactAnalysis of(Path stateFile, Iterable<Path> classpath) {
+        Map<String, String> classHashes = new HashMap<>();
+        Map<String, Set<String>> references = new HashMap<>();
+        List<Path> jars = new LinkedList<>();
+        StringBuilder resourceHashes = new StringBuilder();
+        boolean untraceable = false;
+        for (Path entry : classpath) {
+            if (!Files.isDirectory(entry)) {
+                jars.add(entry);
+                continue;
+            }
+            try (Stream<Path> stream = JkUtilsPath.walk(entry)) {
+                for (Path file : stream.filter(Files::isRegularFile).sorted().collect(Collectors.toList())) {
+                    String className = TestResultCache.className(entry, file);
+                    if (className == null) {
+
+                        // Resources are copied on each build, so their content is hashed rather than their date
+                        resourceHashes.append(entry.relativize(file)).append('=')
+                                .append(hash(JkUtilsPath.readAllBytes(file))).append(';');
+                        continue;
+                    }
+                    byte[] bytes = JkUtilsPath.readAllBytes(file);
+                    classHashes.putIfAbsent(className, hash(bytes));
+                    try {
+                        references.computeIfAbsent(className, key -> new HashSet<>())
+                                .addAll(referencedClasses(bytes));
+                    } catch (IllegalArgumentException e) {
+                        JkLog.trace("Can not read references of " + file + " : " + e.getMessage()
+                                + ". All tests will run.");
+                        untraceable = true;
+                    }
+                }
+            }
+        }
+        String otherFingerprint = JkUtilsPath.fingerprint(jars, resourceHashes.toString());
+        return new TestImpactAnalysis(stateFile, new State(classHashes, otherFingerprint), references,
+                load(stateFile), untraceable);
+    }
+
+    /**
+     * Returns <code>true</code> if changes can not be traced down to some test classes, meaning all tests
+     * have to be run.
+     */
+    boolean isFullRunNeeded() {
+        return untraceable || previousState == null || !previousState.otherFingerprint.equals(currentState.otherFingerprint);
+    }
+
+    /**
+     * Returns the top level classes among the specified ones that are affected by changes.
+     */
+    Set<String> getAffectedClasses(Collection<String> topLevelClassNames) {
+        Set<String> changed = currentState.classHashes.entrySet().stream()
+                .filter(entry -> !entry.getValue().equals(previousState.classHashes.get(entry.getKey())))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet());
+        Map<String, Set<String>> referencedBy = new HashMap<>();
+        references.forEach((className, referencedClasses) -> referencedClasses.forEach(referenced ->
+                referencedBy.computeIfAbsent(referenced, key -> new HashSet<>()).add(className)));
+        Set<String> affected = new HashSet<>(changed);
+        Deque<String> toVisit = new ArrayDeque<>(changed);
+        while (!toVisit.isEmpty()) {
+            for (String referrer : referencedBy.getOrDefault(toVisit.pop(), Collections.emptySet())) {
+                if (affected.add(referrer)) {
+                    toVisit.push(referrer);
+                }
+            }
+        }
+        Set<String> affectedTopLevels = affected.stream()
+                .map(className -> className.contains("$") ? className.substring(0, className.indexOf('$'))
+                        : className)
+                .collect(Collectors.toSet());
+        return topLevelClassNames.stream()
+                .filter(affectedTopLevels::contains)
+                .collect(Collectors.toCollection(TreeSet::new));
+    }
+
+    /**
+     * Records the current state as the one of the last successful run.
+     */
+    void store() {
+        JkUtilsPath.createDirectories(stateFile.getParent());
+        JkUtilsIO.serialize(currentState, stateFile);
+    }
+
+    // Names of classes mentioned in the constant pool, either as class entries or within descriptors
+    static Set<String> referencedClasses(byte[] classBytes) {
+        Set<String> result = new HashSet<>();
+        JkInternalConstantPool pool = JkInternalConstantPool.of(classBytes);
+        for (String name : pool.getClassNames()) {
+            if (!name.startsWith("[")) {
+                result.add(name.replace('/', '.'));
+            }
+        }
+        for (String utf8 : pool.getUtf8s()) {
+            if (utf8.indexOf(';') > 0) {
+                Matcher matcher = DESCRIPTOR_CLASS.matcher(utf8);
+                while (matcher.find()) {
+                    result.add(matcher.group(1).replace('/', '.'));
+                }
+            }
+        }
+        return result;
+    }
+
+    private static String hash(byte[] bytes) {
+        try {
+            return JkUtilsString.toHexString(MessageDigest.getInstance("SHA-1").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static State load(Path stateFile) {
+        if (!Files.exists(stateFile)) {
+            return null;
+        }
+        try {
+            return JkUtilsIO.deserialize(stateFile);
+        } catch (RuntimeException e) {
+            JkLog.trace("Can not read test impact state " + stateFile + " : " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static class State implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Map<String, String> classHashes;
+
+        private final String otherFingerprint;
+
+        State(Map<String, String> classHashes, String otherFingerprint) {
+            this.classHashes = classHashes;
+            this.otherFingerprint = otherFingerprint;
+        }
+
+    }
+
+}
@@ -0,0 +1,299 @@
+package dev.jeka.core.api.java.testing;
+
+import dev.jeka.core.api.java.JkInternalConstantPool;
+import dev.jeka.core.api.system.JkLog;
+import dev.jeka.core.api.utils.JkUtilsIO;
+import dev.jeka.core.api.utils.JkUtilsPath;
+import dev.jeka.core.api.utils.JkUtilsString;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/*
+ * Persists test outcomes along a hash of their inputs, so tests whose inputs are unchanged are not run again
+ * across Jeka runs.<p>
+ *
+ * When the selection mentions include patterns, outcomes are recorded per top level test class : a test class
+ * is considered unchanged if its own class files are unchanged and if the rest of the classpath (production
+ * classes, test helpers, dependencies) is unchanged as well. Test classes referenced by other test classes, as
+ * abstract base test classes, belong to the rest of the classpath. Without include patterns, helper classes can
+ * not be told apart from test classes, so the whole outcome is recorded in a single entry.<p>
+ *
+ * Class directories are hashed on their content as they are rewritten on each compilation. Jar files are
+ * hashed on their path, size and modification time.
+ */
+final class TestResultCache {
+
+    private static final String WHOLE_SUITE = "*";
+
+    private final Path file;
+
+    private final boolean perClass;
+
+    // key of the current inputs, per test class name or WHOLE_SUITE
+    private final Map<String, String> currentKeys;
+
+    private final Map<String, Entry> storedEntries;
+
+    private TestResultCache(Path file, boolean perClass, Map<String, String> currentKeys,
+                            Map<String, Entry> storedEntries) {
+        this.file = file;
+        this.perClass = perClass;
+        this.currentKeys = currentKeys;
+        this.storedEntries = storedEntries;
+    }
+
+    /**
+     * @param settings strings standing for anything else than the classpath that may alter test outcomes.
+     */
+    static TestResultCache of(Path file, Iterable<Path> classpath, JkTestSelection<?> selection,
+                              List<String> settings) {
+        Map<String, List<Path>> testClassFiles = testClassFiles(selection);
+        boolean perClass = !selection.getIncludePatterns().isEmpty();
+        Set<String> referencedClasses = referencedTestClasses(selection, testClassFiles.keySet());
+        Set<Path> excludedFiles = testClassFiles.entrySet().stream()
+                .filter(entry -> !referencedClasses.contains(entry.getKey()))
+                .flatMap(entry -> entry.getValue().stream())
+                .map(path -> path.toAbsolutePath().normalize())
+                .collect(Collectors.toSet());
+        MessageDigest restDigest = messageDigest();
+        update(restDigest, new ArrayList<>(new TreeSet<>(selection.getIncludePatterns())).toString());
+        update(restDigest, new ArrayList<>(new TreeSet<>(selection.getExcludePatterns())).toString());
+        update(restDigest, new ArrayList<>(new TreeSet<>(selection.getIncludeTags())).toString());
+        update(restDigest, new ArrayList<>(new TreeSet<>(selection.getExcludeTags())).toString());
+        settings.forEach(setting -> update(restDigest, setting));
+        for (Path entry : classpath) {
+            if (Files.isDirectory(entry)) {
+                update(restDigest, entry.toAbsolutePath().normalize().toString());
+                for (Path classFile : sortedFiles(entry)) {
+                    if (!perClass || !excludedFiles.contains(classFile.toAbsolutePath().normalize())) {
+                        updateWithContent(restDigest, entry, classFile);
+                    }
+                }
+            } else {
+                updateWithAttributes(restDigest, entry);
+            }
+        }
+        String restKey = JkUtilsString.toHexString(restDigest.digest());
+        Map<String, String> currentKeys = new LinkedHashMap<>();
+        if (perClass) {
+            testClassFiles.forEach((className, files) -> {
+                MessageDigest digest = messageDigest();
+                update(digest, restKey);
+                update(digest, className);
+                files.forEach(classFile -> updateWithContent(digest, classFile.getParent(), classFile));
+                currentKeys.put(className, JkUtilsString.toHexString(digest.digest()));
+            });
+        } else {
+            currentKeys.put(WHOLE_SUITE, restKey);
+        }
+        return new TestResultCache(file, perClass, currentKeys, load(file));
+    }
+
+    boolean isPerClass() {
+        return perClass;
+    }
+
+    /**
+     * Returns the names of classes, or WHOLE_SUITE, that can not be replayed from cache.
+     */
+    Set<String> getStaleKeys() {
+        return currentKeys.keySet().stream()
+                .filter(name -> !isUpToDate(name))
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    /**
+     * Returns the merged result of all up-to-date entries, or <code>null</code> if there is none.
+     */
+    JkTestResult getCachedResult() {
+        return currentKeys.keySet().stream()
+                .filter(this::isUpToDate)
+                .map(name -> storedEntries.get(name).result)
+                .reduce(JkTestResult::and)
+                .orElse(null);
+    }
+
+    int getCachedCount() {
+        return currentKeys.size() - getStaleKeys().size();
+    }
+
+    /**
+     * Records the result of a run that executed all stale entries.
+     */
+    void store(JkTestResult freshResult) {
+        Map<String, Entry> entries = new HashMap<>();
+        Map<String, JkTestResult.JkClassResult> classResults = freshResult.getClassResults().stream()
+                .collect(Collectors.toMap(JkTestResult.JkClassResult::getClassName, classResult -> classResult,
+                        (classResult1, classResult2) -> classResult1));
+        for (Map.Entry<String, String> currentKey : currentKeys.entrySet()) {
+            String name = currentKey.getKey();
+            if (isUpToDate(name)) {
+                entries.put(name, storedEntries.get(name));
+            } else if (!perClass) {
+                entries.put(name, new Entry(currentKey.getValue(), freshResult));
+            } else {
+                JkTestResult.JkClassResult classResult = classResults.getOrDefault(name,
+                        JkTestResult.JkClassResult.of(name, JkTestResult.JkCount.ofZero(),
+                                JkTestResult.JkCount.ofZero(), Collections.emptyList()));
+                entries.put(name, new Entry(currentKey.getValue(),
+                        JkTestResult.of(classResult, freshResult.getTimings().forClass(name))));
+            }
+        }
+        JkUtilsPath.createDirectories(file.getParent());
+        JkUtilsIO.serialize(entries, file);
+    }
+
+    private boolean isUpToDate(String name) {
+        Entry entry = storedEntries.get(name);
+        return entry != null && entry.key.equals(currentKeys.get(name));
+    }
+
+    private static Map<String, Entry> load(Path file) {
+        if (!Files.exists(file)) {
+            return Collections.emptyMap();
+        }
+        try {
+            return JkUtilsIO.deserialize(file);
+        } catch (RuntimeException e) {
+            JkLog.trace("Can not read test result cache " + file + " : " + e.getMessage());
+            return Collections.emptyMap();
+        }
+    }
+
+    // Class files, nested classes included, per top level class name matching the selection patterns
+    private static Map<String, List<Path>> testClassFiles(JkTestSelection<?> selection) {
+        List<Pattern> includes = selection.getIncludePatterns().stream().map(Pattern::compile)
+                .collect(Collectors.toList());
+        List<Pattern> excludes = selection.getExcludePatterns().stream().map(Pattern::compile)
+                .collect(Collectors.toList());
+        Map<String, List<Path>> result = new TreeMap<>();
+        for (Path root : selection.getTestClassRoots()) {
+            if (!Files.isDirectory(root)) {
+                continue;
+            }
+            for (Path classFile : sortedFiles(root)) {
+                String className = className(root, classFile);
+                if (className == null) {
+                    continue;
+                }
+                String topLevelName = topLevelName(className);
+                if (includes.stream().anyMatch(pattern -> pattern.matcher(topLevelName).matches())
+                        && excludes.stream().noneMatch(pattern -> pattern.matcher(topLevelName).matches())) {
+                    result.computeIfAbsent(topLevelName, key -> new LinkedList<>()).add(classFile);
+                }
+            }
+        }
+        return result;
+    }
+
+    /*
+     * Top level names of classes referenced from class files of the test roots, other than from their own class
+     * files. If a class file can not be read, all the specified test classes are considered as referenced.
+     */
+    private static Set<String> referencedTestClasses(JkTestSelection<?> selection, Set<String> testClassNames) {
+        Set<String> result = new HashSet<>();
+        for (Path root : selection.getTestClassRoots()) {
+            if (!Files.isDirectory(root)) {
+                continue;
+            }
+            for (Path classFile : sortedFiles(root)) {
+                String className = className(root, classFile);
+                if (className == null) {
+                    continue;
+                }
+                byte[] bytes = JkUtilsPath.readAllBytes(classFile);
+                if (!JkInternalConstantPool.isClassFile(bytes)) {
+                    continue;
+                }
+                JkInternalConstantPool pool;
+                try {
+                    pool = JkInternalConstantPool.of(bytes);
+                } catch (IllegalArgumentException e) {
+                    JkLog.trace("Can not read " + classFile + " : " + e.getMessage());
+                    return testClassNames;
+                }
+                String topLevelName = topLevelName(className);
+                pool.getClassNames().stream()
+                        .map(name -> topLevelName(name.replace('/', '.')))
+                        .filter(name -> !name.equals(topLevelName))
+                        .forEach(result::add);
+            }
+        }
+        return result;
+    }
+
+    private static String topLevelName(String className) {
+        int nestedIndex = className.indexOf('$');
+        return nestedIndex < 0 ? className : className.substring(0, nestedIndex);
+    }
+
+    static String className(Path root, Path classFile) {
+        String relativePath = root.relativize(classFile).toString().replace(root.getFileSystem().getSeparator(), ".");
+        if (!relativePath.endsWith(".class") || relativePath.endsWith("-info.class")) {
+            return null;
+        }
+        return relativePath.substring(0, relativePath.length() - ".class".length());
+    }
+
+    private static List<Path> sortedFiles(Path dir) {
+        try (Stream<Path> stream = JkUtilsPath.walk(dir)) {
+            return stream.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static MessageDigest messageDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void update(MessageDigest digest, String value) {
+        digest.update((value + '\n').getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void updateWithContent(MessageDigest digest, Path root, Path file) {
+        update(digest, root.relativize(file).toString());
+        digest.update(JkUtilsPath.readAllBytes(file));
+    }
+
+    private static void updateWithAttributes(MessageDigest digest, Path file) {
+        String value = file.toAbsolutePath().normalize().toString();
+        if (Files.exists(file)) {
+            try {
+                value = value + '|' + Files.size(file) + '|' + Files.getLastModifiedTime(file).toMillis();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        update(digest, value);
+    }
+
+    private static class Entry implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String key;
+
+        private final JkTestResult result;
+
+        Entry(String key, JkTestResult result) {
+            this.key = key;
+            this.result = result;
+        }
+
+    }
+
+}
@@ -0,0 +1,130 @@
+package dev.jeka.core.api.java.testing.embedded.junitplatform;
+
+import dev.jeka.core.api.java.testing.JkTestResult;
+import org.junit.platform.engine.TestExecutionResult;
+import org.junit.platform.engine.TestSource;
+import org.junit.platform.engine.support.descriptor.ClassSource;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.TestPlan;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/*
+ * Breaks down test outcomes by top level test class, counting the same way as SummaryGeneratingListener does.
+ */
+class ClassResultListener implements TestExecutionListener {
+
+    private static final int FOUND = 0, STARTED = 1, SKIPPED = 2, ABORTED = 3, SUCCEEDED = 4, FAILED = 5;
+
+    private final Map<String, Counter> counters = new LinkedHashMap<>();
+
+    private TestPlan testPlan;
+
+    @Override
+    public synchronized void testPlanExecutionStarted(TestPlan testPlan) {
+        this.testPlan = testPlan;
+        for (TestIdentifier root : testPlan.getRoots()) {
+            for (TestIdentifier testIdentifier : testPlan.getDescendants(root)) {
+                increment(testIdentifier, FOUND);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void dynamicTestRegistered(TestIdentifier testIdentifier) {
+        increment(testIdentifier, FOUND);
+    }
+
+    @Override
+    public synchronized void executionSkipped(TestIdentifier testIdentifier, String reason) {
+        increment(testIdentifier, SKIPPED);
+        for (TestIdentifier descendant : testPlan.getDescendants(testIdentifier)) {
+            increment(descendant, SKIPPED);
+        }
+    }
+
+    @Override
+    public synchronized void executionStarted(TestIdentifier testIdentifier) {
+        increment(testIdentifier, STARTED);
+    }
+
+    @Override
+    public synchronized void executionFinished(TestIdentifier testIdentifier, TestExecutionResult result) {
+        switch (result.getStatus()) {
+            case SUCCESSFUL:
+                increment(testIdentifier, SUCCEEDED);
+                break;
+            case ABORTED:
+                increment(testIdentifier, ABORTED);
+                break;
+            default:
+                increment(testIdentifier, FAILED);
+                Counter counter = counter(testIdentifier);
+                if (counter != null) {
+                    result.getThrowable().ifPresent(throwable -> counter.failures.add(
+                            JunitPlatformDoer.toFailure(testIdentifier, throwable)));
+                }
+        }
+    }
+
+    synchronized List<JkTestResult.JkClassResult> getClassResults() {
+        return counters.entrySet().stream()
+                .map(entry -> entry.getValue().toClassResult(entry.getKey()))
+                .collect(Collectors.toList());
+    }
+
+    private void increment(TestIdentifier testIdentifier, int index) {
+        Counter counter = counter(testIdentifier);
+        if (counter == null) {
+            return;
+        }
+        if (testIdentifier.isContainer()) {
+            counter.containers[index]++;
+        }
+        if (testIdentifier.isTest()) {
+            counter.tests[index]++;
+        }
+    }
+
+    private Counter counter(TestIdentifier testIdentifier) {
+        String className = topLevelClassName(testIdentifier);
+        return className == null ? null : counters.computeIfAbsent(className, key -> new Counter());
+    }
+
+    static String topLevelClassName(TestIdentifier testIdentifier) {
+        TestSource source = testIdentifier.getSource().orElse(null);
+        final String className;
+        if (source instanceof ClassSource) {
+            className = ((ClassSource) source).getClassName();
+        } else if (source instanceof MethodSource) {
+            className = ((MethodSource) source).getClassName();
+        } else {
+            return null;
+        }
+        int index = className.indexOf('$');
+        return index < 0 ? className : className.substring(0, index);
+    }
+
+    private static class Counter {
+
+        final long[] containers = new long[6];
+
+        final long[] tests = new long[6];
+
+        final List<JkTestResult.JkFailure> failures = new LinkedList<>();
+
+        JkTestResult.JkClassResult toClassResult(String className) {
+            return JkTestResult.JkClassResult.of(className, toCount(containers), toCount(tests),
+                    new ArrayList<>(failures));
+        }
+
+        private static JkTestResult.JkCount toCount(long[] values) {
+            return JkTestResult.JkCount.of(values[FOUND], values[STARTED], values[SKIPPED], values[ABORTED],
+                    values[SUCCEEDED], values[FAILED]);
+        }
+    }
+
+}
@@ -14,6 +14,7 @@ import org.junit.platform.engine.discovery.DiscoverySelectors;
 import org.junit.platform.launcher.Launcher;
 import org.junit.platform.launcher.TagFilter;
 import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestIdentifier;
 import org.junit.platform.launcher.TestPlan;
 import org.junit.platform.launcher.core.LauncherConfig;
 import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
@@ -35,7 +36,7 @@ class JunitPlatformDoer implements JkInternalJunitDoer {
         return new JunitPlatformDoer();
     }
 
-    public JkTestResult launch(JkTestProcessor.JkEngineBehavior engineBehavior, JkTestSelection testSelection) {
+    public JkTestResult launch(JkTestProcessor.JkEngineBehavior<?> engineBehavior, JkTestSelection<?> testSelection) {
 
         // creating launcher
         LauncherConfig.Builder launcherBuilder = LauncherConfig.builder();
@@ -47,19 +48,34 @@ class JunitPlatformDoer implements JkInternalJunitDoer {
         // Creating test plan
         LauncherDiscoveryRequestBuilder requestBuilder = LauncherDiscoveryRequestBuilder.request()
             .filters(getFilters(testSelection))
-            .selectors(
-                    DiscoverySelectors.selectClasspathRoots(testSelection.getTestClassRoots().toSet())
-            );
+            .configurationParameters(engineBehavior.getConfigurationParameters());
+        Set<String> selectedClassNames = testSelection.getSelectedClassNames();
+        if (selectedClassNames.isEmpty()) {
+            requestBuilder.selectors(
+                    DiscoverySelectors.selectClasspathRoots(testSelection.getTestClassRoots().toSet()));
+        } else {
+            requestBuilder.selectors(selectedClassNames.stream()
+                    .map(DiscoverySelectors::selectClass)
+                    .collect(Collectors.toList()));
+        }
         if (testSelection.getDiscoveryConfigurer() != null) {
-            requestBuilder = (LauncherDiscoveryRequestBuilder) testSelection.getDiscoveryConfigurer().apply(requestBuilder);
+            requestBuilder = testSelection.getDiscoveryConfigurer().apply(requestBuilder);
         }
         JkLog.info(testSelection.toString());
+        if (engineBehavior.getParallelMode() != JkTestProcessor.JkParallelMode.NONE) {
+            JkLog.info("Run tests concurrently : mode=" + engineBehavior.getParallelMode() + ", strategy="
+                    + engineBehavior.getParallelStrategy() + ", parallelism=" + engineBehavior.getParallelism());
+        }
         TestPlan testPlan = launcher.discover(requestBuilder.build());
 
         // Setting forced listeners
         SummaryGeneratingListener summaryListener = new SummaryGeneratingListener();
+        ClassResultListener classResultListener = new ClassResultListener();
+        TimingListener timingListener = new TimingListener();
         List<TestExecutionListener> listeners = new LinkedList<>();
         listeners.add(summaryListener);
+        listeners.add(classResultListener);
+        listeners.add(timingListener);
         TestExecutionListener progressListener = ProgressListeners.get(engineBehavior.getProgressDisplayer());
         if (engineBehavior.getProgressDisplayer() != null) {
             listeners.add(progressListener);
@@ -75,11 +91,11 @@ class JunitPlatformDoer implements JkInternalJunitDoer {
         // Execution
         launcher.execute(testPlan, listeners.toArray(new TestExecutionListener[0]));
         TestExecutionSummary summary = summaryListener.getSummary();
-        return toTestResult(summary);
+        return toTestResult(summary, classResultListener.getClassResults(), timingListener.getTimings());
     }
 
-    private static Filter[] getFilters(JkTestSelection testSelection) {
-        List<Filter> result = new LinkedList<>();
+    private static Filter<?>[] getFilters(JkTestSelection<?> testSelection) {
+        List<Filter<?>> result = new LinkedList<>();
         if (!testSelection.getIncludePatterns().isEmpty()) {
             result.add(ClassNameFilter.includeClassNamePatterns(toArray(testSelection.getIncludePatterns())));
         }
@@ -92,10 +108,12 @@ class JunitPlatformDoer implements JkInternalJunitDoer {
         if (!testSelection.getExcludeTags().isEmpty()) {
             result.add(TagFilter.excludeTags(toArray(testSelection.getExcludeTags())));
         }
-        return result.toArray(new Filter[0]);
+        return result.toArray(new Filter<?>[0]);
     }
 
-    private static JkTestResult toTestResult(TestExecutionSummary summary) {
+    private static JkTestResult toTestResult(TestExecutionSummary summary,
+                                             List<JkTestResult.JkClassResult> classResults,
+                                             JkTestResult.JkTimings timings) {
         JkTestResult.JkCount containerCount = JkTestResult.JkCount.of(
                 summary.getContainersFoundCount(),
                 summary.getContainersStartedCount(),
@@ -111,18 +129,19 @@ class JunitPlatformDoer implements JkInternalJunitDoer {
                 summary.getTestsSucceededCount(),
                 summary.getTestsFailedCount());
         List<JkTestResult.JkFailure> failures = summary.getFailures().stream()
-                .map(JunitPlatformDoer::toFailure).collect(Collectors.toList());
+                .map(failure -> toFailure(failure.getTestIdentifier(), failure.getException()))
+                .collect(Collectors.toList());
         return JkTestResult.of(summary.getTimeStarted(), summary.getTimeFinished(),
-                containerCount, testCount, failures);
+                containerCount, testCount, failures, classResults, timings);
     }
 
     private static String[] toArray(Set<String> strings) {
         return new ArrayList<>(strings).toArray(new String[0]);
     }
 
-    private static JkTestResult.JkFailure toFailure(TestExecutionSummary.Failure failure) {
+    static JkTestResult.JkFailure toFailure(TestIdentifier testIdentifier, Throwable throwable) {
         JkTestResult.JkTestIdentifier.JkType type;
-        switch (failure.getTestIdentifier().getType()) {
+        switch (testIdentifier.getType()) {
             case CONTAINER:
                 type = JkTestResult.JkTestIdentifier.JkType.CONTAINER;
                 break;
@@ -133,13 +152,12 @@ class JunitPlatformDoer implements JkInternalJunitDoer {
                 type = JkTestResult.JkTestIdentifier.JkType.TEST;
                 break;
         }
-        String testId = failure.getTestIdentifier().getUniqueId();
-        String displayName = failure.getTestIdentifier().getDisplayName();
-        Set<String> tags = failure.getTestIdentifier().getTags().stream().map(TestTag::toString)
+        String testId = testIdentifier.getUniqueId();
+        String displayName = testIdentifier.getDisplayName();
+        Set<String> tags = testIdentifier.getTags().stream().map(TestTag::toString)
                 .collect(Collectors.toSet());
         JkTestResult.JkTestIdentifier id = JkTestResult.JkTestIdentifier.of(type, testId, displayName, tags);
-        return JkTestResult.JkFailure.of(id, failure.getException().getMessage(),
-                failure.getException().getStackTrace());
+        return JkTestResult.JkFailure.of(id, throwable.getMessage(), throwable.getStackTrace());
     }
 
     private static class RestoreJkLogListener implements TestExecutionListener {
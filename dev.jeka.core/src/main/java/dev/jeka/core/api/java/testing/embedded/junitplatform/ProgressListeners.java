@@ -9,7 +9,12 @@ import org.junit.platform.launcher.TestIdentifier;
 import org.junit.platform.launcher.TestPlan;
 
 import java.io.PrintStream;
+import java.util.Optional;
 
+/*
+ * Listeners may be notified concurrently when tests run in parallel, so their methods are synchronized and they
+ * print on the standard output captured at startup, as System.out may be silenced by another running test.
+ */
 class ProgressListeners {
 
     static TestExecutionListener get(JkTestProcessor.JkProgressOutputStyle progressDisplayer) {
@@ -27,52 +32,61 @@ class ProgressListeners {
 
     static class SilentProgressExecutionListener implements TestExecutionListener {
 
-        private final Silencer silencer = new Silencer();
-
         @Override
         public void testPlanExecutionStarted(TestPlan testPlan) {
-            silencer.silent(true);
+            Silencer.silent(true);
         }
 
         @Override
         public void testPlanExecutionFinished(TestPlan testPlan) {
-            silencer.silent(false);
+            Silencer.silent(false);
         }
 
     }
 
     static class TreeProgressExecutionListener implements TestExecutionListener {
 
-        private final Silencer silencer = new Silencer();
+        private TestPlan testPlan;
 
-        private int nestedLevel;
+        @Override
+        public synchronized void testPlanExecutionStarted(TestPlan testPlan) {
+            this.testPlan = testPlan;
+        }
 
         @Override
-        public void testPlanExecutionFinished(TestPlan testPlan) {
-            System.out.println();
+        public synchronized void testPlanExecutionFinished(TestPlan testPlan) {
+            Silencer.out().println();
         }
 
         @Override
-        public void executionStarted(TestIdentifier testIdentifier) {
-            System.out.print(JkUtilsString.repeat("  ", nestedLevel) + testIdentifier.getDisplayName());
+        public synchronized void executionStarted(TestIdentifier testIdentifier) {
             if (testIdentifier.getType().isContainer()) {
-                System.out.println();
-                nestedLevel ++;
+                Silencer.out().println(indent(testIdentifier) + testIdentifier.getDisplayName());
             }
             if(testIdentifier.getType().isTest()) {
-                silencer.silent(true);
+                Silencer.silent(true);
             }
         }
 
+        // Tests are displayed once finished, so concurrent tests do not mix up their lines
         @Override
-        public void executionFinished(TestIdentifier testIdentifier, TestExecutionResult testExecutionResult) {
+        public synchronized void executionFinished(TestIdentifier testIdentifier,
+                                                   TestExecutionResult testExecutionResult) {
             if (testIdentifier.getType().isTest()) {
-                silencer.silent(false);
-                System.out.println(" : " + testExecutionResult.getStatus());
+                Silencer.silent(false);
+                Silencer.out().println(indent(testIdentifier) + testIdentifier.getDisplayName() + " : "
+                        + testExecutionResult.getStatus());
             }
-            if(testIdentifier.getType().isContainer()) {
-                nestedLevel --;
+        }
+
+        private String indent(TestIdentifier testIdentifier) {
+            int nestedLevel = 0;
+            Optional<TestIdentifier> parent = testPlan.getParent(testIdentifier);
+            while (parent.isPresent()) {
+                nestedLevel++;
+                parent = testPlan.getParent(parent.get());
             }
+            return JkUtilsString.repeat("  ", nestedLevel);
         }
 
     }
@@ -80,17 +94,18 @@ class ProgressListeners {
     static class ConsoleProgressExecutionListener implements TestExecutionListener {
 
         @Override
-        public void executionStarted(TestIdentifier testIdentifier) {
+        public synchronized void executionStarted(TestIdentifier testIdentifier) {
             if(testIdentifier.getType().isTest()) {
-                System.out.println(testIdentifier);
+                Silencer.out().println(testIdentifier);
             }
         }
 
         @Override
-        public void executionFinished(TestIdentifier testIdentifier, TestExecutionResult testExecutionResult) {
+        public synchronized void executionFinished(TestIdentifier testIdentifier,
+                                                   TestExecutionResult testExecutionResult) {
             if (testIdentifier.getType().isTest()) {
-                System.out.println(testExecutionResult.getStatus());
-                System.out.println();
+                Silencer.out().println(testIdentifier.getDisplayName() + " : " + testExecutionResult.getStatus());
+                Silencer.out().println();
             }
         }
 
@@ -98,53 +113,68 @@ class ProgressListeners {
 
     static class OneLineProgressExecutionListener implements TestExecutionListener {
 
-        private final Silencer silencer = new Silencer();
-
         @Override
-        public void testPlanExecutionStarted(TestPlan testPlan) {
+        public synchronized void testPlanExecutionStarted(TestPlan testPlan) {
             long testCount = testPlan.countTestIdentifiers(testIdentifier -> testIdentifier.getType().isTest());
-            System.out.print("Launch " + testCount + " tests ");
-            System.out.flush();
+            Silencer.out().print("Launch " + testCount + " tests ");
+            Silencer.out().flush();
         }
 
         @Override
-        public void testPlanExecutionFinished(TestPlan testPlan) {
-            System.out.println();
+        public synchronized void testPlanExecutionFinished(TestPlan testPlan) {
+            Silencer.out().println();
         }
 
         @Override
-        public void executionStarted(TestIdentifier testIdentifier) {
+        public synchronized void executionStarted(TestIdentifier testIdentifier) {
             if(testIdentifier.getType().isTest()) {
-                System.out.print(".");
-                System.out.flush();
-                silencer.silent(true);
+                Silencer.out().print(".");
+                Silencer.out().flush();
+                Silencer.silent(true);
             }
         }
 
         @Override
-        public void executionFinished(TestIdentifier testIdentifier, TestExecutionResult testExecutionResult) {
+        public synchronized void executionFinished(TestIdentifier testIdentifier,
+                                                   TestExecutionResult testExecutionResult) {
             if(testIdentifier.getType().isTest()) {
-                silencer.silent(false);
+                Silencer.silent(false);
             }
         }
 
     }
 
-    static class Silencer {
+    /*
+     * Standard streams are shared by all running tests : they are restored only once every test that asked
+     * for silence has finished.
+     */
+    static final class Silencer {
 
         private static final PrintStream standardOutputStream = System.out;
 
         private static final PrintStream standardErrStream = System.err;
 
-        public void silent(boolean silent) {
+        private static int silentCount;
+
+        static PrintStream out() {
+            return standardOutputStream;
+        }
+
+        static synchronized void silent(boolean silent) {
             if (silent) {
-                System.out.flush();
-                System.err.flush();
-                System.setOut(JkUtilsIO.nopPrintStream());
-                System.setErr(JkUtilsIO.nopPrintStream());
-            } else {
-                System.setOut(standardOutputStream);
-                System.setErr(standardErrStream);
+                silentCount++;
+                if (silentCount == 1) {
+                    System.out.flush();
+                    System.err.flush();
+                    System.setOut(JkUtilsIO.nopPrintStream());
+                    System.setErr(JkUtilsIO.nopPrintStream());
+                }
+            } else if (silentCount > 0) {
+                silentCount--;
+                if (silentCount == 0) {
+                    System.setOut(standardOutputStream);
+                    System.setErr(standardErrStream);
+                }
             }
         }
     }
@@ -0,0 +1,65 @@
+package dev.jeka.core.api.java.testing.embedded.junitplatform;
+
+import dev.jeka.core.api.java.testing.JkTestResult;
+import org.junit.platform.engine.TestExecutionResult;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestIdentifier;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+ * Records start time and duration of each test and container.
+ */
+class TimingListener implements TestExecutionListener {
+
+    private final Map<String, long[]> startTimes = new HashMap<>();  // [epoch millis, nano time]
+
+    private final List<String> ids = new ArrayList<>();
+
+    private final List<String> displayNames = new ArrayList<>();
+
+    private final List<String> classNames = new ArrayList<>();
+
+    private final List<Boolean> containers = new ArrayList<>();
+
+    private final List<Long> starts = new ArrayList<>();
+
+    private final List<Long> durations = new ArrayList<>();
+
+    @Override
+    public synchronized void executionStarted(TestIdentifier testIdentifier) {
+        startTimes.put(testIdentifier.getUniqueId(), new long[] {System.currentTimeMillis(), System.nanoTime()});
+    }
+
+    @Override
+    public synchronized void executionFinished(TestIdentifier testIdentifier, TestExecutionResult result) {
+        long[] startTime = startTimes.remove(testIdentifier.getUniqueId());
+        if (startTime == null) {
+            return;
+        }
+        ids.add(testIdentifier.getUniqueId());
+        displayNames.add(testIdentifier.getDisplayName());
+        classNames.add(ClassResultListener.topLevelClassName(testIdentifier));
+        containers.add(testIdentifier.isContainer());
+        starts.add(startTime[0]);
+        durations.add((System.nanoTime() - startTime[1]) / 1000);
+    }
+
+    synchronized JkTestResult.JkTimings getTimings() {
+        int size = ids.size();
+        boolean[] containerArray = new boolean[size];
+        long[] startArray = new long[size];
+        long[] durationArray = new long[size];
+        for (int i = 0; i < size; i++) {
+            containerArray[i] = containers.get(i);
+            startArray[i] = starts.get(i);
+            durationArray[i] = durations.get(i);
+        }
+        return JkTestResult.JkTimings.of(ids.toArray(new String[0]), displayNames.toArray(new String[0]),
+                classNames.toArray(new String[0]), containerArray, startArray, durationArray);
+    }
+
+}
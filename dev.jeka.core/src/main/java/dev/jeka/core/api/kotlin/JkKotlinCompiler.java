@@ -1,12 +1,19 @@
 package dev.jeka.core.api.kotlin;
 
+import dev.jeka.core.api.depmanagement.JkDependencySet;
+import dev.jeka.core.api.depmanagement.resolution.JkDependencyResolver;
 import dev.jeka.core.api.file.JkPathTree;
+import dev.jeka.core.api.java.JkInternalClassloader;
 import dev.jeka.core.api.system.JkLog;
 import dev.jeka.core.api.system.JkProcess;
 import dev.jeka.core.api.utils.JkUtilsAssert;
 import dev.jeka.core.api.utils.JkUtilsPath;
+import dev.jeka.core.api.utils.JkUtilsReflect;
 import dev.jeka.core.api.utils.JkUtilsTime;
 
+import java.io.File;
+import java.io.PrintStream;
+import java.lang.reflect.Method;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -21,15 +28,38 @@ public final class JkKotlinCompiler {
 
     private static final String KOTLIN_HOME = "KOTLIN_HOME";
 
+    /**
+     * Version of <i>kotlin-compiler-embeddable</i> used by {@link #ofEmbedded(JkDependencyResolver)}, unless
+     * overridden by {@link #EMBEDDED_VERSION_PROPERTY} system property.
+     */
+    public static final String DEFAULT_EMBEDDED_VERSION = "1.4.32";
+
+    /**
+     * System property name for overriding {@link #DEFAULT_EMBEDDED_VERSION}.
+     */
+    public static final String EMBEDDED_VERSION_PROPERTY = "jeka.kotlin.version";
+
+    private static final String KEEPALIVE_PROPERTY = "kotlin.environment.keepalive";
+
+    // Embedded compilations are serialized as they share the compiler environment and the keepalive property
+    private static final Object EMBEDDED_LOCK = new Object();
+
+    private static final String EMBEDDED_COMPILER_MODULE = "org.jetbrains.kotlin:kotlin-compiler-embeddable";
+
+    private static final String EMBEDDED_COMPILER_CLASS = "org.jetbrains.kotlin.cli.jvm.K2JVMCompiler";
+
     private final boolean failOnError;
 
     private final JkProcess process;
 
+    private final List<Path> embeddedClasspath;
+
     private JkKotlinCompiler(boolean failOnError,
-                             JkProcess process) {
+                             JkProcess process, List<Path> embeddedClasspath) {
         super();
         this.failOnError = failOnError;
         this.process = process;
+        this.embeddedClasspath = embeddedClasspath;
     }
 
     /**
@@ -37,18 +67,43 @@ public final class JkKotlinCompiler {
      */
     public static JkKotlinCompiler ofDefault() {
         JkProcess process = JkProcess.of("kotlinc");
-        return new JkKotlinCompiler(true, process);
+        return new JkKotlinCompiler(true, process, null);
     }
 
     public static JkKotlinCompiler ofKotlinHome() {
         String value = System.getenv("KOTLIN_HOME");
         JkUtilsAssert.state(value != null, KOTLIN_HOME + " environment variable is not defined.");
         String command = value + "/bin/kotlinc-jvm";
-        return new JkKotlinCompiler(true, JkProcess.of(command));
+        return new JkKotlinCompiler(true, JkProcess.of(command), null);
+    }
+
+    /**
+     * Creates a {@link JkKotlinCompiler} running in the current JVM, using <i>kotlin-compiler-embeddable</i>
+     * of the specified version, resolved with the specified resolver. The compiler is loaded in a classloader
+     * isolated from Jeka classes. This classloader is cached and the compiler environment is kept alive between
+     * compilations, so only the first compilation pays the compiler warmup.
+     */
+    public static JkKotlinCompiler ofEmbedded(JkDependencyResolver<?> resolver, String kotlinVersion) {
+        List<Path> classpath = resolver.resolve(JkDependencySet.of(EMBEDDED_COMPILER_MODULE + ":" + kotlinVersion))
+                .assertNoError().getFiles().getEntries();
+        return new JkKotlinCompiler(true, null, classpath);
+    }
 
+    /**
+     * Same as {@link #ofEmbedded(JkDependencyResolver, String)} using the version mentioned in
+     * {@link #EMBEDDED_VERSION_PROPERTY} system property, or {@link #DEFAULT_EMBEDDED_VERSION} if not set.
+     */
+    public static JkKotlinCompiler ofEmbedded(JkDependencyResolver<?> resolver) {
+        return ofEmbedded(resolver, System.getProperty(EMBEDDED_VERSION_PROPERTY, DEFAULT_EMBEDDED_VERSION));
     }
 
     public Path getStdLib() {
+        if (embeddedClasspath != null) {
+            return embeddedClasspath.stream()
+                    .filter(path -> path.getFileName().toString().matches("kotlin-stdlib-[0-9].*\\.jar"))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException("No kotlin-stdlib found in " + embeddedClasspath));
+        }
         String value = System.getenv("KOTLIN_HOME");
         JkUtilsAssert.state(value != null, KOTLIN_HOME + " environment variable is not defined.");
         return Paths.get(value).resolve("libexec/lib/kotlin-stdlib.jar");
@@ -60,7 +115,7 @@ public final class JkKotlinCompiler {
      * a compilation error will throw a {@link IllegalStateException}.
      */
     public JkKotlinCompiler withFailOnError(boolean fail) {
-        return new JkKotlinCompiler(fail, process);
+        return new JkKotlinCompiler(fail, process, embeddedClasspath);
     }
 
     /**
@@ -89,7 +144,11 @@ public final class JkKotlinCompiler {
             JkLog.endTask("");
             return true;
         }
-        JkLog.info("Use kotlin compiler : " + process.getCommand());
+        if (embeddedClasspath != null) {
+            JkLog.info("Use embedded kotlin compiler : " + getStdLib().getFileName());
+        } else {
+            JkLog.info("Use kotlin compiler : " + process.getCommand());
+        }
         final boolean result = run(compileSpec);
         JkLog.endTask("Done in " + JkUtilsTime.durationInMillis(start) + " milliseconds.");
         if (!result) {
@@ -105,16 +164,72 @@ public final class JkKotlinCompiler {
         final List<String> sourcePaths = new LinkedList<>();
         for (final Path file : compileSpec.getSourceFiles()) {
             if (Files.isDirectory(file)) {
-                JkPathTree.of(file).andMatching(true, "**/*.kt").stream()
+                JkPathTree.of(file).andMatching(true, "**/*.kt", "*.kt").stream()
                         .forEach(path -> sourcePaths.add(path.toString()));
             } else {
                 sourcePaths.add(file.toAbsolutePath().toString());
             }
         }
-        final JkProcess jkProcess = this.process.andParams(compileSpec.getOptions()).andParams(sourcePaths);
         JkLog.info("" + sourcePaths.size() + " files to compile.");
+        if (sourcePaths.isEmpty()) {
+            return true;
+        }
+        if (embeddedClasspath != null) {
+            return runEmbedded(compileSpec, sourcePaths);
+        }
+        final JkProcess jkProcess = this.process.andParams(compileSpec.getOptions()).andParams(sourcePaths);
         final int result = jkProcess.runSync();
         return (result == 0);
     }
 
+    private boolean runEmbedded(JkKotlinJvmCompileSpec compileSpec, List<String> sourcePaths) {
+        final List<String> args = new LinkedList<>();
+        args.add("-no-stdlib");
+        args.add("-no-reflect");
+        args.addAll(withStdLibInClasspath(compileSpec.getOptions()));
+        args.addAll(sourcePaths);
+        final JkInternalClassloader classloader = JkInternalClassloader.ofIsolated(embeddedClasspath);
+        final ClassLoader currentClassLoader = Thread.currentThread().getContextClassLoader();
+        synchronized (EMBEDDED_LOCK) {
+
+            // Keeps the compiler application environment alive between compilations. The property is read when
+            // the compilation ends, so it is only set for its duration.
+            final String previousKeepalive = System.setProperty(KEEPALIVE_PROPERTY, "true");
+            Thread.currentThread().setContextClassLoader(classloader.get().get());
+            try {
+                final Class<?> compilerClass = classloader.get().load(EMBEDDED_COMPILER_CLASS);
+                final Object compiler = JkUtilsReflect.newInstance(compilerClass);
+                final Method exec = JkUtilsReflect.getMethod(compilerClass, "exec", PrintStream.class,
+                        String[].class);
+                final PrintStream errorStream = new PrintStream(JkLog.getErrorStream(), true);
+                final Object exitCode = JkUtilsReflect.invoke(compiler, exec, errorStream,
+                        args.toArray(new String[0]));
+                return "OK".equals(exitCode.toString());
+            } finally {
+                Thread.currentThread().setContextClassLoader(currentClassLoader);
+                if (previousKeepalive == null) {
+                    System.clearProperty(KEEPALIVE_PROPERTY);
+                } else {
+                    System.setProperty(KEEPALIVE_PROPERTY, previousKeepalive);
+                }
+            }
+        }
+    }
+
+    /*
+     * As stdlib is not taken from a Kotlin installation, it has to be explicitly mentioned in classpath.
+     */
+    private List<String> withStdLibInClasspath(List<String> options) {
+        final List<String> result = new LinkedList<>(options);
+        final String stdLib = getStdLib().toString();
+        final int index = result.indexOf("-cp");
+        if (index >= 0 && index + 1 < result.size()) {
+            result.set(index + 1, result.get(index + 1) + File.pathSeparator + stdLib);
+        } else {
+            result.add("-cp");
+            result.add(stdLib);
+        }
+        return result;
+    }
+
 }
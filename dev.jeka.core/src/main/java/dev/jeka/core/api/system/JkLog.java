@@ -9,6 +9,7 @@ import java.io.OutputStream;
 import java.io.Serializable;
 import java.lang.reflect.Method;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 
@@ -62,6 +63,8 @@ public final class JkLog implements Serializable {
 
     private static final ThreadLocal<LinkedList<Long>> START_TIMES = new ThreadLocal<>();
 
+    private static final ThreadLocal<List<JkLogEvent>> BUFFERED_EVENTS = new ThreadLocal<>();
+
     private static LinkedList<Long> getStartTimes() {
         LinkedList<Long> result = START_TIMES.get();
         if (result == null) {
@@ -151,7 +154,9 @@ public final class JkLog implements Serializable {
     public static void startTask(String message, Object ... params) {
         consume(JkLogEvent.ofRegular(Type.START_TASK, String.format(message, params)));
         if (shouldPrint(Type.START_TASK)) {
-            currentNestedTaskLevel.incrementAndGet();
+            if (BUFFERED_EVENTS.get() == null) {
+                currentNestedTaskLevel.incrementAndGet();
+            }
             getStartTimes().addLast(System.nanoTime());
         }
     }
@@ -163,7 +168,9 @@ public final class JkLog implements Serializable {
      */
     public static void endTask(String message) {
         if (shouldPrint(Type.END_TASK)) {
-            currentNestedTaskLevel.decrementAndGet();
+            if (BUFFERED_EVENTS.get() == null) {
+                currentNestedTaskLevel.decrementAndGet();
+            }
             Long startTime = getStartTimes().pollLast();
             if (startTime == null) {
                 for (StackTraceElement ste : Thread.currentThread().getStackTrace()) {
@@ -185,6 +192,36 @@ public final class JkLog implements Serializable {
         endTask("Done in %d milliseconds.");
     }
 
+    /**
+     * Executes the specified task, holding log events emitted by the current thread until the task ends.
+     * Held events are then emitted at once, so logs of tasks running concurrently on distinct threads are not
+     * interleaved. Events are emitted even if the task fails.
+     */
+    public static void executeBuffered(Runnable task) {
+        if (BUFFERED_EVENTS.get() != null) {
+            task.run();
+            return;
+        }
+        BUFFERED_EVENTS.set(new LinkedList<>());
+        try {
+            task.run();
+        } finally {
+            List<JkLogEvent> events = BUFFERED_EVENTS.get();
+            BUFFERED_EVENTS.remove();
+            synchronized (JkLog.class) {
+                for (JkLogEvent event : events) {
+                    if (event.getType() == Type.END_TASK) {
+                        currentNestedTaskLevel.decrementAndGet();
+                    }
+                    consume(event);
+                    if (event.getType() == Type.START_TASK) {
+                        currentNestedTaskLevel.incrementAndGet();
+                    }
+                }
+            }
+        }
+    }
+
     public static boolean isVerbose() {
         return verbosity == Verbosity.VERBOSE;
     }
@@ -196,6 +233,17 @@ public final class JkLog implements Serializable {
         if (!shouldPrint(event.getType()) ){
             return;
         }
+        List<JkLogEvent> bufferedEvents = BUFFERED_EVENTS.get();
+        if (bufferedEvents != null) {
+            bufferedEvents.add(event);
+            return;
+        }
+        synchronized (JkLog.class) {
+            doConsume(event);
+        }
+    }
+
+    private static void doConsume(JkLogEvent event) {
 
         // This is necessary for avoing class cast exception when run in other classloader (unit tests)
         if (event.getClass().getClassLoader() != consumer.getClass().getClassLoader()) {  // survive to classloader change
@@ -0,0 +1,470 @@
+package dev.jeka.core.api.tooling;
+
+import dev.jeka.core.api.utils.JkUtilsPath;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Reads branch, commit and tag information directly from a <i>.git</i> directory, without forking
+ * a git process. It understands <i>HEAD</i>, loose refs, <i>packed-refs</i>, and annotated tag objects stored
+ * either loose or non-deltified in pack files.<p>
+ *
+ * Snapshots are cached per git directory and invalidated as soon as <i>HEAD</i>, the current branch ref,
+ * <i>packed-refs</i> or <i>refs/tags</i> is modified. When the repository layout is not understood
+ * (missing files, deltified tag objects, ...), methods return <code>null</code> so callers can fall back
+ * on the git command line.
+ */
+final class GitMetadataReader {
+
+    private static final String REF_PREFIX = "ref: ";
+
+    private static final String HEADS_PREFIX = "refs/heads/";
+
+    private static final String TAGS_PREFIX = "refs/tags/";
+
+    private static final Map<Path, Snapshot> CACHE = new ConcurrentHashMap<>();
+
+    private final Path gitDir;
+
+    private final Path commonDir;
+
+    private GitMetadataReader(Path gitDir, Path commonDir) {
+        this.gitDir = gitDir;
+        this.commonDir = commonDir;
+    }
+
+    /**
+     * Returns a reader for the git repository containing the specified directory, or <code>null</code> if
+     * no git directory can be found or its layout is not supported.
+     */
+    static GitMetadataReader of(Path workingDir) {
+        Path dir = (workingDir == null ? Paths.get("") : workingDir).toAbsolutePath().normalize();
+        while (dir != null) {
+            Path candidate = dir.resolve(".git");
+            if (Files.isDirectory(candidate)) {
+                return ofGitDir(candidate);
+            }
+            if (Files.isRegularFile(candidate)) {
+                String content = readFirstLine(candidate);
+                if (content == null || !content.startsWith("gitdir:")) {
+                    return null;
+                }
+                return ofGitDir(dir.resolve(content.substring("gitdir:".length()).trim()).normalize());
+            }
+            dir = dir.getParent();
+        }
+        return null;
+    }
+
+    private static GitMetadataReader ofGitDir(Path gitDir) {
+        if (!Files.isRegularFile(gitDir.resolve("HEAD"))) {
+            return null;
+        }
+        Path commonDir = gitDir;
+        Path commonDirFile = gitDir.resolve("commondir");
+        if (Files.isRegularFile(commonDirFile)) {
+            String common = readFirstLine(commonDirFile);
+            if (common == null) {
+                return null;
+            }
+            commonDir = gitDir.resolve(common.trim()).normalize();
+        }
+        return new GitMetadataReader(gitDir, commonDir);
+    }
+
+    /**
+     * Same as <code>git rev-parse --abbrev-ref HEAD</code> : returns 'HEAD' if head is detached.
+     */
+    String getCurrentBranch() {
+        Snapshot snapshot = snapshot();
+        return snapshot == null ? null : snapshot.branch;
+    }
+
+    /**
+     * Same as <code>git rev-parse HEAD</code>.
+     */
+    String getCurrentCommit() {
+        Snapshot snapshot = snapshot();
+        return snapshot == null ? null : snapshot.commit;
+    }
+
+    /**
+     * Same as <code>git tag -l --points-at HEAD</code> : tag names are sorted alphabetically.
+     */
+    List<String> getTagsOfCurrentCommit() {
+        Snapshot snapshot = snapshot();
+        return snapshot == null ? null : snapshot.tags;
+    }
+
+    /**
+     * Drops cached information about this repository. To be called after the repository has been
+     * modified in a way not tracked by cache keys (as nested tag directories).
+     */
+    void invalidate() {
+        CACHE.remove(gitDir);
+    }
+
+    private Snapshot snapshot() {
+        List<Long> stamps = stamps();
+        Snapshot cached = CACHE.get(gitDir);
+        if (cached != null && cached.stamps.equals(stamps)) {
+            return cached;
+        }
+        Snapshot snapshot;
+        try {
+            snapshot = read(stamps);
+        } catch (IOException | UncheckedIOException e) {
+            snapshot = null;
+        }
+        if (snapshot == null) {
+            CACHE.remove(gitDir);
+        } else {
+            CACHE.put(gitDir, snapshot);
+        }
+        return snapshot;
+    }
+
+    private List<Long> stamps() {
+        String head = readFirstLine(gitDir.resolve("HEAD"));
+        List<Long> result = new ArrayList<>(4);
+        result.add(lastModified(gitDir.resolve("HEAD")));
+        if (head != null && head.startsWith(REF_PREFIX)) {
+            result.add(lastModified(commonDir.resolve(head.substring(REF_PREFIX.length()).trim())));
+        }
+        result.add(lastModified(commonDir.resolve("packed-refs")));
+        result.add(lastModified(commonDir.resolve("refs/tags")));
+        return result;
+    }
+
+    private Snapshot read(List<Long> stamps) throws IOException {
+        String head = readFirstLine(gitDir.resolve("HEAD"));
+        if (head == null) {
+            return null;
+        }
+        Map<String, PackedRef> packedRefs = readPackedRefs();
+        final String branch;
+        final String commit;
+        if (head.startsWith(REF_PREFIX)) {
+            String refName = head.substring(REF_PREFIX.length()).trim();
+            branch = refName.startsWith(HEADS_PREFIX) ? refName.substring(HEADS_PREFIX.length()) : refName;
+            commit = resolveRef(refName, packedRefs);
+            if (commit == null) {
+                return null;   // unborn branch or unknown layout
+            }
+        } else {
+            branch = "HEAD";
+            commit = head.trim();
+        }
+        List<String> tags = new ArrayList<>();
+        Map<String, String> tagRefs = new TreeMap<>();
+        for (Map.Entry<String, PackedRef> entry : packedRefs.entrySet()) {
+            if (entry.getKey().startsWith(TAGS_PREFIX)) {
+                tagRefs.put(entry.getKey(), entry.getValue().objectId);
+            }
+        }
+        tagRefs.putAll(looseTagRefs());
+        for (Map.Entry<String, String> entry : tagRefs.entrySet()) {
+            String target = peel(entry.getValue(), entry.getKey(), packedRefs, commit);
+            if (target == null) {
+                return null;
+            }
+            if (target.equals(commit)) {
+                tags.add(entry.getKey().substring(TAGS_PREFIX.length()));
+            }
+        }
+        return new Snapshot(stamps, branch, commit, Collections.unmodifiableList(tags));
+    }
+
+    private String resolveRef(String refName, Map<String, PackedRef> packedRefs) {
+        for (int i = 0; i < 10; i++) {
+            Path loose = commonDir.resolve(refName);
+            String value = Files.isRegularFile(loose) ? readFirstLine(loose) : null;
+            if (value == null) {
+                PackedRef packedRef = packedRefs.get(refName);
+                return packedRef == null ? null : packedRef.objectId;
+            }
+            if (!value.startsWith(REF_PREFIX)) {
+                return value.trim();
+            }
+            refName = value.substring(REF_PREFIX.length()).trim();
+        }
+        return null;
+    }
+
+    /*
+     * Returns the commit pointed by the specified object id, dereferencing annotated tag objects.
+     * Objects equal to the head commit are known to be commits, so they don't need to be read.
+     */
+    private String peel(String objectId, String refName, Map<String, PackedRef> packedRefs, String headCommit)
+            throws IOException {
+        PackedRef packedRef = packedRefs.get(refName);
+        if (packedRef != null && packedRef.objectId.equals(objectId) && packedRef.peeled != null) {
+            return packedRef.peeled;
+        }
+        String current = objectId;
+        for (int i = 0; i < 10; i++) {
+            if (current.equals(headCommit)) {
+                return current;
+            }
+            String header = readObjectHeader(current);
+            if (header == null) {
+                return null;
+            }
+            if (!header.startsWith("tag ")) {
+                return current;
+            }
+            String firstLine = header.substring(header.indexOf('\0') + 1);
+            int end = firstLine.indexOf('\n');
+            if (!firstLine.startsWith("object ") || end < 0) {
+                return null;
+            }
+            current = firstLine.substring("object ".length(), end).trim();
+        }
+        return null;
+    }
+
+    /*
+     * Returns the beginning of the object content formatted as in loose objects ('[type] [size]\0[content]'),
+     * or null if the object can not be read this way (deltified pack entries, unknown pack format).
+     */
+    private String readObjectHeader(String objectId) throws IOException {
+        Path objectFile = commonDir.resolve("objects").resolve(objectId.substring(0, 2))
+                .resolve(objectId.substring(2));
+        if (Files.isRegularFile(objectFile)) {
+            try (InputStream inputStream = new InflaterInputStream(Files.newInputStream(objectFile))) {
+                return readPrefix(inputStream);
+            }
+        }
+        Path packDir = commonDir.resolve("objects/pack");
+        if (!Files.isDirectory(packDir)) {
+            return null;
+        }
+        byte[] id = toBytes(objectId);
+        try (DirectoryStream<Path> indexes = Files.newDirectoryStream(packDir, "*.idx")) {
+            for (Path index : indexes) {
+                long offset = packOffset(index, id);
+                if (offset >= 0) {
+                    String fileName = index.getFileName().toString();
+                    Path pack = packDir.resolve(fileName.substring(0, fileName.length() - 4) + ".pack");
+                    return readPackEntry(pack, offset);
+                }
+            }
+        }
+        return null;
+    }
+
+    /*
+     * Looks up the object offset in a version 2 pack index. Returns -1 if not found.
+     */
+    private static long packOffset(Path index, byte[] id) throws IOException {
+        try (FileChannel channel = FileChannel.open(index, StandardOpenOption.READ)) {
+            ByteBuffer header = read(channel, 0, 8 + 256 * 4);
+            if (header.getInt(0) != 0xff744f63 || header.getInt(4) != 2) {
+                return -1;
+            }
+            int first = id[0] & 0xff;
+            int low = first == 0 ? 0 : header.getInt(8 + (first - 1) * 4);
+            int high = header.getInt(8 + first * 4) - 1;
+            int count = header.getInt(8 + 255 * 4);
+            long namesStart = 8 + 256 * 4;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                ByteBuffer name = read(channel, namesStart + 20L * middle, 20);
+                int comparison = compare(name, id);
+                if (comparison == 0) {
+                    long offsetsStart = namesStart + 24L * count;
+                    int offset = read(channel, offsetsStart + 4L * middle, 4).getInt(0);
+                    if (offset >= 0) {
+                        return offset;
+                    }
+                    long largeOffsetsStart = offsetsStart + 4L * count;
+                    return read(channel, largeOffsetsStart + 8L * (offset & 0x7fffffff), 8).getLong(0);
+                }
+                if (comparison < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle - 1;
+                }
+            }
+            return -1;
+        }
+    }
+
+    private static String readPackEntry(Path pack, long offset) throws IOException {
+        try (FileChannel channel = FileChannel.open(pack, StandardOpenOption.READ)) {
+            channel.position(offset);
+            InputStream inputStream = Channels.newInputStream(channel);
+            int c = inputStream.read();
+            int type = (c >> 4) & 7;
+            long size = c & 0x0f;
+            int shift = 4;
+            while ((c & 0x80) != 0) {
+                c = inputStream.read();
+                size |= (long) (c & 0x7f) << shift;
+                shift += 7;
+            }
+            if (type < 1 || type > 4) {
+                return null;   // deltified entry
+            }
+            String typeName = PACK_OBJECT_TYPES[type];
+            return typeName + " " + size + "\0" + readPrefix(new InflaterInputStream(inputStream));
+        }
+    }
+
+    private static final String[] PACK_OBJECT_TYPES = {null, "commit", "tree", "blob", "tag"};
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of file");
+            }
+        }
+        return buffer;
+    }
+
+    private static int compare(ByteBuffer name, byte[] id) {
+        for (int i = 0; i < id.length; i++) {
+            int comparison = Integer.compare(name.get(i) & 0xff, id[i] & 0xff);
+            if (comparison != 0) {
+                return comparison;
+            }
+        }
+        return 0;
+    }
+
+    private static byte[] toBytes(String objectId) {
+        byte[] result = new byte[objectId.length() / 2];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = (byte) Integer.parseInt(objectId.substring(2 * i, 2 * i + 2), 16);
+        }
+        return result;
+    }
+
+    private Map<String, String> looseTagRefs() throws IOException {
+        Path tagDir = commonDir.resolve(TAGS_PREFIX);
+        if (!Files.isDirectory(tagDir)) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> result = new HashMap<>();
+        try (Stream<Path> stream = Files.walk(tagDir)) {
+            List<Path> files = stream.filter(Files::isRegularFile).collect(Collectors.toList());
+            for (Path file : files) {
+                String value = readFirstLine(file);
+                if (value != null && !value.startsWith(REF_PREFIX)) {
+                    String name = TAGS_PREFIX + tagDir.relativize(file).toString().replace('\\', '/');
+                    result.put(name, value.trim());
+                }
+            }
+        }
+        return result;
+    }
+
+    private Map<String, PackedRef> readPackedRefs() {
+        Path packedRefsFile = commonDir.resolve("packed-refs");
+        if (!Files.isRegularFile(packedRefsFile)) {
+            return Collections.emptyMap();
+        }
+        Map<String, PackedRef> result = new HashMap<>();
+        PackedRef last = null;
+        boolean fullyPeeled = false;
+        for (String line : JkUtilsPath.readAllLines(packedRefsFile)) {
+            if (line.startsWith("#")) {
+                fullyPeeled = fullyPeeled || line.contains(" fully-peeled");
+                continue;
+            }
+            if (line.isEmpty()) {
+                continue;
+            }
+            if (line.startsWith("^")) {
+                if (last != null) {
+                    last.peeled = line.substring(1).trim();
+                }
+                continue;
+            }
+            int index = line.indexOf(' ');
+            if (index < 0) {
+                continue;
+            }
+            last = new PackedRef(line.substring(0, index));
+            result.put(line.substring(index + 1).trim(), last);
+        }
+
+        // With 'fully-peeled' trait, refs not followed by a '^' line do not point to an annotated tag
+        if (fullyPeeled) {
+            result.values().stream().filter(ref -> ref.peeled == null).forEach(ref -> ref.peeled = ref.objectId);
+        }
+        return result;
+    }
+
+    private static String readPrefix(InputStream inputStream) throws IOException {
+        byte[] buffer = new byte[256];
+        int length = 0;
+        int read;
+        while (length < buffer.length && (read = inputStream.read(buffer, length, buffer.length - length)) > 0) {
+            length += read;
+        }
+        return new String(buffer, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private static String readFirstLine(Path file) {
+        try {
+            byte[] bytes = Files.readAllBytes(file);
+            String content = new String(bytes, StandardCharsets.UTF_8);
+            int index = content.indexOf('\n');
+            return (index < 0 ? content : content.substring(0, index)).trim();
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return -1L;
+        }
+    }
+
+    private static final class PackedRef {
+
+        final String objectId;
+
+        String peeled;
+
+        PackedRef(String objectId) {
+            this.objectId = objectId;
+        }
+    }
+
+    private static final class Snapshot {
+
+        final List<Long> stamps;
+
+        final String branch;
+
+        final String commit;
+
+        final List<String> tags;
+
+        Snapshot(List<Long> stamps, String branch, String commit, List<String> tags) {
+            this.stamps = stamps;
+            this.branch = branch;
+            this.commit = commit;
+            this.tags = tags;
+        }
+    }
+
+}
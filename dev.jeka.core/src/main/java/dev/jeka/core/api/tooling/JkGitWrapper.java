@@ -10,14 +10,20 @@ import java.nio.file.Paths;
 import java.util.List;
 
 /**
- * Wrapper for Git command line interface. This class assumes Git is installed on the host machine.
+ * Wrapper for Git command line interface. This class assumes Git is installed on the host machine.<p>
+ *
+ * Branch, commit and tag queries are answered by reading the <i>.git</i> directory directly when possible,
+ * falling back to the git command line for repository layouts that can not be read this way.
  */
 public final class JkGitWrapper {
 
     private final JkProcess git;
 
+    private final GitMetadataReader metadataReader;
+
     private JkGitWrapper(JkProcess process) {
         this.git = process.withFailOnError(false);
+        this.metadataReader = GitMetadataReader.of(process.getWorkingDir());
     }
 
     public static JkGitWrapper of(Path dir) {
@@ -45,6 +51,10 @@ public final class JkGitWrapper {
     }
 
     public String getCurrentBranch() {
+        String branch = metadataReader == null ? null : metadataReader.getCurrentBranch();
+        if (branch != null) {
+            return branch;
+        }
         return git.andParams("rev-parse", "--abbrev-ref", "HEAD").withLogOutput(false).runAndReturnOutputAsLines().get(0);
     }
 
@@ -59,10 +69,18 @@ public final class JkGitWrapper {
     }
 
     public String getCurrentCommit() {
+        String commit = metadataReader == null ? null : metadataReader.getCurrentCommit();
+        if (commit != null) {
+            return commit;
+        }
         return git.andParams("rev-parse", "HEAD").withLogOutput(false).runAndReturnOutputAsLines().get(0);
     }
 
     public List<String> getTagsOfCurrentCommit() {
+        List<String> tags = metadataReader == null ? null : metadataReader.getTagsOfCurrentCommit();
+        if (tags != null) {
+            return tags;
+        }
         return git.andParams("tag", "-l", "--points-at", "HEAD").withLogOutput(false).runAndReturnOutputAsLines();
     }
 
@@ -101,6 +119,7 @@ public final class JkGitWrapper {
 
     public JkGitWrapper tag(String name) {
         git.andParams("tag", name).runSync();
+        invalidateMetadata();
         return this;
     }
 
@@ -158,7 +177,14 @@ public final class JkGitWrapper {
         JkProcess gitCommand = git.andParams(args);
         int code = gitCommand.runSync();
         JkUtilsAssert.state(code == 0 || !git.isFailOnError(), "Command " + gitCommand + " returned with error " + code);
+        invalidateMetadata();
         return this;
     }
 
+    private void invalidateMetadata() {
+        if (metadataReader != null) {
+            metadataReader.invalidate();
+        }
+    }
+
 }
@@ -1,5 +1,6 @@
 package dev.jeka.core.api.utils;
 
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 
@@ -37,4 +38,31 @@ public final class JkUtilsJdk {
         return Integer.parseInt(version);
     }
 
+    /**
+     * Returns the major version of the JVM located in the specified <i>bin</i> directory, as mentioned in the
+     * <i>release</i> file of the JDK/JRE. Returns -1 if the version can not be determined.
+     */
+    public static int majorVersion(Path javaBinDir) {
+        if (javaBinDir.toAbsolutePath().normalize().equals(javaHome().resolve("bin").normalize())) {
+            return runningMajorVersion();
+        }
+        Path releaseFile = javaBinDir.toAbsolutePath().normalize().getParent().resolve("release");
+        if (!Files.exists(releaseFile)) {
+            return -1;
+        }
+        for (String line : JkUtilsPath.readAllLines(releaseFile)) {
+            if (line.startsWith("JAVA_VERSION=")) {
+                String version = line.substring("JAVA_VERSION=".length()).replace("\"", "").trim();
+                if (version.startsWith("1.")) {
+                    version = version.substring(2);
+                }
+                String major = JkUtilsString.substringBeforeFirst(version, ".");
+                major = major.isEmpty() ? version : major;
+                Integer result = JkUtilsString.parseInteger(major);
+                return result == null ? -1 : result;
+            }
+        }
+        return -1;
+    }
+
 }
@@ -7,13 +7,18 @@ import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.FileAttribute;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.zip.ZipError;
@@ -226,6 +231,25 @@ public final class JkUtilsPath {
         }
     }
 
+    /**
+     * Writes the specified bytes in a temporary file located next to the specified path, then moves it atomically
+     * to this path, so concurrent readers never see a partially written file. Parent directories are created
+     * if needed.
+     */
+    public static void writeAtomically(Path path, byte[] bytes) {
+        Path target = path.toAbsolutePath();
+        createDirectories(target.getParent());
+        Path tempFile = target.resolveSibling(target.getFileName() + "." + UUID.randomUUID() + ".part");
+        try {
+            Files.write(tempFile, bytes);
+            Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            deleteIfExists(tempFile);
+        }
+    }
+
     /**
      * Delegates to Files{@link #createTempDirectory(String, FileAttribute[])}
      */
@@ -341,6 +365,67 @@ public final class JkUtilsPath {
         return path.isAbsolute() ? Paths.get("").toAbsolutePath().relativize(path) : path;
     }
 
+    /**
+     * Returns a hexadecimal digest of the specified tokens and of the path, size and last modified time of the
+     * specified files. Directories contribute all the files they contain, missing files contribute their path only.
+     * This is meant to cheaply detect that a set of inputs has not changed since a previous run.
+     */
+    public static String fingerprint(Iterable<Path> files, String ... tokens) {
+        final MessageDigest messageDigest;
+        try {
+            messageDigest = MessageDigest.getInstance("SHA-1");
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        for (final String token : tokens) {
+            messageDigest.update((token + '\n').getBytes(StandardCharsets.UTF_8));
+        }
+        for (final Path file : files) {
+            if (Files.isDirectory(file)) {
+                try (Stream<Path> stream = walk(file)) {
+                    stream.filter(Files::isRegularFile).sorted()
+                            .forEach(child -> updateFingerprint(messageDigest, child));
+                }
+            } else {
+                updateFingerprint(messageDigest, file);
+            }
+        }
+        return JkUtilsString.toHexString(messageDigest.digest());
+    }
+
+    /**
+     * Runs the specified task unless the specified output dir has been produced by a previous successful run
+     * with the same fingerprint, as returned by {@link #fingerprint(Iterable, String...)}. The fingerprint of
+     * the last successful run is stored in a sibling file named <i>[output dir name].fingerprint</i>. The task
+     * succeeds if it returns <code>true</code>.
+     *
+     * @return <code>false</code> if the task has been skipped.
+     */
+    public static boolean runIfChanged(Path outputDir, String fingerprint, BooleanSupplier task) {
+        Path fingerprintFile = outputDir.resolveSibling(outputDir.getFileName() + ".fingerprint");
+        if (Files.isDirectory(outputDir) && Files.exists(fingerprintFile)
+                && fingerprint.equals(new String(readAllBytes(fingerprintFile), StandardCharsets.UTF_8))) {
+            return false;
+        }
+        deleteIfExists(fingerprintFile);
+        if (task.getAsBoolean()) {
+            write(fingerprintFile, fingerprint.getBytes(StandardCharsets.UTF_8));
+        }
+        return true;
+    }
+
+    private static void updateFingerprint(MessageDigest messageDigest, Path file) {
+        String entry = file.toAbsolutePath().normalize().toString();
+        if (Files.exists(file)) {
+            try {
+                entry = entry + '|' + Files.size(file) + '|' + Files.getLastModifiedTime(file).toMillis();
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        messageDigest.update((entry + '\n').getBytes(StandardCharsets.UTF_8));
+    }
+
     private static class CopyDirVisitor extends SimpleFileVisitor<Path> {
 
         CopyDirVisitor(Path fromDir, Path toDir, PathMatcher pathMatcher, CopyOption ... options) {
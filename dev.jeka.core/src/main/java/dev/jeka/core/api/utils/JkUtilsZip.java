@@ -1,6 +1,7 @@
 package dev.jeka.core.api.utils;
 
 import java.io.File;
+import java.nio.file.Path;
 import java.util.Enumeration;
 import java.util.LinkedList;
 import java.util.List;
@@ -29,6 +30,22 @@ public final class JkUtilsZip {
         return result;
     }
 
+    /**
+     * Returns the names of all entries of the specified zip file, as found in its central directory.
+     * Result is cached until the zip file is modified, so repeated calls do not re-open the file.
+     */
+    public static List<String> getEntryNames(Path zipFile) {
+        return ZipEntryIndex.of(zipFile).getNames();
+    }
+
+    /**
+     * Returns <code>true</code> if the specified zip file contains an entry having the specified name.
+     * This relies on the same cache than {@link #getEntryNames(Path)}.
+     */
+    public static boolean hasEntry(Path zipFile, String entryName) {
+        return ZipEntryIndex.of(zipFile).contains(entryName);
+    }
+
     /**
      * Creates a {@link ZipFile} to file without checked exception.
      */
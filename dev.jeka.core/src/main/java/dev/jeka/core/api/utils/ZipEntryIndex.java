@@ -0,0 +1,155 @@
+package dev.jeka.core.api.utils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Entry names of a zip file, read from its central directory only. Indexes are cached per file and
+ * recomputed when file size or last modified time changes. No file handle is kept open between calls.
+ */
+final class ZipEntryIndex {
+
+    private static final int END_OF_CENTRAL_DIR_SIGNATURE = 0x06054b50;
+
+    private static final int CENTRAL_DIR_ENTRY_SIGNATURE = 0x02014b50;
+
+    private static final int END_OF_CENTRAL_DIR_MIN_SIZE = 22;
+
+    private static final int MAX_COMMENT_SIZE = 0xffff;
+
+    private static final Map<Path, ZipEntryIndex> CACHE = new ConcurrentHashMap<>();
+
+    private final long size;
+
+    private final long lastModified;
+
+    private final List<String> names;
+
+    private final Set<String> nameSet;
+
+    private ZipEntryIndex(long size, long lastModified, List<String> names) {
+        this.size = size;
+        this.lastModified = lastModified;
+        this.names = Collections.unmodifiableList(names);
+        this.nameSet = new HashSet<>(names);
+    }
+
+    static ZipEntryIndex of(Path zipFile) {
+        Path key = zipFile.toAbsolutePath().normalize();
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(key, BasicFileAttributes.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        long size = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        ZipEntryIndex cached = CACHE.get(key);
+        if (cached != null && cached.size == size && cached.lastModified == lastModified) {
+            return cached;
+        }
+        ZipEntryIndex result = new ZipEntryIndex(size, lastModified, readNames(key, size));
+        CACHE.put(key, result);
+        return result;
+    }
+
+    List<String> getNames() {
+        return names;
+    }
+
+    boolean contains(String name) {
+        return nameSet.contains(name);
+    }
+
+    private static List<String> readNames(Path zipFile, long size) {
+        try (FileChannel channel = FileChannel.open(zipFile, StandardOpenOption.READ)) {
+            List<String> result = readCentralDirectory(channel, size);
+            if (result != null) {
+                return result;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        // Zip64 or unusual layout : let the JDK deal with it
+        List<String> result = new ArrayList<>();
+        ZipFile zip = JkUtilsZip.getZipFile(zipFile.toFile());
+        try {
+            for (ZipEntry entry : JkUtilsZip.getZipEntries(zip)) {
+                result.add(entry.getName());
+            }
+        } finally {
+            JkUtilsIO.closeQuietly(zip);
+        }
+        return result;
+    }
+
+    /*
+     * Returns null if central directory can not be located or uses zip64 extensions.
+     */
+    private static List<String> readCentralDirectory(FileChannel channel, long size) throws IOException {
+        if (size < END_OF_CENTRAL_DIR_MIN_SIZE) {
+            return null;
+        }
+        int tailLength = (int) Math.min(size, END_OF_CENTRAL_DIR_MIN_SIZE + MAX_COMMENT_SIZE);
+        ByteBuffer tail = read(channel, size - tailLength, tailLength);
+        int eocd = -1;
+        for (int i = tailLength - END_OF_CENTRAL_DIR_MIN_SIZE; i >= 0; i--) {
+            if (tail.getInt(i) == END_OF_CENTRAL_DIR_SIGNATURE) {
+                eocd = i;
+                break;
+            }
+        }
+        if (eocd < 0) {
+            return null;
+        }
+        int entryCount = tail.getShort(eocd + 10) & 0xffff;
+        long dirSize = tail.getInt(eocd + 12) & 0xffffffffL;
+        long dirOffset = tail.getInt(eocd + 16) & 0xffffffffL;
+        if (entryCount == 0xffff || dirSize == 0xffffffffL || dirOffset == 0xffffffffL
+                || dirOffset + dirSize > size) {
+            return null;
+        }
+        ByteBuffer dir = read(channel, dirOffset, (int) dirSize);
+        List<String> result = new ArrayList<>(entryCount);
+        int position = 0;
+        for (int i = 0; i < entryCount; i++) {
+            if (position + 46 > dir.limit() || dir.getInt(position) != CENTRAL_DIR_ENTRY_SIGNATURE) {
+                return null;
+            }
+            int nameLength = dir.getShort(position + 28) & 0xffff;
+            int extraLength = dir.getShort(position + 30) & 0xffff;
+            int commentLength = dir.getShort(position + 32) & 0xffff;
+            byte[] name = new byte[nameLength];
+            dir.position(position + 46);
+            dir.get(name);
+            result.add(new String(name, StandardCharsets.UTF_8));
+            position += 46 + nameLength + extraLength + commentLength;
+        }
+        return result;
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of file");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+}
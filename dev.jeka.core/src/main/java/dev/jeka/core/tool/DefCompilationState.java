@@ -0,0 +1,141 @@
+package dev.jeka.core.tool;
+
+import dev.jeka.core.api.system.JkLog;
+import dev.jeka.core.api.utils.JkUtilsIO;
+import dev.jeka.core.api.utils.JkUtilsPath;
+import dev.jeka.core.api.utils.JkUtilsString;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/*
+ * Inputs of a def compilation : a fingerprint of the classpath and compile options, plus a hash of each file
+ * lying in the def source dir. Comparing with the state recorded at the last successful compilation tells if
+ * compilation can be skipped, or which source files need to be recompiled.
+ */
+final class DefCompilationState implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String classpathFingerprint;
+
+    // Hash of each file content, keyed by its path relative to the def source dir, using '/' as separator.
+    private final Map<String, String> sourceHashes;
+
+    private DefCompilationState(String classpathFingerprint, Map<String, String> sourceHashes) {
+        this.classpathFingerprint = classpathFingerprint;
+        this.sourceHashes = sourceHashes;
+    }
+
+    static DefCompilationState of(Path sourceDir, Iterable<Path> classpath, List<String> compileOptions) {
+        Map<String, String> sourceHashes = new TreeMap<>();
+        if (Files.isDirectory(sourceDir)) {
+            try (Stream<Path> stream = JkUtilsPath.walk(sourceDir)) {
+                stream.filter(Files::isRegularFile).forEach(file -> sourceHashes.put(relativePath(sourceDir, file),
+                        hash(JkUtilsPath.readAllBytes(file))));
+            }
+        }
+        String classpathFingerprint = JkUtilsPath.fingerprint(classpath, compileOptions.toString());
+        return new DefCompilationState(classpathFingerprint, sourceHashes);
+    }
+
+    /**
+     * Returns the state stored in the specified file, or <code>null</code> if there is none or if it can not
+     * be read.
+     */
+    static DefCompilationState load(Path file) {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            return JkUtilsIO.deserialize(file);
+        } catch (RuntimeException e) {
+            JkLog.trace("Can not read def compilation state " + file + " : " + e.getMessage());
+            return null;
+        }
+    }
+
+    void store(Path file) {
+        JkUtilsPath.createDirectories(file.getParent());
+        JkUtilsIO.serialize(this, file);
+    }
+
+    boolean hasSameClasspath(DefCompilationState other) {
+        return classpathFingerprint.equals(other.classpathFingerprint);
+    }
+
+    boolean isSame(DefCompilationState other) {
+        return hasSameClasspath(other) && sourceHashes.equals(other.sourceHashes);
+    }
+
+    /**
+     * Returns relative paths of files that have been added, modified or removed since the specified state.
+     */
+    Set<String> changedSince(DefCompilationState previous) {
+        Set<String> result = new TreeSet<>();
+        sourceHashes.forEach((path, hash) -> {
+            if (!hash.equals(previous.sourceHashes.get(path))) {
+                result.add(path);
+            }
+        });
+        previous.sourceHashes.keySet().stream()
+                .filter(path -> !sourceHashes.containsKey(path))
+                .forEach(result::add);
+        return result;
+    }
+
+    /**
+     * Returns relative paths of the existing java sources that are among the specified ones or that mention,
+     * directly or transitively, the simple name of a class declared in the specified ones. Classes are assumed
+     * to be declared in files named after them.
+     */
+    Set<String> javaSourcesDependingOn(Path sourceDir, Set<String> changedPaths) {
+        Map<String, String> contents = sourceHashes.keySet().stream()
+                .filter(path -> path.endsWith(".java"))
+                .collect(Collectors.toMap(path -> path, path -> new String(
+                        JkUtilsPath.readAllBytes(sourceDir.resolve(path)), StandardCharsets.UTF_8)));
+        Set<String> result = new TreeSet<>();
+        Deque<String> toVisit = new ArrayDeque<>(changedPaths);
+        while (!toVisit.isEmpty()) {
+            String path = toVisit.pop();
+            if (contents.containsKey(path)) {
+                result.add(path);
+            }
+            Pattern simpleName = Pattern.compile("\\b" + Pattern.quote(simpleClassName(path)) + "\\b");
+            contents.forEach((candidate, content) -> {
+                if (!result.contains(candidate) && !toVisit.contains(candidate)
+                        && simpleName.matcher(content).find()) {
+                    toVisit.push(candidate);
+                }
+            });
+        }
+        return result;
+    }
+
+    static String simpleClassName(String relativePath) {
+        String fileName = JkUtilsString.substringAfterLast(relativePath, "/");
+        fileName = fileName.isEmpty() ? relativePath : fileName;
+        return JkUtilsString.substringBeforeLast(fileName, ".");
+    }
+
+    private static String relativePath(Path root, Path file) {
+        return root.relativize(file).toString().replace(root.getFileSystem().getSeparator(), "/");
+    }
+
+    private static String hash(byte[] bytes) {
+        try {
+            return JkUtilsString.toHexString(MessageDigest.getInstance("SHA-1").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+}
@@ -19,12 +19,17 @@ import dev.jeka.core.api.utils.JkUtilsReflect;
 import dev.jeka.core.api.utils.JkUtilsString;
 import dev.jeka.core.api.utils.JkUtilsTime;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.lang.reflect.Method;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
 import java.util.*;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static dev.jeka.core.api.depmanagement.JkDependencySet.Hint.lastAndIf;
 
@@ -241,16 +246,83 @@ final class Engine {
         return result.withoutDuplicates();
     }
 
-    private void compileDef(JkPathSequence defClasspath) {
+    /*
+     * Compilation is skipped if def sources, classpath and compile options are unchanged since the last
+     * successful compilation. If only java sources have changed, the changed sources and the ones depending on
+     * them are recompiled, otherwise the whole def dir is. Kotlin stdlib is added to the def classloader whatever
+     * compilation happens or not, as Kotlin def classes can not be loaded without.
+     */
+    void compileDef(JkPathSequence defClasspath) {
+        JkKotlinCompiler kotlinCompiler = hasKotlin() ? kotlinCompiler() : null;
+        if (kotlinCompiler != null) {
+            JkUrlClassLoader.ofCurrent().addEntries(kotlinCompiler.getStdLib());
+        }
+        Path stateFile = resolver.defClassDir.resolveSibling(JkConstants.DEF_BIN_DIR_NAME + ".state");
+        List<Path> fingerprintedClasspath = defClasspath.getEntries().stream()
+                .filter(entry -> !entry.toAbsolutePath().normalize()
+                        .equals(resolver.defClassDir.toAbsolutePath().normalize()))
+                .collect(Collectors.toList());
+        DefCompilationState state = DefCompilationState.of(resolver.defSourceDir, fingerprintedClasspath,
+                this.compileOptions);
+        DefCompilationState previousState = Files.isDirectory(resolver.defClassDir) ?
+                DefCompilationState.load(stateFile) : null;
+        if (previousState != null && state.isSame(previousState)) {
+            JkLog.info("Def sources and classpath unchanged since last compilation. Skip compilation.");
+            return;
+        }
+        JkUtilsPath.deleteIfExists(stateFile);
+        Set<String> changedPaths = previousState == null || !state.hasSameClasspath(previousState) ?
+                null : state.changedSince(previousState);
+        if (changedPaths != null && kotlinCompiler == null && changedPaths.stream().allMatch(path -> path.endsWith(".java"))) {
+            compileDefIncrementally(defClasspath, state, changedPaths);
+        } else {
+            compileDefFully(defClasspath, kotlinCompiler);
+        }
+        state.store(stateFile);
+    }
+
+    private void compileDefIncrementally(JkPathSequence defClasspath, DefCompilationState state,
+                                         Set<String> changedPaths) {
+        Set<String> toCompile = state.javaSourcesDependingOn(resolver.defSourceDir, changedPaths);
+        JkLog.info("Recompile " + toCompile.size() + " def source files affected by changes.");
+        changedPaths.forEach(this::deleteClassFiles);
+        toCompile.forEach(this::deleteClassFiles);
+        List<Path> sources = toCompile.stream()
+                .map(Paths::get)
+                .filter(JAVA_DEF_SOURCE_MATCHER::matches)
+                .map(resolver.defSourceDir::resolve)
+                .collect(Collectors.toList());
+        if (!sources.isEmpty()) {
+            final JkJavaCompileSpec<Void> javaCompileSpec = defJavaCompileSpec(defClasspath, sources);
+            wrapCompile(() -> JkJavaCompiler.of().compile(javaCompileSpec));
+        }
+    }
+
+    // Deletes classes of the top level class named after the specified source and of its nested classes
+    private void deleteClassFiles(String sourcePath) {
+        String simpleName = DefCompilationState.simpleClassName(sourcePath);
+        Path packageDir = resolver.defClassDir.resolve(sourcePath).getParent();
+        if (!Files.isDirectory(packageDir)) {
+            return;
+        }
+        try (Stream<Path> stream = Files.list(packageDir)) {
+            stream.filter(file -> {
+                String fileName = file.getFileName().toString();
+                return fileName.equals(simpleName + ".class") || fileName.startsWith(simpleName + "$");
+            }).forEach(JkUtilsPath::deleteFile);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void compileDefFully(JkPathSequence defClasspath, JkKotlinCompiler kotlinCompiler) {
         JkPathTree.of(resolver.defClassDir).deleteContent();
-        if (hasKotlin()) {
+        if (kotlinCompiler != null) {
             final JkKotlinJvmCompileSpec kotlinCompileSpec = defKotlinCompileSpec(defClasspath);
-            JkKotlinCompiler kotlinCompiler = JkKotlinCompiler.ofKotlinHome();
             wrapCompile(() -> kotlinCompiler.compile(kotlinCompileSpec));
-            JkUrlClassLoader classLoader = JkUrlClassLoader.ofCurrent();
-            classLoader.addEntries(kotlinCompiler.getStdLib());
         }
-        final JkJavaCompileSpec javaCompileSpec = defJavaCompileSpec(defClasspath);
+        final JkJavaCompileSpec<Void> javaCompileSpec = defJavaCompileSpec(defClasspath,
+                JkPathTree.of(resolver.defSourceDir).andMatcher(JAVA_DEF_SOURCE_MATCHER).getFiles());
         wrapCompile(() -> JkJavaCompiler.of().compile(javaCompileSpec));
         JkPathTree.of(this.resolver.defSourceDir)
                 .andMatching(false, "**/*.java", "*.java", "**/*.kt", "*.kt")
@@ -284,13 +356,12 @@ final class Engine {
                 .count(1, false) > 0;
     }
 
-    private JkJavaCompileSpec defJavaCompileSpec(JkPathSequence classpath) {
-        final JkPathTree defSource = JkPathTree.of(resolver.defSourceDir).andMatcher(JAVA_DEF_SOURCE_MATCHER);
+    private JkJavaCompileSpec<Void> defJavaCompileSpec(JkPathSequence classpath, List<Path> sources) {
         JkUtilsPath.createDirectories(resolver.defClassDir);
         return JkJavaCompileSpec.of()
                 .setClasspath(classpath.and(resolver.defClassDir))
                 .setOutputDir(resolver.defClassDir)
-                .addSources(defSource.getFiles())
+                .addSources(sources)
                 .addOptions(this.compileOptions);
     }
 
@@ -302,6 +373,18 @@ final class Engine {
                 .setOutputDir(resolver.defClassDir);
     }
 
+    /*
+     * Uses Kotlin installation if KOTLIN_HOME is defined, otherwise an embedded compiler running in-process.
+     */
+    private JkKotlinCompiler kotlinCompiler() {
+        if (System.getenv("KOTLIN_HOME") != null) {
+            return JkKotlinCompiler.ofKotlinHome();
+        }
+        String version = JkOptions.get(JkKotlinCompiler.EMBEDDED_VERSION_PROPERTY);
+        return version != null ? JkKotlinCompiler.ofEmbedded(getDefDependencyResolver(), version)
+                : JkKotlinCompiler.ofEmbedded(getDefDependencyResolver());
+    }
+
     private JkDependencyResolver getDefDependencyResolver() {
         return JkDependencyResolver.of().addRepos(this.defRepos);
     }
@@ -4,54 +4,74 @@ import dev.jeka.core.api.utils.JkUtilsReflect;
 import dev.jeka.core.api.utils.JkUtilsString;
 
 import java.io.File;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 final class FieldInjector {
 
     private static final String UNHANDLED_TYPE = "";
 
+    /*
+     * Option fields are computed once per class, along their setters and value parsers, as injection occurs on each
+     * run for every JkClass, plugin and imported project.
+     */
+    private static final ClassValue<List<OptionField>> INJECTION_PLANS = new ClassValue<List<OptionField>>() {
+
+        @Override
+        protected List<OptionField> computeValue(Class<?> type) {
+            return Collections.unmodifiableList(JkUtilsReflect.getAllDeclaredFields(type,true).stream()
+                    .filter(FieldInjector::isOptionField)
+                    .map(OptionField::new)
+                    .collect(Collectors.toList()));
+        }
+    };
+
     static Set<String> inject(Object target, Map<String, String> props) {
         return inject(target, props, "");
     }
 
     private static Set<String> inject(Object target, Map<String, String> props, String fieldPrefix) {
         Set<String> usedProperties = new HashSet<>();
-        for (final Field field : getOptionFields(target.getClass())) {
-            Set<String> matchedKeys = inject(target, field, props, fieldPrefix);
+        if (props.isEmpty()) {
+            return usedProperties;
+        }
+        for (final OptionField optionField : INJECTION_PLANS.get(target.getClass())) {
+            Set<String> matchedKeys = inject(target, optionField, props, fieldPrefix);
             usedProperties.addAll(matchedKeys);
         }
         return usedProperties;
     }
 
     static void injectEnv(Object target) {
-        for (final Field field : getOptionFields(target.getClass())) {
-            final JkEnv env = field.getAnnotation(JkEnv.class);
-            if (env != null) {
-                final String stringValue = System.getenv(env.value());
+        for (final OptionField optionField : INJECTION_PLANS.get(target.getClass())) {
+            final String envName = optionField.envName;
+            if (envName != null) {
+                final String stringValue = System.getenv(envName);
                 if (stringValue != null) {
-                    final Class<?> type = field.getType();
                     Object value;
                     try {
-                        value = parse(type, stringValue);
+                        value = optionField.parser.apply(stringValue);
                     } catch (final IllegalArgumentException e) {
-                        throw new JkException("Option " + env.value() + " has been set with improper value '"
+                        throw new JkException("Option " + envName + " has been set with improper value '"
                                 + stringValue + "'");
                     }
-                    JkUtilsReflect.setFieldValue(target, field, value);
+                    optionField.set(target, value);
                 }
             }
         }
     }
 
     static List<Field> getOptionFields(Class<?> clazz) {
-        return JkUtilsReflect.getAllDeclaredFields(clazz,true).stream()
-                .filter(FieldInjector::isOptionField)
+        return INJECTION_PLANS.get(clazz).stream()
+                .map(optionField -> optionField.field)
                 .collect(Collectors.toList());
     }
 
@@ -68,7 +88,9 @@ final class FieldInjector {
                 .anyMatch(name -> name.equals(setterName));
     }
 
-    private static Set<String> inject(Object target, Field field, Map<String, String> props, String prefix) {
+    private static Set<String> inject(Object target, OptionField optionField, Map<String, String> props,
+                                      String prefix) {
+        final Field field = optionField.field;
         final String name = field.getName();
         final Class<?> type = field.getType();
         final boolean present = props.containsKey(name);
@@ -76,7 +98,7 @@ final class FieldInjector {
             final String stringValue = props.get(name);
             Object value;
             try {
-                value = parse(type, stringValue);
+                value = optionField.parser.apply(stringValue);
             } catch (final IllegalArgumentException e) {
                 throw new JkException("Option " + name + " has been set with improper value '" + stringValue + "'");
             }
@@ -88,18 +110,18 @@ final class FieldInjector {
                 throw new JkException("Can not set value on final " + field.getDeclaringClass().getName()
                         + "#" + field.getName() + " field.");
             }
-            JkUtilsReflect.setFieldValue(target, field, value);
+            optionField.set(target, value);
             return Collections.singleton(prefix + name);
         } else if (hasKeyStartingWith(name + ".", props)) {
             String fieldPrefix = name + ".";
-            Object value = JkUtilsReflect.getFieldValue(target, field);
+            Object value = optionField.get(target);
             if (value == null) {
                 value = JkUtilsReflect.newInstance(field.getType());
                 if (Modifier.isFinal(field.getModifiers())) {
                     throw new JkException("Can not set value on final " + field.getDeclaringClass().getName()
                             + "#" + field.getName() + " field.");
                 }
-                JkUtilsReflect.setFieldValue(target, field, value);
+                optionField.set(target, value);
             }
             final Map<String, String> subProps = extractKeyStartingWith(fieldPrefix, props);
             return inject(value, subProps, prefix + fieldPrefix);
@@ -118,53 +140,67 @@ final class FieldInjector {
         return null;
     }
 
+    static Object parse(Class<?> type, String stringValue) throws IllegalArgumentException {
+        return parser(type).apply(stringValue);
+    }
+
+    /*
+     * Returns a function converting option string values to the specified type. The function throws an
+     * IllegalArgumentException on improper values and returns UNHANDLED_TYPE for unsupported types.
+     */
     @SuppressWarnings("unchecked")
-    static Object parse(Class<?> type, String stringValue)
-            throws IllegalArgumentException {
-        if (stringValue == null) {
-            return defaultValue(type);
-        }
+    private static Function<String, Object> parser(Class<?> type) {
+        final Function<String, Object> valueParser = valueParser(type);
+        final Object defaultValue = defaultValue(type);
+        return stringValue -> {
+            if (stringValue == null) {
+                return defaultValue;
+            }
+            try {
+                return valueParser.apply(stringValue);
+            } catch (final NumberFormatException e) {
+                throw new IllegalArgumentException(e.getMessage(), e);
+            }
+        };
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Function<String, Object> valueParser(Class<?> type) {
         if (type.equals(String.class)) {
-            return stringValue;
+            return stringValue -> stringValue;
         }
         if (type.equals(Boolean.class) || type.equals(boolean.class)) {
-            return Boolean.valueOf(stringValue);
+            return Boolean::valueOf;
         }
-        try {
-            if (type.equals(Integer.class) || type.equals(int.class)) {
-                return Integer.valueOf(stringValue);
-            }
-            if (type.equals(Long.class) || type.equals(long.class)) {
-                return Long.valueOf(stringValue);
-            }
-            if (type.equals(Short.class) || type.equals(short.class)) {
-                return Short.valueOf(stringValue);
-            }
-            if (type.equals(Byte.class) || type.equals(byte.class)) {
-                return Byte.valueOf(stringValue);
-            }
-            if (type.equals(Double.class) || type.equals(double.class)) {
-                return Double.valueOf(stringValue);
-            }
-            if (type.equals(Float.class) || type.equals(float.class)) {
-                return Float.valueOf(stringValue);
-            }
-
-        } catch (final NumberFormatException e) {
-            throw new IllegalArgumentException(e.getMessage(), e);
+        if (type.equals(Integer.class) || type.equals(int.class)) {
+            return Integer::valueOf;
+        }
+        if (type.equals(Long.class) || type.equals(long.class)) {
+            return Long::valueOf;
+        }
+        if (type.equals(Short.class) || type.equals(short.class)) {
+            return Short::valueOf;
+        }
+        if (type.equals(Byte.class) || type.equals(byte.class)) {
+            return Byte::valueOf;
+        }
+        if (type.equals(Double.class) || type.equals(double.class)) {
+            return Double::valueOf;
+        }
+        if (type.equals(Float.class) || type.equals(float.class)) {
+            return Float::valueOf;
         }
         if (type.isEnum()) {
-            @SuppressWarnings("rawtypes")
             final Class enumType = type;
-            return Enum.valueOf(enumType, stringValue);
+            return stringValue -> Enum.valueOf(enumType, stringValue);
         }
         if (type.equals(File.class)) {
-            return new File(stringValue);
+            return File::new;
         }
         if (type.equals(Path.class)) {
-            return Paths.get(stringValue);
+            return Paths::get;
         }
-        return UNHANDLED_TYPE;
+        return stringValue -> UNHANDLED_TYPE;
     }
 
     private static boolean hasKeyStartingWith(String prefix, Map<String, String> values) {
@@ -187,4 +223,61 @@ final class FieldInjector {
         return result;
     }
 
+    /*
+     * An option field along its pre-resolved accessors and value parser.
+     */
+    private static final class OptionField {
+
+        private final Field field;
+
+        private final String envName;
+
+        private final Function<String, Object> parser;
+
+        private final MethodHandle getter;
+
+        // null for final fields
+        private final MethodHandle setter;
+
+        OptionField(Field field) {
+            this.field = field;
+            JkEnv env = field.getAnnotation(JkEnv.class);
+            this.envName = env == null ? null : env.value();
+            this.parser = parser(field.getType());
+            JkUtilsReflect.setAccessibleIfNeeded(field);
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            try {
+                this.getter = lookup.unreflectGetter(field);
+                this.setter = Modifier.isFinal(field.getModifiers()) ? null : lookup.unreflectSetter(field);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Can not access option field " + field, e);
+            }
+        }
+
+        Object get(Object target) {
+            try {
+                return getter.invoke(target);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        void set(Object target, Object value) {
+            if (setter == null) {
+                JkUtilsReflect.setFieldValue(target, field, value);
+                return;
+            }
+            try {
+                setter.invoke(target, value);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+    }
+
 }
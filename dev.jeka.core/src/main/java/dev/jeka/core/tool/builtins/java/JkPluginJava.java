@@ -61,6 +61,14 @@ public class JkPluginJava extends JkPlugin implements JkJavaIdeSupport.JkSupplie
     @JkDoc("The output file for the xml dependency description.")
     public Path output;
 
+    @JkDoc("If true, resolved dependencies are recorded in jeka/dependencies.lock and further builds fetch " +
+            "recorded artifacts without resolving the dependency graph again. Delete the file to resolve again.")
+    public boolean lockDependencies;
+
+    @JkDoc("If true, projects depending on this one compile and test against its class directory instead of its " +
+            "main jar, so the jar is built only when packaging or publishing.")
+    public boolean classDirDependency;
+
     // ----------------------------------------------------------------------------------
 
     private final JkPluginRepo repoPlugin;
@@ -101,6 +109,12 @@ public class JkPluginJava extends JkPlugin implements JkJavaIdeSupport.JkSupplie
         if (!resolver.getRepos().contains(downloadRepo.getUrl())) {
             resolver.addRepos(downloadRepo);
         }
+        if (classDirDependency) {
+            project.setDependingOnClassDir(true);
+        }
+        if (lockDependencies && resolver.getLockFile() == null) {
+            resolver.setLockFile(getJkClass().getBaseDir().resolve(JkConstants.JEKA_DIR + "/dependencies.lock"));
+        }
         JkPluginGpg pgpPlugin = this.getJkClass().getPlugins().get(JkPluginGpg.class);
 
         // Use signer from GPG plugin as default
@@ -140,9 +154,31 @@ public class JkPluginJava extends JkPlugin implements JkJavaIdeSupport.JkSupplie
         } else if (test.fork != null && !test.fork && testProcessor.getForkingProcess() != null) {
             testProcessor.setForkingProcess(false);
         }
+        if (testProcessor.getForkingProcess() != null && testProcessor.getForkingProcess().getArgFileDir() == null) {
+            testProcessor.setForkingProcess(testProcessor.getForkingProcess()
+                    .withArgFileDir(project.getOutputDir().resolve("argfiles")));
+        }
+        if (test.cds != null && testProcessor.getForkingProcess() != null) {
+            testProcessor.setForkingProcess(testProcessor.getForkingProcess().withClassDataSharing(test.cds));
+        }
         if (test.skip != null) {
             project.getConstruction().getTesting().setSkipped(test.skip);
         }
+        if (test.cache != null) {
+            testProcessor.setResultCacheFile(test.cache ?
+                    project.getOutputDir().resolve("test-result-cache.ser") : null);
+        }
+        if (test.affectedOnly != null && test.affectedOnly) {
+            project.getConstruction().getTesting().getTestSelection()
+                    .setAffectedTestsStateFile(project.getOutputDir().resolve("test-impact-state.ser"));
+        }
+        if (test.parallel != null) {
+            testProcessor.getEngineBehavior().setParallelMode(test.parallel);
+        }
+        if (test.parallelism != null) {
+            testProcessor.getEngineBehavior().setParallelism(JkTestProcessor.JkParallelStrategy.FIXED,
+                    test.parallelism);
+        }
         if (this.compilerExtraArgs != null) {
             project.getConstruction().getCompilation().addOptions(JkUtilsString.translateCommandline(this.compilerExtraArgs));
         }
@@ -214,7 +250,7 @@ public class JkPluginJava extends JkPlugin implements JkJavaIdeSupport.JkSupplie
 
     private void showDependencies(String purpose, JkDependencySet deps) {
         JkLog.info("\nDependencies for " + purpose + " : ");
-        final JkResolveResult resolveResult = this.getProject().getConstruction().getDependencyResolver().resolve(deps);
+        final JkResolveResult resolveResult = this.getProject().getConstruction().resolveDependencies(deps);
         final JkResolvedDependencyNode tree = resolveResult.getDependencyTree();
         JkLog.info("------------------------------");
         JkLog.info(String.join("\n", tree.toStrings()));
@@ -290,7 +326,7 @@ public class JkPluginJava extends JkPlugin implements JkJavaIdeSupport.JkSupplie
     }
 
     private Element xmlDeps(Document document, String purpose, JkDependencySet deps) {
-        JkResolveResult resolveResult = this.getProject().getConstruction().getDependencyResolver().resolve(deps);
+        JkResolveResult resolveResult = this.getProject().getConstruction().resolveDependencies(deps);
         JkResolvedDependencyNode tree = resolveResult.getDependencyTree();
         Element element = tree.toDomElement(document, true);
         element.setAttribute("purpose", purpose);
@@ -344,5 +380,29 @@ public class JkPluginJava extends JkPlugin implements JkJavaIdeSupport.JkSupplie
         @JkDoc("Argument passed to the JVM if tests are withForking. E.g. -Xms2G -Xmx2G.")
         public String jvmOptions;
 
+        /** Turn it on to start forked test JVM with a class data sharing archive (JDK 13+). */
+        @JkDoc("If true, forked test JVM reuses a class data sharing archive to start faster (requires JDK 13+ "
+                + "and no jar placed after a directory in the test classpath).")
+        public Boolean cds;
+
+        /** Turn it on to replay results of tests whose inputs are unchanged since a previous run. */
+        @JkDoc("If true, tests whose classpath, selection and JVM settings are unchanged since a previous run are " +
+                "not executed again : their recorded results are replayed. Keep it off on CI.")
+        public Boolean cache;
+
+        /** Turn it on to run only tests affected by changes since last successful run. Keep it off on CI. */
+        @JkDoc("If true, only test classes affected by bytecode changes made since the last successful test run " +
+                "are executed. Keep it off on CI.")
+        public Boolean affectedOnly;
+
+        /** Granularity at which tests run concurrently in the test JVM. */
+        @JkDoc("Granularity at which tests run concurrently in the test JVM : NONE, CLASSES, METHODS or ALL. " +
+                "Requires a test engine supporting parallel execution, as Jupiter does.")
+        public JkTestProcessor.JkParallelMode parallel;
+
+        /** Number of threads running tests concurrently. If not set, one thread per processor is used. */
+        @JkDoc("Number of threads running tests concurrently. If not set, one thread per available processor is used.")
+        public Integer parallelism;
+
     }
 }
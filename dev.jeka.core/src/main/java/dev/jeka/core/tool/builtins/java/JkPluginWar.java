@@ -62,8 +62,7 @@ public class JkPluginWar extends JkPlugin {
             JkPathTree.of(staticResourceDir).copyTo(root.getRoot());
         }
         JkPathTree.of(construction.getCompilation().getLayout().resolveClassDir()).copyTo(root.get("WEB-INF/classes"));
-        JkResolveResult resolveResult = construction.getDependencyResolver()
-                .resolve(construction.getRuntimeDependencies());
+        JkResolveResult resolveResult = construction.resolveDependencies(construction.getRuntimeDependencies());
         JkPathTree lib = root.goTo("lib");
         resolveResult.getFiles().withoutDuplicates().getEntries().forEach(path ->  lib.importFiles(path));
     }
@@ -2,7 +2,10 @@ package dev.jeka.core.api.depmanagement;
 
 import org.junit.Test;
 
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.Assert.*;
 
@@ -17,4 +20,21 @@ public class JkVersionTest {
         assertTrue(comp.compare("0.8.9.RELEASE", "0.8.14.RELEASE") < 0);
         assertTrue(comp.compare("0.8.9.M9", "0.8.9.M11") < 0);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testInterningAndComparison() {
+        assertSame(JkVersion.of("1.0.1"), JkVersion.of("1.0.1"));
+        assertSame(JkVersion.UNSPECIFIED, JkVersion.of("UNSPECIFIED-SNAPSHOT"));
+        assertTrue(JkVersion.of("1.0-SNAPSHOT").isSnapshot());
+        assertTrue(JkVersion.of("1.0-snapshot").isSnapshot());
+        assertTrue(JkVersion.of("1.+").isDynamicAndResovable());
+        assertFalse(JkVersion.of("1.0").isDynamic());
+        assertTrue(JkVersion.of("0.8.14.RELEASE").isGreaterThan(JkVersion.of("0.8.9.RELEASE")));
+        assertTrue(JkVersion.of("1").isGreaterThan(JkVersion.UNSPECIFIED));
+        List<String> sorted = Arrays.asList("2.0", "1.0.1.RELEASE", "1.0.1.RC-1", "1.0").stream()
+                .sorted(JkVersion.VERSION_COMPARATOR).collect(Collectors.toList());
+        assertEquals(Arrays.asList("1.0", "1.0.1.RC-1", "1.0.1.RELEASE", "2.0"), sorted);
+        assertSame(JkModuleId.of("org.lib:lib"), JkModuleId.of("org.lib", "lib"));
+    }
+
+}
@@ -0,0 +1,59 @@
+package dev.jeka.core.api.depmanagement.artifact;
+
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class JkStandardFileArtifactProducerTest {
+
+    @Test
+    public void testMakeAllArtifactsConcurrently() throws Exception {
+        Path dir = Files.createTempDirectory("jeka-artifacts");
+        List<String> events = new CopyOnWriteArrayList<>();
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        Runnable compile = () -> events.add("compile");
+        JkArtifactId sources = JkArtifactId.of("sources", "jar");
+        JkStandardFileArtifactProducer<Void> producer = JkStandardFileArtifactProducer
+                .of(artifactId -> dir.resolve(artifactId.toFileName("foo")))
+                .putMainArtifact(path -> awaitOther(bothStarted, events, "main"))
+                .addPrerequisite(JkArtifactId.ofMainArtifact("jar"), compile)
+                .putArtifact(sources, path -> awaitOther(bothStarted, events, "sources"))
+                .addPrerequisite(sources, compile)
+                .setMaxConcurrency(2);
+        producer.makeAllArtifacts();
+        assertEquals("compile", events.get(0));
+        assertEquals(3, events.size());
+        assertTrue(events.contains("main") && events.contains("sources"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testFailureIsPropagated() throws Exception {
+        Path dir = Files.createTempDirectory("jeka-artifacts");
+        JkStandardFileArtifactProducer.of(artifactId -> dir.resolve(artifactId.toFileName("foo")))
+                .putMainArtifact(path -> {})
+                .putArtifact(JkArtifactId.of("sources", "jar"), path -> {
+                    throw new IllegalStateException("failure");
+                })
+                .setMaxConcurrency(2)
+                .makeAllArtifacts();
+    }
+
+    // Fails if the other artifact is not being produced at the same time
+    private static void awaitOther(CountDownLatch latch, List<String> events, String name) {
+        latch.countDown();
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+        events.add(name);
+    }
+
+}
@@ -0,0 +1,87 @@
+package dev.jeka.core.api.depmanagement.embedded.ivy;
+
+import com.sun.net.httpserver.HttpServer;
+import dev.jeka.core.api.depmanagement.*;
+import dev.jeka.core.api.depmanagement.resolution.JkResolutionParameters;
+import dev.jeka.core.api.depmanagement.resolution.JkResolveResult;
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class IvyInternalDependencyResolverTest {
+
+    @Test
+    public void testSnapshotMetadataTtl() throws Exception {
+
+        // Ivy cache is shared, so the module must not have been resolved before
+        String group = "org.snap" + System.nanoTime();
+        Path repoDir = Files.createTempDirectory("jeka-ivy-repo");
+        Path versionDir = Files.createDirectories(repoDir.resolve(group.replace('.', '/') + "/snap/1.0-SNAPSHOT"));
+        Files.write(versionDir.resolve("snap-1.0-SNAPSHOT.pom"), ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<project xmlns=\"http://maven.apache.org/POM/4.0.0\"><modelVersion>4.0.0</modelVersion>"
+                + "<groupId>" + group + "</groupId><artifactId>snap</artifactId><version>1.0-SNAPSHOT</version>"
+                + "</project>").getBytes("UTF-8"));
+        Files.write(versionDir.resolve("snap-1.0-SNAPSHOT.jar"), new byte[] {1});
+        AtomicInteger requests = new AtomicInteger();
+        HttpServer server = serve(repoDir, requests);
+        try {
+            String url = "http://localhost:" + server.getAddress().getPort() + "/";
+            JkQualifiedDependencySet deps = JkQualifiedDependencySet.of()
+                    .and("compile", JkModuleDependency.of(group + ":snap:1.0-SNAPSHOT"));
+            IvyInternalDependencyResolver resolver = IvyInternalDependencyResolver.of(
+                    JkRepo.of(url).setMetadataTtl(Duration.ofHours(1)).toSet());
+            JkResolveResult result = resolver.resolve(null, deps, JkResolutionParameters.of());
+            assertFalse(result.getErrorReport().toString(), result.getErrorReport().hasErrors());
+            assertTrue(requests.get() > 0);
+
+            // Within TTL, the snapshot is taken from the cache
+            requests.set(0);
+            result = resolver.resolve(null, deps, JkResolutionParameters.of());
+            assertFalse(result.getErrorReport().toString(), result.getErrorReport().hasErrors());
+            assertEquals(0, requests.get());
+
+            requests.set(0);
+            result = resolver.resolve(null, deps, JkResolutionParameters.of().setRefreshForced(true));
+            assertFalse(result.getErrorReport().toString(), result.getErrorReport().hasErrors());
+            assertTrue(requests.get() > 0);
+
+            // Once TTL elapsed, the snapshot is checked again
+            Thread.sleep(10);
+            requests.set(0);
+            resolver = IvyInternalDependencyResolver.of(JkRepo.of(url).setMetadataTtl(Duration.ofMillis(5)).toSet());
+            result = resolver.resolve(null, deps, JkResolutionParameters.of());
+            assertFalse(result.getErrorReport().toString(), result.getErrorReport().hasErrors());
+            assertTrue(requests.get() > 0);
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    private static HttpServer serve(Path repoDir, AtomicInteger requestCount) throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            requestCount.incrementAndGet();
+            Path file = repoDir.resolve(exchange.getRequestURI().getPath().substring(1));
+            if (!Files.isRegularFile(file)) {
+                exchange.sendResponseHeaders(404, -1);
+                exchange.close();
+                return;
+            }
+            byte[] content = "HEAD".equals(exchange.getRequestMethod()) ? new byte[0] : Files.readAllBytes(file);
+            exchange.sendResponseHeaders(200, content.length == 0 ? -1 : content.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(content);
+            }
+        });
+        server.start();
+        return server;
+    }
+
+}
@@ -0,0 +1,41 @@
+package dev.jeka.core.api.depmanagement.resolution;
+
+import dev.jeka.core.api.file.JkPathFile;
+import dev.jeka.core.api.file.JkPathTree;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.Assert.*;
+
+public class ArtifactChecksumsTest {
+
+    @Test
+    public void testChecksumIsComputedOnlyForChangedFiles() throws Exception {
+        Path dir = Files.createTempDirectory("jeka-checksums");
+        try {
+            Path recordFile = dir.resolve("checksums.txt");
+            ArtifactChecksums checksums = ArtifactChecksums.of(recordFile);
+            Path jar = dir.resolve("lib.jar");
+            Files.write(jar, new byte[] {1});
+            FileTime lastModified = Files.getLastModifiedTime(jar);
+            String sha1 = checksums.sha1(jar);
+            assertEquals(JkPathFile.of(jar).getChecksum("SHA-1"), sha1);
+            checksums.save();
+            assertTrue(new String(Files.readAllBytes(recordFile), "UTF-8").contains(sha1));
+
+            // Same size and last modification time : the recorded checksum is trusted
+            Files.write(jar, new byte[] {2});
+            Files.setLastModifiedTime(jar, lastModified);
+            assertEquals(sha1, checksums.sha1(jar));
+
+            Files.setLastModifiedTime(jar, FileTime.fromMillis(lastModified.toMillis() + 5000));
+            assertEquals(JkPathFile.of(jar).getChecksum("SHA-1"), checksums.sha1(jar));
+        } finally {
+            JkPathTree.of(dir).deleteRoot();
+        }
+    }
+
+}
@@ -0,0 +1,87 @@
+package dev.jeka.core.api.depmanagement.resolution;
+
+import dev.jeka.core.api.depmanagement.*;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class DependencyLockFileTest {
+
+    @Test
+    public void testResolveFromLock() throws Exception {
+        Path repoDir = Files.createTempDirectory("jeka-lock-repo");
+        pom(repoDir, "org.app", "app", "<dependencies><dependency><groupId>org.lib</groupId>"
+                + "<artifactId>lib</artifactId><version>1.0</version></dependency></dependencies>");
+        pom(repoDir, "org.lib", "lib", "");
+        Path lockFile = Files.createTempDirectory("jeka-lock").resolve("dependencies.lock");
+        JkDependencyResolver resolver = JkDependencyResolver.of()
+                .setNativeMaven(true)
+                .setLockFile(lockFile)
+                .addRepos(JkRepo.of(repoDir));
+        JkDependencySet deps = JkDependencySet.of().and("org.app:app:1.0");
+        JkResolveResult result = resolver.resolve(deps);
+        assertTrue(Files.exists(lockFile));
+        List<String> lines = Files.readAllLines(lockFile);
+        assertEquals(1, lines.stream().filter(line -> line.startsWith("[")).count());
+
+        // Artifacts are recorded relative to the repository cache, even if located elsewhere
+        assertTrue(lines.stream().filter(line -> line.trim().startsWith("@ "))
+                .allMatch(line -> line.contains(" ${cache}/")));
+
+        // Poms are not needed anymore once resolution is locked
+        Files.delete(repoDir.resolve("org/app/app/1.0/app-1.0.pom"));
+        Files.delete(repoDir.resolve("org/lib/lib/1.0/lib-1.0.pom"));
+        JkResolveResult lockedResult = resolver.resolve(deps);
+        assertEquals(result.getFiles(), lockedResult.getFiles());
+        assertEquals("1.0", lockedResult.getVersionOf(JkModuleId.of("org.lib:lib")).getValue());
+        assertEquals(result.getDependencyTree().toStrings(), lockedResult.getDependencyTree().toStrings());
+
+        // Other declared dependencies lead to a new section
+        resolver.resolve(JkDependencySet.of().and("org.lib:lib:1.0"));
+        assertEquals(2, Files.readAllLines(lockFile).stream().filter(line -> line.startsWith("[")).count());
+
+        // Altered artifact is detected
+        Path jar = repoDir.resolve("org/lib/lib/1.0/lib-1.0.jar");
+        Files.write(jar, new byte[] {2});
+        Files.setLastModifiedTime(jar, FileTime.fromMillis(Files.getLastModifiedTime(jar).toMillis() + 5000));
+        try {
+            resolver.resolve(deps);
+            fail("Checksum mismatch should be detected");
+        } catch (IllegalStateException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains("Checksum"));
+        }
+    }
+
+    @Test
+    public void testUnusedSectionsAreDroppedOnWrite() throws Exception {
+        Path repoDir = Files.createTempDirectory("jeka-lock-repo");
+        pom(repoDir, "org.lib", "lib", "");
+        Path lockFile = Files.createTempDirectory("jeka-lock").resolve("dependencies.lock");
+        Files.write(lockFile, "[obsolete]\norg.old:old:1.0 declared=1.0 configurations=compile roots=compile\n"
+                .getBytes("UTF-8"));
+        JkDependencyResolver resolver = JkDependencyResolver.of()
+                .setNativeMaven(true)
+                .setLockFile(lockFile)
+                .addRepos(JkRepo.of(repoDir));
+        resolver.resolve(JkDependencySet.of().and("org.lib:lib:1.0"));
+        List<String> lines = Files.readAllLines(lockFile);
+        assertEquals(1, lines.stream().filter(line -> line.startsWith("[")).count());
+        assertFalse(lines.contains("[obsolete]"));
+    }
+
+    private static void pom(Path repoDir, String group, String name, String content) throws Exception {
+        Path dir = Files.createDirectories(repoDir.resolve(group.replace('.', '/') + "/" + name + "/1.0"));
+        String pom = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<project xmlns=\"http://maven.apache.org/POM/4.0.0\"><modelVersion>4.0.0</modelVersion>"
+                + "<groupId>" + group + "</groupId><artifactId>" + name + "</artifactId><version>1.0</version>"
+                + content + "</project>";
+        Files.write(dir.resolve(name + "-1.0.pom"), pom.getBytes("UTF-8"));
+        Files.write(dir.resolve(name + "-1.0.jar"), new byte[] {1});
+    }
+
+}
@@ -0,0 +1,74 @@
+package dev.jeka.core.api.depmanagement.resolution;
+
+import dev.jeka.core.api.depmanagement.JkModuleId;
+import dev.jeka.core.api.depmanagement.JkVersion;
+import dev.jeka.core.api.depmanagement.JkVersionedModule;
+import dev.jeka.core.api.depmanagement.resolution.JkResolvedDependencyNode.JkModuleNodeInfo;
+
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Measures lookups on a synthetic 5000 nodes dependency tree.
+ */
+@SuppressWarnings("javadoc")
+public class JkResolvedDependencyNodeRunner {
+
+    private static final int NODE_COUNT = 5000;
+
+    private static final int FAN_OUT = 8;
+
+    private static final int ITERATIONS = 20;
+
+    public static void main(String[] args) {
+        for (int i = 0; i < ITERATIONS; i++) {
+            JkResolvedDependencyNode root = tree();
+            long start = System.nanoTime();
+            int fileCount = root.getResolvedFiles().size();
+            long files = System.nanoTime() - start;
+            start = System.nanoTime();
+            int versionCount = root.getResolvedVersions().getModuleIds().size();
+            long versions = System.nanoTime() - start;
+            start = System.nanoTime();
+            int found = 0;
+            for (int j = 0; j < NODE_COUNT; j += 10) {
+                JkModuleId moduleId = JkModuleId.of("group:module" + j);
+                if (root.contains(moduleId) && root.getFirst(moduleId) != null) {
+                    found++;
+                }
+            }
+            long lookups = System.nanoTime() - start;
+            System.out.println(String.format("files=%d (%d us), versions=%d (%d us), lookups=%d (%d us)",
+                    fileCount, files / 1000, versionCount, versions / 1000, found, lookups / 1000));
+        }
+    }
+
+    // Builds a tree level by level, each node having FAN_OUT children and one jar
+    private static JkResolvedDependencyNode tree() {
+        List<List<Integer>> childIndexes = new ArrayList<>();
+        for (int i = 0; i < NODE_COUNT; i++) {
+            childIndexes.add(new ArrayList<>());
+        }
+        for (int i = 1; i < NODE_COUNT; i++) {
+            childIndexes.get((i - 1) / FAN_OUT).add(i);
+        }
+        JkResolvedDependencyNode[] nodes = new JkResolvedDependencyNode[NODE_COUNT];
+        for (int i = NODE_COUNT - 1; i >= 1; i--) {
+            List<JkResolvedDependencyNode> children = new ArrayList<>();
+            for (int childIndex : childIndexes.get(i)) {
+                children.add(nodes[childIndex]);
+            }
+            JkModuleNodeInfo info = JkModuleNodeInfo.of(JkModuleId.of("group:module" + i), JkVersion.of("1.0"),
+                    Collections.singleton("default"), Collections.singleton("default"), JkVersion.of("1.0"),
+                    Collections.singletonList(Paths.get("repo/module" + i + ".jar")));
+            nodes[i] = JkResolvedDependencyNode.ofModuleDep(info, children);
+        }
+        List<JkResolvedDependencyNode> rootChildren = new ArrayList<>();
+        for (int childIndex : childIndexes.get(0)) {
+            rootChildren.add(nodes[childIndex]);
+        }
+        return JkResolvedDependencyNode.ofModuleDep(JkModuleNodeInfo.ofRoot(JkVersionedModule.of("group:root:1.0")),
+                rootChildren);
+    }
+
+}
@@ -0,0 +1,54 @@
+package dev.jeka.core.api.depmanagement.resolution;
+
+import dev.jeka.core.api.depmanagement.JkModuleId;
+import dev.jeka.core.api.depmanagement.JkVersion;
+import dev.jeka.core.api.depmanagement.JkVersionedModule;
+import dev.jeka.core.api.depmanagement.resolution.JkResolvedDependencyNode.JkModuleNodeInfo;
+import org.junit.Test;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class JkResolvedDependencyNodeTest {
+
+    @Test
+    public void testLookups() {
+        JkResolvedDependencyNode commonsOld = node("org:commons", "1.0", null, "commons.jar");
+        JkResolvedDependencyNode lib = node("org:lib", "2.0", "2.0", "lib.jar",
+                node("org:commons", "1.1", "1.1", "commons.jar"));
+        JkResolvedDependencyNode evicted = node("org:evicted", "0.1", null, "evicted.jar");
+        JkResolvedDependencyNode app = node("org:app", "3.0", "3.0", "app.jar", lib, evicted);
+        JkResolvedDependencyNode root = JkResolvedDependencyNode.ofModuleDep(
+                JkModuleNodeInfo.ofRoot(JkVersionedModule.of("org:root:1.0")), Arrays.asList(app, commonsOld));
+
+        assertEquals(5, root.toFlattenList().size());
+        assertEquals(Arrays.asList(Paths.get("app.jar"), Paths.get("lib.jar"), Paths.get("commons.jar"),
+                Paths.get("evicted.jar")), root.getResolvedFiles());
+        assertTrue(root.contains(JkModuleId.of("org:commons")));
+        assertFalse(root.contains(JkModuleId.of("org:evicted")));
+        assertFalse(root.contains(JkModuleId.of("org:unknown")));
+        assertEquals("1.1", root.getFirst(JkModuleId.of("org:commons")).getModuleInfo()
+                .getResolvedVersion().getValue());
+        assertSame(app, root.getChild(JkModuleId.of("org:app")));
+        assertEquals(Collections.singletonList(commonsOld), root.getChildren(JkModuleId.of("org:commons")));
+        assertEquals(JkVersion.of("1.1"), root.getResolvedVersions().getVersionOf(JkModuleId.of("org:commons")));
+        assertNull(root.getResolvedVersions().getVersionOf(JkModuleId.of("org:root")));
+        assertEquals(new HashSet<>(Arrays.asList(JkVersionedModule.of("org:app:3.0"),
+                JkVersionedModule.of("org:lib:2.0"), JkVersionedModule.of("org:commons:1.1"))),
+                root.getChildModules());
+        assertSame(root.getResolvedFiles(), root.getResolvedFiles());
+    }
+
+    private static JkResolvedDependencyNode node(String moduleId, String declaredVersion, String resolvedVersion,
+                                                 String file, JkResolvedDependencyNode... children) {
+        List<Path> files = Collections.singletonList(Paths.get(file));
+        JkModuleNodeInfo info = JkModuleNodeInfo.of(JkModuleId.of(moduleId), JkVersion.of(declaredVersion),
+                Collections.singleton("default"), Collections.singleton("default"),
+                resolvedVersion == null ? null : JkVersion.of(resolvedVersion), files);
+        return JkResolvedDependencyNode.ofModuleDep(info, Arrays.asList(children));
+    }
+
+}
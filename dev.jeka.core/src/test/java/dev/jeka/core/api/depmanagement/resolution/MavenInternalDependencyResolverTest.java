@@ -0,0 +1,357 @@
+package dev.jeka.core.api.depmanagement.resolution;
+
+import com.sun.net.httpserver.HttpServer;
+import dev.jeka.core.api.depmanagement.*;
+import dev.jeka.core.api.file.JkPathFile;
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+public class MavenInternalDependencyResolverTest {
+
+    @Test
+    public void testResolveOnFileRepo() throws Exception {
+        Path repoDir = createRepo();
+        MavenInternalDependencyResolver resolver = resolver(JkRepoSet.of(JkRepo.of(repoDir)),
+                Files.createTempDirectory("jeka-maven-cache"));
+        assertResolution(resolver);
+    }
+
+    @Test
+    public void testResolveOnHttpRepo() throws Exception {
+        Path repoDir = createRepo();
+        HttpServer server = serve(repoDir, new AtomicInteger());
+        try {
+            Path cacheDir = Files.createTempDirectory("jeka-maven-cache");
+            String url = "http://localhost:" + server.getAddress().getPort() + "/";
+            MavenInternalDependencyResolver resolver = resolver(JkRepoSet.of(JkRepo.of(url)), cacheDir);
+            JkResolveResult result = assertResolution(resolver);
+            assertTrue(result.getFiles().getEntries().stream().allMatch(file -> file.startsWith(cacheDir)));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testMissesAreNotProbedAgain() throws Exception {
+        Path repoDir = createRepo();
+        AtomicInteger emptyRepoRequests = new AtomicInteger();
+        HttpServer emptyServer = serve(Files.createTempDirectory("jeka-empty-repo"), emptyRepoRequests);
+        HttpServer server = serve(repoDir, new AtomicInteger());
+        try {
+            JkRepoSet repoSet = JkRepoSet.of(
+                    JkRepo.of("http://localhost:" + emptyServer.getAddress().getPort() + "/"),
+                    JkRepo.of("http://localhost:" + server.getAddress().getPort() + "/"));
+            Path missFile = Files.createTempDirectory("jeka-misses").resolve("misses.txt");
+            assertResolution(MavenInternalDependencyResolver.of(repoSet, Files.createTempDirectory("jeka-maven-cache"),
+                    RepoMissCache.of(missFile, TimeUnit.HOURS.toMillis(1))));
+            assertTrue(emptyRepoRequests.get() > 0);
+            assertTrue(Files.exists(missFile));
+
+            // Another build with an empty download cache does not ask the empty repo anymore
+            emptyRepoRequests.set(0);
+            assertResolution(MavenInternalDependencyResolver.of(repoSet, Files.createTempDirectory("jeka-maven-cache"),
+                    RepoMissCache.of(missFile, TimeUnit.HOURS.toMillis(1))));
+            assertEquals(0, emptyRepoRequests.get());
+
+            // Forced refresh asks the empty repo again
+            emptyRepoRequests.set(0);
+            MavenInternalDependencyResolver resolver = MavenInternalDependencyResolver.of(repoSet,
+                    Files.createTempDirectory("jeka-maven-cache"),
+                    RepoMissCache.of(missFile, TimeUnit.HOURS.toMillis(1)));
+            JkQualifiedDependencySet deps = JkQualifiedDependencySet.of()
+                    .and("compile", JkModuleDependency.of("org.app:app:1.0"));
+            JkResolveResult result = resolver.resolve(null, deps, JkResolutionParameters.of().setRefreshForced(true));
+            assertFalse(result.getErrorReport().toString(), result.getErrorReport().hasErrors());
+            assertTrue(emptyRepoRequests.get() > 0);
+        } finally {
+            emptyServer.stop(0);
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testSnapshotMetadataTtl() throws Exception {
+        Path repoDir = Files.createTempDirectory("jeka-maven-repo");
+        pom(repoDir, "org.snap", "snap", "1.0-SNAPSHOT", "", false);
+        Path versionDir = repoDir.resolve("org/snap/snap/1.0-SNAPSHOT");
+        Files.move(versionDir.resolve("snap-1.0-SNAPSHOT.pom"), versionDir.resolve("snap-1.0-20210301.101010-1.pom"));
+        Files.write(versionDir.resolve("snap-1.0-20210301.101010-1.jar"), new byte[] {1});
+        Files.write(versionDir.resolve("maven-metadata.xml"), ("<metadata><versioning><snapshot>"
+                + "<timestamp>20210301.101010</timestamp><buildNumber>1</buildNumber>"
+                + "</snapshot></versioning></metadata>").getBytes("UTF-8"));
+        AtomicInteger requests = new AtomicInteger();
+        HttpServer server = serve(repoDir, requests);
+        try {
+            JkRepo repo = JkRepo.of("http://localhost:" + server.getAddress().getPort() + "/")
+                    .setMetadataTtl(Duration.ofMinutes(10));
+            MavenInternalDependencyResolver resolver = resolver(repo.toSet(),
+                    Files.createTempDirectory("jeka-maven-cache"));
+            JkQualifiedDependencySet deps = JkQualifiedDependencySet.of()
+                    .and("compile", JkModuleDependency.of("org.snap:snap:1.0-SNAPSHOT"));
+            JkResolveResult result = resolver.resolve(null, deps, JkResolutionParameters.of());
+            assertFalse(result.getErrorReport().toString(), result.getErrorReport().hasErrors());
+            assertEquals("snap-1.0-20210301.101010-1.jar", result.getFiles().getEntries().get(0).getFileName()
+                    .toString());
+            assertTrue(requests.get() > 0);
+
+            // Within TTL, metadata are not fetched again
+            requests.set(0);
+            resolver.resolve(null, deps, JkResolutionParameters.of());
+            assertEquals(0, requests.get());
+
+            requests.set(0);
+            resolver.resolve(null, deps, JkResolutionParameters.of().setRefreshForced(true));
+            assertEquals(1, requests.get());
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testCorruptedDownloadFallsBackToNextRepo() throws Exception {
+        Path corruptedRepoDir = Files.createTempDirectory("jeka-maven-repo");
+        Path repoDir = Files.createTempDirectory("jeka-maven-repo");
+        pom(corruptedRepoDir, "org.lib", "lib", "1.0", "", false);
+        pom(repoDir, "org.lib", "lib", "1.0", "", false);
+        Path jar = repoDir.resolve("org/lib/lib/1.0/lib-1.0.jar");
+        Files.write(jar, new byte[] {2});
+        Path corruptedJar = corruptedRepoDir.resolve("org/lib/lib/1.0/lib-1.0.jar");
+        Files.write(corruptedJar, new byte[] {1});
+        Files.write(corruptedJar.resolveSibling("lib-1.0.jar.sha1"),
+                JkPathFile.of(jar).getChecksum("SHA-1").getBytes("UTF-8"));
+        HttpServer corruptedServer = serve(corruptedRepoDir, new AtomicInteger());
+        HttpServer server = serve(repoDir, new AtomicInteger());
+        try {
+            JkRepoSet repoSet = JkRepoSet.of(
+                    JkRepo.of("http://localhost:" + corruptedServer.getAddress().getPort() + "/"),
+                    JkRepo.of("http://localhost:" + server.getAddress().getPort() + "/"));
+            MavenInternalDependencyResolver resolver = resolver(repoSet,
+                    Files.createTempDirectory("jeka-maven-cache"));
+            JkResolveResult result = resolver.resolve(null, JkQualifiedDependencySet.of()
+                    .and("compile", JkModuleDependency.of("org.lib:lib:1.0")), JkResolutionParameters.of());
+            assertFalse(result.getErrorReport().toString(), result.getErrorReport().hasErrors());
+            assertArrayEquals(new byte[] {2}, Files.readAllBytes(result.getFiles().getEntries().get(0)));
+        } finally {
+            corruptedServer.stop(0);
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testCredentialsAreNotSentToRedirectedHosts() throws Exception {
+        Path repoDir = createRepo();
+        AtomicInteger authorizedRequests = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            if (exchange.getRequestHeaders().containsKey("Authorization")) {
+                authorizedRequests.incrementAndGet();
+            }
+            Path file = repoDir.resolve(exchange.getRequestURI().getPath().substring(1));
+            byte[] content = Files.isRegularFile(file) ? Files.readAllBytes(file) : new byte[0];
+            exchange.sendResponseHeaders(content.length == 0 ? 404 : 200, content.length == 0 ? -1 : content.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(content);
+            }
+        });
+        server.start();
+        AtomicInteger redirectingServerAuthorizedRequests = new AtomicInteger();
+        HttpServer redirectingServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        redirectingServer.createContext("/", exchange -> {
+            if (exchange.getRequestHeaders().containsKey("Authorization")) {
+                redirectingServerAuthorizedRequests.incrementAndGet();
+            }
+            exchange.getResponseHeaders().add("Location", "http://localhost:" + server.getAddress().getPort()
+                    + exchange.getRequestURI().getPath());
+            exchange.sendResponseHeaders(302, -1);
+            exchange.close();
+        });
+        redirectingServer.start();
+        try {
+            JkRepo repo = JkRepo.of("http://localhost:" + redirectingServer.getAddress().getPort() + "/")
+                    .setCredentials("user", "secret");
+            assertResolution(resolver(JkRepoSet.of(repo), Files.createTempDirectory("jeka-maven-cache")));
+            assertTrue(redirectingServerAuthorizedRequests.get() > 0);
+            assertEquals(0, authorizedRequests.get());
+        } finally {
+            redirectingServer.stop(0);
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testCompileTransitivityAndExclusions() throws Exception {
+        Path repoDir = createRepo();
+        MavenInternalDependencyResolver resolver = resolver(JkRepoSet.of(JkRepo.of(repoDir)),
+                Files.createTempDirectory("jeka-maven-cache"));
+        JkQualifiedDependencySet deps = JkQualifiedDependencySet.of().and("compile",
+                JkModuleDependency.of("org.app:app:1.0").withTransitivity(JkTransitivity.COMPILE)
+                        .andExclusion("org.other:other"));
+        JkResolveResult result = resolver.resolve(null, deps, JkResolutionParameters.of());
+        assertFalse(result.getErrorReport().toString(), result.getErrorReport().hasErrors());
+        assertFalse(result.contains(JkModuleId.of("org.rt:rt")));
+        assertFalse(result.contains(JkModuleId.of("org.other:other")));
+        assertEquals("1.0", result.getVersionOf(JkModuleId.of("org.common:common")).getValue());
+        assertEquals("[compile]", result.getDependencyTree().getFirst(JkModuleId.of("org.common:common"))
+                .getModuleInfo().getRootConfigurations().toString());
+    }
+
+    @Test
+    public void testDependenciesDifferingByClassifierAreAllKept() throws Exception {
+        Path repoDir = createRepo();
+        pom(repoDir, "org.native", "native", "1.0", "", true);
+        jar(repoDir, "org.native", "native", "1.0", "-linux");
+        pom(repoDir, "org.multi", "multi", "1.0", "<dependencies>"
+                + dep("org.native", "native", "1.0", "")
+                + dep("org.native", "native", "1.0", "<classifier>linux</classifier>")
+                + "</dependencies>", true);
+        MavenInternalDependencyResolver resolver = resolver(JkRepoSet.of(JkRepo.of(repoDir)),
+                Files.createTempDirectory("jeka-maven-cache"));
+        JkQualifiedDependencySet deps = JkQualifiedDependencySet.of().and("compile",
+                JkModuleDependency.of("org.multi:multi:1.0"));
+        JkResolveResult result = resolver.resolve(null, deps, JkResolutionParameters.of());
+        assertFalse(result.getErrorReport().toString(), result.getErrorReport().hasErrors());
+        List<String> fileNames = result.getFiles().getEntries().stream()
+                .map(file -> file.getFileName().toString()).collect(Collectors.toList());
+        assertTrue(fileNames.toString(), fileNames.contains("native-1.0.jar"));
+        assertTrue(fileNames.toString(), fileNames.contains("native-1.0-linux.jar"));
+    }
+
+    @Test
+    public void testMatches() {
+        assertTrue(MavenInternalDependencyResolver.matches("1.2.+", "1.2.10"));
+        assertFalse(MavenInternalDependencyResolver.matches("1.2.+", "1.3"));
+        assertTrue(MavenInternalDependencyResolver.matches("[1.0,2.0)", "1.5"));
+        assertFalse(MavenInternalDependencyResolver.matches("[1.0,2.0)", "2.0"));
+        assertTrue(MavenInternalDependencyResolver.matches("[1.0,2.0]", "2.0"));
+        assertFalse(MavenInternalDependencyResolver.matches("]1.0,2.0[", "1.0"));
+        assertTrue(MavenInternalDependencyResolver.matches("[1.0,)", "10.1"));
+        assertFalse(MavenInternalDependencyResolver.matches("latest.release", "1.0-SNAPSHOT"));
+    }
+
+    private static HttpServer serve(Path repoDir, AtomicInteger requestCount) throws Exception {
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            requestCount.incrementAndGet();
+            Path file = repoDir.resolve(exchange.getRequestURI().getPath().substring(1));
+            if (!Files.isRegularFile(file)) {
+                exchange.sendResponseHeaders(404, -1);
+                exchange.close();
+                return;
+            }
+            byte[] content = Files.readAllBytes(file);
+            exchange.sendResponseHeaders(200, content.length);
+            try (OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(content);
+            }
+        });
+        server.start();
+        return server;
+    }
+
+    private static MavenInternalDependencyResolver resolver(JkRepoSet repoSet, Path cacheDir) throws Exception {
+        RepoMissCache missCache = RepoMissCache.of(Files.createTempDirectory("jeka-misses").resolve("misses.txt"),
+                TimeUnit.HOURS.toMillis(1));
+        return MavenInternalDependencyResolver.of(repoSet, cacheDir, missCache);
+    }
+
+    private static JkResolveResult assertResolution(MavenInternalDependencyResolver resolver) {
+        JkQualifiedDependencySet deps = JkQualifiedDependencySet.of()
+                .and("compile", JkModuleDependency.of("org.app:app:1.0"));
+        JkResolveResult result = resolver.resolve(null, deps, JkResolutionParameters.of());
+        assertFalse(result.getErrorReport().toString(), result.getErrorReport().hasErrors());
+
+        // lib version comes from parent dependency management, other version from imported bom
+        assertEquals("2.0", result.getVersionOf(JkModuleId.of("org.lib:lib")).getValue());
+        assertEquals("3.0", result.getVersionOf(JkModuleId.of("org.other:other")).getValue());
+
+        // common is met first as 1.0 (through lib) then as 2.0 (through other) : highest wins
+        assertEquals("2.0", result.getVersionOf(JkModuleId.of("org.common:common")).getValue());
+        assertTrue(result.contains(JkModuleId.of("org.rt:rt")));
+        assertFalse(result.contains(JkModuleId.of("org.test:test")));
+        assertFalse(result.contains(JkModuleId.of("org.opt:opt")));
+        assertFalse(result.contains(JkModuleId.of("org.excluded:excluded")));
+        List<String> fileNames = result.getFiles().getEntries().stream()
+                .map(file -> file.getFileName().toString())
+                .collect(Collectors.toList());
+        assertEquals(5, fileNames.size());
+        assertTrue(fileNames.contains("common-2.0.jar"));
+        assertFalse(fileNames.contains("common-1.0.jar"));
+        assertTrue(fileNames.contains("other-3.0-extra.jar"));
+        return result;
+    }
+
+    private static Path createRepo() throws Exception {
+        Path repoDir = Files.createTempDirectory("jeka-maven-repo");
+        pom(repoDir, "org.parent", "parent", "1.0", "<packaging>pom</packaging>"
+                + "<properties><lib.version>2.0</lib.version></properties>"
+                + "<dependencyManagement><dependencies>"
+                + dep("org.lib", "lib", "${lib.version}", "<exclusions><exclusion><groupId>org.excluded</groupId>"
+                + "<artifactId>*</artifactId></exclusion></exclusions>")
+                + "</dependencies></dependencyManagement>", false);
+        pom(repoDir, "org.bom", "bom", "1.0", "<packaging>pom</packaging>"
+                + "<dependencyManagement><dependencies>"
+                + dep("org.other", "other", "3.0", "<classifier>extra</classifier>")
+                + "</dependencies></dependencyManagement>", false);
+        pom(repoDir, "org.app", "app", "1.0", "<parent><groupId>org.parent</groupId><artifactId>parent</artifactId>"
+                + "<version>1.0</version></parent>"
+                + "<dependencyManagement><dependencies>"
+                + dep("org.bom", "bom", "1.0", "<type>pom</type><scope>import</scope>")
+                + "</dependencies></dependencyManagement>"
+                + "<dependencies>"
+                + dep("org.lib", "lib", null, "")
+                + dep("org.other", "other", null, "<classifier>extra</classifier>")
+                + dep("org.rt", "rt", "1.0", "<scope>runtime</scope>")
+                + dep("org.test", "test", "1.0", "<scope>test</scope>")
+                + dep("org.opt", "opt", "1.0", "<optional>true</optional>")
+                + "</dependencies>", true);
+        pom(repoDir, "org.lib", "lib", "2.0", "<dependencies>"
+                + dep("org.common", "common", "1.0", "")
+                + dep("org.excluded", "excluded", "1.0", "")
+                + "</dependencies>", true);
+        pom(repoDir, "org.other", "other", "3.0", "<dependencies>"
+                + dep("org.common", "common", "2.0", "")
+                + "</dependencies>", false);
+        jar(repoDir, "org.other", "other", "3.0", "-extra");
+        pom(repoDir, "org.common", "common", "1.0", "", true);
+        pom(repoDir, "org.common", "common", "2.0", "", true);
+        pom(repoDir, "org.rt", "rt", "1.0", "", true);
+        pom(repoDir, "org.excluded", "excluded", "1.0", "", true);
+        return repoDir;
+    }
+
+    private static String dep(String group, String name, String version, String extra) {
+        return "<dependency><groupId>" + group + "</groupId><artifactId>" + name + "</artifactId>"
+                + (version == null ? "" : "<version>" + version + "</version>") + extra + "</dependency>";
+    }
+
+    private static void pom(Path repoDir, String group, String name, String version, String content, boolean jar)
+            throws Exception {
+        Path dir = Files.createDirectories(repoDir.resolve(group.replace('.', '/') + "/" + name + "/" + version));
+        String pom = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<project xmlns=\"http://maven.apache.org/POM/4.0.0\"><modelVersion>4.0.0</modelVersion>"
+                + "<groupId>" + group + "</groupId><artifactId>" + name + "</artifactId><version>" + version
+                + "</version>" + content + "</project>";
+        Files.write(dir.resolve(name + "-" + version + ".pom"), pom.getBytes("UTF-8"));
+        if (jar) {
+            jar(repoDir, group, name, version, "");
+        }
+    }
+
+    private static void jar(Path repoDir, String group, String name, String version, String suffix)
+            throws Exception {
+        Path dir = repoDir.resolve(group.replace('.', '/') + "/" + name + "/" + version);
+        Files.write(dir.resolve(name + "-" + version + suffix + ".jar"), new byte[] {1});
+    }
+
+}
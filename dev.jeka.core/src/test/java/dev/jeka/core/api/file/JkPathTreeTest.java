@@ -268,4 +268,31 @@ public class JkPathTreeTest {
         }
     }
 
+    @Test
+    public void testZipTreesOnSameArchiveShareFileSystem() throws Exception {
+        Path zipFile = createSampleZip();
+        JkPathTree first = JkPathTree.ofZip(zipFile);
+        JkPathTree second = JkPathTree.ofZip(zipFile);
+        try (Stream<Path> firstStream = first.stream()) {
+            Path root = first.getRoot();
+
+            // Closing a stream on another tree must not close the file system used by the first one
+            assertFalse(second.getRelativeFiles().isEmpty());
+            assertTrue(root.getFileSystem().isOpen());
+            assertTrue(firstStream.count() > 1);
+        }
+    }
+
+    @Test
+    public void testTreeSetZipTo() throws Exception {
+        Path zipFile = createSampleZip();
+        Path dest = Files.createTempDirectory("jeka-test").resolve("merged.zip");
+        Path otherDir = Files.createTempDirectory("jeka-test");
+        Files.write(otherDir.resolve("other.txt"), "other".getBytes());
+        JkPathTreeSet.ofEmpty().andZip(zipFile).and(otherDir).zipTo(dest);
+        List<Path> files = JkPathTree.ofZip(dest).getRelativeFiles();
+        assertTrue(files.stream().anyMatch(path -> path.toString().equals("other.txt")));
+        assertTrue(files.stream().anyMatch(path -> path.toString().equals("subfolder/sample.txt")));
+    }
+
 }
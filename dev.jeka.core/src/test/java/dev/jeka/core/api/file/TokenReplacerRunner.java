@@ -0,0 +1,73 @@
+package dev.jeka.core.api.file;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/*
+ * Compares token replacement with the former implementation, replacing tokens one by one on each line.
+ */
+@SuppressWarnings("javadoc")
+public class TokenReplacerRunner {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> tokens = new HashMap<>();
+        for (int i = 0; i < 500; i++) {
+            tokens.put("${key." + i + "}", "value " + i);
+        }
+        Path file = Files.createTempFile("jeka-tokens", ".xml");
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 200_000; i++) {
+            content.append("  <entry name=\"item").append(i).append("\">${key.").append(i % 700).append("}</entry>\n");
+        }
+        Files.write(file, content.toString().getBytes(StandardCharsets.UTF_8));
+        Path former = Files.createTempFile("jeka-tokens-former", ".xml");
+        Path result = Files.createTempFile("jeka-tokens-result", ".xml");
+        for (int i = 0; i < 5; i++) {
+            long start = System.nanoTime();
+            copyReplacingTokensFormer(file, former, tokens, StandardCharsets.UTF_8);
+            long formerTime = System.nanoTime() - start;
+            start = System.nanoTime();
+            JkPathFile.of(file).copyReplacingTokens(result, tokens, StandardCharsets.UTF_8);
+            long time = System.nanoTime() - start;
+            System.out.printf("Former : %d ms, current : %d ms%n", formerTime / 1_000_000, time / 1_000_000);
+        }
+        System.out.println("Same result : " + (Files.size(former) == Files.size(result)
+                && Files.readAllLines(former).equals(Files.readAllLines(result))));
+        Files.delete(file);
+        Files.delete(former);
+        Files.delete(result);
+    }
+
+    private static void copyReplacingTokensFormer(Path from, Path to, Map<String, String> tokens, Charset charset)
+            throws IOException {
+        try (Stream<String> stream = Files.lines(from, charset)) {
+            List<String> result = stream.map(line -> interpolated(line, tokens)).collect(Collectors.toList());
+            Files.write(to, result, charset);
+        }
+    }
+
+    private static String interpolated(String original, Map<String, String> tokenValues) {
+        boolean changed = false;
+        String result = original;
+        for (Map.Entry<String, String> entry : tokenValues.entrySet()) {
+            String newResult = result.replace(entry.getKey(), entry.getValue());
+            if (!newResult.equals(result)) {
+                changed = true;
+                result = newResult;
+            }
+        }
+        if (changed) {
+            return interpolated(result, tokenValues);
+        }
+        return result;
+    }
+
+}
@@ -0,0 +1,69 @@
+package dev.jeka.core.api.file;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.Map;
+
+public class TokenReplacerTest {
+
+    @Test
+    public void testReplace() {
+        Map<String, String> tokens = new HashMap<>();
+        tokens.put("${version}", "1.0");
+        tokens.put("${name}", "jeka-${version}");
+        tokens.put("abc", "X");
+        tokens.put("abcd", "Y");
+        tokens.put("bc", "Z");
+        TokenReplacer tokenReplacer = TokenReplacer.of(tokens);
+        Assert.assertEquals("jeka-1.0 is 1.0", tokenReplacer.replace("${name} is ${version}"));
+        Assert.assertEquals("${versio 1.0}", tokenReplacer.replace("${versio ${version}}"));
+
+        // Leftmost then longest token wins
+        Assert.assertEquals("Y", tokenReplacer.replace("abcd"));
+        Assert.assertEquals("Xe", tokenReplacer.replace("abce"));
+        Assert.assertEquals("xZd", tokenReplacer.replace("xbcd"));
+        Assert.assertEquals("aXab", tokenReplacer.replace("aabcab"));
+    }
+
+    @Test
+    public void testReplaceLines() throws Exception {
+        Map<String, String> tokens = new HashMap<>();
+        tokens.put("${a}", "A");
+        TokenReplacer tokenReplacer = TokenReplacer.of(tokens);
+        StringWriter writer = new StringWriter();
+        tokenReplacer.replaceLines(new StringReader("${a}\r\n${\na}\r\r${a}"), writer);
+        String separator = System.lineSeparator();
+        Assert.assertEquals("A" + separator + "${" + separator + "a}" + separator + separator + "A" + separator,
+                writer.toString());
+    }
+
+    @Test
+    public void testLongText() throws Exception {
+        Map<String, String> tokens = new HashMap<>();
+        for (int i = 0; i < 300; i++) {
+            tokens.put("${key." + i + "}", "value" + i);
+        }
+        StringBuilder text = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            text.append("${key.").append(i % 400).append("} ");
+            expected.append(i % 400 < 300 ? "value" + (i % 400) : "${key." + (i % 400) + "}").append(' ');
+        }
+        StringWriter writer = new StringWriter();
+        TokenReplacer.of(tokens).replaceLines(new StringReader(text.toString()), writer);
+        Assert.assertEquals(expected + System.lineSeparator(), writer.toString());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testCyclicTokens() {
+        Map<String, String> tokens = new HashMap<>();
+        tokens.put("${a}", "${b}");
+        tokens.put("${b}", "x${a}");
+        TokenReplacer.of(tokens);
+    }
+
+}
@@ -0,0 +1,71 @@
+package dev.jeka.core.api.java;
+
+import dev.jeka.core.api.file.JkPathTree;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class ArgFilesTest {
+
+    @Test
+    public void testArgFileIsQuotedAndReused() throws Exception {
+        Path dir = Files.createTempDirectory("jeka-argfiles");
+        List<String> args = Arrays.asList("-cp", "C:\\my libs\\a.jar", "say \"hello\"");
+        Path argFile = ArgFiles.argFile(dir, "java", args);
+        List<String> lines = Files.readAllLines(argFile, StandardCharsets.UTF_8);
+        assertEquals(Arrays.asList("\"-cp\"", "\"C:\\\\my libs\\\\a.jar\"", "\"say \\\"hello\\\"\""), lines);
+        assertEquals(argFile, ArgFiles.argFile(dir, "java", args));
+        assertNotEquals(argFile, ArgFiles.argFile(dir, "java", Arrays.asList("-cp", "other.jar")));
+    }
+
+    @Test
+    public void testOnlyMostRecentlyUsedArgFilesAreKept() throws Exception {
+        Path dir = Files.createTempDirectory("jeka-argfiles");
+        try {
+            Path first = ArgFiles.argFile(dir, "java", Arrays.asList("-cp", "first.jar"));
+            Path javac = ArgFiles.argFile(dir, "javac", Arrays.asList("-cp", "first.jar"));
+            Files.setLastModifiedTime(first, FileTime.fromMillis(System.currentTimeMillis() - 60_000));
+            Files.setLastModifiedTime(javac, FileTime.fromMillis(System.currentTimeMillis() - 60_000));
+            for (int i = 0; i < 4; i++) {
+                ArgFiles.argFile(dir, "java", Arrays.asList("-cp", "other" + i + ".jar"));
+            }
+            assertFalse(Files.exists(first));
+            assertTrue(Files.exists(javac));
+            try (Stream<Path> files = Files.list(dir)) {
+                assertEquals(5, files.count());
+            }
+        } finally {
+            JkPathTree.of(dir).deleteRoot();
+        }
+    }
+
+    @Test
+    public void testPathingJar() throws Exception {
+        Path dir = Files.createTempDirectory("jeka-argfiles");
+        Path classDir = Files.createDirectories(dir.resolve("classes"));
+        Path jar = Paths.get("libs/foo.jar");
+        Path pathingJar = ArgFiles.pathingJar(dir, Arrays.asList(jar, classDir, dir.resolve("not-yet-created")));
+        try (JarFile jarFile = new JarFile(pathingJar.toFile())) {
+            String classPath = jarFile.getManifest().getMainAttributes().getValue(Attributes.Name.CLASS_PATH);
+            String[] entries = classPath.split(" ");
+            assertEquals(3, entries.length);
+            assertEquals(jar.toAbsolutePath().normalize().toUri().toString(), entries[0]);
+            assertEquals(classDir.toUri().toString(), entries[1]);
+            assertTrue(entries[2].endsWith("not-yet-created/"));
+        }
+        assertEquals(pathingJar, ArgFiles.pathingJar(dir, Arrays.asList(jar, classDir,
+                dir.resolve("not-yet-created"))));
+    }
+
+}
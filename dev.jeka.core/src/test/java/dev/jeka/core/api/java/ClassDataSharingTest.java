@@ -0,0 +1,123 @@
+package dev.jeka.core.api.java;
+
+import dev.jeka.core.api.file.JkPathTree;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ClassDataSharingTest {
+
+    @Test
+    public void testOptionsDependOnJavaVersion() throws Exception {
+        Path dir = Files.createTempDirectory("jeka-cds");
+        try {
+            Path cacheDir = dir.resolve("cache");
+            List<Path> classpath = Collections.singletonList(jar(dir));
+
+            ClassDataSharing tooOld = ClassDataSharing.of(cacheDir, javaDir(dir, "1.8.0_292"), classpath, "Main");
+            assertFalse(tooOld.isActive());
+            assertTrue(tooOld.getOptions().isEmpty());
+
+            ClassDataSharing dynamic = ClassDataSharing.of(cacheDir, javaDir(dir, "17.0.2"), classpath, "Main");
+            assertTrue(dynamic.isActive());
+            assertTrue(dynamic.getOptions().stream()
+                    .anyMatch(option -> option.startsWith("-XX:ArchiveClassesAtExit=")));
+
+            ClassDataSharing autoCreate = ClassDataSharing.of(cacheDir, javaDir(dir, "21"), classpath, "Main");
+            assertTrue(autoCreate.getOptions().contains("-XX:+AutoCreateSharedArchive"));
+            assertNotNull(archive(autoCreate));
+        } finally {
+            JkPathTree.of(dir).deleteRoot();
+        }
+    }
+
+    @Test
+    public void testArchiveIsKeyedByClasspath() throws Exception {
+        Path dir = Files.createTempDirectory("jeka-cds");
+        try {
+            Path cacheDir = dir.resolve("cache");
+            Path javaDir = javaDir(dir, "21");
+            Path jar = jar(dir);
+            List<Path> classpath = Collections.singletonList(jar);
+            Path archive = archive(ClassDataSharing.of(cacheDir, javaDir, classpath, "Main"));
+            assertEquals(archive, archive(ClassDataSharing.of(cacheDir, javaDir, classpath, "Main")));
+            assertNotEquals(archive, archive(ClassDataSharing.of(cacheDir, javaDir, classpath, "Other")));
+
+            Files.setLastModifiedTime(jar, FileTime.fromMillis(Files.getLastModifiedTime(jar).toMillis() + 5000));
+            assertNotEquals(archive, archive(ClassDataSharing.of(cacheDir, javaDir, classpath, "Main")));
+        } finally {
+            JkPathTree.of(dir).deleteRoot();
+        }
+    }
+
+    @Test
+    public void testArchivesOfOtherModulesAreKept() throws Exception {
+        Path dir = Files.createTempDirectory("jeka-cds");
+        try {
+            Path cacheDir = dir.resolve("cache");
+            Path javaDir = javaDir(dir, "21");
+            Path jar = jar(dir);
+            Path moduleA = Files.createDirectories(dir.resolve("a/classes"));
+            Path moduleB = Files.createDirectories(dir.resolve("b/classes"));
+            Path archiveA = archive(ClassDataSharing.of(cacheDir, javaDir, Arrays.asList(jar, moduleA), "Main"));
+            Files.write(archiveA, new byte[] {1});
+            Path archiveB = archive(ClassDataSharing.of(cacheDir, javaDir, Arrays.asList(jar, moduleB), "Main"));
+            assertNotEquals(archiveA, archiveB);
+            assertTrue(Files.exists(archiveA));
+
+            // A classpath change in the same module makes its previous archive obsolete
+            Files.setLastModifiedTime(jar, FileTime.fromMillis(Files.getLastModifiedTime(jar).toMillis() + 5000));
+            ClassDataSharing.of(cacheDir, javaDir, Arrays.asList(jar, moduleA), "Main");
+            assertFalse(Files.exists(archiveA));
+        } finally {
+            JkPathTree.of(dir).deleteRoot();
+        }
+    }
+
+    @Test
+    public void testDirectoryBeforeJarIsNotSupported() throws Exception {
+        Path dir = Files.createTempDirectory("jeka-cds");
+        try {
+            Path cacheDir = dir.resolve("cache");
+            Path classDir = Files.createDirectories(dir.resolve("classes"));
+            ClassDataSharing classDataSharing = ClassDataSharing.of(cacheDir, javaDir(dir, "21"),
+                    Arrays.asList(classDir, jar(dir)), "Main");
+            assertFalse(classDataSharing.isActive());
+            assertTrue(ClassDataSharing.of(cacheDir, javaDir(dir, "21"), Arrays.asList(jar(dir), classDir), "Main")
+                    .isActive());
+        } finally {
+            JkPathTree.of(dir).deleteRoot();
+        }
+    }
+
+    // Creates a fake JDK bin directory whose release file mentions the specified version
+    private static Path javaDir(Path dir, String version) throws Exception {
+        Path home = Files.createDirectories(dir.resolve("jdk-" + version));
+        Files.write(home.resolve("release"), ("JAVA_VERSION=\"" + version + "\"\n").getBytes("UTF-8"));
+        return Files.createDirectories(home.resolve("bin"));
+    }
+
+    private static Path jar(Path dir) throws Exception {
+        Path jar = dir.resolve("lib.jar");
+        if (!Files.exists(jar)) {
+            Files.write(jar, new byte[] {1});
+        }
+        return jar;
+    }
+
+    private static Path archive(ClassDataSharing classDataSharing) {
+        return classDataSharing.getOptions().stream()
+                .filter(option -> option.startsWith("-XX:SharedArchiveFile="))
+                .map(option -> Paths.get(option.substring("-XX:SharedArchiveFile=".length())))
+                .findFirst().orElse(null);
+    }
+
+}
@@ -0,0 +1,85 @@
+package dev.jeka.core.api.java;
+
+import dev.jeka.core.api.utils.JkUtilsReflect;
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.Assert.*;
+
+public class JkInternalClassloaderTest {
+
+    @Test
+    public void sharingJars_classInJar_takesPrecedenceOverDir() throws Exception {
+        Path dir = Files.createTempDirectory("jeka-classloader");
+        Path classDir = compile(dir, "dir", "public static String get() { return \"dir\"; }");
+        Path jar = jar(compile(dir, "jar", "public static String get() { return \"jar\"; }"),
+                dir.resolve("value.jar"));
+        JkClassLoader classLoader = JkInternalClassloader.ofMainEmbeddedLibsSharingJars(
+                Arrays.asList(classDir, jar)).get();
+        assertEquals("jar", JkUtilsReflect.invokeStaticMethod(classLoader.load("lay.Value"), "get"));
+    }
+
+    @Test
+    public void sharingJars_leastRecentlyUsedLayer_isClosed() throws Exception {
+        Path dir = Files.createTempDirectory("jeka-classloader");
+        Path jar = jar(compile(dir, "first", ""), dir.resolve("first.jar"));
+        ClassLoader firstLayer = JkInternalClassloader.ofMainEmbeddedLibsSharingJars(
+                Collections.singletonList(jar)).get().get().getParent();
+        assertNotNull(firstLayer.getResource("lay/Value.class"));
+        for (int i = 0; i < 4; i++) {
+            Path otherJar = jar(compile(dir, "other" + i, ""), dir.resolve("other" + i + ".jar"));
+            JkInternalClassloader.ofMainEmbeddedLibsSharingJars(Collections.singletonList(otherJar));
+        }
+        assertNull(firstLayer.getResource("lay/Value.class"));
+    }
+
+    @Test
+    public void isolated_sameEntries_sameClassloaderHidingJekaClasses() throws Exception {
+        Path dir = Files.createTempDirectory("jeka-classloader");
+        Path jar = jar(compile(dir, "isolated", ""), dir.resolve("isolated.jar"));
+        JkClassLoader classLoader = JkInternalClassloader.ofIsolated(Collections.singletonList(jar)).get();
+        assertSame(classLoader.get(), JkInternalClassloader.ofIsolated(Collections.singletonList(jar)).get().get());
+        assertNotNull(classLoader.load("lay.Value"));
+        assertNotNull(classLoader.load("java.util.List"));
+        assertNull(classLoader.get().getResource(JkClassLoader.class.getName().replace('.', '/') + ".class"));
+    }
+
+    @Test
+    public void isolated_leastRecentlyUsed_isClosed() throws Exception {
+        Path dir = Files.createTempDirectory("jeka-classloader");
+        Path jar = jar(compile(dir, "first", ""), dir.resolve("first.jar"));
+        ClassLoader first = JkInternalClassloader.ofIsolated(Collections.singletonList(jar)).get().get();
+        assertNotNull(first.getResource("lay/Value.class"));
+        for (int i = 0; i < 4; i++) {
+            Path otherJar = jar(compile(dir, "other" + i, ""), dir.resolve("other" + i + ".jar"));
+            JkInternalClassloader.ofIsolated(Collections.singletonList(otherJar));
+        }
+        assertNull(first.getResource("lay/Value.class"));
+    }
+
+    private static Path compile(Path dir, String name, String body) throws Exception {
+        Path source = dir.resolve(name + "-src/lay/Value.java");
+        Files.createDirectories(source.getParent());
+        Files.write(source, ("package lay; public class Value { " + body + " }").getBytes("UTF-8"));
+        Path classDir = dir.resolve(name + "-classes");
+        assertTrue(JkJavaCompiler.of().compile(JkJavaCompileSpec.of().setOutputDir(classDir).addSources(source)));
+        return classDir;
+    }
+
+    private static Path jar(Path classDir, Path jar) throws Exception {
+        try (OutputStream out = Files.newOutputStream(jar); JarOutputStream jarOut = new JarOutputStream(out)) {
+            jarOut.putNextEntry(new JarEntry("lay/Value.class"));
+            jarOut.write(Files.readAllBytes(classDir.resolve("lay/Value.class")));
+            jarOut.closeEntry();
+        }
+        return jar;
+    }
+
+}
@@ -2,6 +2,14 @@ package dev.jeka.core.api.java;
 
 import org.junit.Test;
 
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
 import static org.junit.Assert.*;
 
 public class JkJavaCompilerTest {
@@ -12,4 +20,38 @@ public class JkJavaCompilerTest {
         assertEquals("8", JkJavaCompiler.runningJdkVersion("1.8.0_211"));
         assertEquals("9", JkJavaCompiler.runningJdkVersion("9.0.1"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void warmFileManagerSeesChangedJars() throws Exception {
+        Path dir = Files.createTempDirectory("jeka-compile");
+        Path jar = dir.resolve("lib.jar");
+        writeLibJar(dir, jar, "public class Lib { public static int foo() { return 1; } }");
+        Path source = dir.resolve("src/Main.java");
+        Files.createDirectories(source.getParent());
+        Files.write(source, "public class Main { int value = Lib.foo(); }".getBytes("UTF-8"));
+        JkJavaCompileSpec<Void> spec = JkJavaCompileSpec.of()
+                .setOutputDir(dir.resolve("classes"))
+                .setClasspath(Collections.singletonList(jar))
+                .addSources(source);
+        assertTrue(JkJavaCompiler.of().compile(spec));
+        assertTrue(JkJavaCompiler.of().compile(spec));
+
+        writeLibJar(dir, jar, "public class Lib { public static int bar() { return 1; } }");
+        Files.setLastModifiedTime(jar, FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+        assertFalse(JkJavaCompiler.of().compile(spec));
+    }
+
+    private static void writeLibJar(Path dir, Path jar, String code) throws Exception {
+        Path libSource = dir.resolve("lib-src/Lib.java");
+        Path libClasses = dir.resolve("lib-classes");
+        Files.createDirectories(libSource.getParent());
+        Files.write(libSource, code.getBytes("UTF-8"));
+        assertTrue(JkJavaCompiler.of().compile(JkJavaCompileSpec.of().setOutputDir(libClasses).addSources(libSource)));
+        try (OutputStream out = Files.newOutputStream(jar); JarOutputStream jarOut = new JarOutputStream(out)) {
+            jarOut.putNextEntry(new JarEntry("Lib.class"));
+            jarOut.write(Files.readAllBytes(libClasses.resolve("Lib.class")));
+            jarOut.closeEntry();
+        }
+    }
+
+}
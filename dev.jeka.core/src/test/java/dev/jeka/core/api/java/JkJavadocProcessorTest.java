@@ -0,0 +1,60 @@
+package dev.jeka.core.api.java;
+
+import dev.jeka.core.api.file.JkPathTreeSet;
+import org.junit.Test;
+
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.Assert.*;
+
+public class JkJavadocProcessorTest {
+
+    @Test
+    public void sharedFileManagerDoesNotLeakBetweenRuns() throws Exception {
+        Path dir = Files.createTempDirectory("jeka-javadoc");
+        Path jar = dir.resolve("lib.jar");
+        writeLibJar(dir, jar, "Lib");
+        Path srcDir = dir.resolve("src");
+        Path source = srcDir.resolve("foo/Main.java");
+        Files.createDirectories(source.getParent());
+        Files.write(source, "package foo; public class Main { public lib.Lib lib() { return null; } }".getBytes("UTF-8"));
+        JkJavadocProcessor<Void> processor = JkJavadocProcessor.of().setInProcess(true);
+        List<Path> classpath = Collections.singletonList(jar);
+        assertTrue(make(processor, classpath, srcDir, dir.resolve("doc1")));
+
+        // Classpath of the previous run is not reused
+        assertFalse(make(processor, Collections.emptyList(), srcDir, dir.resolve("doc2")));
+
+        // Changed jars are read again
+        writeLibJar(dir, jar, "Other");
+        Files.setLastModifiedTime(jar, FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+        assertFalse(make(processor, classpath, srcDir, dir.resolve("doc3")));
+    }
+
+    // Returns true if the generation has succeeded
+    private static boolean make(JkJavadocProcessor<?> processor, List<Path> classpath, Path srcDir, Path outputDir) {
+        processor.make(classpath, JkPathTreeSet.of(srcDir), outputDir);
+        return Files.exists(outputDir.resolveSibling(outputDir.getFileName() + ".fingerprint"));
+    }
+
+    private static void writeLibJar(Path dir, Path jar, String className) throws Exception {
+        Path libSource = dir.resolve("lib-src/lib/" + className + ".java");
+        Path libClasses = dir.resolve("lib-classes");
+        Files.createDirectories(libSource.getParent());
+        Files.write(libSource, ("package lib; public class " + className + " {}").getBytes("UTF-8"));
+        assertTrue(JkJavaCompiler.of().compile(JkJavaCompileSpec.of().setOutputDir(libClasses).addSources(libSource)));
+        try (OutputStream out = Files.newOutputStream(jar); JarOutputStream jarOut = new JarOutputStream(out)) {
+            jarOut.putNextEntry(new JarEntry("lib/" + className + ".class"));
+            jarOut.write(Files.readAllBytes(libClasses.resolve("lib/" + className + ".class")));
+            jarOut.closeEntry();
+        }
+    }
+
+}
@@ -0,0 +1,65 @@
+package dev.jeka.core.api.java.project;
+
+import dev.jeka.core.api.file.JkPathTree;
+import dev.jeka.core.api.java.JkJavaCompileSpec;
+import dev.jeka.core.api.java.JkJavaCompiler;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.Assert.*;
+
+public class ClassAbiTest {
+
+    @Test
+    public void testHash() throws Exception {
+        Path dir = Files.createTempDirectory("jeka-abi");
+        try {
+            String reference = hash(dir, "public class Foo { public static final int MAX = 1; "
+                    + "public int foo() { return 1; } }");
+            assertEquals(reference, hash(dir, "public class Foo { public static final int MAX = 1; "
+                    + "public int foo() { return helper() + 1; } private int helper() { return 0; } }"));
+            assertNotEquals(reference, hash(dir, "public class Foo { public static final int MAX = 2; "
+                    + "public int foo() { return 1; } }"));
+            assertNotEquals(reference, hash(dir, "public class Foo { public static final int MAX = 1; "
+                    + "public int foo() { return 1; } protected void bar() {} }"));
+            assertNotEquals(reference, hash(dir, "public class Foo { public static final int MAX = 1; "
+                    + "@Deprecated public int foo() { return 1; } }"));
+
+            // Package-private members are visible from the same package, possibly in another project
+            assertNotEquals(reference, hash(dir, "public class Foo { public static final int MAX = 1; "
+                    + "public int foo() { return 1; } int other; }"));
+        } finally {
+            JkPathTree.of(dir).deleteRoot();
+        }
+    }
+
+    @Test
+    public void testHashInheritedFromPackagePrivateClass() throws Exception {
+        Path dir = Files.createTempDirectory("jeka-abi");
+        try {
+            String reference = hash(dir, "class Base { public int foo() { return 1; } } "
+                    + "public class Foo extends Base {}");
+            assertEquals(reference, hash(dir, "class Base { public int foo() { return 2; } } "
+                    + "public class Foo extends Base {}"));
+            assertNotEquals(reference, hash(dir, "class Base { public long foo() { return 1; } } "
+                    + "public class Foo extends Base {}"));
+        } finally {
+            JkPathTree.of(dir).deleteRoot();
+        }
+    }
+
+    private static String hash(Path dir, String code) throws Exception {
+        Path source = dir.resolve("src/Foo.java");
+        Path classes = dir.resolve("classes");
+        Files.createDirectories(source.getParent());
+        Files.write(source, code.getBytes("UTF-8"));
+        if (Files.exists(classes)) {
+            JkPathTree.of(classes).deleteContent();
+        }
+        assertTrue(JkJavaCompiler.of().compile(JkJavaCompileSpec.of().setOutputDir(classes).addSources(source)));
+        return ClassAbi.hash(classes);
+    }
+
+}
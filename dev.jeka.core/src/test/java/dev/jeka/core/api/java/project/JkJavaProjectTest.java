@@ -4,8 +4,12 @@ import dev.jeka.core.api.depmanagement.JkDependencySet;
 import dev.jeka.core.api.depmanagement.JkDependencySet.Hint;
 import dev.jeka.core.api.depmanagement.JkPopularModules;
 import dev.jeka.core.api.depmanagement.JkQualifiedDependencySet;
+import dev.jeka.core.api.depmanagement.JkRepo;
 import dev.jeka.core.api.depmanagement.JkTransitivity;
+import dev.jeka.core.api.depmanagement.resolution.JkResolveResult;
+import dev.jeka.core.api.file.JkPathMatcher;
 import dev.jeka.core.api.file.JkPathTree;
+import dev.jeka.core.api.java.JkJarPacker;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -14,6 +18,9 @@ import java.net.URISyntaxException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.zip.ZipFile;
 
 public class JkJavaProjectTest {
 
@@ -178,4 +185,76 @@ public class JkJavaProjectTest {
         System.out.println("unzipped in " + dest);
         return dest;
     }
+
+    @Test
+    public void resolveDependencies_sameDependencies_resolvedOnce() throws Exception {
+        Path jar1 = Files.createTempFile("jeka-dep", ".jar");
+        Path jar2 = Files.createTempFile("jeka-dep", ".jar");
+        JkJavaProjectConstruction construction = JkJavaProject.of().simpleFacade()
+                .setCompileDependencies(deps -> deps.andFiles(jar1))
+                .getProject().getConstruction();
+        JkResolveResult first = construction.getCompilation().resolveDependencies();
+        Assert.assertSame(first, construction.getCompilation().resolveDependencies());
+        Assert.assertSame(first, construction.resolveDependencies(JkDependencySet.of().andFiles(jar1)));
+        construction.getCompilation().setDependencies(deps -> deps.andFiles(jar2));
+        JkResolveResult second = construction.getCompilation().resolveDependencies();
+        Assert.assertNotSame(first, second);
+        Assert.assertEquals(2, second.getFiles().getEntries().size());
+        construction.getDependencyResolver().setNativeMaven(!construction.getDependencyResolver().isNativeMaven());
+        JkResolveResult third = construction.getCompilation().resolveDependencies();
+        Assert.assertNotSame(second, third);
+
+        // Repositories are compared on their settings, not only on their url
+        JkRepo repo = construction.getDependencyResolver().getRepos().getRepos().get(0);
+        repo.setCredentials("user", "secret");
+        JkResolveResult fourth = construction.getCompilation().resolveDependencies();
+        Assert.assertNotSame(third, fourth);
+        repo.setMetadataTtl(Duration.ofHours(1));
+        Assert.assertNotSame(fourth, construction.getCompilation().resolveDependencies());
+    }
+
+    @Test
+    public void toDependency_dependingOnClassDir_noJarProduced() throws Exception {
+        Path top = Files.createTempDirectory("jeka-class-dir-dependency");
+        try {
+            Path baseSources = Files.createDirectories(top.resolve("base/src/main/java/base"));
+            Files.write(baseSources.resolve("Base.java"),
+                    "package base; public class Base { public static int value() { return 1; } }".getBytes());
+            Path baseResources = Files.createDirectories(top.resolve("base/src/main/resources"));
+            Files.write(baseResources.resolve("base.properties"), "key=value".getBytes());
+            Path coreSources = Files.createDirectories(top.resolve("core/src/main/java/core"));
+            Files.write(coreSources.resolve("Core.java"),
+                    "package core; public class Core { int value = base.Base.value(); }".getBytes());
+            JkJavaProject baseProject = JkJavaProject.of()
+                    .setBaseDir(top.resolve("base"))
+                    .setDependingOnClassDir(true);
+            JkJavaProject coreProject = JkJavaProject.of().simpleFacade()
+                    .setBaseDir(top.resolve("core"))
+                    .setCompileDependencies(deps -> deps.and(baseProject.toDependency()))
+                    .getProject();
+
+            coreProject.getConstruction().getCompilation().run();
+
+            Path baseClassDir = baseProject.getConstruction().getCompilation().getLayout().resolveClassDir();
+            Path coreClassDir = coreProject.getConstruction().getCompilation().getLayout().resolveClassDir();
+            Assert.assertTrue(Files.exists(baseClassDir.resolve("base.properties")));
+            Assert.assertTrue(Files.exists(coreClassDir.resolve("core/Core.class")));
+            Assert.assertFalse(Files.exists(baseProject.getArtifactPath(
+                    baseProject.getPublication().getArtifactProducer().getMainArtifactId())));
+            Assert.assertTrue(coreProject.getConstruction().getCompilation().resolveDependencies().getFiles()
+                    .getEntries().contains(baseClassDir));
+
+            // Class dirs are merged in fat jars as jars are
+            Path fatJar = top.resolve("core-fat.jar");
+            JkJarPacker.of(coreClassDir).makeFatJar(fatJar, Collections.singletonList(baseClassDir),
+                    JkPathMatcher.of());
+            try (ZipFile zipFile = new ZipFile(fatJar.toFile())) {
+                Assert.assertNotNull(zipFile.getEntry("base/Base.class"));
+                Assert.assertNotNull(zipFile.getEntry("core/Core.class"));
+            }
+        } finally {
+            JkPathTree.of(top).deleteRoot();
+        }
+    }
+
 }
@@ -0,0 +1,29 @@
+package dev.jeka.core.api.java.testing;
+
+import dev.jeka.core.api.java.testing.JkTestProcessor.JkParallelMode;
+import dev.jeka.core.api.java.testing.JkTestProcessor.JkParallelStrategy;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class JkTestProcessorTest {
+
+    @Test
+    public void testParallelConfigurationParameters() {
+        JkTestProcessor.JkEngineBehavior<Void> engineBehavior = JkTestProcessor.of().getEngineBehavior();
+        assertTrue(engineBehavior.getConfigurationParameters().isEmpty());
+
+        engineBehavior.setParallelMode(JkParallelMode.CLASSES)
+                .setParallelism(JkParallelStrategy.FIXED, 4)
+                .addConfigurationParameter("junit.jupiter.execution.parallel.mode.default", "concurrent");
+        Map<String, String> parameters = engineBehavior.getConfigurationParameters();
+        assertEquals("true", parameters.get("junit.jupiter.execution.parallel.enabled"));
+        assertEquals("concurrent", parameters.get("junit.jupiter.execution.parallel.mode.classes.default"));
+        assertEquals("concurrent", parameters.get("junit.jupiter.execution.parallel.mode.default"));
+        assertEquals("fixed", parameters.get("junit.jupiter.execution.parallel.config.strategy"));
+        assertEquals("4", parameters.get("junit.jupiter.execution.parallel.config.fixed.parallelism"));
+    }
+
+}
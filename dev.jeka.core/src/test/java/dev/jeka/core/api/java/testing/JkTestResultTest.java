@@ -0,0 +1,41 @@
+package dev.jeka.core.api.java.testing;
+
+import dev.jeka.core.api.java.testing.JkTestResult.JkTimings;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import static org.junit.Assert.*;
+
+public class JkTestResultTest {
+
+    @Test
+    public void testTimings() {
+        JkTimings timings = JkTimings.of(
+                new String[] {"foo", "foo-1", "foo-2", "bar", "bar-1"},
+                new String[] {"FooTest", "test1()", "test2()", "BarTest", "test1()"},
+                new String[] {"my.FooTest", "my.FooTest", "my.FooTest", "my.BarTest", "my.BarTest"},
+                new boolean[] {true, false, false, true, false},
+                new long[] {0, 0, 10, 20, 20},
+                new long[] {15000, 3000, 12000, 40000, 39000});
+        assertEquals(Arrays.asList(4, 2), timings.getSlowestTests(2));
+        assertEquals(15000L, timings.getClassDurations().get("my.FooTest").longValue());
+        assertEquals(40000L, timings.getClassDurations().get("my.BarTest").longValue());
+        assertEquals(3, timings.forClass("my.FooTest").size());
+
+        JkTimings previous = JkTimings.of(new String[] {"foo-1", "baz-1"}, new String[] {"test1()", "test1()"},
+                new String[] {"my.FooTest", "my.BazTest"}, new boolean[2], new long[2], new long[] {5000, 7000});
+        JkTimings merged = timings.forClass("my.FooTest").withFallback(previous);
+        assertEquals(4, merged.size());
+        assertEquals(3000L, merged.getDurationMicros(merged.indexOf("foo-1")));
+        assertEquals(7000L, merged.getDurationMicros(merged.indexOf("baz-1")));
+        assertEquals(-1, merged.indexOf("bar-1"));
+
+        // Timings of removed classes can be dropped
+        JkTimings pruned = timings.withFallback(previous.forClasses(new HashSet<>(Arrays.asList("my.FooTest"))));
+        assertEquals(timings.size(), pruned.size());
+        assertEquals(-1, pruned.indexOf("baz-1"));
+    }
+
+}
@@ -0,0 +1,91 @@
+package dev.jeka.core.api.java.testing;
+
+import dev.jeka.core.api.file.JkPathTree;
+import org.junit.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class TestImpactAnalysisTest {
+
+    @Test
+    public void testReferencedClasses() throws Exception {
+        Path classFile = Paths.get(TestImpactAnalysis.class.getResource("TestImpactAnalysis.class").toURI());
+        byte[] bytes = Files.readAllBytes(classFile);
+        assertTrue(TestImpactAnalysis.referencedClasses(bytes).contains("dev.jeka.core.api.utils.JkUtilsPath"));
+        assertTrue(TestImpactAnalysis.referencedClasses(bytes).contains("java.util.regex.Pattern"));
+    }
+
+    @Test
+    public void testAffectedClasses() throws Exception {
+        Path dir = Files.createTempDirectory("jeka-impact");
+        Path classes = dir.resolve("classes");
+        Path testClasses = dir.resolve("test-classes");
+        Path stateFile = dir.resolve("state.ser");
+        compile(dir, classes, "a.Foo", "package a; public class Foo { public int foo() { return 1; } }");
+        compile(dir, classes, "a.Bar", "package a; public class Bar { public int bar() { return 1; } }");
+        compile(dir, testClasses, "a.FooTest", "package a; public class FooTest { " +
+                "class Nested { int value = new Foo().foo(); } }", classes);
+        compile(dir, testClasses, "a.BarTest", "package a; public class BarTest { int value = new Bar().bar(); }",
+                classes);
+        List<Path> classpath = Arrays.asList(testClasses, classes);
+        List<String> testClassNames = Arrays.asList("a.FooTest", "a.BarTest");
+
+        TestImpactAnalysis analysis = TestImpactAnalysis.of(stateFile, classpath);
+        assertTrue(analysis.isFullRunNeeded());
+        analysis.store();
+
+        analysis = TestImpactAnalysis.of(stateFile, classpath);
+        assertFalse(analysis.isFullRunNeeded());
+        assertEquals(Collections.emptySet(), analysis.getAffectedClasses(testClassNames));
+
+        compile(dir, classes, "a.Foo", "package a; public class Foo { public int foo() { return 2; } }");
+        analysis = TestImpactAnalysis.of(stateFile, classpath);
+        assertFalse(analysis.isFullRunNeeded());
+        assertEquals(Collections.singleton("a.FooTest"), analysis.getAffectedClasses(testClassNames));
+
+        Files.write(classes.resolve("config.properties"), "foo=bar".getBytes("UTF-8"));
+        assertTrue(TestImpactAnalysis.of(stateFile, classpath).isFullRunNeeded());
+    }
+
+    @Test
+    public void testUnreadableClassLeadsToFullRun() throws Exception {
+        Path dir = Files.createTempDirectory("jeka-impact");
+        try {
+            Path classes = dir.resolve("classes");
+            Path stateFile = dir.resolve("state.ser");
+            compile(dir, classes, "a.Foo", "package a; public class Foo {}");
+            List<Path> classpath = Collections.singletonList(classes);
+            TestImpactAnalysis.of(stateFile, classpath).store();
+            assertFalse(TestImpactAnalysis.of(stateFile, classpath).isFullRunNeeded());
+
+            // Class file header followed by a constant pool tag unknown from the reader
+            byte[] unknownTag = {(byte) 0xCA, (byte) 0xFE, (byte) 0xBA, (byte) 0xBE, 0, 0, 0, 99, 0, 2, 99};
+            Files.write(classes.resolve("a/Future.class"), unknownTag);
+            assertTrue(TestImpactAnalysis.of(stateFile, classpath).isFullRunNeeded());
+        } finally {
+            JkPathTree.of(dir).deleteRoot();
+        }
+    }
+
+    private static void compile(Path workDir, Path outputDir, String className, String code, Path... classpath)
+            throws Exception {
+        Path source = workDir.resolve("src").resolve(className.replace('.', '/') + ".java");
+        Files.createDirectories(source.getParent());
+        Files.createDirectories(outputDir);
+        Files.write(source, code.getBytes("UTF-8"));
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        String cp = classpath.length == 0 ? outputDir.toString() : classpath[0].toString();
+        int result = compiler.run(null, null, null, "-d", outputDir.toString(), "-cp", cp, source.toString());
+        assertEquals(0, result);
+    }
+
+}
@@ -0,0 +1,114 @@
+package dev.jeka.core.api.java.testing;
+
+import dev.jeka.core.api.java.JkJavaCompileSpec;
+import dev.jeka.core.api.java.JkJavaCompiler;
+import dev.jeka.core.api.java.testing.JkTestResult.JkClassResult;
+import dev.jeka.core.api.java.testing.JkTestResult.JkCount;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class TestResultCacheTest {
+
+    @Test
+    public void testPerClassInvalidation() throws Exception {
+        Path dir = Files.createTempDirectory("jeka-test-cache");
+        Path prodClasses = Files.createDirectories(dir.resolve("classes"));
+        Path testClasses = Files.createDirectories(dir.resolve("test-classes/my"));
+        write(prodClasses.resolve("Foo.class"), "foo");
+        write(testClasses.resolve("FooTest.class"), "foo-test");
+        write(testClasses.resolve("FooTest$Nested.class"), "foo-test-nested");
+        write(testClasses.resolve("BarTest.class"), "bar-test");
+        write(testClasses.resolve("Helper.class"), "helper");
+        Path cacheFile = dir.resolve("cache.ser");
+        JkTestSelection<Void> selection = JkTestSelection.of()
+                .addTestClassRoots(dir.resolve("test-classes"))
+                .addIncludeStandardPatterns();
+        List<Path> classpath = Arrays.asList(dir.resolve("test-classes"), prodClasses);
+
+        TestResultCache cache = TestResultCache.of(cacheFile, classpath, selection, Collections.emptyList());
+        assertTrue(cache.isPerClass());
+        assertEquals(set("my.BarTest", "my.FooTest"), cache.getStaleKeys());
+        assertNull(cache.getCachedResult());
+        cache.store(result(classResult("my.FooTest", 2, 0), classResult("my.BarTest", 1, 1)));
+
+        cache = TestResultCache.of(cacheFile, classpath, selection, Collections.emptyList());
+        assertTrue(cache.getStaleKeys().isEmpty());
+        assertEquals(3, cache.getCachedResult().getTestCount().getSucceded());
+        assertEquals(1, cache.getCachedResult().getTestCount().getFailed());
+
+        write(testClasses.resolve("FooTest$Nested.class"), "foo-test-nested-changed");
+        cache = TestResultCache.of(cacheFile, classpath, selection, Collections.emptyList());
+        assertEquals(set("my.FooTest"), cache.getStaleKeys());
+        assertEquals(1, cache.getCachedCount());
+        cache.store(result(classResult("my.FooTest", 2, 0)));
+
+        write(testClasses.resolve("Helper.class"), "helper-changed");
+        cache = TestResultCache.of(cacheFile, classpath, selection, Collections.emptyList());
+        assertEquals(set("my.BarTest", "my.FooTest"), cache.getStaleKeys());
+
+        cache = TestResultCache.of(cacheFile, classpath, selection, Collections.singletonList("-Xmx1g"));
+        assertEquals(2, cache.getStaleKeys().size());
+    }
+
+    @Test
+    public void testBaseTestClassChangeInvalidatesSubclasses() throws Exception {
+        Path dir = Files.createTempDirectory("jeka-test-cache");
+        Path testClasses = dir.resolve("test-classes");
+        compile(dir, testClasses, "AbstractFooTest", "public abstract class AbstractFooTest { int value() { return 1; } }");
+        compile(dir, testClasses, "FooTest", "public class FooTest extends AbstractFooTest {}");
+        compile(dir, testClasses, "BarTest", "public class BarTest {}");
+        Path cacheFile = dir.resolve("cache.ser");
+        JkTestSelection<Void> selection = JkTestSelection.of()
+                .addTestClassRoots(testClasses)
+                .addIncludeStandardPatterns();
+        List<Path> classpath = Collections.singletonList(testClasses);
+        TestResultCache cache = TestResultCache.of(cacheFile, classpath, selection, Collections.emptyList());
+        assertEquals(set("my.AbstractFooTest", "my.BarTest", "my.FooTest"), cache.getStaleKeys());
+        cache.store(result(classResult("my.FooTest", 1, 0), classResult("my.BarTest", 1, 0)));
+
+        compile(dir, testClasses, "AbstractFooTest", "public abstract class AbstractFooTest { int value() { return 2; } }");
+        cache = TestResultCache.of(cacheFile, classpath, selection, Collections.emptyList());
+        assertTrue(cache.getStaleKeys().contains("my.FooTest"));
+    }
+
+    private static void compile(Path dir, Path outputDir, String className, String content) throws Exception {
+        Path source = dir.resolve("src/my/" + className + ".java");
+        Files.createDirectories(source.getParent());
+        write(source, "package my; " + content);
+        assertTrue(JkJavaCompiler.of().compile(JkJavaCompileSpec.of()
+                .setOutputDir(outputDir)
+                .setClasspath(Collections.singletonList(outputDir))
+                .addSources(source)));
+    }
+
+    private static void write(Path file, String content) throws Exception {
+        Files.write(file, content.getBytes("UTF-8"));
+    }
+
+    private static Set<String> set(String... values) {
+        return new LinkedHashSet<>(Arrays.asList(values));
+    }
+
+    private static JkClassResult classResult(String className, long succeeded, long failed) {
+        JkCount count = JkCount.of(succeeded + failed, succeeded + failed, 0, 0, succeeded, failed);
+        return JkClassResult.of(className, JkCount.ofZero(), count, Collections.emptyList());
+    }
+
+    private static JkTestResult result(JkClassResult... classResults) {
+        JkTestResult result = JkTestResult.of(classResults[0], JkTestResult.JkTimings.ofEmpty());
+        for (int i = 1; i < classResults.length; i++) {
+            result = result.and(JkTestResult.of(classResults[i], JkTestResult.JkTimings.ofEmpty()));
+        }
+        return result;
+    }
+
+}
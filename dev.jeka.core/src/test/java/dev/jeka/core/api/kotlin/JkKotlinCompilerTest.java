@@ -0,0 +1,55 @@
+package dev.jeka.core.api.kotlin;
+
+import dev.jeka.core.api.depmanagement.JkRepo;
+import dev.jeka.core.api.depmanagement.resolution.JkDependencyResolver;
+import dev.jeka.core.api.file.JkPathTree;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.ResourceBundle;
+
+import static org.junit.Assert.*;
+
+public class JkKotlinCompilerTest {
+
+    @Test
+    public void embedded_compiledTwice_producesClassesAndRestoresKeepalive() throws Exception {
+
+        // Embedded Kotlin compiler needs reflective access to JDK internals
+        Assume.assumeTrue(isAccessible(ResourceBundle.class, "setParent", ResourceBundle.class));
+        Path dir = Files.createTempDirectory("jeka-kotlin");
+        try {
+            Path source = dir.resolve("src/my/Foo.kt");
+            Files.createDirectories(source.getParent());
+            Files.write(source, "package my\nclass Foo { fun size() = listOf(1, 2).size }\n".getBytes("UTF-8"));
+            JkKotlinCompiler compiler = JkKotlinCompiler.ofEmbedded(
+                    JkDependencyResolver.of().addRepos(JkRepo.ofMavenCentral()));
+            assertTrue(compiler.getStdLib().getFileName().toString()
+                    .contains(JkKotlinCompiler.DEFAULT_EMBEDDED_VERSION));
+            String keepalive = System.getProperty("kotlin.environment.keepalive");
+            for (String output : new String[] {"classes1", "classes2"}) {
+                JkKotlinJvmCompileSpec spec = JkKotlinJvmCompileSpec.of()
+                        .addSources(Collections.singletonList(dir.resolve("src")))
+                        .setOutputDir(dir.resolve(output));
+                assertTrue(compiler.compile(spec));
+                assertTrue(Files.exists(dir.resolve(output).resolve("my/Foo.class")));
+                assertEquals(keepalive, System.getProperty("kotlin.environment.keepalive"));
+            }
+        } finally {
+            JkPathTree.of(dir).deleteRoot();
+        }
+    }
+
+    private static boolean isAccessible(Class<?> clazz, String methodName, Class<?>... argTypes) {
+        try {
+            clazz.getDeclaredMethod(methodName, argTypes).setAccessible(true);
+            return true;
+        } catch (NoSuchMethodException | RuntimeException e) {
+            return false;
+        }
+    }
+
+}
@@ -0,0 +1,98 @@
+package dev.jeka.core.api.tooling;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.zip.DeflaterOutputStream;
+
+import static org.junit.Assert.*;
+
+public class GitMetadataReaderTest {
+
+    private static final String COMMIT = "1111111111111111111111111111111111111111";
+
+    private static final String OTHER_COMMIT = "2222222222222222222222222222222222222222";
+
+    private static final String TAG_OBJECT = "3333333333333333333333333333333333333333";
+
+    @Test
+    public void testLooseRefs() throws Exception {
+        Path repo = Files.createTempDirectory("jeka-git-test");
+        Path gitDir = Files.createDirectories(repo.resolve(".git"));
+        write(gitDir.resolve("HEAD"), "ref: refs/heads/feature/foo\n");
+        write(gitDir.resolve("refs/heads/feature/foo"), COMMIT + "\n");
+        write(gitDir.resolve("refs/tags/1.0"), COMMIT + "\n");
+        write(gitDir.resolve("refs/tags/0.9"), OTHER_COMMIT + "\n");
+        writeObject(gitDir, COMMIT, "commit 10\0tree 0000\n");
+        writeObject(gitDir, OTHER_COMMIT, "commit 10\0tree 0000\n");
+        Files.createDirectories(repo.resolve("sub/dir"));
+
+        GitMetadataReader reader = GitMetadataReader.of(repo.resolve("sub/dir"));
+        assertNotNull(reader);
+        assertEquals("feature/foo", reader.getCurrentBranch());
+        assertEquals(COMMIT, reader.getCurrentCommit());
+        assertEquals(Collections.singletonList("1.0"), reader.getTagsOfCurrentCommit());
+
+        // Cache must be refreshed when HEAD moves
+        write(gitDir.resolve("HEAD"), OTHER_COMMIT + "\n");
+        Files.setLastModifiedTime(gitDir.resolve("HEAD"),
+                java.nio.file.attribute.FileTime.fromMillis(System.currentTimeMillis() + 5000));
+        assertEquals("HEAD", reader.getCurrentBranch());
+        assertEquals(Collections.singletonList("0.9"), reader.getTagsOfCurrentCommit());
+    }
+
+    @Test
+    public void testPackedRefsAndAnnotatedTags() throws Exception {
+        Path repo = Files.createTempDirectory("jeka-git-test");
+        Path gitDir = Files.createDirectories(repo.resolve(".git"));
+        write(gitDir.resolve("HEAD"), "ref: refs/heads/master\n");
+        write(gitDir.resolve("packed-refs"), "# pack-refs with: peeled fully-peeled sorted \n"
+                + COMMIT + " refs/heads/master\n"
+                + TAG_OBJECT + " refs/tags/2.0-annotated\n"
+                + "^" + COMMIT + "\n"
+                + COMMIT + " refs/tags/2.0-light\n"
+                + OTHER_COMMIT + " refs/tags/old\n");
+        writeObject(gitDir, OTHER_COMMIT, "commit 10\0tree 0000\n");
+        write(gitDir.resolve("refs/tags/3.0"), "4444444444444444444444444444444444444444\n");
+        writeObject(gitDir, "4444444444444444444444444444444444444444",
+                "tag 120\0object " + COMMIT + "\ntype commit\ntag 3.0\n");
+
+        GitMetadataReader reader = GitMetadataReader.of(repo);
+        assertEquals("master", reader.getCurrentBranch());
+        assertEquals(COMMIT, reader.getCurrentCommit());
+        assertEquals(Arrays.asList("2.0-annotated", "2.0-light", "3.0"), reader.getTagsOfCurrentCommit());
+    }
+
+    @Test
+    public void testUnreadableLayoutReturnsNull() throws Exception {
+        Path repo = Files.createTempDirectory("jeka-git-test");
+        Path gitDir = Files.createDirectories(repo.resolve(".git"));
+        write(gitDir.resolve("HEAD"), "ref: refs/heads/master\n");
+        write(gitDir.resolve("refs/heads/master"), COMMIT + "\n");
+        write(gitDir.resolve("refs/tags/packed-object"), TAG_OBJECT + "\n");  // object not available as loose
+        GitMetadataReader reader = GitMetadataReader.of(repo);
+        assertNull(reader.getTagsOfCurrentCommit());
+    }
+
+    private static void write(Path file, String content) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void writeObject(Path gitDir, String id, String content) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DeflaterOutputStream outputStream = new DeflaterOutputStream(bytes)) {
+            outputStream.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        Path file = gitDir.resolve("objects").resolve(id.substring(0, 2)).resolve(id.substring(2));
+        Files.createDirectories(file.getParent());
+        Files.write(file, bytes.toByteArray());
+    }
+
+}
@@ -0,0 +1,54 @@
+package dev.jeka.core.tool;
+
+import org.junit.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+
+public class DefCompilationStateTest {
+
+    @Test
+    public void testChangesAndDependents() throws Exception {
+        Path dir = Files.createTempDirectory("jeka-def-state");
+        Path sourceDir = Files.createDirectories(dir.resolve("def/my"));
+        Path lib = dir.resolve("lib.jar");
+        write(lib, "lib");
+        write(sourceDir.resolve("Build.java"), "package my; class Build { Helper helper; }");
+        write(sourceDir.resolve("Helper.java"), "package my; class Helper { Util util; }");
+        write(sourceDir.resolve("Util.java"), "package my; class Util {}");
+        write(sourceDir.resolve("Other.java"), "package my; class Other {}");
+        Path defDir = dir.resolve("def");
+        DefCompilationState previous = DefCompilationState.of(defDir, Collections.singletonList(lib),
+                Collections.emptyList());
+
+        DefCompilationState state = DefCompilationState.of(defDir, Collections.singletonList(lib),
+                Collections.emptyList());
+        assertTrue(state.isSame(previous));
+        assertFalse(DefCompilationState.of(defDir, Collections.singletonList(lib), Collections.singletonList("-g"))
+                .hasSameClasspath(previous));
+
+        write(sourceDir.resolve("Util.java"), "package my; class Util { int i; }");
+        state = DefCompilationState.of(defDir, Collections.singletonList(lib), Collections.emptyList());
+        assertTrue(state.hasSameClasspath(previous));
+        Set<String> changed = state.changedSince(previous);
+        assertEquals(Collections.singleton("my/Util.java"), changed);
+        assertEquals(new TreeSet<>(Arrays.asList("my/Build.java", "my/Helper.java", "my/Util.java")),
+                state.javaSourcesDependingOn(defDir, changed));
+
+        Files.delete(sourceDir.resolve("Other.java"));
+        state = DefCompilationState.of(defDir, Collections.singletonList(lib), Collections.emptyList());
+        assertTrue(state.changedSince(previous).contains("my/Other.java"));
+        assertTrue(state.javaSourcesDependingOn(defDir, Collections.singleton("my/Other.java")).isEmpty());
+    }
+
+    private static void write(Path file, String content) throws Exception {
+        Files.write(file, content.getBytes("UTF-8"));
+    }
+
+}
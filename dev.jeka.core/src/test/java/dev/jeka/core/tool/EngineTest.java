@@ -0,0 +1,65 @@
+package dev.jeka.core.tool;
+
+import dev.jeka.core.api.file.JkPathSequence;
+import dev.jeka.core.api.file.JkPathTree;
+import dev.jeka.core.api.utils.JkUtilsPath;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ResourceBundle;
+
+import static org.junit.Assert.*;
+
+public class EngineTest {
+
+    @Test
+    public void compileDef_kotlinDefCompiledTwice_loadableEachTime() throws Exception {
+
+        // Def classloader and embedded Kotlin compiler need reflective access to JDK internals
+        Assume.assumeTrue(isAccessible(URLClassLoader.class, "addURL", URL.class));
+        Assume.assumeTrue(isAccessible(ResourceBundle.class, "setParent", ResourceBundle.class));
+        Path baseDir = Files.createTempDirectory("jeka-kotlin-def");
+        try {
+            Path source = baseDir.resolve(JkConstants.DEF_DIR).resolve("my/Build.kt");
+            Files.createDirectories(source.getParent());
+            Files.write(source, "package my\nclass Build { fun size() = listOf(\"a\", \"b\").size }\n"
+                    .getBytes("UTF-8"));
+            assertEquals(2, compileAndRun(baseDir));
+
+            // Compilation is skipped on the second run, as for a new Jeka process with unchanged def
+            assertEquals(2, compileAndRun(baseDir));
+        } finally {
+            JkPathTree.of(baseDir).deleteRoot();
+        }
+    }
+
+    private static boolean isAccessible(Class<?> clazz, String methodName, Class<?>... argTypes) {
+        try {
+            clazz.getDeclaredMethod(methodName, argTypes).setAccessible(true);
+            return true;
+        } catch (NoSuchMethodException | RuntimeException e) {
+            return false;
+        }
+    }
+
+    // Runs with a fresh def classloader, as each Jeka process does
+    private static Object compileAndRun(Path baseDir) throws Exception {
+        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        URLClassLoader defClassLoader = new URLClassLoader(new URL[0], EngineTest.class.getClassLoader());
+        Thread.currentThread().setContextClassLoader(defClassLoader);
+        try {
+            new Engine(baseDir).compileDef(JkPathSequence.of());
+            URLClassLoader classLoader = new URLClassLoader(
+                    new URL[] {JkUtilsPath.toUrl(baseDir.resolve(JkConstants.DEF_BIN_DIR))}, defClassLoader);
+            Class<?> buildClass = classLoader.loadClass("my.Build");
+            return buildClass.getMethod("size").invoke(buildClass.getConstructor().newInstance());
+        } finally {
+            Thread.currentThread().setContextClassLoader(contextClassLoader);
+        }
+    }
+
+}
@@ -1,7 +1,10 @@
 package dev.jeka.core.tool;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import org.junit.Assert;
 import org.junit.Test;
@@ -23,6 +26,20 @@ public class FieldInjectorTest {
         Assert.assertTrue(sample.c);
     }
 
+    @Test
+    public void testNonPublicFieldsWithSetterAndTypes() {
+        final Map<String, String> map = new HashMap<>();
+        map.put("d", "foo/bar");
+        map.put("e", "SECONDS");
+        map.put("f", "x");
+        final Sample sample = new Sample();
+        Assert.assertEquals(2, FieldInjector.inject(sample, map).size());
+        Assert.assertEquals(Paths.get("foo/bar"), sample.d);
+        Assert.assertEquals(TimeUnit.SECONDS, sample.e);
+        Assert.assertNull(sample.f);
+        Assert.assertEquals(FieldInjector.getOptionFields(Sample.class), FieldInjector.getOptionFields(Sample.class));
+    }
+
     private static final class Sample {
 
         @JkDoc("option for a")
@@ -34,6 +51,22 @@ public class FieldInjectorTest {
         @JkDoc("option for c")
         public boolean c;
 
+        @JkDoc("option for d")
+        private Path d;
+
+        @JkDoc("option for e")
+        TimeUnit e;
+
+        private String f;
+
+        public void setD(Path d) {
+            this.d = d;
+        }
+
+        public void setE(TimeUnit e) {
+            this.e = e;
+        }
+
     }
 
     private static final class B {